@@ -46,6 +46,14 @@ public class CsvFactory extends JsonFactory
     protected int _csvParserFeatures = DEFAULT_CSV_PARSER_FEATURE_FLAGS;
 
     protected int _csvGeneratorFeatures = DEFAULT_CSV_GENERATOR_FEATURE_FLAGS;
+
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     * Not serialized, since listeners are usually bound to the running process.
+     *
+     * @since 2.19
+     */
+    protected transient CsvMetrics _metrics;
     
     /*
     /**********************************************************************
@@ -76,6 +84,7 @@ public class CsvFactory extends JsonFactory
         _csvParserFeatures = src._csvParserFeatures;
         _csvGeneratorFeatures = src._csvGeneratorFeatures;
         _schema = src._schema;
+        _metrics = src._metrics;
     }
 
     /**
@@ -88,6 +97,7 @@ public class CsvFactory extends JsonFactory
         super(b, false);
         _csvParserFeatures = b.formatParserFeaturesMask();
         _csvGeneratorFeatures = b.formatGeneratorFeaturesMask();
+        _metrics = b.metrics();
     }
 
     @Override
@@ -276,6 +286,21 @@ public class CsvFactory extends JsonFactory
         return _csvGeneratorFeatures;
     }
 
+    /*
+    /**********************************************************
+    /* Configuration, other
+    /**********************************************************
+     */
+
+    /**
+     * Accessor for {@link CsvMetrics} listener configured, if any.
+     *
+     * @since 2.19
+     */
+    public CsvMetrics getMetrics() {
+        return _metrics;
+    }
+
     /*
     /**********************************************************
     /* Overridden parser factory methods, 2.1
@@ -386,14 +411,14 @@ public class CsvFactory extends JsonFactory
      */
     @Override
     protected CsvParser _createParser(InputStream in, IOContext ctxt) throws IOException {
-        return new CsvParserBootstrapper(ctxt, _objectCodec, in)
-            .constructParser(_parserFeatures, _csvParserFeatures);
+        return _initParser(new CsvParserBootstrapper(ctxt, _objectCodec, in)
+            .constructParser(_parserFeatures, _csvParserFeatures));
     }
 
     @Override
     protected CsvParser _createParser(byte[] data, int offset, int len, IOContext ctxt) throws IOException {
-        return new CsvParserBootstrapper(ctxt, _objectCodec, data, offset, len)
-               .constructParser(_parserFeatures, _csvParserFeatures);
+        return _initParser(new CsvParserBootstrapper(ctxt, _objectCodec, data, offset, len)
+               .constructParser(_parserFeatures, _csvParserFeatures));
     }
 
     /**
@@ -401,15 +426,15 @@ public class CsvFactory extends JsonFactory
      */
     @Override
     protected CsvParser _createParser(Reader r, IOContext ctxt) throws IOException {
-        return new CsvParser(ctxt, _parserFeatures, _csvParserFeatures,
-                _objectCodec, r);
+        return _initParser(new CsvParser(ctxt, _parserFeatures, _csvParserFeatures,
+                _objectCodec, r));
     }
 
     @Override
     protected CsvParser _createParser(char[] data, int offset, int len, IOContext ctxt,
             boolean recyclable) throws IOException {
-        return new CsvParser(ctxt, _parserFeatures, _csvParserFeatures,
-                _objectCodec, new CharArrayReader(data, offset, len));
+        return _initParser(new CsvParser(ctxt, _parserFeatures, _csvParserFeatures,
+                _objectCodec, new CharArrayReader(data, offset, len)));
     }
 
     @Override
@@ -444,9 +469,58 @@ public class CsvFactory extends JsonFactory
         // any other initializations? No?
 
         gen.setCharacterEscapes(CsvCharacterEscapes.fromCsvFeatures(_csvGeneratorFeatures));
+        if (_metrics != null) {
+            gen._writer.setMetrics(_metrics);
+        }
         return gen;
     }
 
+    /**
+     * Helper method called to complete configuration of a newly constructed
+     * parser.
+     *
+     * @since 2.19
+     */
+    protected CsvParser _initParser(CsvParser p)
+    {
+        if (_metrics != null) {
+            p._reader.setMetrics(_metrics);
+        }
+        return p;
+    }
+
+    /**
+     * Factory method used by {@link CsvParallelMappingIterator} for constructing
+     * parser to read a batch of raw records copied from content of given parser
+     * (see {@link com.fasterxml.jackson.dataformat.csv.impl.CsvDecoder#copyRawRecords}).
+     * Parser has the same features and schema as the source parser, except
+     * that records are not wrapped in an array and there is no header line
+     * (since it has already been read by the source parser); and it reports
+     * locations within the content of the source parser.
+     *<p>
+     * Called by threads binding values, so only accesses configuration of
+     * the source parser, which does not change once records are being read.
+     *
+     * @param src Parser content was copied from
+     * @param data Buffer with copied content
+     * @param len Length of copied content
+     * @param charOffset Offset of content within content of source parser
+     * @param row Row (line) content starts at within content of source parser
+     *
+     * @since 2.19
+     */
+    protected CsvParser _createRecordParser(CsvParser src, char[] data, int len,
+            long charOffset, int row) throws IOException
+    {
+        IOContext ctxt = _createContext(src._ioContext.contentReference(), true);
+        CsvParser p = _initParser(new CsvParser(ctxt, src.getFeatureMask(),
+                src.getFormatFeatures() & ~CsvParser.Feature.WRAP_AS_ARRAY.getMask(),
+                src.getCodec(), new CharArrayReader(data, 0, len)));
+        p.setSchema(src.getSchema().withoutHeader().withSkipFirstDataRow(false));
+        p._reader.setInputStart(charOffset, row);
+        return p;
+    }
+
     protected Reader _createReader(InputStream in, JsonEncoding enc, IOContext ctxt) throws IOException
     {
         // default to UTF-8 if encoding missing
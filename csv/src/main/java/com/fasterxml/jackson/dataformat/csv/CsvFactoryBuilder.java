@@ -27,6 +27,13 @@ public class CsvFactoryBuilder extends TSFBuilder<CsvFactory, CsvFactoryBuilder>
      */
     protected int _formatGeneratorFeatures;
 
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     *
+     * @since 2.19
+     */
+    protected CsvMetrics _metrics;
+
     /*
     /**********************************************************
     /* Life cycle
@@ -42,6 +49,7 @@ public class CsvFactoryBuilder extends TSFBuilder<CsvFactory, CsvFactoryBuilder>
         super(base);
         _formatParserFeatures = base._csvParserFeatures;
         _formatGeneratorFeatures = base._csvGeneratorFeatures;
+        _metrics = base._metrics;
     }
 
     // // // Parser features
@@ -108,11 +116,30 @@ public class CsvFactoryBuilder extends TSFBuilder<CsvFactory, CsvFactoryBuilder>
         return state ? enable(f) : disable(f);
     }
 
+    // // // Other configuration
+
+    /**
+     * Method for specifying {@link CsvMetrics} listener to notify of activity
+     * of parsers and generators constructed by factory; {@code null} to
+     * indicate none (default).
+     *
+     * @since 2.19
+     */
+    public CsvFactoryBuilder metrics(CsvMetrics metrics) {
+        _metrics = metrics;
+        return _this();
+    }
+
     // // // Accessors
 
     public int formatParserFeaturesMask() { return _formatParserFeatures; }
     public int formatGeneratorFeaturesMask() { return _formatGeneratorFeatures; }
 
+    /**
+     * @since 2.19
+     */
+    public CsvMetrics metrics() { return _metrics; }
+
     /**
      * @return Factory instance configured with builder configuration
      */
@@ -267,6 +267,17 @@ public class CsvGenerator extends GeneratorBase
      */
     protected SimpleTokenWriteContext _skipWithin;
 
+    /**
+     * Columns of {@link #_schema} in a hash table keyed by column name
+     * (using open addressing, with linear probing), built when schema is
+     * bound; used for finding columns for names that are not in schema order.
+     * Compared to {@link CsvSchema#column(String)} this avoids map entry
+     * indirection, and uses hash codes cached by {@link String}s.
+     *
+     * @since 2.19
+     */
+    protected CsvSchema.Column[] _columnTable;
+
     /*
     /**********************************************************
     /* Life-cycle
@@ -283,6 +294,7 @@ public class CsvGenerator extends GeneratorBase
         _streamWriteConstraints = ctxt.streamWriteConstraints();
         _formatFeatures = csvFeatures;
         _schema = schema;
+        _columnTable = _buildColumnTable(schema);
         boolean useFastDoubleWriter = isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER);
         _writer = new CsvEncoder(ctxt, csvFeatures, out, schema, useFastDoubleWriter);
         _writeContext = null; // just to make sure it won't be used
@@ -297,6 +309,7 @@ public class CsvGenerator extends GeneratorBase
         _streamWriteConstraints = ctxt.streamWriteConstraints();
         _formatFeatures = csvFeatures;
         _writer = csvWriter;
+        _columnTable = _buildColumnTable(_schema);
         _writeContext = null; // just to make sure it won't be used
         _tokenWriteContext = SimpleTokenWriteContext.createRootContext(null);
     }
@@ -363,6 +376,7 @@ public class CsvGenerator extends GeneratorBase
             if (_schema != schema) {
                 _schema = (CsvSchema) schema;
                 _writer = _writer.withSchema(_schema);
+                _columnTable = _buildColumnTable(_schema);
             }
         } else {
             super.setSchema(schema);
@@ -472,8 +486,7 @@ public class CsvGenerator extends GeneratorBase
             _nextColumnDecorator = null;
             return;
         }
-        // note: we are likely to get next column name, so pass it as hint
-        CsvSchema.Column col = _schema.column(name, _nextColumnByName+1);
+        final CsvSchema.Column col = _findColumn(name);
         if (col == null) {
             _nextColumnByName = -1;
             _nextColumnDecorator = null;
@@ -1134,6 +1147,66 @@ public class CsvGenerator extends GeneratorBase
         _nextColumnByName = -1;
     }
 
+    /**
+     * Helper method for finding column for given field name: usually the
+     * column following the previous one (as names are typically written in
+     * schema order), otherwise looked up from {@link #_columnTable}.
+     *
+     * @since 2.19
+     */
+    protected CsvSchema.Column _findColumn(String name)
+    {
+        final int next = _nextColumnByName+1;
+        if (next < _schema.size()) {
+            CsvSchema.Column col = _schema.column(next);
+            if (col.hasName(name)) {
+                return col;
+            }
+        }
+        final CsvSchema.Column[] table = _columnTable;
+        final int mask = table.length - 1;
+        int ix = name.hashCode() & mask;
+        CsvSchema.Column col;
+        while ((col = table[ix]) != null) {
+            if (col.hasName(name)) {
+                return col;
+            }
+            ix = (ix + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Helper method for building {@link #_columnTable} for given schema.
+     * Table is kept at most half full, so that probe sequences stay short
+     * and there is always an empty slot to end the lookup of unknown names.
+     *
+     * @since 2.19
+     */
+    protected static CsvSchema.Column[] _buildColumnTable(CsvSchema schema)
+    {
+        final int count = (schema == null) ? 0 : schema.size();
+        int size = 2;
+        while (size < (count << 1)) {
+            size <<= 1;
+        }
+        final CsvSchema.Column[] table = new CsvSchema.Column[size];
+        final int mask = size - 1;
+        for (int i = 0; i < count; ++i) {
+            final CsvSchema.Column col = schema.column(i);
+            int ix = col.getName().hashCode() & mask;
+            while (table[ix] != null) {
+                // same as with CsvSchema.column(String), last duplicate wins
+                if (table[ix].hasName(col.getName())) {
+                    break;
+                }
+                ix = (ix + 1) & mask;
+            }
+            table[ix] = col;
+        }
+        return table;
+    }
+
     protected void _handleFirstLine() throws IOException
     {
         _handleFirstLine = false;
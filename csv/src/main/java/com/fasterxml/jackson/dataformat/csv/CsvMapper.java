@@ -1,7 +1,12 @@
 package com.fasterxml.jackson.dataformat.csv;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
@@ -85,6 +90,28 @@ public class CsvMapper extends ObjectMapper
             }
             return this;
         }
+
+        /*
+        /******************************************************************
+        /* Pre-built schemas
+        /******************************************************************
+         */
+
+        /**
+         * @since 2.19
+         */
+        public Builder registerSchema(Class<?> pojoType, CsvSchema schema) {
+            _mapper.registerSchema(pojoType, null, schema);
+            return this;
+        }
+
+        /**
+         * @since 2.19
+         */
+        public Builder registerTypedSchema(Class<?> pojoType, CsvSchema schema) {
+            _mapper.registerTypedSchema(pojoType, null, schema);
+            return this;
+        }
     }
     /**
      * Simple class in order to create a map key based on {@link JavaType} and a given view.
@@ -144,6 +171,22 @@ public class CsvMapper extends ObjectMapper
      */
     protected final LRUMap<ViewKey,CsvSchema> _typedSchemas;
 
+    /**
+     * Schemas explicitly registered for "loose" (non-typed) schema lookups:
+     * these are used as-is, without introspection, and are never evicted.
+     *
+     * @since 2.19
+     */
+    protected final ConcurrentHashMap<ViewKey,CsvSchema> _registeredUntypedSchemas;
+
+    /**
+     * Schemas explicitly registered for typed schema lookups: these are used
+     * as-is, without introspection, and are never evicted.
+     *
+     * @since 2.19
+     */
+    protected final ConcurrentHashMap<ViewKey,CsvSchema> _registeredTypedSchemas;
+
     /*
     /**********************************************************************
     /* Life-cycle
@@ -162,6 +205,8 @@ public class CsvMapper extends ObjectMapper
         enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
         _untypedSchemas = new LRUMap<>(8,32);
         _typedSchemas = new LRUMap<>(8,32);
+        _registeredUntypedSchemas = new ConcurrentHashMap<>();
+        _registeredTypedSchemas = new ConcurrentHashMap<>();
     }
 
     /**
@@ -176,6 +221,9 @@ public class CsvMapper extends ObjectMapper
         super(src);
         _untypedSchemas = new LRUMap<>(8,32);
         _typedSchemas = new LRUMap<>(8,32);
+        // registered schemas are configuration, not cached state, so retain
+        _registeredUntypedSchemas = new ConcurrentHashMap<>(src._registeredUntypedSchemas);
+        _registeredTypedSchemas = new ConcurrentHashMap<>(src._registeredTypedSchemas);
     }
 
     /**
@@ -248,6 +296,70 @@ public class CsvMapper extends ObjectMapper
         return this;
     }
 
+    /**
+     * Method for registering a pre-built "loose" (non-typed) schema to return
+     * from {@link #schemaFor} (or {@link #schemaForWithView} if {@code view}
+     * is not {@code null}) for given POJO type, instead of introspecting
+     * the type. This is useful for avoiding the cost of introspection at
+     * startup, when schemas are built ahead of time (for example, at build time
+     * using {@link CsvSchemaGenerator}, or by deserializing schemas produced earlier).
+     *<p>
+     * NOTE: no verification is made when registering to check that the schema
+     * matches one introspection would produce; {@link #verifyRegisteredSchemas()}
+     * may be used for that.
+     *
+     * @param pojoType Type for which schema is registered
+     * @param view View for which schema is registered, if any; {@code null} for
+     *    lookups without view
+     * @param schema Schema to use for specified type and view
+     *
+     * @since 2.19
+     */
+    public CsvMapper registerSchema(Class<?> pojoType, Class<?> view, CsvSchema schema) {
+        _registeredUntypedSchemas.put(new ViewKey(constructType(pojoType), view),
+                Objects.requireNonNull(schema));
+        return this;
+    }
+
+    /**
+     * Method for registering a pre-built typed schema to return
+     * from {@link #typedSchemaFor} (or {@link #typedSchemaForWithView} if
+     * {@code view} is not {@code null}) for given POJO type,
+     * instead of introspecting the type.
+     * See {@link #registerSchema} for details.
+     *
+     * @since 2.19
+     */
+    public CsvMapper registerTypedSchema(Class<?> pojoType, Class<?> view, CsvSchema schema) {
+        _registeredTypedSchemas.put(new ViewKey(constructType(pojoType), view),
+                Objects.requireNonNull(schema));
+        return this;
+    }
+
+    /**
+     * Method for verifying that all schemas registered with
+     * {@link #registerSchema} and {@link #registerTypedSchema} are equal to
+     * ones this mapper would construct using introspection (as per
+     * {@link #schemaForWithView} and {@link #typedSchemaForWithView}).
+     * Intended to be called from tests, to catch pre-built schemas that
+     * have gone stale after changes to the POJO types.
+     *
+     * @throws IllegalStateException if one or more registered schemas differ
+     *   from introspected ones; message describes all differences
+     *
+     * @since 2.19
+     */
+    public CsvMapper verifyRegisteredSchemas() {
+        List<String> problems = new ArrayList<>();
+        _verifyRegisteredSchemas(_registeredUntypedSchemas, false, problems);
+        _verifyRegisteredSchemas(_registeredTypedSchemas, true, problems);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException(problems.size()+" registered schema(s) differ from introspected ones: "
+                    +String.join("; ", problems));
+        }
+        return this;
+    }
+
     /*
     /**********************************************************************
     /* Additional typed accessors
@@ -472,16 +584,96 @@ public class CsvMapper extends ObjectMapper
             boolean typed, Class<?> view)
     {
         final ViewKey viewKey = new ViewKey(pojoType, view);
-        CsvSchema s = schemas.get(viewKey);
+        // Pre-built ones first, if any
+        final CsvMetrics metrics = getFactory().getMetrics();
+        CsvSchema s = (typed ? _registeredTypedSchemas : _registeredUntypedSchemas).get(viewKey);
+        if (s == null) {
+            s = schemas.get(viewKey);
+        }
         if (s != null) {
+            if (metrics != null) {
+                metrics.schemaResolved(true);
+            }
             return s;
         }
+        CsvSchema result = _introspectSchema(pojoType, typed, view);
+        schemas.put(viewKey, result);
+        if (metrics != null) {
+            metrics.schemaResolved(false);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method that constructs schema for given type using introspection,
+     * without considering registered or cached schemas.
+     *
+     * @since 2.19
+     */
+    protected CsvSchema _introspectSchema(JavaType pojoType, boolean typed, Class<?> view)
+    {
         final AnnotationIntrospector intr = _deserializationConfig.getAnnotationIntrospector();
         CsvSchema.Builder builder = CsvSchema.builder();
         _addSchemaProperties(builder, intr, typed, pojoType, null, view);
-        CsvSchema result = builder.build();
-        schemas.put(viewKey, result);
-        return result;
+        return builder.build();
+    }
+
+    protected void _verifyRegisteredSchemas(Map<ViewKey,CsvSchema> registered, boolean typed,
+            List<String> problems)
+    {
+        for (Map.Entry<ViewKey,CsvSchema> entry : registered.entrySet()) {
+            final ViewKey key = entry.getKey();
+            String diff = _schemaDifference(_introspectSchema(key._pojoType, typed, key._view),
+                    entry.getValue());
+            if (diff != null) {
+                problems.add(String.format("%s schema for %s differs from introspected one: %s",
+                        typed ? "typed" : "untyped", key, diff));
+            }
+        }
+    }
+
+    /**
+     * Helper method for finding the first difference between two schemas;
+     * returns {@code null} if schemas are equal.
+     */
+    protected static String _schemaDifference(CsvSchema expected, CsvSchema actual)
+    {
+        if (expected.size() != actual.size()) {
+            return "expected "+expected.size()+" columns, got "+actual.size()
+                +" (expected "+expected+", got "+actual+")";
+        }
+        for (int i = 0, end = expected.size(); i < end; ++i) {
+            CsvSchema.Column exp = expected.column(i);
+            CsvSchema.Column act = actual.column(i);
+            if (!exp.getName().equals(act.getName())
+                    || exp.getType() != act.getType()
+                    || !Objects.equals(exp.getArrayElementSeparator(), act.getArrayElementSeparator())
+                    || !Objects.equals(exp.getValueDecorator(), act.getValueDecorator())) {
+                return "column #"+i+" differs: expected "+_columnDesc(exp)+", got "+_columnDesc(act);
+            }
+        }
+        if (expected.usesHeader() != actual.usesHeader()
+                || expected.reordersColumns() != actual.reordersColumns()
+                || expected.skipsFirstDataRow() != actual.skipsFirstDataRow()
+                || expected.allowsComments() != actual.allowsComments()
+                || expected.strictHeaders() != actual.strictHeaders()) {
+            return "features differ (expected "+expected+", got "+actual+")";
+        }
+        if (expected.getColumnSeparator() != actual.getColumnSeparator()
+                || !expected.getArrayElementSeparator().equals(actual.getArrayElementSeparator())
+                || expected.getQuoteChar() != actual.getQuoteChar()
+                || expected.getEscapeChar() != actual.getEscapeChar()
+                || !Arrays.equals(expected.getLineSeparator(), actual.getLineSeparator())
+                || !Arrays.equals(expected.getNullValue(), actual.getNullValue())
+                || !Objects.equals(expected.getAnyPropertyName(), actual.getAnyPropertyName())) {
+            return "separators, quoting or null value settings differ";
+        }
+        return null;
+    }
+
+    private static String _columnDesc(CsvSchema.Column col) {
+        return "'"+col.getName()+"' ("+col.getType()+", array element separator '"
+                +col.getArrayElementSeparator()+"', value decorator "+col.getValueDecorator()+")";
     }
 
     @Deprecated // since 2.11 (remove from 3.0 at latest)
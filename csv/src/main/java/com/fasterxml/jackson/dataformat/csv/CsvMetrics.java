@@ -0,0 +1,150 @@
+package com.fasterxml.jackson.dataformat.csv;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener interface for monitoring CSV processing, configured for a
+ * {@link CsvFactory} with {@link CsvFactoryBuilder#metrics(CsvMetrics)}:
+ * {@link CsvParser}s, {@link CsvGenerator}s and {@link CsvMapper}s
+ * using the factory report to it.
+ *<p>
+ * Parser events follow the physical structure of CSV input: each refill of
+ * the input buffer, each data row, and each column value along with whether
+ * it was quoted, so counts can be compared with the number of columns a
+ * schema expects. Generators report each completed row and each write of
+ * their buffer, and {@link CsvMapper} reports whether schemas come from its
+ * cache, which tells if the cache is large enough for the set of types used.
+ * Mappers and parsers on different threads all report to the same listener
+ * of their factory.
+ *<p>
+ * Default implementations of all methods do nothing; {@link Counters}
+ * keeps cumulative counts using {@link LongAdder}s.
+ *
+ * @since 2.19
+ */
+public interface CsvMetrics
+{
+    /**
+     * Method called when input buffer of a parser has been (re)filled
+     * with more content from the underlying source.
+     *
+     * @param charCount Number of characters read
+     */
+    default void inputLoaded(int charCount) { }
+
+    /**
+     * Method called when a parser has reached the end of a data row
+     * (header line, if any, is not included).
+     */
+    default void rowRead() { }
+
+    /**
+     * Method called when a parser starts reading a column value
+     * (including column names of header line, if any).
+     *
+     * @param quoted Whether value is quoted or not
+     */
+    default void valueRead(boolean quoted) { }
+
+    /**
+     * Method called when a generator has completed writing a row
+     * (including header line, if any).
+     */
+    default void rowWritten() { }
+
+    /**
+     * Method called when a generator flushes its buffered output to the
+     * underlying {@link java.io.Writer}.
+     *
+     * @param charCount Number of characters written
+     */
+    default void outputFlushed(int charCount) { }
+
+    /**
+     * Method called when {@link CsvMapper} has resolved {@link CsvSchema}
+     * for a POJO type (via {@code schemaFor()} or {@code typedSchemaFor()}).
+     *
+     * @param cached {@code true} if schema was found from cache (or was
+     *    registered), {@code false} if it had to be introspected
+     */
+    default void schemaResolved(boolean cached) { }
+
+    /**
+     * Simple {@link CsvMetrics} implementation that just keeps track of
+     * cumulative counts.
+     */
+    public static class Counters implements CsvMetrics
+    {
+        protected final LongAdder _inputLoads = new LongAdder();
+        protected final LongAdder _charsRead = new LongAdder();
+        protected final LongAdder _rowsRead = new LongAdder();
+        protected final LongAdder _quotedValuesRead = new LongAdder();
+        protected final LongAdder _unquotedValuesRead = new LongAdder();
+        protected final LongAdder _rowsWritten = new LongAdder();
+        protected final LongAdder _outputFlushes = new LongAdder();
+        protected final LongAdder _charsWritten = new LongAdder();
+        protected final LongAdder _schemaCacheHits = new LongAdder();
+        protected final LongAdder _schemaCacheMisses = new LongAdder();
+
+        @Override
+        public void inputLoaded(int charCount) {
+            _inputLoads.increment();
+            _charsRead.add(charCount);
+        }
+
+        @Override
+        public void rowRead() {
+            _rowsRead.increment();
+        }
+
+        @Override
+        public void valueRead(boolean quoted) {
+            if (quoted) {
+                _quotedValuesRead.increment();
+            } else {
+                _unquotedValuesRead.increment();
+            }
+        }
+
+        @Override
+        public void rowWritten() {
+            _rowsWritten.increment();
+        }
+
+        @Override
+        public void outputFlushed(int charCount) {
+            _outputFlushes.increment();
+            _charsWritten.add(charCount);
+        }
+
+        @Override
+        public void schemaResolved(boolean cached) {
+            if (cached) {
+                _schemaCacheHits.increment();
+            } else {
+                _schemaCacheMisses.increment();
+            }
+        }
+
+        public long getInputLoads() { return _inputLoads.sum(); }
+        public long getCharsRead() { return _charsRead.sum(); }
+        public long getRowsRead() { return _rowsRead.sum(); }
+        public long getQuotedValuesRead() { return _quotedValuesRead.sum(); }
+        public long getUnquotedValuesRead() { return _unquotedValuesRead.sum(); }
+        public long getRowsWritten() { return _rowsWritten.sum(); }
+        public long getOutputFlushes() { return _outputFlushes.sum(); }
+        public long getCharsWritten() { return _charsWritten.sum(); }
+        public long getSchemaCacheHits() { return _schemaCacheHits.sum(); }
+        public long getSchemaCacheMisses() { return _schemaCacheMisses.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format(
+"[CsvMetrics.Counters: input loads=%d (%d chars), rows read=%d, values read=%d quoted/%d unquoted; rows written=%d, output flushes=%d (%d chars); schema cache hits=%d, misses=%d]",
+                    getInputLoads(), getCharsRead(), getRowsRead(),
+                    getQuotedValuesRead(), getUnquotedValuesRead(),
+                    getRowsWritten(), getOutputFlushes(), getCharsWritten(),
+                    getSchemaCacheHits(), getSchemaCacheMisses());
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package com.fasterxml.jackson.dataformat.csv;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.*;
+
+/**
+ * Alternative to {@link MappingIterator} for reading sequences of CSV rows,
+ * in which reading of input and decoding of rows are decoupled: raw content
+ * of rows is copied (using the thread that iterates over values) into batches,
+ * only considering quoting and escaping to find where rows end; and each batch
+ * is then decoded and bound into values using given {@link Executor}, by
+ * a {@link CsvParser} with the same schema and features as the parser input
+ * is read with, allowing multiple batches to proceed in parallel.
+ * Values are still returned in the order rows appear in input; and the number
+ * of batches being bound (or waiting to be consumed) is bounded, so that
+ * reading will not proceed too far ahead of the caller. Buffers of batches
+ * are reused once their values have been consumed.
+ *<p>
+ * Errors are reported at the same point in sequence as with {@link MappingIterator},
+ * with locations within the input: values bound before a failing row are returned
+ * first, the failure is thrown from {@link #nextValue}, and for binding failures
+ * iteration may continue with the following rows. Failures to read or decode
+ * input end iteration.
+ *<p>
+ * This is useful mostly when decoding and binding rows is considerably more
+ * expensive than finding them, for example when values have custom deserializers.
+ *<p>
+ * Typical usage:
+ *<pre>
+ *  CsvMapper mapper = new CsvMapper();
+ *  ObjectReader r = mapper.readerFor(Pojo.class)
+ *      .with(mapper.schemaFor(Pojo.class).withHeader());
+ *  try (CsvParallelMappingIterator&lt;Pojo&gt; it = CsvParallelMappingIterator.readValues(r, input, executor)) {
+ *      while (it.hasNextValue()) {
+ *          Pojo value = it.nextValue();
+ *          // ...
+ *      }
+ *  }
+ *</pre>
+ *
+ * @since 2.19
+ */
+public class CsvParallelMappingIterator<T>
+    implements Iterator<T>, Closeable
+{
+    /**
+     * Default number of rows to read into a single batch.
+     */
+    public final static int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Default maximum number of batches to have in progress at any given
+     * point.
+     */
+    public final static int DEFAULT_MAX_PENDING_BATCHES = 2 * Runtime.getRuntime().availableProcessors();
+
+    /*
+    /**********************************************************************
+    /* Configuration
+    /**********************************************************************
+     */
+
+    /**
+     * Reader used for binding values.
+     */
+    protected final ObjectReader _valueReader;
+
+    /**
+     * Factory used for constructing parsers for batches
+     */
+    protected final CsvFactory _factory;
+
+    /**
+     * Parser used for reading input, accessed only by the thread iterating
+     * over values (except for its configuration).
+     */
+    protected final CsvParser _parser;
+
+    /**
+     * Flag that indicates whether {@link #_parser} should be closed when
+     * this iterator is closed.
+     */
+    protected final boolean _closeParser;
+
+    protected final Executor _executor;
+
+    protected final int _batchSize;
+
+    protected final int _maxPendingBatches;
+
+    /*
+    /**********************************************************************
+    /* State
+    /**********************************************************************
+     */
+
+    /**
+     * Batches submitted for binding, in input order.
+     */
+    protected final ArrayDeque<Batch> _pending;
+
+    /**
+     * Batches whose values have been consumed, to reuse.
+     */
+    protected final ArrayDeque<Batch> _freeBatches;
+
+    /**
+     * Results of the batch currently being iterated over, if any:
+     * either bound values or {@link Failure}s, in input order.
+     */
+    protected List<Object> _currentBatch;
+
+    protected int _currentIndex;
+
+    /**
+     * Flag set once all the input has been read into batches.
+     */
+    protected boolean _inputDone;
+
+    /**
+     * Flag set once header line (if any) has been read
+     */
+    protected boolean _started;
+
+    protected boolean _closed;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    /**
+     * @param valueReader Reader to use for binding values
+     * @param p Parser to read rows from: must be a {@link CsvParser} (usually
+     *    constructed using {@code valueReader}, so that schema is assigned)
+     *    that has not yet been read from
+     * @param managedParser Whether parser should be closed when this
+     *    iterator is closed
+     * @param executor Executor to use for binding batches of values
+     * @param batchSize Maximum number of rows to read into a single batch
+     * @param maxPendingBatches Maximum number of batches to have in progress
+     *    (either being bound, or waiting to be consumed)
+     */
+    public CsvParallelMappingIterator(ObjectReader valueReader, JsonParser p,
+            boolean managedParser, Executor executor,
+            int batchSize, int maxPendingBatches)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batchSize ("+batchSize+"): must be at least 1");
+        }
+        if (maxPendingBatches < 1) {
+            throw new IllegalArgumentException("Invalid maxPendingBatches ("+maxPendingBatches+"): must be at least 1");
+        }
+        _valueReader = Objects.requireNonNull(valueReader, "valueReader");
+        _factory = _csvFactory(valueReader);
+        if (!(p instanceof CsvParser)) {
+            throw new IllegalArgumentException("Parser must be a `CsvParser`, not "
+                    +((p == null) ? "null" : p.getClass().getName()));
+        }
+        _parser = (CsvParser) p;
+        _closeParser = managedParser;
+        _executor = Objects.requireNonNull(executor, "executor");
+        _batchSize = batchSize;
+        _maxPendingBatches = maxPendingBatches;
+        _pending = new ArrayDeque<>(maxPendingBatches);
+        _freeBatches = new ArrayDeque<>(maxPendingBatches);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings.
+     *
+     * @param valueReader Reader to use for creating parser and binding values;
+     *    should have {@link CsvSchema} to use configured.
+     */
+    public static <T> CsvParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            Reader src, Executor executor) throws IOException
+    {
+        return new CsvParallelMappingIterator<T>(valueReader, valueReader.createParser(src),
+                true, executor, DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings.
+     *
+     * @param valueReader Reader to use for creating parser and binding values;
+     *    should have {@link CsvSchema} to use configured.
+     */
+    public static <T> CsvParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            InputStream src, Executor executor) throws IOException
+    {
+        return new CsvParallelMappingIterator<T>(valueReader, valueReader.createParser(src),
+                true, executor, DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings.
+     *
+     * @param valueReader Reader to use for creating parser and binding values;
+     *    should have {@link CsvSchema} to use configured.
+     */
+    public static <T> CsvParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            String src, Executor executor) throws IOException
+    {
+        return new CsvParallelMappingIterator<T>(valueReader, valueReader.createParser(src),
+                true, executor, DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /*
+    /**********************************************************************
+    /* Iterator/Closeable implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public boolean hasNext()
+    {
+        try {
+            return hasNextValue();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T next()
+    {
+        try {
+            return nextValue();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Method for closing the iterator: will cancel any batches not yet
+     * consumed and close the underlying parser, if it is managed by
+     * this iterator.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            _inputDone = true;
+            _currentBatch = null;
+            Batch batch;
+            while ((batch = _pending.poll()) != null) {
+                batch.result.cancel(false);
+            }
+            if (_closeParser) {
+                _parser.close();
+            }
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Equivalent of {@link #hasNext} but one that may throw checked
+     * exceptions from Jackson due to invalid input.
+     */
+    public boolean hasNextValue() throws IOException
+    {
+        while (true) {
+            if (_currentBatch != null) {
+                if (_currentIndex < _currentBatch.size()) {
+                    return true;
+                }
+                _currentBatch = null;
+            }
+            if (_closed) {
+                return false;
+            }
+            _fillPipeline();
+            Batch batch = _pending.poll();
+            if (batch == null) {
+                return false;
+            }
+            // read more while waiting for the oldest batch to be bound
+            _fillPipeline();
+            _currentBatch = _await(batch.result);
+            _currentIndex = 0;
+            // binding done, so content no longer needed
+            batch.reset();
+            _freeBatches.add(batch);
+        }
+    }
+
+    /**
+     * Equivalent of {@link #next} but one that may throw checked
+     * exceptions from Jackson due to invalid input.
+     */
+    @SuppressWarnings("unchecked")
+    public T nextValue() throws IOException
+    {
+        if (!hasNextValue()) {
+            throw new NoSuchElementException();
+        }
+        Object result = _currentBatch.get(_currentIndex++);
+        if (result instanceof Failure) {
+            Failure failure = (Failure) result;
+            if (failure.fatal) {
+                // values of rows after failure (if any) are not to be returned
+                _currentBatch = null;
+                _inputDone = true;
+                Batch batch;
+                while ((batch = _pending.poll()) != null) {
+                    batch.result.cancel(false);
+                }
+            }
+            return _rethrow(failure.error);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Convenience method for reading all remaining values into given
+     * {@link List}.
+     */
+    public List<T> readAll() throws IOException {
+        return readAll(new ArrayList<T>());
+    }
+
+    /**
+     * Convenience method for reading all remaining values into given
+     * {@link Collection}.
+     */
+    public <C extends Collection<? super T>> C readAll(C resultList) throws IOException
+    {
+        while (hasNextValue()) {
+            resultList.add(nextValue());
+        }
+        return resultList;
+    }
+
+    /**
+     * Method for exposing remaining values as a sequential {@link Stream};
+     * closing the stream will close this iterator.
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    /**
+     * Method that reads and submits batches until either the maximum number
+     * of pending batches is reached, or input is exhausted.
+     * Read failures are not thrown but submitted (after rows read before
+     * failure) to be reported in order.
+     */
+    protected void _fillPipeline() throws IOException
+    {
+        while (!_inputDone && (_pending.size() < _maxPendingBatches)) {
+            Batch batch = _freeBatches.poll();
+            if (batch == null) {
+                batch = new Batch();
+            }
+            try {
+                if (!_started) {
+                    _started = true;
+                    _parser._skipToFirstRecord();
+                    // parsers of batches report rows and values instead
+                    _parser._reader.setMetrics(null);
+                }
+                batch.charOffset = _parser._reader.getCurrentCharOffset();
+                batch.row = _parser._reader.getCurrentRow();
+                batch.rowCount = _parser._reader.copyRawRecords(batch, _batchSize);
+                if (batch.rowCount < _batchSize) {
+                    _inputDone = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                _inputDone = true;
+                batch.readError = e;
+            }
+            if ((batch.rowCount == 0) && (batch.readError == null)) {
+                _freeBatches.add(batch);
+                break;
+            }
+            final Batch toBind = batch;
+            batch.result = new FutureTask<>(() -> _bindBatch(toBind));
+            // must not queue tasks that were not accepted, to be waited for
+            _executor.execute(batch.result);
+            _pending.add(batch);
+        }
+    }
+
+    /**
+     * Method called (by a thread of {@link #_executor}) to bind values
+     * from a batch of raw rows, row by row: failure to bind a row is
+     * recorded in its place as a {@link Failure}, and binding continues
+     * with the following rows, unless content could not be decoded.
+     */
+    protected List<Object> _bindBatch(Batch batch)
+    {
+        List<Object> result = new ArrayList<>(batch.rowCount + 1);
+        if (batch.rowCount > 0) {
+            try (JsonParser p = _factory._createRecordParser(_parser, batch.buffer(), batch.size(),
+                    batch.charOffset, batch.row)) {
+                MappingIterator<T> it = _valueReader.readValues(p);
+                while (it.hasNextValue()) {
+                    try {
+                        result.add(it.nextValue());
+                    } catch (IOException | RuntimeException e) {
+                        // binding failures are specific to row, but decoding ones not
+                        boolean fatal = (e instanceof IOException)
+                                && !(e instanceof JsonMappingException);
+                        result.add(new Failure(e, fatal));
+                        if (fatal) {
+                            return result;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                result.add(new Failure(e, true));
+                return result;
+            }
+        }
+        if (batch.readError != null) {
+            result.add(new Failure(batch.readError, true));
+        }
+        return result;
+    }
+
+    protected List<Object> _await(Future<List<Object>> f) throws IOException
+    {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for values to be bound");
+            ioe.initCause(e);
+            throw ioe;
+        } catch (ExecutionException e) {
+            return _rethrow(e.getCause());
+        }
+    }
+
+    protected <R> R _rethrow(Throwable t) throws IOException
+    {
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new RuntimeException(t);
+    }
+
+    protected static CsvFactory _csvFactory(ObjectReader valueReader)
+    {
+        if (!(valueReader.getFactory() instanceof CsvFactory)) {
+            throw new IllegalArgumentException("ObjectReader must use `CsvFactory`, not "
+                    +valueReader.getFactory().getClass().getName());
+        }
+        return (CsvFactory) valueReader.getFactory();
+    }
+
+    /**
+     * Raw content of a batch of rows, along with its location within input,
+     * and results of binding it.
+     */
+    protected static final class Batch extends CharArrayWriter
+    {
+        public long charOffset;
+
+        public int row;
+
+        public int rowCount;
+
+        /**
+         * Failure to read input after the rows of this batch, if any
+         */
+        public Throwable readError;
+
+        public FutureTask<List<Object>> result;
+
+        public Batch() {
+            super(4000);
+        }
+
+        public char[] buffer() {
+            return buf;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            rowCount = 0;
+            readError = null;
+            result = null;
+        }
+    }
+
+    /**
+     * Placeholder for a value that could not be read or bound.
+     */
+    protected static final class Failure
+    {
+        public final Throwable error;
+
+        /**
+         * Whether failure ends iteration (that is, is not specific to a row)
+         */
+        public final boolean fatal;
+
+        public Failure(Throwable error, boolean fatal) {
+            this.error = error;
+            this.fatal = fatal;
+        }
+    }
+}
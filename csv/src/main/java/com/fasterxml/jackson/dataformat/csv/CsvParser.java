@@ -971,18 +971,7 @@ public class CsvParser
      */
     protected JsonToken _handleStartDoc() throws IOException
     {
-        // also, if comments enabled, or skip empty lines, may need to skip leading ones
-        _reader.skipLinesWhenNeeded();
-        // First things first: are we expecting header line? If so, read, process
-        if (_schema.usesHeader()) {
-            _readHeaderLine();
-            _reader.skipLinesWhenNeeded();
-        }
-        // and if we are to skip the first data line, skip it
-        if (_schema.skipsFirstDataRow()) {
-            _reader.skipLine();
-            _reader.skipLinesWhenNeeded();
-        }
+        _skipToFirstRecord();
 
         // Only one real complication, actually; empty documents (zero bytes).
         // Those have no entries. Should be easy enough to detect like so:
@@ -1006,6 +995,29 @@ public class CsvParser
         return _handleRecordStart();
     }
 
+    /**
+     * Method called to process the header line and skip the first data row,
+     * if schema so indicates, as well as leading blank and comment lines, if
+     * they are to be skipped.
+     *
+     * @since 2.19
+     */
+    protected void _skipToFirstRecord() throws IOException
+    {
+        // also, if comments enabled, or skip empty lines, may need to skip leading ones
+        _reader.skipLinesWhenNeeded();
+        // First things first: are we expecting header line? If so, read, process
+        if (_schema.usesHeader()) {
+            _readHeaderLine();
+            _reader.skipLinesWhenNeeded();
+        }
+        // and if we are to skip the first data line, skip it
+        if (_schema.skipsFirstDataRow()) {
+            _reader.skipLine();
+            _reader.skipLinesWhenNeeded();
+        }
+    }
+
     protected JsonToken _handleRecordStart() throws IOException
     {
         _columnIndex = 0;
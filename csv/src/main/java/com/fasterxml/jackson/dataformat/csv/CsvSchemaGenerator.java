@@ -0,0 +1,182 @@
+package com.fasterxml.jackson.dataformat.csv;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tool for generating Java source code of a class that registers
+ * {@link CsvSchema}s for given POJO types with a {@link CsvMapper}
+ * (using {@link CsvMapper#registerSchema} and {@link CsvMapper#registerTypedSchema}),
+ * so that schemas need not be introspected when the application starts.
+ * Schemas are produced by {@link CsvMapper#schemaFor} and
+ * {@link CsvMapper#typedSchemaFor} of the mapper generator is constructed with,
+ * so they are equal to ones introspection would produce at runtime, as long as
+ * mapper is configured the same way and POJO types have not changed since:
+ * {@link CsvMapper#verifyRegisteredSchemas()} can be called from a test to
+ * catch the latter.
+ *<p>
+ * Generated class has a single method, {@code registerSchemas(CsvMapper)},
+ * to call with the mapper to use:
+ *<pre>
+ *  CsvMapper mapper = GeneratedCsvSchemas.registerSchemas(new CsvMapper());
+ *</pre>
+ * Note that POJO types must be accessible from the package of generated class.
+ *<p>
+ * Generator can be run from command line, or from build, using {@link #main};
+ * for example with Maven, by running it with {@code exec-maven-plugin}
+ * (goal {@code java}) in {@code process-classes} phase, once POJO types have
+ * been compiled, and then compiling generated source with another execution
+ * of {@code maven-compiler-plugin}:
+ *<pre>
+ *  &lt;plugin&gt;
+ *    &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *    &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *    &lt;executions&gt;
+ *      &lt;execution&gt;
+ *        &lt;id&gt;generate-csv-schemas&lt;/id&gt;
+ *        &lt;phase&gt;process-classes&lt;/phase&gt;
+ *        &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *        &lt;configuration&gt;
+ *          &lt;mainClass&gt;com.fasterxml.jackson.dataformat.csv.CsvSchemaGenerator&lt;/mainClass&gt;
+ *          &lt;arguments&gt;
+ *            &lt;argument&gt;${project.build.directory}/generated-sources/csv-schemas&lt;/argument&gt;
+ *            &lt;argument&gt;com.example.GeneratedCsvSchemas&lt;/argument&gt;
+ *            &lt;argument&gt;com.example.Order&lt;/argument&gt;
+ *            &lt;argument&gt;com.example.Customer&lt;/argument&gt;
+ *          &lt;/arguments&gt;
+ *        &lt;/configuration&gt;
+ *      &lt;/execution&gt;
+ *    &lt;/executions&gt;
+ *  &lt;/plugin&gt;
+ *</pre>
+ * When run using {@link #main}, a default {@link CsvMapper} is used; if the
+ * mapper used at runtime has a different configuration (like a naming strategy
+ * or mix-ins), use {@link #CsvSchemaGenerator(CsvMapper)} from custom code
+ * instead.
+ *
+ * @since 2.19
+ */
+public class CsvSchemaGenerator
+{
+    protected final CsvMapper _mapper;
+
+    public CsvSchemaGenerator() {
+        this(new CsvMapper());
+    }
+
+    /**
+     * @param mapper Mapper to use for introspecting schemas: should be configured
+     *    the same way as the mapper schemas are to be registered with
+     */
+    public CsvSchemaGenerator(CsvMapper mapper) {
+        _mapper = mapper;
+    }
+
+    /**
+     * Command line entry point; arguments are the output directory (root of
+     * source tree), fully-qualified name of the class to generate, and
+     * fully-qualified names of POJO types to generate schemas for.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 3) {
+            System.err.println("Usage: java "+CsvSchemaGenerator.class.getName()
+                    +" <output directory> <generated class name> <POJO class name>...");
+            System.exit(1);
+        }
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<Class<?>> types = new ArrayList<>();
+        for (int i = 2; i < args.length; ++i) {
+            types.add(Class.forName(args[i], false, loader));
+        }
+        File f = new CsvSchemaGenerator().generate(new File(args[0]), args[1], types);
+        System.out.println("Generated CSV schemas for "+types.size()+" type(s) into "+f);
+    }
+
+    /**
+     * Method for generating source file for class with given name, under given
+     * source root directory (creating package directories as necessary).
+     *
+     * @return Source file written
+     */
+    public File generate(File sourceRoot, String className, List<Class<?>> types)
+        throws IOException
+    {
+        File dir = sourceRoot;
+        final int ix = className.lastIndexOf('.');
+        if (ix > 0) {
+            dir = new File(sourceRoot, className.substring(0, ix).replace('.', File.separatorChar));
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory "+dir);
+        }
+        File f = new File(dir, className.substring(ix+1)+".java");
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)) {
+            generate(w, className, types);
+        }
+        return f;
+    }
+
+    /**
+     * Method for writing source of class with given (fully-qualified) name,
+     * registering both untyped and typed schema for each of given types.
+     */
+    public void generate(Writer w, String className, List<Class<?>> types)
+        throws IOException
+    {
+        final int ix = className.lastIndexOf('.');
+        final String simpleName = className.substring(ix+1);
+        StringBuilder sb = new StringBuilder(1000);
+        sb.append("// Generated by ").append(getClass().getName()).append(": do not edit\n");
+        if (ix > 0) {
+            sb.append("package ").append(className, 0, ix).append(";\n\n");
+        }
+        sb.append("import com.fasterxml.jackson.dataformat.csv.CsvMapper;\n")
+            .append("import com.fasterxml.jackson.dataformat.csv.CsvSchema;\n\n")
+            .append("public final class ").append(simpleName).append("\n{\n")
+            .append("    private ").append(simpleName).append("() { }\n\n")
+            .append("    public static CsvMapper registerSchemas(CsvMapper mapper)\n    {\n");
+        for (Class<?> type : types) {
+            final String typeName = type.getCanonicalName();
+            if (typeName == null) {
+                throw new IllegalArgumentException("Can not refer to type "+type.getName()
+                        +" from generated code (local or anonymous class)");
+            }
+            _appendRegistration(sb, "registerSchema", typeName, _mapper.schemaFor(type));
+            _appendRegistration(sb, "registerTypedSchema", typeName, _mapper.typedSchemaFor(type));
+        }
+        sb.append("        return mapper;\n    }\n}\n");
+        w.write(sb.toString());
+    }
+
+    protected void _appendRegistration(StringBuilder sb, String method, String typeName,
+            CsvSchema schema)
+    {
+        sb.append("        mapper.").append(method).append('(').append(typeName)
+            .append(".class, null, CsvSchema.builder()\n");
+        for (CsvSchema.Column col : schema) {
+            sb.append("                .addColumn(");
+            _appendStringLiteral(sb, col.getName());
+            sb.append(", CsvSchema.ColumnType.").append(col.getType().name()).append(")\n");
+        }
+        sb.append("                .build());\n");
+    }
+
+    protected void _appendStringLiteral(StringBuilder sb, String str)
+    {
+        sb.append('"');
+        for (int i = 0, end = str.length(); i < end; ++i) {
+            final char c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
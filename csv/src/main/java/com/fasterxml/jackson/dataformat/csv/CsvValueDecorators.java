@@ -114,5 +114,19 @@ public class CsvValueDecorators
             }
             return decoratedValue.substring(start, end);
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (o == null || o.getClass() != getClass()) return false;
+            StringPrefixSuffixDecorator other = (StringPrefixSuffixDecorator) o;
+            return _prefix.equals(other._prefix) && _suffix.equals(other._suffix)
+                    && (_optional == other._optional);
+        }
+
+        @Override
+        public int hashCode() {
+            return _prefix.hashCode() * 31 + _suffix.hashCode() + (_optional ? 1 : 0);
+        }
     }
 }
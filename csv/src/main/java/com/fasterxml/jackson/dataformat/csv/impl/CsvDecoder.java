@@ -10,6 +10,7 @@ import com.fasterxml.jackson.core.io.NumberInput;
 import com.fasterxml.jackson.core.json.JsonReadContext;
 import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.core.util.TextBuffer;
+import com.fasterxml.jackson.dataformat.csv.CsvMetrics;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
@@ -24,6 +25,18 @@ public class CsvDecoder
     private final static int INT_CR = '\r';
     private final static int INT_LF = '\n';
 
+    // States used when copying raw records (see copyRawRecords())
+
+    private final static int RAW_LINE_START = 0;
+    private final static int RAW_VALUE_START = 1;
+    private final static int RAW_UNQUOTED = 2;
+    private final static int RAW_UNQUOTED_ESCAPE = 3;
+    private final static int RAW_QUOTED = 4;
+    private final static int RAW_QUOTED_ESCAPE = 5;
+    private final static int RAW_QUOTE_END = 6;
+    private final static int RAW_AFTER_QUOTED = 7;
+    private final static int RAW_COMMENT = 8;
+
     /*
     /**********************************************************************
     /* Input handling, configuration
@@ -59,6 +72,13 @@ public class CsvDecoder
      */
     protected boolean _bufferRecyclable;
 
+    /**
+     * Listener to notify of decoding activity, if any.
+     *
+     * @since 2.19
+     */
+    protected CsvMetrics _metrics;
+
     protected boolean _autoCloseInput;
 
     /**
@@ -320,6 +340,13 @@ public class CsvDecoder
         _maxSpecialChar = max;
     }
 
+    /**
+     * @since 2.19
+     */
+    public void setMetrics(CsvMetrics metrics) {
+        _metrics = metrics;
+    }
+
     /**
      * @since 2.7
      */
@@ -418,6 +445,31 @@ public class CsvDecoder
         return ptr - _currInputRowStart + 1; // 1-based
     }
 
+    /**
+     * @return Offset of the next character to read (0-based)
+     *
+     * @since 2.19
+     */
+    public final long getCurrentCharOffset() {
+        return _currInputProcessed + _inputPtr;
+    }
+
+    /**
+     * Method for specifying location of the start of input within content it
+     * was copied from (see {@link #copyRawRecords}), so that locations
+     * reported refer to that content. Must be called before any input is read.
+     *
+     * @param charOffset Offset of the first character of input (0-based)
+     * @param row Row (line) of the first character of input (1-based);
+     *    input must start at the beginning of a line
+     *
+     * @since 2.19
+     */
+    public void setInputStart(long charOffset, int row) {
+        _currInputProcessed = charOffset;
+        _currInputRow = row;
+    }
+
     /**
      * Tell if the current token has been quoted or not.
      * @return True if the current token has been quoted, false otherwise
@@ -481,6 +533,9 @@ public class CsvDecoder
             _inputEnd = count;
             _inputPtr = 0;
             if (count > 0) {
+                if (_metrics != null) {
+                    _metrics.inputLoaded(count);
+                }
                 return true;
             }
             // End of input; close here --  but note, do NOT yet call releaseBuffers()
@@ -524,6 +579,9 @@ public class CsvDecoder
      */
     public boolean startNewLine() throws IOException
     {
+        if (_metrics != null) {
+            _metrics.rowRead();
+        }
         // first: if pending LF, skip it
         if (_pendingLF != 0) {
             if (_inputReader == null) {
@@ -652,7 +710,149 @@ public class CsvDecoder
         }
         return false;
     }
-    
+
+    /**
+     * Method for copying raw content of up to given number of records into given
+     * {@link Writer}, without decoding values: only quoting and escaping are
+     * considered, to find where records end. Blank and comment lines before
+     * and between records are copied as is, so that content copied can be read
+     * by another parser with the same schema and features; with locations
+     * within this content, if the starting location (see {@link #getCurrentRow()}
+     * and {@link #getCurrentCharOffset()}) is passed to {@link #setInputStart}.
+     *<p>
+     * Must be called at the beginning of a line, that is, when no value of the
+     * current line has been read. Invalid content is copied as is, to be
+     * reported by the parser reading it.
+     *
+     * @return Number of records copied; less than {@code maxRecords} only if
+     *    the end of input was reached
+     *
+     * @since 2.19
+     */
+    public int copyRawRecords(Writer out, int maxRecords) throws IOException
+    {
+        if ((_inputReader == null) && (_inputPtr >= _inputEnd)) {
+            return 0;
+        }
+        final boolean skipLeadingSpace = _allowComments || _skipBlankLines;
+        int records = 0;
+        int state = RAW_LINE_START;
+        int start = _inputPtr;
+        boolean afterCR = false;
+
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                out.write(_inputBuffer, start, _inputPtr - start);
+                start = 0;
+                if (!loadMore()) {
+                    // last record need not end with a linefeed
+                    if ((state != RAW_LINE_START) && (state != RAW_COMMENT)) {
+                        ++records;
+                    }
+                    return records;
+                }
+            }
+            final char c = _inputBuffer[_inputPtr++];
+            // escaped character is part of value, even if it is a linefeed
+            if (state == RAW_UNQUOTED_ESCAPE) {
+                state = RAW_UNQUOTED;
+                afterCR = false;
+                continue;
+            }
+            if (state == RAW_QUOTED_ESCAPE) {
+                state = RAW_QUOTED;
+                afterCR = false;
+                continue;
+            }
+            if (c == '\r' || c == '\n') {
+                if (afterCR && (c == '\n')) { // second part of CR+LF
+                    afterCR = false;
+                    _currInputRowStart = _inputPtr;
+                    continue;
+                }
+                afterCR = (c == '\r');
+                ++_currInputRow;
+                _currInputRowStart = _inputPtr;
+                if (state == RAW_QUOTED) { // embedded linefeeds are fine
+                    continue;
+                }
+                if ((state == RAW_COMMENT)
+                        || ((state == RAW_LINE_START) && skipLeadingSpace)) {
+                    state = RAW_LINE_START;
+                    continue;
+                }
+                state = RAW_LINE_START;
+                if (++records == maxRecords) {
+                    // include LF of CR+LF, so that following content starts a new line
+                    if (afterCR) {
+                        if (_inputPtr >= _inputEnd) {
+                            out.write(_inputBuffer, start, _inputPtr - start);
+                            start = 0;
+                            if (!loadMore()) {
+                                return records;
+                            }
+                        }
+                        if (_inputBuffer[_inputPtr] == '\n') {
+                            _currInputRowStart = ++_inputPtr;
+                        }
+                    }
+                    out.write(_inputBuffer, start, _inputPtr - start);
+                    return records;
+                }
+                continue;
+            }
+            afterCR = false;
+            switch (state) {
+            case RAW_LINE_START:
+                if (skipLeadingSpace && (c == ' ')) {
+                    continue;
+                }
+                if (_allowComments && (c == '#')) {
+                    state = RAW_COMMENT;
+                    continue;
+                }
+                // fall through
+            case RAW_VALUE_START:
+                if (_trimSpaces && (c <= ' ') && (c != _separatorChar)) {
+                    state = RAW_VALUE_START;
+                    continue;
+                }
+                if (c == _quoteChar) {
+                    state = RAW_QUOTED;
+                    continue;
+                }
+                // fall through
+            case RAW_UNQUOTED:
+                if (c == _separatorChar) {
+                    state = RAW_VALUE_START;
+                } else if (c == _escapeChar) {
+                    state = RAW_UNQUOTED_ESCAPE;
+                } else {
+                    state = RAW_UNQUOTED;
+                }
+                continue;
+            case RAW_QUOTED:
+                if (c == _quoteChar) {
+                    state = RAW_QUOTE_END;
+                } else if (c == _escapeChar) {
+                    state = RAW_QUOTED_ESCAPE;
+                }
+                continue;
+            case RAW_QUOTE_END:
+                if (c == _quoteChar) { // doubled quote, value continues
+                    state = RAW_QUOTED;
+                    continue;
+                }
+                // fall through
+            case RAW_AFTER_QUOTED:
+                state = (c == _separatorChar) ? RAW_VALUE_START : RAW_AFTER_QUOTED;
+                continue;
+            default: // RAW_COMMENT
+                continue;
+            }
+        }
+    }
+
     /**
      * Method called to parse the next token when we don't have any type
      * information, so that all tokens are exposed as basic String
@@ -682,6 +882,9 @@ public class CsvDecoder
         _tokenInputTotal = _currInputProcessed + _inputPtr - 1;
         _tokenInputRow = _currInputRow;
         _tokenInputCol = _inputPtr - _currInputRowStart - 1;
+        if (_metrics != null) {
+            _metrics.valueRead(i == _quoteChar);
+        }
 
         if (i < 0) { // EOF at this point signifies empty value
             _textBuffer.resetWithString("");
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.io.CharTypes;
 import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.core.io.NumberOutput;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMetrics;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator.Feature;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
@@ -57,6 +58,13 @@ public class CsvEncoder
 
     final protected IOContext _ioContext;
 
+    /**
+     * Listener to notify of encoding activity, if any.
+     *
+     * @since 2.19
+     */
+    protected CsvMetrics _metrics;
+
     /**
      * Underlying {@link Writer} used for output.
      */
@@ -257,6 +265,7 @@ public class CsvEncoder
     public CsvEncoder(CsvEncoder base, CsvSchema newSchema)
     {
         _ioContext = base._ioContext;
+        _metrics = base._metrics;
         _csvFeatures = base._csvFeatures;
         _cfgUseFastDoubleWriter = base._cfgUseFastDoubleWriter;
         _cfgOptimalQuoting = base._cfgOptimalQuoting;
@@ -330,6 +339,13 @@ public class CsvEncoder
         return new CsvEncoder(this, schema);
     }
 
+    /**
+     * @since 2.19
+     */
+    public void setMetrics(CsvMetrics metrics) {
+        _metrics = metrics;
+    }
+
     public CsvEncoder overrideFormatFeatures(int feat) {
         if (feat != _csvFeatures) {
             _csvFeatures = feat;
@@ -585,6 +601,9 @@ public class CsvEncoder
         }
         System.arraycopy(_cfgLineSeparator, 0, _outputBuffer, _outputTail, _cfgLineSeparatorLength);
         _outputTail += _cfgLineSeparatorLength;
+        if (_metrics != null) {
+            _metrics.rowWritten();
+        }
     }
 
     /*
@@ -1262,6 +1281,9 @@ public class CsvEncoder
         if (_outputTail > 0) {
             _charsWritten += _outputTail;
             _out.write(_outputBuffer, 0, _outputTail);
+            if (_metrics != null) {
+                _metrics.outputFlushed(_outputTail);
+            }
             _outputTail = 0;
         }
     }
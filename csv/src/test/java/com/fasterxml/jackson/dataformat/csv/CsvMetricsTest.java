@@ -0,0 +1,87 @@
+package com.fasterxml.jackson.dataformat.csv;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvMetricsTest extends ModuleTestBase
+{
+    @Test
+    public void testReadMetrics() throws Exception
+    {
+        CsvMetrics.Counters counters = new CsvMetrics.Counters();
+        CsvMapper mapper = new CsvMapper(CsvFactory.builder()
+                .metrics(counters)
+                .build());
+        assertSame(counters, mapper.getFactory().getMetrics());
+
+        final String CSV = "a,b\n1,\"x\"\n2,y\n";
+        List<Map<String, String>> rows = mapper.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .<Map<String, String>>readValues(CSV)
+                .readAll();
+        assertEquals(2, rows.size());
+
+        // header line not included
+        assertEquals(2, counters.getRowsRead());
+        assertEquals(1, counters.getQuotedValuesRead());
+        assertEquals(5, counters.getUnquotedValuesRead());
+        assertEquals(CSV.length(), counters.getCharsRead());
+        assertTrue(counters.getInputLoads() > 0);
+        assertEquals(0, counters.getRowsWritten());
+    }
+
+    @Test
+    public void testWriteMetrics() throws Exception
+    {
+        CsvMetrics.Counters counters = new CsvMetrics.Counters();
+        CsvMapper mapper = new CsvMapper(CsvFactory.builder()
+                .metrics(counters)
+                .build());
+        CsvSchema schema = mapper.schemaFor(Point.class).withHeader();
+        StringWriter w = new StringWriter();
+        mapper.writer(schema)
+            .writeValues(w)
+            .writeAll(new Point[] { new Point(1, 2), new Point(3, 4) })
+            .close();
+        // header + 2 data rows
+        assertEquals(3, counters.getRowsWritten());
+        assertEquals(w.toString().length(), counters.getCharsWritten());
+        assertTrue(counters.getOutputFlushes() > 0);
+        assertEquals(0, counters.getRowsRead());
+    }
+
+    @Test
+    public void testSchemaMetrics() throws Exception
+    {
+        CsvMetrics.Counters counters = new CsvMetrics.Counters();
+        CsvMapper mapper = new CsvMapper(CsvFactory.builder()
+                .metrics(counters)
+                .build());
+        mapper.schemaFor(Point.class);
+        mapper.schemaFor(Point.class);
+        mapper.typedSchemaFor(Point.class);
+        assertEquals(1, counters.getSchemaCacheHits());
+        assertEquals(2, counters.getSchemaCacheMisses());
+
+        // registered schemas count as hits
+        mapper.registerSchema(FiveMinuteUser.class, null, CsvSchema.builder().addColumn("firstName").build());
+        mapper.schemaFor(FiveMinuteUser.class);
+        assertEquals(2, counters.getSchemaCacheHits());
+        assertEquals(2, counters.getSchemaCacheMisses());
+    }
+
+    @Test
+    public void testNoMetricsByDefault() throws Exception
+    {
+        CsvFactory f = new CsvFactory();
+        assertNull(f.getMetrics());
+        assertNull(f.rebuild().metrics());
+        CsvMetrics.Counters counters = new CsvMetrics.Counters();
+        assertSame(counters, f.rebuild().metrics(counters).build().copy().getMetrics());
+    }
+}
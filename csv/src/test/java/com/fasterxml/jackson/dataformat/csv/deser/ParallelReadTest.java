@@ -0,0 +1,302 @@
+package com.fasterxml.jackson.dataformat.csv.deser;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.csv.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelReadTest extends ModuleTestBase
+{
+    @JsonPropertyOrder({"id", "name", "value"})
+    static class Row {
+        public int id;
+        public String name;
+        public Double value;
+    }
+
+    @JsonPropertyOrder({"id", "tags", "note"})
+    static class TaggedRow {
+        public int id;
+        public List<String> tags;
+        public String note;
+    }
+
+    private final CsvMapper MAPPER = mapperForCsv();
+
+    private ExecutorService _executor;
+
+    @BeforeEach
+    public void setUp() {
+        _executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadInOrder() throws Exception
+    {
+        final String CSV = _csv(1000);
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class).withHeader());
+        List<Row> expected = r.<Row>readValues(CSV).readAll();
+        assertEquals(1000, expected.size());
+
+        // use small batches and pipeline to exercise batching, backpressure
+        try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 7, 3)) {
+            List<Row> actual = it.readAll();
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); ++i) {
+                Row exp = expected.get(i);
+                Row act = actual.get(i);
+                assertEquals(exp.id, act.id);
+                assertEquals(exp.name, act.name);
+                assertEquals(exp.value, act.value);
+            }
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test
+    public void testReadWithDefaults() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class).withHeader());
+        try (CsvParallelMappingIterator<Row> it = CsvParallelMappingIterator.readValues(r,
+                _csv(600), _executor)) {
+            List<Integer> ids = it.stream().map(row -> row.id).collect(Collectors.toList());
+            assertEquals(600, ids.size());
+            for (int i = 0; i < ids.size(); ++i) {
+                assertEquals(i, ids.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyInput() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class));
+        try (CsvParallelMappingIterator<Row> it = CsvParallelMappingIterator.readValues(r,
+                "", _executor)) {
+            assertFalse(it.hasNextValue());
+            try {
+                it.nextValue();
+                fail("Should not pass");
+            } catch (NoSuchElementException e) {
+                ; // expected
+            }
+        }
+    }
+
+    @Test
+    public void testBindingFailure() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class));
+        final String CSV = "1,a,0.5\n2,b,0.25\nxyz,c,1.0\n4,d,2.0\n";
+        try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 2, 2)) {
+            assertEquals(1, it.nextValue().id);
+            assertEquals(2, it.nextValue().id);
+            try {
+                it.nextValue();
+                fail("Should not pass");
+            } catch (InvalidFormatException e) {
+                verifyException(e, "xyz");
+            }
+        }
+    }
+
+    @Test
+    public void testBindingFailureWithinBatch() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class));
+        final String CSV = "1,a,0.5\n2,b,0.25\nxyz,c,1.0\n4,d,2.0\n5,e,2.5\n";
+        // same as with MappingIterator: values before and after failing row
+        List<Object> expected = _readAll(r.readValues(CSV));
+        assertEquals(Arrays.asList(1, 2, "xyz", 4, 5), expected);
+        try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 4, 2)) {
+            assertEquals(expected, _readAll(it));
+        }
+    }
+
+    @Test
+    public void testReadFailure() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class).withHeader());
+        final String CSV = _csv(20) + "20,\"unterminated,1.0\n";
+        MappingIterator<Row> plain = r.readValues(CSV);
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(i, plain.nextValue().id);
+        }
+        assertThrows(JsonProcessingException.class, () -> plain.nextValue());
+
+        // all rows before failure returned first, even if read well ahead
+        try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 8, 4)) {
+            for (int i = 0; i < 20; ++i) {
+                assertTrue(it.hasNextValue());
+                assertEquals(i, it.nextValue().id);
+            }
+            assertTrue(it.hasNextValue());
+            JsonProcessingException e = assertThrows(JsonProcessingException.class, () -> it.nextValue());
+            verifyException(e, "Missing closing quote");
+            // and input is not read again
+            assertFalse(it.hasNextValue());
+        }
+    }
+
+    @Test
+    public void testReadWithSchemaFeatures() throws Exception
+    {
+        CsvSchema schema = MAPPER.schemaFor(TaggedRow.class)
+                .withArrayElementSeparator(";")
+                .withNullValue("-");
+        ObjectReader r = MAPPER.readerFor(TaggedRow.class).with(schema);
+        final String CSV = "1,a;b,-\n2,c,x\n3,,-\n4,d;e;f,y\n";
+        try (CsvParallelMappingIterator<TaggedRow> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 2, 2)) {
+            List<TaggedRow> rows = it.readAll();
+            assertEquals(4, rows.size());
+            assertEquals(Arrays.asList("a", "b"), rows.get(0).tags);
+            assertNull(rows.get(0).note);
+            assertEquals(Arrays.asList("c"), rows.get(1).tags);
+            assertEquals("x", rows.get(1).note);
+            assertEquals(Collections.emptyList(), rows.get(2).tags);
+            assertNull(rows.get(2).note);
+            assertEquals(Arrays.asList("d", "e", "f"), rows.get(3).tags);
+        }
+    }
+
+    @Test
+    public void testRowBoundaries() throws Exception
+    {
+        CsvSchema schema = MAPPER.schemaFor(Row.class).withHeader()
+                .withComments()
+                .withEscapeChar('\\');
+        ObjectReader r = MAPPER.readerFor(Row.class).with(schema);
+        final String CSV = "id,name,value\r\n"
+                +"# comment with \"quote\r\n"
+                +"0,\"multi\r\nline\",0.5\r\n"
+                +"1,\"doubled \"\" quote\",1.5\n"
+                +"\n"
+                +"2,escaped \\\n linefeed,2.5\r"
+                +"3,\"escaped \\\" quote\",3.5\r\n"
+                +"  # indented \" comment\n"
+                +"4,last,4.5";
+        List<Row> expected = r.<Row>readValues(CSV).readAll();
+        assertEquals(5, expected.size());
+        for (int batchSize = 1; batchSize <= 3; ++batchSize) {
+            try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                    r.createParser(CSV), true, _executor, batchSize, 2)) {
+                List<Row> actual = it.readAll();
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); ++i) {
+                    assertEquals(i, actual.get(i).id);
+                    assertEquals(expected.get(i).name, actual.get(i).name);
+                    assertEquals(expected.get(i).value, actual.get(i).value);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFailureLocation() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class).withHeader());
+        // header is line 1, so row with id 29 is on line 31
+        final String CSV = _csv(30).replace("\n29,", "\nxyz,") + "30,\"unterminated,1.0\n";
+        MappingIterator<Row> plain = r.readValues(CSV);
+        for (int i = 0; i < 29; ++i) {
+            plain.nextValue();
+        }
+        InvalidFormatException plainError = assertThrows(InvalidFormatException.class,
+                () -> plain.nextValue());
+        JsonProcessingException plainError2 = assertThrows(JsonProcessingException.class,
+                () -> plain.nextValue());
+
+        try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                r.createParser(CSV), true, _executor, 8, 2)) {
+            for (int i = 0; i < 29; ++i) {
+                assertEquals(i, it.nextValue().id);
+            }
+            InvalidFormatException e = assertThrows(InvalidFormatException.class,
+                    () -> it.nextValue());
+            assertEquals(31, e.getLocation().getLineNr());
+            assertEquals(plainError.getLocation().getLineNr(), e.getLocation().getLineNr());
+            assertEquals(plainError.getLocation().getColumnNr(), e.getLocation().getColumnNr());
+            assertEquals(plainError.getLocation().getCharOffset(), e.getLocation().getCharOffset());
+            assertEquals(plainError.getLocation().sourceDescription(),
+                    e.getLocation().sourceDescription());
+
+            JsonProcessingException e2 = assertThrows(JsonProcessingException.class,
+                    () -> it.nextValue());
+            verifyException(e2, "Missing closing quote");
+            assertEquals(plainError2.getLocation().getLineNr(), e2.getLocation().getLineNr());
+            assertEquals(plainError2.getLocation().getCharOffset(), e2.getLocation().getCharOffset());
+            assertFalse(it.hasNextValue());
+        }
+    }
+
+    @Test
+    public void testRejectedExecution() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Row.class)
+                .with(MAPPER.schemaFor(Row.class).withHeader());
+        _executor.shutdown();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (CsvParallelMappingIterator<Row> it = new CsvParallelMappingIterator<>(r,
+                    r.createParser(_csv(20)), true, _executor, 4, 2)) {
+                assertThrows(RejectedExecutionException.class, () -> it.hasNextValue());
+                // must not wait for batches that were never run
+                assertThrows(RejectedExecutionException.class, () -> it.hasNextValue());
+            }
+        });
+    }
+
+    // Ids of values read, or invalid values of rows that failed to bind
+    private List<Object> _readAll(Iterator<Row> it)
+    {
+        List<Object> result = new ArrayList<>();
+        while (it.hasNext()) {
+            try {
+                result.add(it.next().id);
+            } catch (RuntimeException e) {
+                result.add(((InvalidFormatException) e.getCause()).getValue());
+            }
+        }
+        return result;
+    }
+
+    private String _csv(int rows)
+    {
+        StringBuilder sb = new StringBuilder("id,name,value\n");
+        for (int i = 0; i < rows; ++i) {
+            sb.append(i).append(",\"name ").append(i).append("\",").append(i * 0.25).append('\n');
+        }
+        return sb.toString();
+    }
+}
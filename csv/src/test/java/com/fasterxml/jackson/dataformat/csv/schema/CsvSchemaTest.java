@@ -1,11 +1,13 @@
 package com.fasterxml.jackson.dataformat.csv.schema;
 
+import java.io.StringWriter;
 import java.util.*;
 
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.dataformat.csv.*;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema.Column;
 
@@ -253,4 +255,109 @@ public class CsvSchemaTest extends ModuleTestBase
 
         _verifyLinks(pointSchema);
     }
+
+    @Test
+    public void testRegisteredSchemas()
+    {
+        final CsvSchema prebuilt = CsvSchema.builder()
+                .addColumn("x", CsvSchema.ColumnType.NUMBER)
+                .addColumn("y", CsvSchema.ColumnType.NUMBER)
+                .build();
+        CsvMapper mapper = CsvMapper.builder()
+                .registerTypedSchema(Point.class, prebuilt)
+                .build();
+        assertSame(prebuilt, mapper.typedSchemaFor(Point.class));
+        // but only for typed lookups without view
+        assertNotSame(prebuilt, mapper.schemaFor(Point.class));
+        assertNotSame(prebuilt, mapper.typedSchemaForWithView(Point.class, Object.class));
+
+        // and registrations retained by copies
+        CsvMapper copy = mapper.copy();
+        assertSame(prebuilt, copy.typedSchemaFor(Point.class));
+        copy.registerSchema(Point.class, Object.class, prebuilt);
+        assertSame(prebuilt, copy.schemaForWithView(Point.class, Object.class));
+        assertNotSame(prebuilt, mapper.schemaForWithView(Point.class, Object.class));
+    }
+
+    @Test
+    public void testVerifyRegisteredSchemas()
+    {
+        CsvMapper mapper = CsvMapper.builder()
+                .registerTypedSchema(Point.class, CsvSchema.builder()
+                        .addColumn("x", CsvSchema.ColumnType.NUMBER)
+                        .addColumn("y", CsvSchema.ColumnType.NUMBER)
+                        .build())
+                .registerSchema(Point.class, CsvSchema.builder()
+                        .addColumn("x")
+                        .addColumn("y")
+                        .build())
+                .build();
+        mapper.verifyRegisteredSchemas();
+
+        // wrong column order
+        mapper.registerSchema(Point.class, Object.class, CsvSchema.builder()
+                .addColumn("y")
+                .addColumn("x")
+                .build());
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> mapper.verifyRegisteredSchemas());
+        verifyException(e, "column #0 differs");
+
+        // or settings not produced by introspection
+        CsvMapper mapper2 = new CsvMapper().registerTypedSchema(Point.class, null,
+                mapper.typedSchemaFor(Point.class).withHeader());
+        e = assertThrows(IllegalStateException.class, () -> mapper2.verifyRegisteredSchemas());
+        verifyException(e, "features differ");
+    }
+
+    @Test
+    public void testGenerateSchemaRegistration() throws Exception
+    {
+        StringWriter w = new StringWriter();
+        new CsvSchemaGenerator().generate(w, "com.example.GeneratedSchemas",
+                Arrays.<Class<?>>asList(Point.class));
+        final String src = w.toString();
+        assertTrue(src.contains("package com.example;"), src);
+        assertTrue(src.contains("public final class GeneratedSchemas"), src);
+        assertTrue(src.contains("mapper.registerSchema("+Point.class.getCanonicalName()
+                +".class, null, CsvSchema.builder()\n"
+                +"                .addColumn(\"x\", CsvSchema.ColumnType.STRING)\n"
+                +"                .addColumn(\"y\", CsvSchema.ColumnType.STRING)\n"
+                +"                .build());"), src);
+        assertTrue(src.contains("mapper.registerTypedSchema("+Point.class.getCanonicalName()
+                +".class, null, CsvSchema.builder()\n"
+                +"                .addColumn(\"x\", CsvSchema.ColumnType.NUMBER)\n"
+                +"                .addColumn(\"y\", CsvSchema.ColumnType.NUMBER)\n"
+                +"                .build());"), src);
+    }
+
+    @Test
+    public void testVerifyRegisteredSchemaDecorators()
+    {
+        // introspection does not add decorators, so need to fake them
+        CsvMapper mapper = new CsvMapper() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected CsvSchema _introspectSchema(JavaType pojoType, boolean typed, Class<?> view) {
+                return _decoratedSchema(CsvValueDecorators.optionalPrefixSuffixDecorator("<", ">"));
+            }
+        };
+        // equal decorators, but not same instances
+        mapper.registerSchema(Point.class, null,
+                _decoratedSchema(CsvValueDecorators.optionalPrefixSuffixDecorator("<", ">")));
+        mapper.verifyRegisteredSchemas();
+
+        mapper.registerSchema(Point.class, null,
+                _decoratedSchema(CsvValueDecorators.requiredPrefixSuffixDecorator("<", ">")));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> mapper.verifyRegisteredSchemas());
+        verifyException(e, "column #0 differs");
+    }
+
+    private static CsvSchema _decoratedSchema(CsvValueDecorator decorator) {
+        return CsvSchema.builder()
+                .addColumn(new Column(0, "x").withValueDecorator(decorator))
+                .build();
+    }
 }
@@ -2,7 +2,9 @@ package com.fasterxml.jackson.dataformat.csv.ser;
 
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -12,6 +14,7 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.dataformat.csv.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
 
 
 public class MultipleWritesTest extends ModuleTestBase
@@ -100,4 +103,46 @@ public class MultipleWritesTest extends ModuleTestBase
         assertEquals("a,b,c\n1,2,3\n0,15,9\n7,8,9",
                 sw.toString());
     }
+
+    // Columns are looked up from table built for schema when not written in
+    // schema order; verify that rows with different field names/order map correctly
+    @Test
+    public void testWriteValuesWithVaryingFields() throws Exception
+    {
+        final CsvSchema schema = CsvSchema.builder()
+                .addColumn("a")
+                .addColumn("b")
+                .addColumn("c")
+                .build();
+        ObjectWriter writer = MAPPER.writer(schema)
+                .with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        StringWriter sw = new StringWriter();
+        try (SequenceWriter seqw = writer.writeValues(sw)) {
+            seqw.write(new Pojo(1, 2, 3));
+            seqw.write(_map("c", "3", "a", "1"));
+            seqw.write(_map("b", "2", "x", "?", "a", "1"));
+            seqw.write(new Pojo(4, 5, 6));
+            seqw.write(_map("a", "1", "b", "2"));
+        }
+        assertEquals("1,2,3\n1,,3\n1,2,\n4,5,6\n1,2,\n",
+                sw.toString());
+
+        // and unknown column must still fail if not ignoring
+        sw = new StringWriter();
+        try (SequenceWriter seqw = MAPPER.writer(schema).writeValues(sw)) {
+            seqw.write(new Pojo(1, 2, 3));
+            seqw.write(_map("a", "1", "x", "?"));
+            fail("Should not pass");
+        } catch (JsonMappingException e) {
+            verifyException(e, "Unrecognized column 'x'");
+        }
+    }
+
+    private static Map<String, String> _map(String... kvs) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < kvs.length; i += 2) {
+            map.put(kvs[i], kvs[i+1]);
+        }
+        return map;
+    }
 }
@@ -22,6 +22,20 @@ public class JavaPropsFactory extends JsonFactory
 
     protected final static String CHARSET_ID_LATIN1 = "ISO-8859-1";
 
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     * Not serialized, since listeners are usually bound to the running process.
+     *
+     * @since 2.19
+     */
+    protected transient JavaPropsMetrics _metrics;
+
     /*
     /**********************************************************
     /* Factory construction, configuration
@@ -39,6 +53,7 @@ public class JavaPropsFactory extends JsonFactory
     protected JavaPropsFactory(JavaPropsFactory src, ObjectCodec oc)
     {
         super(src, oc);
+        _metrics = src._metrics;
     }
 
     /**
@@ -49,6 +64,7 @@ public class JavaPropsFactory extends JsonFactory
     protected JavaPropsFactory(JavaPropsFactoryBuilder b)
     {
         super(b, false);
+        _metrics = b.metrics();
     }
 
     @Override
@@ -143,6 +159,15 @@ public class JavaPropsFactory extends JsonFactory
         return schema instanceof JavaPropsSchema;
     }
 
+    /**
+     * Accessor for {@link JavaPropsMetrics} listener configured, if any.
+     *
+     * @since 2.19
+     */
+    public JavaPropsMetrics getMetrics() {
+        return _metrics;
+    }
+
     /*
     /**********************************************************
     /* Extended parser/generator factory methods
@@ -169,8 +194,8 @@ public class JavaPropsFactory extends JsonFactory
     @Deprecated // since 2.10
     public JavaPropsGenerator createGenerator(Properties props) {
         IOContext ctxt = _createContext(_createContentReference(props), true);
-        return new PropertiesBackedGenerator(ctxt,
-                props, _generatorFeatures, _objectCodec);
+        return _initGenerator(new PropertiesBackedGenerator(ctxt,
+                props, _generatorFeatures, _objectCodec));
     }
 
     /**
@@ -182,8 +207,8 @@ public class JavaPropsFactory extends JsonFactory
      */
     public JavaPropsGenerator createGenerator(Map<?,?> target, JavaPropsSchema schema) {
         IOContext ctxt = _createContext(_createContentReference(target), true);
-        return new PropertiesBackedGenerator(ctxt,
-                target, _generatorFeatures, _objectCodec);
+        return _initGenerator(new PropertiesBackedGenerator(ctxt,
+                target, _generatorFeatures, _objectCodec));
     }
 
     /*
@@ -316,7 +341,7 @@ public class JavaPropsFactory extends JsonFactory
     @Override
     protected JsonGenerator _createGenerator(Writer out, IOContext ctxt) throws IOException
     {
-        return new WriterBackedGenerator(ctxt, out, _generatorFeatures, _objectCodec);
+        return _initGenerator(new WriterBackedGenerator(ctxt, out, _generatorFeatures, _objectCodec));
     }
 
     @Override
@@ -360,14 +385,28 @@ public class JavaPropsFactory extends JsonFactory
         } else {
             props.load(r0);
         }
+        if (_metrics != null) {
+            _metrics.propertiesLoaded(props.size());
+        }
         return props;
     }
 
     private final JsonGenerator _createJavaPropsGenerator(IOContext ctxt,
             int stdFeat, ObjectCodec codec, OutputStream out) throws IOException
     {
-        return new WriterBackedGenerator(ctxt, _createWriter(out, null, ctxt),
-                stdFeat, _objectCodec);
+        return _initGenerator(new WriterBackedGenerator(ctxt, _createWriter(out, null, ctxt),
+                stdFeat, _objectCodec));
+    }
+
+    /**
+     * Helper method called to complete configuration of a newly constructed
+     * generator.
+     *
+     * @since 2.19
+     */
+    protected JavaPropsGenerator _initGenerator(JavaPropsGenerator gen) {
+        gen._metrics = _metrics;
+        return gen;
     }
 
     /*
@@ -11,17 +11,39 @@ import com.fasterxml.jackson.core.TSFBuilder;
  */
 public class JavaPropsFactoryBuilder extends TSFBuilder<JavaPropsFactory, JavaPropsFactoryBuilder>
 {
+    /**
+     * @since 2.19
+     */
+    protected JavaPropsMetrics _metrics;
+
     public JavaPropsFactoryBuilder() {
         super();
     }
 
     public JavaPropsFactoryBuilder(JavaPropsFactory base) {
         super(base);
+        _metrics = base._metrics;
+    }
+
+    /**
+     * Method for specifying {@link JavaPropsMetrics} listener to notify of activity
+     * of parsers and generators constructed by factory; {@code null} to
+     * indicate none (default).
+     *
+     * @since 2.19
+     */
+    public JavaPropsFactoryBuilder metrics(JavaPropsMetrics metrics) {
+        _metrics = metrics;
+        return _this();
     }
 
+    /**
+     * @since 2.19
+     */
+    public JavaPropsMetrics metrics() { return _metrics; }
+
     @Override
     public JavaPropsFactory build() {
-        // 28-Dec-2017, tatu: No special settings beyond base class ones, so:
         return new JavaPropsFactory(this);
     }
 }
@@ -46,6 +46,14 @@ public abstract class JavaPropsGenerator extends GeneratorBase
      */
     protected JavaPropsSchema _schema = EMPTY_SCHEMA;
 
+    /**
+     * Listener to notify of generation activity, if any; assigned by
+     * {@link JavaPropsFactory} after construction.
+     *
+     * @since 2.19
+     */
+    protected JavaPropsMetrics _metrics;
+
     /*
     /**********************************************************
     /* Output state
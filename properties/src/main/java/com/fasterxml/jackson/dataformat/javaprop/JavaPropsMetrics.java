@@ -0,0 +1,89 @@
+package com.fasterxml.jackson.dataformat.javaprop;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener for properties reading and writing activity of a
+ * {@link JavaPropsFactory}, configured with
+ * {@link JavaPropsFactoryBuilder#metrics(JavaPropsMetrics)}.
+ *<p>
+ * Properties content is loaded as a whole into a {@link java.util.Properties}
+ * instance before parsing, so reading is reported once per source, with the
+ * number of distinct keys (a key that appears more than once counts once,
+ * since last value wins). Generators report each key/value line written (or
+ * entry set, when writing into a {@link java.util.Properties} instance),
+ * and each write of their buffer.
+ *<p>
+ * Methods have empty default implementations; see {@link Counters} for
+ * a simple thread-safe implementation.
+ *
+ * @since 2.19
+ */
+public interface JavaPropsMetrics
+{
+    /**
+     * Method called when contents of a properties source have been loaded,
+     * before parser for them is constructed (not called for parsers
+     * constructed for pre-loaded {@link java.util.Map}s).
+     *
+     * @param propertyCount Number of distinct properties loaded
+     */
+    default void propertiesLoaded(int propertyCount) { }
+
+    /**
+     * Method called when a generator has written a property (key/value pair).
+     */
+    default void propertyWritten() { }
+
+    /**
+     * Method called when a generator flushes its buffered output to the
+     * underlying {@link java.io.Writer}.
+     *
+     * @param charCount Number of characters written
+     */
+    default void outputFlushed(int charCount) { }
+
+    /**
+     * Simple {@link JavaPropsMetrics} implementation that just keeps track of
+     * cumulative counts.
+     */
+    public static class Counters implements JavaPropsMetrics
+    {
+        protected final LongAdder _loads = new LongAdder();
+        protected final LongAdder _propertiesRead = new LongAdder();
+        protected final LongAdder _propertiesWritten = new LongAdder();
+        protected final LongAdder _outputFlushes = new LongAdder();
+        protected final LongAdder _charsWritten = new LongAdder();
+
+        @Override
+        public void propertiesLoaded(int propertyCount) {
+            _loads.increment();
+            _propertiesRead.add(propertyCount);
+        }
+
+        @Override
+        public void propertyWritten() {
+            _propertiesWritten.increment();
+        }
+
+        @Override
+        public void outputFlushed(int charCount) {
+            _outputFlushes.increment();
+            _charsWritten.add(charCount);
+        }
+
+        public long getLoads() { return _loads.sum(); }
+        public long getPropertiesRead() { return _propertiesRead.sum(); }
+        public long getPropertiesWritten() { return _propertiesWritten.sum(); }
+        public long getOutputFlushes() { return _outputFlushes.sum(); }
+        public long getCharsWritten() { return _charsWritten.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format(
+"[JavaPropsMetrics.Counters: loads=%d (%d properties); properties written=%d, output flushes=%d (%d chars)]",
+                    getLoads(), getPropertiesRead(),
+                    getPropertiesWritten(), getOutputFlushes(), getCharsWritten());
+        }
+    }
+}
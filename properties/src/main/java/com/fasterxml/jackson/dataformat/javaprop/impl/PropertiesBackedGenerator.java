@@ -104,12 +104,18 @@ public class PropertiesBackedGenerator extends JavaPropsGenerator
     protected void _writeEscapedEntry(String value) throws IOException
     {
         _content.put(_basePath.toString(), value);
+        if (_metrics != null) {
+            _metrics.propertyWritten();
+        }
     }
 
     @Override
     protected void _writeUnescapedEntry(String value) throws IOException
     {
         _content.put(_basePath.toString(), value);
+        if (_metrics != null) {
+            _metrics.propertyWritten();
+        }
     }
 
     /*
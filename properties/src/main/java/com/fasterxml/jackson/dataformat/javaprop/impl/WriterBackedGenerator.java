@@ -126,6 +126,9 @@ public class WriterBackedGenerator extends JavaPropsGenerator
     {
         if (_outputTail > 0) {
             _out.write(_outputBuffer, 0, _outputTail);
+            if (_metrics != null) {
+                _metrics.outputFlushed(_outputTail);
+            }
             _outputTail = 0;
         }
     }
@@ -152,6 +155,9 @@ public class WriterBackedGenerator extends JavaPropsGenerator
 
         _writeEscaped(value);
         _writeLinefeed();
+        if (_metrics != null) {
+            _metrics.propertyWritten();
+        }
     }
 
     @Override
@@ -163,6 +169,9 @@ public class WriterBackedGenerator extends JavaPropsGenerator
 
         _writeEscaped(text, offset, len);
         _writeLinefeed();
+        if (_metrics != null) {
+            _metrics.propertyWritten();
+        }
     }
 
     @Override
@@ -174,6 +183,9 @@ public class WriterBackedGenerator extends JavaPropsGenerator
 
         _writeRaw(value);
         _writeLinefeed();
+        if (_metrics != null) {
+            _metrics.propertyWritten();
+        }
     }
 
     protected void _writeEscaped(String value) throws IOException
@@ -267,6 +279,9 @@ public class WriterBackedGenerator extends JavaPropsGenerator
         // Otherwise, better just pass through:
         _flushBuffer();
         _out.write(text, offset, len);
+        if (_metrics != null) {
+            _metrics.outputFlushed(len);
+        }
     }
 
     protected void _writeRawLong(String text) throws IOException
@@ -0,0 +1,54 @@
+package com.fasterxml.jackson.dataformat.javaprop;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaPropsMetricsTest extends ModuleTestBase
+{
+    @Test
+    public void testReadMetrics() throws Exception
+    {
+        JavaPropsMetrics.Counters counters = new JavaPropsMetrics.Counters();
+        JavaPropsMapper mapper = new JavaPropsMapper(JavaPropsFactory.builder()
+                .metrics(counters)
+                .build());
+        assertSame(counters, mapper.getFactory().getMetrics());
+
+        Point p = mapper.readValue("x=1\ny=2\n", Point.class);
+        assertEquals(2, p.y);
+        assertEquals(1, counters.getLoads());
+        assertEquals(2, counters.getPropertiesRead());
+        assertEquals(0, counters.getPropertiesWritten());
+    }
+
+    @Test
+    public void testWriteMetrics() throws Exception
+    {
+        JavaPropsMetrics.Counters counters = new JavaPropsMetrics.Counters();
+        JavaPropsMapper mapper = new JavaPropsMapper(JavaPropsFactory.builder()
+                .metrics(counters)
+                .build());
+        String output = mapper.writeValueAsString(new Point(1, 2));
+        assertEquals(2, counters.getPropertiesWritten());
+        assertEquals(output.length(), counters.getCharsWritten());
+        assertTrue(counters.getOutputFlushes() > 0);
+
+        Map<String, String> map = mapper.writeValueAsMap(new Point(3, 4));
+        assertEquals(2, map.size());
+        assertEquals(4, counters.getPropertiesWritten());
+        assertEquals(0, counters.getLoads());
+    }
+
+    @Test
+    public void testNoMetricsByDefault() throws Exception
+    {
+        JavaPropsFactory f = new JavaPropsFactory();
+        assertNull(f.getMetrics());
+        assertNull(f.rebuild().metrics());
+        JavaPropsMetrics.Counters counters = new JavaPropsMetrics.Counters();
+        assertSame(counters, f.rebuild().metrics(counters).build().copy().getMetrics());
+    }
+}
@@ -3,20 +3,48 @@ package com.fasterxml.jackson.dataformat.toml;
 import java.io.IOException;
 import java.io.Reader;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.*;
 import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.StreamReadFeature;
 import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.core.io.NumberInput;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 import com.fasterxml.jackson.core.util.VersionUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.*;
 
+/**
+ * Recursive-descent parser for TOML content, driven by {@link Lexer}, that produces
+ * {@link JsonToken}s for {@link TomlParser} one expression (key/value pair or table
+ * header) at a time.
+ *<p>
+ * Since TOML allows adding to a table until the end of the document (through
+ * out-of-order table headers or dotted keys), tokens can only be returned as soon
+ * as they are parsed as long as content extends the innermost table (or array of
+ * tables) that is still open; anything else is kept in a compact token buffer
+ * attached to the table it belongs to, until that table is known to be complete.
+ * Tables (and their buffered content) are complete once a following element of
+ * an enclosing array of tables starts, or at the end of the document.
+ * To detect invalid redefinitions, a skeleton of tables with their keys
+ * is kept for tables that may still be extended.
+ *<p>
+ * Keys are canonicalized using a symbol table, directly from the lexer buffer
+ * where possible; content of string values is copied into the token buffer,
+ * and only converted into a {@link String} if requested.
+ */
 class Parser {
-    private static final JsonNodeFactory factory = new JsonNodeFactoryImpl();
+    private static final JsonNodeFactory factory = new JsonNodeFactory(true); // exact bigdecimals
     private static final int MAX_CHARS_TO_REPORT = 1000;
+    private static final char[] NO_CHARS = new char[0];
 
     private final TomlFactory tomlFactory;
 
@@ -24,21 +52,57 @@ class Parser {
     private final int options;
     private final Lexer lexer;
 
+    private final CharsToNameCanonicalizer symbols;
+
+    private final TomlMetrics metrics;
+
     private TomlToken next;
 
-    private Parser(
+    /**
+     * Root table of the document
+     */
+    private final Table root = new Table(null);
+
+    /**
+     * Table that key/value pairs are currently added to
+     */
+    private Table currentTable = root;
+
+    /**
+     * Tables and arrays of tables for which start token has been returned
+     * but end token not yet, from outermost (root) to innermost.
+     */
+    private final ArrayList<Container> open = new ArrayList<>();
+
+    /**
+     * Tokens ready to be returned, from {@link #outputIndex} onwards
+     */
+    private final TokenList output = new TokenList();
+
+    private int outputIndex;
+
+    private int outputTextIndex;
+
+    private int currentTextOffset, currentTextLength;
+
+    private Object currentValue;
+
+    private boolean started, finished, buffersReleased;
+
+    Parser(
             TomlFactory tomlFactory,
             IOContext ioContext,
             TomlStreamReadException.ErrorContext errorContext,
             int options,
             Reader reader
-    ) throws IOException {
+    ) {
         this.tomlFactory = tomlFactory;
         this.errorContext = errorContext;
         this.options = options;
-        this.lexer = new Lexer(reader, ioContext, errorContext);
+        this.lexer = new Lexer(reader, ioContext, errorContext, tomlFactory.getLexerBufferSize());
+        this.symbols = tomlFactory.makeSymbolTable();
+        this.metrics = tomlFactory.getMetrics();
         lexer.prohibitInternalBufferAllocate = (options & TomlWriteFeature.INTERNAL_PROHIBIT_INTERNAL_BUFFER_ALLOCATE) != 0;
-        this.next = lexer.yylex();
     }
 
     @Deprecated // v2.15
@@ -47,15 +111,7 @@ class Parser {
             final int options,
             final Reader reader
     ) throws IOException {
-        Parser parser = new Parser(new TomlFactory(), ioContext,
-                new TomlStreamReadException.ErrorContext(ioContext.contentReference(), null), options, reader);
-        try {
-            final ObjectNode node = parser.parse();
-            assert parser.getNestingDepth() == 0;
-            return node;
-        } finally {
-            parser.lexer.releaseBuffers();
-        }
+        return parse(new TomlFactory(), ioContext, options, reader);
     }
 
     /**
@@ -72,22 +128,141 @@ class Parser {
             final Reader reader
     ) throws IOException {
         final TomlFactory factory = tomlFactory == null ? new TomlFactory() : tomlFactory;
-        Parser parser = new Parser(factory, ioContext,
-                new TomlStreamReadException.ErrorContext(ioContext.contentReference(), null),
-                factory.getFormatParserFeatures(), reader);
-        try {
-            final ObjectNode node = parser.parse();
-            assert parser.getNestingDepth() == 0;
-            return node;
-        } finally {
-            parser.lexer.releaseBuffers();
+        return parse(factory, ioContext, factory.getFormatParserFeatures(), reader);
+    }
+
+    private static ObjectNode parse(
+            final TomlFactory tomlFactory,
+            final IOContext ioContext,
+            final int options,
+            final Reader reader
+    ) throws IOException {
+        // note: no JsonParser.Feature enabled, so that reader is not closed
+        try (TomlParser p = new TomlParser(tomlFactory, ioContext, 0, options, null, reader)) {
+            p.nextToken();
+            return (ObjectNode) readTree(p);
+        }
+    }
+
+    private static JsonNode readTree(JsonParser p) throws IOException {
+        switch (p.currentToken()) {
+            case START_OBJECT:
+                ObjectNode object = factory.objectNode();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = p.currentName();
+                    p.nextToken();
+                    object.set(key, readTree(p));
+                }
+                return object;
+            case START_ARRAY:
+                ArrayNode array = factory.arrayNode();
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(readTree(p));
+                }
+                return array;
+            case VALUE_STRING:
+                return factory.textNode(p.getText());
+            case VALUE_TRUE:
+                return factory.booleanNode(true);
+            case VALUE_FALSE:
+                return factory.booleanNode(false);
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return numberNode(p.getNumberValue());
+            case VALUE_EMBEDDED_OBJECT:
+                return factory.pojoNode(p.getEmbeddedObject());
+            default:
+                throw new IllegalStateException("Unexpected token " + p.currentToken());
+        }
+    }
+
+    private static ValueNode numberNode(Number n) {
+        if (n instanceof Integer) {
+            return factory.numberNode(n.intValue());
+        } else if (n instanceof Long) {
+            return factory.numberNode(n.longValue());
+        } else if (n instanceof BigInteger) {
+            return factory.numberNode((BigInteger) n);
+        } else if (n instanceof BigDecimal) {
+            return factory.numberNode((BigDecimal) n);
         }
+        return factory.numberNode(n.doubleValue());
     }
 
     int getNestingDepth() {
         return lexer.getNestingDepth();
     }
 
+    JsonLocation currentLocation() {
+        return new JsonLocation(errorContext.contentReference, -1,
+                lexer.getCharPos(), lexer.getLine() + 1, lexer.getColumn() + 1);
+    }
+
+    /**
+     * @return Value of the token last returned by {@link #nextToken()}: key for
+     *    {@link JsonToken#FIELD_NAME}, {@link String}, {@link Number} or
+     *    {@link Temporal} for scalar values; {@code null} otherwise, including
+     *    {@link JsonToken#VALUE_STRING} with content in the token buffer
+     *    (see {@link #currentTextBuffer()})
+     */
+    Object currentValue() {
+        return currentValue;
+    }
+
+    /**
+     * @return Buffer containing content of the current {@link JsonToken#VALUE_STRING}
+     *    token if {@link #currentValue()} is {@code null}; only valid until the
+     *    next call to {@link #nextToken()}
+     */
+    char[] currentTextBuffer() {
+        return output.text;
+    }
+
+    int currentTextOffset() {
+        return currentTextOffset;
+    }
+
+    int currentTextLength() {
+        return currentTextLength;
+    }
+
+    /**
+     * @return Next token, or {@code null} if end of content was reached
+     */
+    JsonToken nextToken() throws IOException {
+        while (outputIndex == output.size) {
+            output.clear();
+            outputIndex = 0;
+            outputTextIndex = 0;
+            if (finished) {
+                currentValue = null;
+                return null;
+            }
+            parseNext();
+        }
+        JsonToken type = output.types[outputIndex];
+        currentValue = output.values[outputIndex];
+        // clear reference so values can be garbage collected once consumed
+        output.values[outputIndex++] = null;
+        if (type == JsonToken.VALUE_STRING && currentValue == null) {
+            currentTextLength = output.textLength(outputTextIndex);
+            currentTextOffset = outputTextIndex + TokenList.TEXT_HEADER_LENGTH;
+            outputTextIndex = currentTextOffset + currentTextLength;
+        }
+        return type;
+    }
+
+    void releaseBuffers() {
+        if (!buffersReleased) {
+            buffersReleased = true;
+            if (metrics != null) {
+                metrics.parserClosed(lexer.getCharPos());
+            }
+            lexer.releaseBuffers();
+            symbols.release();
+        }
+    }
+
     private TomlToken peek() throws TomlStreamReadException {
         TomlToken here = this.next;
         if (here == null) throw errorContext.atPosition(lexer).generic("Premature end of file");
@@ -111,52 +286,70 @@ class Parser {
         }
     }
 
-    public ObjectNode parse() throws IOException {
-        TomlObjectNode root = (TomlObjectNode) factory.objectNode();
-        TomlObjectNode currentTable = root;
-        while (next != null) {
-            TomlToken token = peek();
-            if (token == TomlToken.UNQUOTED_KEY || token == TomlToken.STRING) {
-                parseKeyVal(currentTable, Lexer.EXPECT_EOL);
-            } else if (token == TomlToken.STD_TABLE_OPEN) {
-                pollExpected(TomlToken.STD_TABLE_OPEN, Lexer.EXPECT_INLINE_KEY);
-                FieldRef fieldRef = parseAndEnterKey(root, true);
-                currentTable = getOrCreateObject(fieldRef.object, fieldRef.key);
-                if (currentTable.defined) {
-                    throw errorContext.atPosition(lexer).generic("Table redefined");
-                }
-                currentTable.defined = true;
-                pollExpected(TomlToken.STD_TABLE_CLOSE, Lexer.EXPECT_EOL);
-            } else if (token == TomlToken.ARRAY_TABLE_OPEN) {
-                pollExpected(TomlToken.ARRAY_TABLE_OPEN, Lexer.EXPECT_INLINE_KEY);
-                FieldRef fieldRef = parseAndEnterKey(root, true);
-                TomlArrayNode array = getOrCreateArray(fieldRef.object, fieldRef.key);
-                if (array.closed) {
-                    throw errorContext.atPosition(lexer).generic("Array already finished");
-                }
-                currentTable = (TomlObjectNode) array.addObject();
-                pollExpected(TomlToken.ARRAY_TABLE_CLOSE, Lexer.EXPECT_EOL);
-            } else {
-                throw errorContext.atPosition(lexer).unexpectedToken(token, "key or table");
+    /**
+     * Parses the next expression (or handles end of content), adding
+     * tokens that can be returned to {@link #output}.
+     */
+    private void parseNext() throws IOException {
+        if (!started) {
+            started = true;
+            open.add(root);
+            output.add(JsonToken.START_OBJECT, null);
+            next = lexer.yylex();
+            return;
+        }
+        if (next == null) {
+            finish();
+            return;
+        }
+        TomlToken token = peek();
+        if (token == TomlToken.UNQUOTED_KEY || token == TomlToken.STRING) {
+            parseKeyVal(currentTable, Lexer.EXPECT_EOL);
+        } else if (token == TomlToken.STD_TABLE_OPEN) {
+            pollExpected(TomlToken.STD_TABLE_OPEN, Lexer.EXPECT_INLINE_KEY);
+            if (metrics != null) {
+                metrics.tableRead();
             }
+            FieldRef fieldRef = parseAndEnterKey(root, true);
+            currentTable = getOrCreateObject(fieldRef.table, fieldRef.key);
+            if (currentTable.defined) {
+                throw errorContext.atPosition(lexer).generic("Table redefined");
+            }
+            currentTable.defined = true;
+            pollExpected(TomlToken.STD_TABLE_CLOSE, Lexer.EXPECT_EOL);
+        } else if (token == TomlToken.ARRAY_TABLE_OPEN) {
+            pollExpected(TomlToken.ARRAY_TABLE_OPEN, Lexer.EXPECT_INLINE_KEY);
+            if (metrics != null) {
+                metrics.tableRead();
+            }
+            FieldRef fieldRef = parseAndEnterKey(root, true);
+            currentTable = addElement(getOrCreateArray(fieldRef.table, fieldRef.key));
+            pollExpected(TomlToken.ARRAY_TABLE_CLOSE, Lexer.EXPECT_EOL);
+        } else {
+            throw errorContext.atPosition(lexer).unexpectedToken(token, "key or table");
         }
+    }
+
+    private void finish() throws IOException {
         assert lexer.yyatEOF();
         int eofState = lexer.yystate();
         if (eofState != Lexer.EXPECT_EXPRESSION && eofState != Lexer.EXPECT_EOL) {
             throw errorContext.atPosition(lexer).generic("EOF in wrong state");
         }
-        return root;
+        assert getNestingDepth() == 0;
+        // everything is complete now
+        while (!open.isEmpty()) {
+            close(open.remove(open.size() - 1));
+        }
+        finished = true;
     }
 
     private FieldRef parseAndEnterKey(
-            TomlObjectNode outer,
+            Table outer,
             boolean forTable
     ) throws IOException {
-        TomlObjectNode node = outer;
+        Table node = outer;
         while (true) {
-            if (node.closed) {
-                throw errorContext.atPosition(lexer).generic("Object already closed");
-            }
             if (!forTable) {
                 /* "Dotted keys create and define a table for each key part before the last one, provided that such
                  * tables were not previously created." */
@@ -166,9 +359,10 @@ class Parser {
             TomlToken partToken = peek();
             String part;
             if (partToken == TomlToken.STRING) {
-                part = lexer.textBuffer.contentsAsString();
+                part = symbol(lexer.getStringBuffer(), lexer.getStringStart(), lexer.getStringLength());
             } else if (partToken == TomlToken.UNQUOTED_KEY) {
-                part = lexer.yytext();
+                part = symbol(lexer.getTextBuffer(), lexer.getTextBufferStart(),
+                        lexer.getTextBufferEnd() - lexer.getTextBufferStart());
             } else {
                 throw errorContext.atPosition(lexer).unexpectedToken(partToken, "quoted or unquoted key");
             }
@@ -178,12 +372,12 @@ class Parser {
             }
             pollExpected(TomlToken.DOT_SEP, Lexer.EXPECT_INLINE_KEY);
 
-            JsonNode existing = node.get(part);
+            Object existing = node.members.get(part);
             if (existing == null) {
-                node = (TomlObjectNode) node.putObject(part);
-            } else if (existing.isObject()) {
-                node = (TomlObjectNode) existing;
-            } else if (existing.isArray()) {
+                node = addChild(node, new Table(part));
+            } else if (existing instanceof Table) {
+                node = (Table) existing;
+            } else if (existing instanceof TableArray) {
                 /* "Any reference to an array of tables points to the most recently defined table element of the array.
                  * This allows you to define sub-tables, and even sub-arrays of tables, inside the most recent table."
                  *
@@ -191,50 +385,70 @@ class Parser {
                  * in between, and I accept them for simple dotted keys as well (not just for tables). These cases don't
                  * seem to be covered by the specification.
                  */
-                TomlArrayNode array = (TomlArrayNode) existing;
-                if (array.closed) {
-                    throw errorContext.atPosition(lexer).generic("Array already closed");
-                }
-                // Only arrays declared by array tables are not closed, and those are always arrays of objects.
-                node = (TomlObjectNode) array.get(array.size() - 1);
+                node = ((TableArray) existing).last;
+            } else if (existing == JsonNodeType.OBJECT) {
+                // inline tables are complete
+                throw errorContext.atPosition(lexer).generic("Object already closed");
+            } else if (existing == JsonNodeType.ARRAY) {
+                // as are inline arrays (only arrays declared by array tables are not)
+                throw errorContext.atPosition(lexer).generic("Array already closed");
             } else {
-                throw errorContext.atPosition(lexer).generic("Path into existing non-object value of type " + existing.getNodeType());
+                throw errorContext.atPosition(lexer).generic("Path into existing non-object value of type " + existing);
             }
         }
     }
 
-    private JsonNode parseValue(int nextState) throws IOException {
+    private String symbol(char[] buffer, int start, int length) throws IOException {
+        return symbols.findSymbol(buffer, start, length, symbols.calcHash(buffer, start, length));
+    }
+
+    /**
+     * @return Type of the value parsed, for error reporting
+     */
+    private JsonNodeType parseValue(TokenList out, int nextState) throws IOException {
         TomlToken firstToken = peek();
         switch (firstToken) {
             case STRING:
-                String text = lexer.textBuffer.contentsAsString();
+                out.addText(lexer.getStringBuffer(), lexer.getStringStart(), lexer.getStringLength());
                 pollExpected(TomlToken.STRING, nextState);
-                return factory.textNode(text);
+                return JsonNodeType.STRING;
             case TRUE:
                 pollExpected(TomlToken.TRUE, nextState);
-                return factory.booleanNode(true);
+                out.add(JsonToken.VALUE_TRUE, null);
+                return JsonNodeType.BOOLEAN;
             case FALSE:
                 pollExpected(TomlToken.FALSE, nextState);
-                return factory.booleanNode(false);
+                out.add(JsonToken.VALUE_FALSE, null);
+                return JsonNodeType.BOOLEAN;
             case OFFSET_DATE_TIME:
             case LOCAL_DATE_TIME:
             case LOCAL_DATE:
             case LOCAL_TIME:
-                return parseDateTime(nextState);
+                Object value = parseDateTime(nextState);
+                if (value instanceof String) {
+                    out.add(JsonToken.VALUE_STRING, value);
+                    return JsonNodeType.STRING;
+                }
+                out.add(JsonToken.VALUE_EMBEDDED_OBJECT, value);
+                return JsonNodeType.POJO;
             case FLOAT:
-                return parseFloat(nextState);
+                out.add(JsonToken.VALUE_NUMBER_FLOAT, parseFloat(nextState));
+                return JsonNodeType.NUMBER;
             case INTEGER:
-                return parseInt(nextState);
+                out.add(JsonToken.VALUE_NUMBER_INT, parseInt(nextState));
+                return JsonNodeType.NUMBER;
             case ARRAY_OPEN:
-                return parseArray(nextState);
+                parseArray(out, nextState);
+                return JsonNodeType.ARRAY;
             case INLINE_TABLE_OPEN:
-                return parseInlineTable(nextState);
+                parseInlineTable(out, nextState);
+                return JsonNodeType.OBJECT;
             default:
                 throw errorContext.atPosition(lexer).unexpectedToken(firstToken, "value");
         }
     }
 
-    private JsonNode parseDateTime(int nextState) throws IOException {
+    private Object parseDateTime(int nextState) throws IOException {
         String text = lexer.yytext();
         TomlToken token = poll(nextState);
         // the time-delim index can be [Tt ]. java.time supports only [Tt]
@@ -258,13 +472,13 @@ class Parser {
                     throw new AssertionError();
                 }
             }
-            return factory.pojoNode(value);
+            return value;
         } else {
-            return factory.textNode(text);
+            return text;
         }
     }
 
-    private JsonNode parseInt(int nextState) throws IOException {
+    private Number parseInt(int nextState) throws IOException {
         char[] buffer = lexer.getTextBuffer();
         int start = lexer.getTextBufferStart();
         int length = lexer.getTextBufferEnd() - lexer.getTextBufferStart();
@@ -279,12 +493,12 @@ class Parser {
             }
         }
 
-        ValueNode node = parseIntFromBuffer(buffer, start, length);
+        Number value = parseIntFromBuffer(buffer, start, length);
         pollExpected(TomlToken.INTEGER, nextState);
-        return node;
+        return value;
     }
 
-    private ValueNode parseIntFromBuffer(char[] buffer, int start, int length) throws TomlStreamReadException {
+    private Number parseIntFromBuffer(char[] buffer, int start, int length) throws TomlStreamReadException {
         if (length > 2) {
             char baseChar = buffer[start + 1];
 
@@ -298,35 +512,35 @@ class Parser {
                     // hex
                     if (baseChar == 'x') {
                         if (length <= 31 / 4) {
-                            return factory.numberNode(Integer.parseInt(text, 16));
+                            return Integer.parseInt(text, 16);
                         } else if (length <= 63 / 4) {
-                            return factory.numberNode(Long.parseLong(text, 16));
+                            return Long.parseLong(text, 16);
                         } else {
-                            return factory.numberNode(NumberInput.parseBigIntegerWithRadix(
-                                    text, 16, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)));
+                            return NumberInput.parseBigIntegerWithRadix(
+                                    text, 16, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
                         }
                     }
                     // octal
                     if (baseChar == 'o') {
                         // this is a bit conservative, but who uses octal anyway?
                         if (length <= 31 / 3) {
-                            return factory.numberNode(Integer.parseInt(text, 8));
+                            return Integer.parseInt(text, 8);
                         } else if (text.length() <= 63 / 3) {
-                            return factory.numberNode(Long.parseLong(text, 8));
+                            return Long.parseLong(text, 8);
                         } else {
-                            return factory.numberNode(NumberInput.parseBigIntegerWithRadix(
-                                    text, 8, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)));
+                            return NumberInput.parseBigIntegerWithRadix(
+                                    text, 8, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
                         }
                     }
                     // binary
                     assert baseChar == 'b';
                     if (length <= 31) {
-                        return factory.numberNode(Integer.parseUnsignedInt(text, 2));
+                        return Integer.parseUnsignedInt(text, 2);
                     } else if (length <= 63) {
-                        return factory.numberNode(Long.parseUnsignedLong(text, 2));
+                        return Long.parseUnsignedLong(text, 2);
                     } else {
-                        return factory.numberNode(NumberInput.parseBigIntegerWithRadix(
-                                text, 2, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)));
+                        return NumberInput.parseBigIntegerWithRadix(
+                                text, 2, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
                     }
                 } catch (NumberFormatException e) {
                     throw errorContext.atPosition(lexer).invalidNumber(e, text);
@@ -350,16 +564,16 @@ class Parser {
         if (length <= 9) {
             int v = NumberInput.parseInt(buffer, start, length);
             if (negative) v = -v;
-            return factory.numberNode(v);
+            return v;
         }
         if (length <= 18 || NumberInput.inLongRange(buffer, start, length, negative)) {
             long v = NumberInput.parseLong(buffer, start, length);
             if (negative) v = -v;
             // Might still fit in int, need to check
             if ((int) v == v) {
-                return factory.numberNode((int) v);
+                return (int) v;
             } else {
-                return factory.numberNode(v);
+                return v;
             }
         }
         String text = null;
@@ -373,17 +587,17 @@ class Parser {
             throw errorContext.atPosition(lexer).invalidNumber(e, reportNum);
         }
         text = new String(buffer, start, length);
-        return factory.numberNode(NumberInput.parseBigInteger(
-                text, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)));
+        return NumberInput.parseBigInteger(
+                text, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
     }
 
-    private JsonNode parseFloat(int nextState) throws IOException {
+    private Number parseFloat(int nextState) throws IOException {
         final String text = lexer.yytext().replace("_", "");
         pollExpected(TomlToken.FLOAT, nextState);
         if (text.endsWith("nan")) {
-            return factory.numberNode(Double.NaN);
+            return Double.NaN;
         } else if (text.endsWith("inf")) {
-            return factory.numberNode(text.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+            return text.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
         } else {
             try {
                 // Related to [databind#4250], need to pre-validate
@@ -393,7 +607,7 @@ class Parser {
                 tomlFactory.streamReadConstraints().validateFPLength(text.length());
                 BigDecimal dec = NumberInput.parseBigDecimal(
                         text, tomlFactory.isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
-                return factory.numberNode(dec);
+                return dec;
             } catch (NumberFormatException | StreamConstraintsException e) {
                 final String reportNum = text.length() <= MAX_CHARS_TO_REPORT ?
                         text :
@@ -403,15 +617,16 @@ class Parser {
         }
     }
 
-    private ObjectNode parseInlineTable(int nextState) throws IOException {
+    private void parseInlineTable(TokenList out, int nextState) throws IOException {
         // inline-table = inline-table-open [ inline-table-keyvals ] inline-table-close
         // inline-table-keyvals = keyval [ inline-table-sep inline-table-keyvals ]
         pollExpected(TomlToken.INLINE_TABLE_OPEN, Lexer.EXPECT_INLINE_KEY);
-        TomlObjectNode node = (TomlObjectNode) factory.objectNode();
+        // never open, so all content is buffered until the table is complete
+        Table table = new Table(null);
         while (true) {
             TomlToken token = peek();
             if (token == TomlToken.INLINE_TABLE_CLOSE) {
-                if (node.isEmpty()) {
+                if (table.members.isEmpty()) {
                     break;
                 } else {
                     // "A terminating comma (also called trailing comma) is not permitted after the last key/value pair
@@ -419,7 +634,7 @@ class Parser {
                     throw errorContext.atPosition(lexer).generic("Trailing comma not permitted for inline tables");
                 }
             }
-            parseKeyVal(node, Lexer.EXPECT_TABLE_SEP);
+            parseKeyVal(table, Lexer.EXPECT_TABLE_SEP);
             TomlToken sepToken = peek();
             if (sepToken == TomlToken.INLINE_TABLE_CLOSE) {
                 break;
@@ -430,24 +645,21 @@ class Parser {
             }
         }
         pollExpected(TomlToken.INLINE_TABLE_CLOSE, nextState);
-        node.closed = true;
-        node.defined = true;
-        return node;
+        writeComplete(table, out);
     }
 
-    private ArrayNode parseArray(int nextState) throws IOException {
+    private void parseArray(TokenList out, int nextState) throws IOException {
         // array = array-open [ array-values ] ws-comment-newline array-close
         // array-values =  ws-comment-newline val ws-comment-newline array-sep array-values
         // array-values =/ ws-comment-newline val ws-comment-newline [ array-sep ]
         pollExpected(TomlToken.ARRAY_OPEN, Lexer.EXPECT_VALUE);
-        TomlArrayNode node = (TomlArrayNode) factory.arrayNode();
+        out.add(JsonToken.START_ARRAY, null);
         while (true) {
             TomlToken token = peek();
             if (token == TomlToken.ARRAY_CLOSE) {
                 break;
             }
-            JsonNode value = parseValue(Lexer.EXPECT_ARRAY_SEP);
-            node.add(value);
+            parseValue(out, Lexer.EXPECT_ARRAY_SEP);
             TomlToken sepToken = peek();
             if (sepToken == TomlToken.ARRAY_CLOSE) {
                 break;
@@ -458,95 +670,296 @@ class Parser {
             }
         }
         pollExpected(TomlToken.ARRAY_CLOSE, nextState);
-        node.closed = true;
-        return node;
+        out.add(JsonToken.END_ARRAY, null);
     }
 
-    private void parseKeyVal(TomlObjectNode target, int nextState) throws IOException {
+    private void parseKeyVal(Table target, int nextState) throws IOException {
         // keyval = key keyval-sep val
         FieldRef fieldRef = parseAndEnterKey(target, false);
         pollExpected(TomlToken.KEY_VAL_SEP, Lexer.EXPECT_VALUE);
-        JsonNode value = parseValue(nextState);
-        if (fieldRef.object.has(fieldRef.key)) {
+        TokenList out = isInnermostOpen(fieldRef.table) ? output : fieldRef.table.buffer();
+        out.add(JsonToken.FIELD_NAME, fieldRef.key);
+        JsonNodeType type = parseValue(out, nextState);
+        if (fieldRef.table.members.containsKey(fieldRef.key)) {
             throw errorContext.atPosition(lexer).generic("Duplicate key");
         }
-        fieldRef.object.set(fieldRef.key, value);
+        fieldRef.table.members.put(fieldRef.key, type);
     }
 
-    private TomlObjectNode getOrCreateObject(ObjectNode node, String field) throws TomlStreamReadException {
-        JsonNode existing = node.get(field);
+    private Table getOrCreateObject(Table table, String field) throws TomlStreamReadException {
+        Object existing = table.members.get(field);
         if (existing == null) {
-            return (TomlObjectNode) node.putObject(field);
-        } else if (existing.isObject()) {
-            return (TomlObjectNode) existing;
+            return addChild(table, new Table(field));
+        } else if (existing instanceof Table) {
+            return (Table) existing;
+        } else if (existing == JsonNodeType.OBJECT) {
+            // inline tables are always defined
+            throw errorContext.atPosition(lexer).generic("Table redefined");
         } else {
-            throw errorContext.atPosition(lexer).generic("Path into existing non-object value of type " + existing.getNodeType());
+            JsonNodeType type = (existing instanceof TableArray) ? JsonNodeType.ARRAY : (JsonNodeType) existing;
+            throw errorContext.atPosition(lexer).generic("Path into existing non-object value of type " + type);
         }
     }
 
-    private TomlArrayNode getOrCreateArray(ObjectNode node, String field) throws TomlStreamReadException {
-        JsonNode existing = node.get(field);
+    private TableArray getOrCreateArray(Table table, String field) throws TomlStreamReadException {
+        Object existing = table.members.get(field);
         if (existing == null) {
-            return (TomlArrayNode) node.putArray(field);
-        } else if (existing.isArray()) {
-            return (TomlArrayNode) existing;
+            return addChild(table, new TableArray(field));
+        } else if (existing instanceof TableArray) {
+            return (TableArray) existing;
+        } else if (existing == JsonNodeType.ARRAY) {
+            throw errorContext.atPosition(lexer).generic("Array already finished");
+        } else {
+            throw errorContext.atPosition(lexer).generic("Path into existing non-array value of type " + JsonNodeType.OBJECT);
+        }
+    }
+
+    private boolean isInnermostOpen(Container container) {
+        return open.get(open.size() - 1) == container;
+    }
+
+    private <C extends Container> C addChild(Table parent, C child) {
+        parent.members.put(child.name, child);
+        if (isInnermostOpen(parent)) {
+            output.add(JsonToken.FIELD_NAME, child.name);
+            output.add(child.startToken(), null);
+            open.add(child);
         } else {
-            throw errorContext.atPosition(lexer).generic("Path into existing non-array value of type " + node.getNodeType());
+            parent.pending.add(child);
         }
+        return child;
+    }
+
+    private Table addElement(TableArray array) {
+        Table element = new Table(null);
+        int index = open.indexOf(array);
+        if (index >= 0) {
+            // previous element (with everything it contains) is complete now
+            while (open.size() > index + 1) {
+                close(open.remove(open.size() - 1));
+            }
+            output.add(JsonToken.START_OBJECT, null);
+            open.add(element);
+        } else {
+            array.pending.add(element);
+        }
+        array.last = element;
+        return element;
+    }
+
+    /**
+     * Called once an open container is complete: adds its buffered content
+     * and end token to {@link #output}.
+     */
+    private void close(Container container) {
+        writePending(container, output);
+        output.add(container.endToken(), null);
+    }
+
+    private static void writeComplete(Container container, TokenList out) {
+        out.add(container.startToken(), null);
+        writePending(container, out);
+        out.add(container.endToken(), null);
+    }
+
+    private static void writePending(Container container, TokenList out) {
+        ArrayList<Object> pending = container.pending;
+        for (int i = 0, len = pending.size(); i < len; ++i) {
+            Object entry = pending.get(i);
+            // clear reference so content can be garbage collected once written
+            pending.set(i, null);
+            if (entry instanceof TokenList) {
+                out.addAll((TokenList) entry);
+            } else {
+                Container child = (Container) entry;
+                if (child.name != null) {
+                    out.add(JsonToken.FIELD_NAME, child.name);
+                }
+                writeComplete(child, out);
+            }
+        }
+        pending.clear();
     }
 
     private static class FieldRef {
-        final TomlObjectNode object;
+        final Table table;
         final String key;
 
-        FieldRef(TomlObjectNode object, String key) {
-            this.object = object;
+        FieldRef(Table table, String key) {
+            this.table = table;
             this.key = key;
         }
     }
 
-    @SuppressWarnings("serial") // only used internally, no need to be JDK serializable
-    private static class TomlObjectNode extends ObjectNode {
-        boolean closed = false;
+    /**
+     * Table or array of tables declared by table headers or dotted keys.
+     */
+    private abstract static class Container {
+        /**
+         * Key within enclosing table; {@code null} for elements of arrays of tables
+         * (and inline tables)
+         */
+        final String name;
+
+        /**
+         * Content not yet added to output: {@link TokenList}s of key/value pairs,
+         * and child containers
+         */
+        final ArrayList<Object> pending = new ArrayList<>();
+
+        Container(String name) {
+            this.name = name;
+        }
+
+        abstract JsonToken startToken();
+
+        abstract JsonToken endToken();
+    }
+
+    private static class Table extends Container {
+        /**
+         * Keys defined so far, mapped to {@link Table} or {@link TableArray}
+         * for tables and arrays of tables that may still be added to, and to
+         * {@link JsonNodeType} for values (including inline arrays and tables)
+         */
+        final HashMap<String, Object> members = new HashMap<>();
+
         boolean defined = false;
 
-        TomlObjectNode(JsonNodeFactory nc) {
-            super(nc);
+        Table(String name) {
+            super(name);
         }
-    }
 
-    @SuppressWarnings("serial") // only used internally, no need to be JDK serializable
-    private static class TomlArrayNode extends ArrayNode {
-        boolean closed = false;
+        /**
+         * @return Token buffer to add key/value pairs to
+         */
+        TokenList buffer() {
+            Object last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+            if (last instanceof TokenList) {
+                return (TokenList) last;
+            }
+            TokenList buffer = new TokenList();
+            pending.add(buffer);
+            return buffer;
+        }
 
-        TomlArrayNode(JsonNodeFactory nf) {
-            super(nf);
+        @Override
+        JsonToken startToken() {
+            return JsonToken.START_OBJECT;
         }
 
-        TomlArrayNode(JsonNodeFactory nf, int capacity) {
-            super(nf, capacity);
+        @Override
+        JsonToken endToken() {
+            return JsonToken.END_OBJECT;
         }
     }
 
-    @SuppressWarnings("serial") // only used internally, no need to be JDK serializable
-    private static class JsonNodeFactoryImpl extends JsonNodeFactory {
-        public JsonNodeFactoryImpl() {
-            super(true); // exact bigdecimals
+    private static class TableArray extends Container {
+        /**
+         * Most recently declared element: the only one that may still be added to
+         */
+        Table last;
+
+        TableArray(String name) {
+            super(name);
         }
 
         @Override
-        public ArrayNode arrayNode() {
-            return new TomlArrayNode(this);
+        JsonToken startToken() {
+            return JsonToken.START_ARRAY;
         }
 
         @Override
-        public ArrayNode arrayNode(int capacity) {
-            return new TomlArrayNode(this, capacity);
+        JsonToken endToken() {
+            return JsonToken.END_ARRAY;
         }
+    }
 
-        @Override
-        public ObjectNode objectNode() {
-            return new TomlObjectNode(this);
+    /**
+     * Compact sequence of tokens with their values (see {@link #currentValue()}).
+     * Content of string values added with {@link #addText} is kept in a single
+     * char buffer, each one preceded by its length, in token order.
+     */
+    private static final class TokenList {
+        static final int TEXT_HEADER_LENGTH = 2;
+
+        private static final int INITIAL_SIZE = 16;
+
+        /**
+         * Size above which arrays are not retained by {@link #clear()}, to free memory
+         * used for returning large amounts of buffered content
+         */
+        private static final int MAX_RETAINED_SIZE = 1024;
+
+        private static final int MAX_RETAINED_TEXT_SIZE = 16 * 1024;
+
+        JsonToken[] types = new JsonToken[INITIAL_SIZE];
+        Object[] values = new Object[INITIAL_SIZE];
+        int size;
+
+        char[] text = NO_CHARS;
+        int textSize;
+
+        void add(JsonToken type, Object value) {
+            if (size == types.length) {
+                grow(size + 1);
+            }
+            types[size] = type;
+            values[size] = value;
+            ++size;
+        }
+
+        void addText(char[] buffer, int start, int length) {
+            add(JsonToken.VALUE_STRING, null);
+            ensureTextRoom(TEXT_HEADER_LENGTH + length);
+            text[textSize++] = (char) (length >>> 16);
+            text[textSize++] = (char) length;
+            System.arraycopy(buffer, start, text, textSize, length);
+            textSize += length;
+        }
+
+        /**
+         * @param index Index of a text entry within {@link #text}
+         */
+        int textLength(int index) {
+            return (text[index] << 16) | text[index + 1];
+        }
+
+        void addAll(TokenList other) {
+            if (size + other.size > types.length) {
+                grow(size + other.size);
+            }
+            System.arraycopy(other.types, 0, types, size, other.size);
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            ensureTextRoom(other.textSize);
+            System.arraycopy(other.text, 0, text, textSize, other.textSize);
+            textSize += other.textSize;
+        }
+
+        void clear() {
+            if (types.length > MAX_RETAINED_SIZE) {
+                types = new JsonToken[INITIAL_SIZE];
+                values = new Object[INITIAL_SIZE];
+            }
+            // otherwise values have been cleared as they were consumed
+            size = 0;
+            if (text.length > MAX_RETAINED_TEXT_SIZE) {
+                text = NO_CHARS;
+            }
+            textSize = 0;
+        }
+
+        private void ensureTextRoom(int length) {
+            if (textSize + length > text.length) {
+                text = Arrays.copyOf(text, Math.max(textSize + length, text.length + (text.length >> 1)));
+            }
+        }
+
+        private void grow(int minSize) {
+            int newSize = Math.max(minSize, types.length + (types.length >> 1));
+            types = Arrays.copyOf(types, newSize);
+            values = Arrays.copyOf(values, newSize);
         }
     }
 }
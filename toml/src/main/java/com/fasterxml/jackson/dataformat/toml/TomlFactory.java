@@ -7,8 +7,7 @@ import com.fasterxml.jackson.core.format.InputAccessor;
 import com.fasterxml.jackson.core.format.MatchStrength;
 import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.core.io.UTF8Writer;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TreeTraversingParser;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 
 public final class TomlFactory extends JsonFactory
 {
@@ -37,6 +36,23 @@ public final class TomlFactory extends JsonFactory
     protected int _tomlParserFeatures;
     protected int _tomlGeneratorFeatures;
 
+    /**
+     * Size (in chars) of the buffer parsers read content into, or 0 to use
+     * the default token buffer size of {@link com.fasterxml.jackson.core.util.BufferRecycler}.
+     * Larger buffers mean fewer reads for large documents.
+     *
+     * @since 2.19
+     */
+    protected int _lexerBufferSize;
+
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     * Not serialized, since listeners are usually bound to the running process.
+     *
+     * @since 2.19
+     */
+    protected transient TomlMetrics _metrics;
+
     /*
     /**********************************************************************
     /* Factory construction, configuration
@@ -53,6 +69,8 @@ public final class TomlFactory extends JsonFactory
         super(src, oc);
         _tomlGeneratorFeatures = src._tomlGeneratorFeatures;
         _tomlParserFeatures = src._tomlParserFeatures;
+        _lexerBufferSize = src._lexerBufferSize;
+        _metrics = src._metrics;
     }
 
     /**
@@ -64,6 +82,8 @@ public final class TomlFactory extends JsonFactory
         super(b, false);
         _tomlGeneratorFeatures = b._formatGeneratorFeatures;
         _tomlParserFeatures = b._formatParserFeatures;
+        _lexerBufferSize = b._lexerBufferSize;
+        _metrics = b._metrics;
     }
 
     @Override
@@ -96,6 +116,22 @@ public final class TomlFactory extends JsonFactory
         return PackageVersion.VERSION;
     }
 
+    /**
+     * @since 2.19
+     */
+    public int getLexerBufferSize() {
+        return _lexerBufferSize;
+    }
+
+    /**
+     * Accessor for {@link TomlMetrics} listener configured, if any.
+     *
+     * @since 2.19
+     */
+    public TomlMetrics getMetrics() {
+        return _metrics;
+    }
+
     @Override
     public boolean requiresPropertyOrdering() {
         return false;
@@ -258,12 +294,7 @@ public final class TomlFactory extends JsonFactory
 
     @Override
     public JsonParser _createParser(Reader r, IOContext ctxt) throws IOException {
-        try {
-            ObjectNode node = parse(ctxt, r);
-            return new TreeTraversingParser(node); // don't pass our _objectCodec, this part shouldn't be customized
-        } finally {
-            ctxt.close();
-        }
+        return new TomlParser(this, ctxt, _parserFeatures, _tomlParserFeatures, _objectCodec, r);
     }
 
     @Override
@@ -276,6 +307,13 @@ public final class TomlFactory extends JsonFactory
         return _createParser(new CharArrayReader(data, offset, len), ctxt);
     }
 
+    /**
+     * @return Symbol table for canonicalizing keys, to be released when parsing is done
+     */
+    CharsToNameCanonicalizer makeSymbolTable() {
+        return _rootCharSymbols.makeChild();
+    }
+
     /*
     /**********************************************************************
     /* Overridden internal factory methods, generator
@@ -284,29 +322,14 @@ public final class TomlFactory extends JsonFactory
 
     @Override
     protected JsonGenerator _createGenerator(Writer out, IOContext ctxt) throws IOException {
-        return new TomlGenerator(ctxt, _generatorFeatures, _tomlGeneratorFeatures,
+        TomlGenerator gen = new TomlGenerator(ctxt, _generatorFeatures, _tomlGeneratorFeatures,
                 _objectCodec, out);
+        gen._metrics = _metrics;
+        return gen;
     }
 
     @Override
     protected JsonGenerator _createUTF8Generator(OutputStream out, IOContext ctxt) throws IOException {
-        return new TomlGenerator(ctxt, _generatorFeatures, _tomlGeneratorFeatures,
-                _objectCodec, new UTF8Writer(ctxt, out));
-    }
-
-    /*
-    /**********************************************************************
-    /* Low-level methods for reading/writing TOML
-    /**********************************************************************
-     */
-
-    private ObjectNode parse(IOContext ctxt, Reader r0) throws IOException {
-        if (ctxt.isResourceManaged() || isEnabled(StreamReadFeature.AUTO_CLOSE_SOURCE)) {
-            try (Reader r = r0) {
-                return Parser.parse(this, ctxt, r);
-            }
-        } else {
-            return Parser.parse(this, ctxt, r0);
-        }
+        return _createGenerator(new UTF8Writer(ctxt, out), ctxt);
     }
 }
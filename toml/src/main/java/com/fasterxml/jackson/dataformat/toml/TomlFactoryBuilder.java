@@ -20,6 +20,16 @@ public class TomlFactoryBuilder extends TSFBuilder<TomlFactory, TomlFactoryBuild
     protected int _formatParserFeatures = TomlFactory.DEFAULT_TOML_PARSER_FEATURE_FLAGS;
     protected int _formatGeneratorFeatures = TomlFactory.DEFAULT_TOML_GENERATOR_FEATURE_FLAGS;
 
+    /**
+     * @since 2.19
+     */
+    protected int _lexerBufferSize;
+
+    /**
+     * @since 2.19
+     */
+    protected TomlMetrics _metrics;
+
     /*
     /**********************************************************
     /* Life cycle
@@ -32,6 +42,10 @@ public class TomlFactoryBuilder extends TSFBuilder<TomlFactory, TomlFactoryBuild
 
     TomlFactoryBuilder(TomlFactory base) {
         super(base);
+        _formatParserFeatures = base._tomlParserFeatures;
+        _formatGeneratorFeatures = base._tomlGeneratorFeatures;
+        _lexerBufferSize = base._lexerBufferSize;
+        _metrics = base._metrics;
     }
 
     @Override
@@ -75,6 +89,55 @@ public class TomlFactoryBuilder extends TSFBuilder<TomlFactory, TomlFactoryBuild
         return state ? enable(f) : disable(f);
     }
 
+    /**
+     * Method for specifying the size (in chars) of the buffer that parsers read
+     * content into: larger buffers mean fewer reads (and fewer moves of partially
+     * read tokens) for large documents, at the cost of more memory per parser.
+     * Default of 0 means that the default token buffer size of
+     * {@link com.fasterxml.jackson.core.util.BufferRecycler} is used.
+     *
+     * @param size Buffer size in chars; 0 for default
+     *
+     * @return This builder instance, to allow chaining
+     *
+     * @since 2.19
+     */
+    public TomlFactoryBuilder lexerBufferSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Lexer buffer size can not be negative ("+size+")");
+        }
+        _lexerBufferSize = size;
+        return this;
+    }
+
+    /**
+     * @since 2.19
+     */
+    public int lexerBufferSize() {
+        return _lexerBufferSize;
+    }
+
+    /**
+     * Method for specifying {@link TomlMetrics} listener to notify of activity
+     * of parsers and generators constructed by factory; {@code null} to
+     * indicate none (default).
+     *
+     * @return This builder instance, to allow chaining
+     *
+     * @since 2.19
+     */
+    public TomlFactoryBuilder metrics(TomlMetrics metrics) {
+        _metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @since 2.19
+     */
+    public TomlMetrics metrics() {
+        return _metrics;
+    }
+
     /*
     /**********************************************************
     /* Generator feature setting
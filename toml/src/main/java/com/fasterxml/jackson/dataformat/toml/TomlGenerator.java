@@ -37,6 +37,14 @@ final class TomlGenerator extends GeneratorBase
 
     private final int _tomlFeatures;
 
+    /**
+     * Listener to notify of generation activity, if any; assigned by
+     * {@link TomlFactory} after construction.
+     *
+     * @since 2.19
+     */
+    TomlMetrics _metrics;
+
     /*
     /**********************************************************************
     /* Output state
@@ -160,6 +168,9 @@ final class TomlGenerator extends GeneratorBase
     protected void _flushBuffer() throws IOException {
         if (_outputTail > 0) {
             _out.write(_outputBuffer, 0, _outputTail);
+            if (_metrics != null) {
+                _metrics.outputFlushed(_outputTail);
+            }
             _outputTail = 0;
         }
     }
@@ -227,6 +238,9 @@ final class TomlGenerator extends GeneratorBase
         // Otherwise, better just pass through:
         _flushBuffer();
         _out.write(text, offset, len);
+        if (_metrics != null) {
+            _metrics.outputFlushed(len);
+        }
     }
 
     protected void _writeRawLong(String text) throws IOException {
@@ -0,0 +1,89 @@
+package com.fasterxml.jackson.dataformat.toml;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener for TOML reading and writing activity, configured using
+ * {@link TomlFactoryBuilder#metrics(TomlMetrics)}; usable for collecting
+ * counters or emitting monitoring events without attaching a profiler.
+ *<p>
+ * Table headers are reported as the parser reaches them, so the count
+ * reflects how far into the document parsing got; inline tables
+ * ({@code {a = 1}}) and dotted keys are not table headers and are not
+ * reported. The number of characters read is reported when the parser is
+ * closed, and generators report each time their character buffer is
+ * written out. Since all parsers and generators of a factory
+ * report to the same listener, it may be called from multiple threads.
+ *<p>
+ * Methods have empty default implementations; {@link Counters} just sums
+ * them up.
+ *
+ * @since 2.19
+ */
+public interface TomlMetrics
+{
+    /**
+     * Method called when a parser has read a table header, either for a
+     * standard table ({@code [table]}) or an array table ({@code [[table]]}).
+     */
+    default void tableRead() { }
+
+    /**
+     * Method called when a parser is closed.
+     *
+     * @param charCount Number of characters of input read
+     */
+    default void parserClosed(long charCount) { }
+
+    /**
+     * Method called when a generator flushes its buffered output to the
+     * underlying {@link java.io.Writer}.
+     *
+     * @param charCount Number of characters written
+     */
+    default void outputFlushed(int charCount) { }
+
+    /**
+     * Simple {@link TomlMetrics} implementation that just keeps track of
+     * cumulative counts.
+     */
+    public static class Counters implements TomlMetrics
+    {
+        protected final LongAdder _tablesRead = new LongAdder();
+        protected final LongAdder _parsersClosed = new LongAdder();
+        protected final LongAdder _charsRead = new LongAdder();
+        protected final LongAdder _outputFlushes = new LongAdder();
+        protected final LongAdder _charsWritten = new LongAdder();
+
+        @Override
+        public void tableRead() {
+            _tablesRead.increment();
+        }
+
+        @Override
+        public void parserClosed(long charCount) {
+            _parsersClosed.increment();
+            _charsRead.add(charCount);
+        }
+
+        @Override
+        public void outputFlushed(int charCount) {
+            _outputFlushes.increment();
+            _charsWritten.add(charCount);
+        }
+
+        public long getTablesRead() { return _tablesRead.sum(); }
+        public long getParsersClosed() { return _parsersClosed.sum(); }
+        public long getCharsRead() { return _charsRead.sum(); }
+        public long getOutputFlushes() { return _outputFlushes.sum(); }
+        public long getCharsWritten() { return _charsWritten.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format(
+"[TomlMetrics.Counters: tables read=%d, parsers closed=%d (%d chars); output flushes=%d (%d chars)]",
+                    getTablesRead(), getParsersClosed(), getCharsRead(),
+                    getOutputFlushes(), getCharsWritten());
+        }
+    }
+}
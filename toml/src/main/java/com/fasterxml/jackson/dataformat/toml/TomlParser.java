@@ -0,0 +1,433 @@
+package com.fasterxml.jackson.dataformat.toml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * {@link JsonParser} implementation for TOML content, exposing tokens produced
+ * incrementally by {@link Parser}: content that is known to be complete is
+ * returned as it is read, the rest once it is complete (see {@link Parser} for details).
+ *<p>
+ * Locations are those of the underlying lexer: for content that had to be
+ * buffered they point past the content.
+ *
+ * @since 2.19
+ */
+final class TomlParser extends ParserMinimalBase
+{
+    /*
+    /**********************************************************************
+    /* Configuration
+    /**********************************************************************
+     */
+
+    private ObjectCodec _objectCodec;
+
+    private final IOContext _ioContext;
+
+    private final Reader _reader;
+
+    private final Parser _parser;
+
+    /*
+    /**********************************************************************
+    /* Parsing state
+    /**********************************************************************
+     */
+
+    private JsonReadContext _parsingContext;
+
+    /**
+     * Value of the current token; see {@link Parser#currentValue()}
+     */
+    private Object _currValue;
+
+    /**
+     * Text of the current {@link JsonToken#VALUE_STRING} token with content in
+     * the token buffer, once constructed
+     */
+    private String _currText;
+
+    private boolean _closed;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    TomlParser(TomlFactory factory, IOContext ctxt, int parserFeatures, int tomlFeatures,
+            ObjectCodec codec, Reader reader)
+    {
+        super(parserFeatures, ctxt.streamReadConstraints());
+        _objectCodec = codec;
+        _ioContext = ctxt;
+        _reader = reader;
+        _parsingContext = JsonReadContext.createRootContext(null);
+        _parser = new Parser(factory, ctxt,
+                new TomlStreamReadException.ErrorContext(ctxt.contentReference(), this),
+                tomlFeatures, reader);
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return _objectCodec;
+    }
+
+    @Override
+    public void setCodec(ObjectCodec c) {
+        _objectCodec = c;
+    }
+
+    @Override
+    public Version version() {
+        return PackageVersion.VERSION;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!_closed) {
+            _closed = true;
+            _currToken = null;
+            try {
+                if (_ioContext.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+                    _reader.close();
+                }
+            } finally {
+                _parser.releaseBuffers();
+                _ioContext.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return _closed;
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, traversal
+    /**********************************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException
+    {
+        if (_closed) {
+            return null;
+        }
+        JsonToken t = _parser.nextToken();
+        _currValue = _parser.currentValue();
+        _currText = null;
+        if (t == null) {
+            close();
+            return null;
+        }
+        if (!t.isStructEnd() && (t == JsonToken.FIELD_NAME || !_parsingContext.inObject())) {
+            _parsingContext.expectComma();
+        }
+        switch (t) {
+        case START_OBJECT:
+            _parsingContext = _parsingContext.createChildObjectContext(-1, -1);
+            break;
+        case START_ARRAY:
+            _parsingContext = _parsingContext.createChildArrayContext(-1, -1);
+            break;
+        case END_OBJECT:
+        case END_ARRAY:
+            _parsingContext = _parsingContext.clearAndGetParent();
+            break;
+        case FIELD_NAME:
+            _parsingContext.setCurrentName((String) _currValue);
+            break;
+        default:
+        }
+        return (_currToken = t);
+    }
+
+    @Override
+    public String currentName() throws IOException {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            JsonReadContext parent = _parsingContext.getParent();
+            if (parent != null) {
+                return parent.getCurrentName();
+            }
+        }
+        return _parsingContext.getCurrentName();
+    }
+
+    @Deprecated // since 2.17
+    @Override
+    public String getCurrentName() throws IOException {
+        return currentName();
+    }
+
+    @Override
+    public void overrideCurrentName(String name)
+    {
+        JsonReadContext ctxt = _parsingContext;
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            ctxt = ctxt.getParent();
+        }
+        try {
+            ctxt.setCurrentName(name);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        return _parsingContext;
+    }
+
+    @Override
+    public JsonLocation currentLocation() {
+        return _parser.currentLocation();
+    }
+
+    @Override
+    public JsonLocation currentTokenLocation() {
+        return _parser.currentLocation();
+    }
+
+    @Deprecated // since 2.17
+    @Override
+    public JsonLocation getCurrentLocation() {
+        return currentLocation();
+    }
+
+    @Deprecated // since 2.17
+    @Override
+    public JsonLocation getTokenLocation() {
+        return currentTokenLocation();
+    }
+
+    @Override
+    protected void _handleEOF() throws JsonParseException {
+        // should never get called: end-of-content is verified by Parser
+        _throwInternal();
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, access to textual content
+    /**********************************************************************
+     */
+
+    @Override
+    public String getText() throws IOException
+    {
+        if (_currToken == null) {
+            return null;
+        }
+        switch (_currToken) {
+        case VALUE_STRING:
+            if (_currValue == null) {
+                if (_currText == null) {
+                    _currText = new String(_parser.currentTextBuffer(),
+                            _parser.currentTextOffset(), _parser.currentTextLength());
+                }
+                return _currText;
+            }
+            return (String) _currValue;
+        case FIELD_NAME:
+            return (String) _currValue;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return String.valueOf(_currValue);
+        default:
+            return _currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException {
+        if (hasTextCharacters()) {
+            return _parser.currentTextBuffer();
+        }
+        String text = getText();
+        return (text == null) ? null : text.toCharArray();
+    }
+
+    @Override
+    public int getTextLength() throws IOException {
+        if (hasTextCharacters()) {
+            return _parser.currentTextLength();
+        }
+        String text = getText();
+        return (text == null) ? 0 : text.length();
+    }
+
+    @Override
+    public int getTextOffset() throws IOException {
+        return hasTextCharacters() ? _parser.currentTextOffset() : 0;
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        return (_currToken == JsonToken.VALUE_STRING) && (_currValue == null);
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, typed non-text access
+    /**********************************************************************
+     */
+
+    @Override
+    public Number getNumberValue() throws IOException {
+        if (_currToken == JsonToken.VALUE_NUMBER_INT || _currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (Number) _currValue;
+        }
+        throw _constructError("Current token ("+_currToken+") not numeric, cannot use numeric value accessors");
+    }
+
+    @Override
+    public NumberType getNumberType() throws IOException {
+        Number n = getNumberValue();
+        if (n instanceof Integer) {
+            return NumberType.INT;
+        }
+        if (n instanceof Long) {
+            return NumberType.LONG;
+        }
+        if (n instanceof BigInteger) {
+            return NumberType.BIG_INTEGER;
+        }
+        if (n instanceof BigDecimal) {
+            return NumberType.BIG_DECIMAL;
+        }
+        return NumberType.DOUBLE;
+    }
+
+    @Override
+    public NumberTypeFP getNumberTypeFP() throws IOException {
+        if (_currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (_currValue instanceof BigDecimal) ? NumberTypeFP.BIG_DECIMAL : NumberTypeFP.DOUBLE64;
+        }
+        return NumberTypeFP.UNKNOWN;
+    }
+
+    @Override
+    public int getIntValue() throws IOException {
+        Number n = getNumberValue();
+        boolean inRange;
+        if (n instanceof Integer) {
+            return n.intValue();
+        } else if (n instanceof Long) {
+            long l = n.longValue();
+            inRange = (l >= MIN_INT_L) && (l <= MAX_INT_L);
+        } else if (n instanceof BigInteger) {
+            inRange = (BI_MIN_INT.compareTo((BigInteger) n) <= 0) && (BI_MAX_INT.compareTo((BigInteger) n) >= 0);
+        } else if (n instanceof BigDecimal) {
+            inRange = (BD_MIN_INT.compareTo((BigDecimal) n) <= 0) && (BD_MAX_INT.compareTo((BigDecimal) n) >= 0);
+        } else {
+            double d = n.doubleValue();
+            inRange = (d >= MIN_INT_D) && (d <= MAX_INT_D);
+        }
+        if (!inRange) {
+            reportOverflowInt();
+        }
+        return n.intValue();
+    }
+
+    @Override
+    public long getLongValue() throws IOException {
+        Number n = getNumberValue();
+        boolean inRange;
+        if ((n instanceof Integer) || (n instanceof Long)) {
+            return n.longValue();
+        } else if (n instanceof BigInteger) {
+            inRange = (BI_MIN_LONG.compareTo((BigInteger) n) <= 0) && (BI_MAX_LONG.compareTo((BigInteger) n) >= 0);
+        } else if (n instanceof BigDecimal) {
+            inRange = (BD_MIN_LONG.compareTo((BigDecimal) n) <= 0) && (BD_MAX_LONG.compareTo((BigDecimal) n) >= 0);
+        } else {
+            double d = n.doubleValue();
+            inRange = (d >= MIN_LONG_D) && (d <= MAX_LONG_D);
+        }
+        if (!inRange) {
+            reportOverflowLong();
+        }
+        return n.longValue();
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+        Number n = getNumberValue();
+        if (n instanceof BigInteger) {
+            return (BigInteger) n;
+        }
+        if (n instanceof BigDecimal) {
+            streamReadConstraints().validateBigIntegerScale(((BigDecimal) n).scale());
+            return ((BigDecimal) n).toBigInteger();
+        }
+        if (n instanceof Double) {
+            return BigDecimal.valueOf(n.doubleValue()).toBigInteger();
+        }
+        return BigInteger.valueOf(n.longValue());
+    }
+
+    @Override
+    public float getFloatValue() throws IOException {
+        return getNumberValue().floatValue();
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException {
+        return getNumberValue().doubleValue();
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+        Number n = getNumberValue();
+        if (n instanceof BigDecimal) {
+            return (BigDecimal) n;
+        }
+        if (n instanceof BigInteger) {
+            return new BigDecimal((BigInteger) n);
+        }
+        if (n instanceof Double) {
+            return BigDecimal.valueOf(n.doubleValue());
+        }
+        return BigDecimal.valueOf(n.longValue());
+    }
+
+    @Override
+    public boolean isNaN() {
+        if (_currToken == JsonToken.VALUE_NUMBER_FLOAT && (_currValue instanceof Double)) {
+            double d = (Double) _currValue;
+            return Double.isNaN(d) || Double.isInfinite(d);
+        }
+        return false;
+    }
+
+    @Override
+    public Object getEmbeddedObject() throws IOException {
+        return (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) ? _currValue : null;
+    }
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant b64variant) throws IOException
+    {
+        if (_currToken == JsonToken.VALUE_STRING) {
+            ByteArrayBuilder builder = new ByteArrayBuilder();
+            _decodeBase64(getText(), builder, b64variant);
+            return builder.toByteArray();
+        }
+        if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT && (_currValue instanceof byte[])) {
+            return (byte[]) _currValue;
+        }
+        // otherwise return null to mark we have no binary content
+        return null;
+    }
+}
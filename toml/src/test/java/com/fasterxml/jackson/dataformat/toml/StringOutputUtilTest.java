@@ -34,7 +34,7 @@ public class StringOutputUtilTest extends TomlMapperTestBase {
             if ((cats & StringOutputUtil.UNQUOTED_KEY) != 0) {
                 nUnquoted++;
 
-                Lexer lexer = new Lexer(new StringReader(rawString), _ioContext(builder), errorContext);
+                Lexer lexer = new Lexer(new StringReader(rawString), _ioContext(builder), errorContext, 0);
                 lexer.yybegin(Lexer.EXPECT_INLINE_KEY);
                 assertEquals(TomlToken.UNQUOTED_KEY, lexer.yylex());
                 lexer.releaseBuffers();
@@ -48,10 +48,11 @@ public class StringOutputUtilTest extends TomlMapperTestBase {
                 builder.appendCodePoint(c);
                 builder.append('\'');
 
-                Lexer lexer = new Lexer(new StringReader(builder.toString()), _ioContext(builder), errorContext);
+                Lexer lexer = new Lexer(new StringReader(builder.toString()), _ioContext(builder), errorContext, 0);
                 lexer.yybegin(Lexer.EXPECT_VALUE);
                 assertEquals(TomlToken.STRING, lexer.yylex());
-                assertEquals(rawString, lexer.textBuffer.contentsAsString());
+                assertEquals(rawString, new String(lexer.getStringBuffer(),
+                        lexer.getStringStart(), lexer.getStringLength()));
                 lexer.releaseBuffers();
             }
 
@@ -63,10 +64,11 @@ public class StringOutputUtilTest extends TomlMapperTestBase {
                 builder.appendCodePoint(c);
                 builder.append('"');
 
-                Lexer lexer = new Lexer(new StringReader(builder.toString()), _ioContext(builder), errorContext);
+                Lexer lexer = new Lexer(new StringReader(builder.toString()), _ioContext(builder), errorContext, 0);
                 lexer.yybegin(Lexer.EXPECT_VALUE);
                 assertEquals(TomlToken.STRING, lexer.yylex());
-                assertEquals(rawString, lexer.textBuffer.contentsAsString());
+                assertEquals(rawString, new String(lexer.getStringBuffer(),
+                        lexer.getStringStart(), lexer.getStringLength()));
                 lexer.releaseBuffers();
             }
 
@@ -84,10 +86,11 @@ public class StringOutputUtilTest extends TomlMapperTestBase {
                 builder.append('"');
 
                 Lexer lexer = new Lexer(new StringReader(builder.toString()),
-                        _ioContext(builder), errorContext);
+                        _ioContext(builder), errorContext, 0);
                 lexer.yybegin(Lexer.EXPECT_VALUE);
                 assertEquals(TomlToken.STRING, lexer.yylex());
-                assertEquals(rawString, lexer.textBuffer.contentsAsString());
+                assertEquals(rawString, new String(lexer.getStringBuffer(),
+                        lexer.getStringStart(), lexer.getStringLength()));
                 lexer.releaseBuffers();
             }
         }
@@ -0,0 +1,51 @@
+package com.fasterxml.jackson.dataformat.toml;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TomlMetricsTest extends TomlMapperTestBase {
+    @Test
+    public void readMetrics() throws Exception {
+        TomlMetrics.Counters counters = new TomlMetrics.Counters();
+        TomlFactory factory = TomlFactory.builder()
+                .metrics(counters)
+                .build();
+        assertSame(counters, factory.getMetrics());
+        TomlMapper mapper = newTomlMapper(factory);
+
+        final String TOML = "a = 1\n[b]\nc = 2\n[[d]]\ne = 3\n[[d]]\ne = 4\n";
+        JsonNode node = mapper.readTree(TOML);
+        assertEquals(2, node.path("d").size());
+
+        assertEquals(3, counters.getTablesRead());
+        assertEquals(1, counters.getParsersClosed());
+        assertEquals(TOML.length(), counters.getCharsRead());
+        assertEquals(0, counters.getOutputFlushes());
+    }
+
+    @Test
+    public void writeMetrics() throws Exception {
+        TomlMetrics.Counters counters = new TomlMetrics.Counters();
+        TomlMapper mapper = newTomlMapper(TomlFactory.builder()
+                .metrics(counters)
+                .build());
+        String toml = mapper.writeValueAsString(Collections.singletonMap("a", 1));
+        assertTrue(counters.getOutputFlushes() > 0);
+        assertEquals(toml.length(), counters.getCharsWritten());
+        assertEquals(0, counters.getTablesRead());
+    }
+
+    @Test
+    public void noMetricsByDefault() throws Exception {
+        TomlFactory f = new TomlFactory();
+        assertNull(f.getMetrics());
+        assertNull(f.rebuild().metrics());
+        TomlMetrics.Counters counters = new TomlMetrics.Counters();
+        assertSame(counters, f.rebuild().metrics(counters).build().copy().getMetrics());
+    }
+}
@@ -0,0 +1,213 @@
+package com.fasterxml.jackson.dataformat.toml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TomlStreamingParserTest extends TomlMapperTestBase {
+    private final TomlMapper MAPPER = newTomlMapper();
+
+    @Test
+    public void outOfOrderTables() throws Exception {
+        String toml = "x = 1\n"
+                + "[a]\n"
+                + "b = 2\n"
+                + "[c]\n"
+                + "d.e = 3\n"
+                + "[a.f]\n"
+                + "g = 4\n"
+                + "[c.d.h]\n"
+                + "[[c.list]]\n"
+                + "i = 5\n";
+        assertEquals("{ x 1 a { b 2 f { g 4 } } c { d { e 3 h { } } list [ { i 5 } ] } }",
+                tokens(toml));
+        assertEquals(MAPPER.readTree(toml),
+                Parser.parse(MAPPER.tokenStreamFactory(), testIOContext(), new StringReader(toml)));
+    }
+
+    @Test
+    public void arraysOfTables() throws Exception {
+        String toml = "[[a]]\n"
+                + "x = 1\n"
+                + "[a.sub]\n"
+                + "y = 2\n"
+                + "[[a.list]]\n"
+                + "[[a]]\n"
+                + "x = 3\n"
+                + "inline = { p.q = [1, { r = 2 }] }\n"
+                + "[b]\n"
+                + "[[a.list]]\n"
+                + "z = 4\n";
+        assertEquals("{ a [ { x 1 sub { y 2 } list [ { } ] } "
+                + "{ x 3 inline { p { q [ 1 { r 2 } ] } } list [ { z 4 } ] } ] b { } }",
+                tokens(toml));
+    }
+
+    @Test
+    public void contentReturnedIncrementally() throws Exception {
+        StringBuilder sb = new StringBuilder("title = \"items\"\n");
+        for (int i = 0; i < 10000; ++i) {
+            sb.append("[[item]]\nid = ").append(i).append("\nname = \"item ").append(i).append("\"\n");
+        }
+        CountingReader reader = new CountingReader(sb.toString());
+        try (JsonParser p = MAPPER.createParser(reader)) {
+            assertEquals(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("title", p.currentName());
+            assertEquals("items", p.nextTextValue());
+            assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals(JsonToken.START_ARRAY, p.nextToken());
+            for (int i = 0; i < 10000; ++i) {
+                assertEquals(JsonToken.START_OBJECT, p.nextToken());
+                assertEquals("id", p.nextFieldName());
+                assertEquals(i, p.nextIntValue(-1));
+                assertEquals("/item/" + i + "/id", p.getParsingContext().pathAsPointer().toString());
+                assertEquals("name", p.nextFieldName());
+                assertEquals("item " + i, p.nextTextValue());
+                assertEquals(JsonToken.END_OBJECT, p.nextToken());
+                if (i == 100) {
+                    // only a small part of content has been read so far
+                    assertTrue(reader.count < sb.length() / 10, "read " + reader.count + " chars");
+                }
+            }
+            assertEquals(JsonToken.END_ARRAY, p.nextToken());
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+        }
+    }
+
+    @Test
+    public void valueTypes() throws Exception {
+        String toml = "int = 1\nlong = 10000000000\nbig = 100000000000000000000\n"
+                + "float = 0.5\nnan = nan\ndate = 2021-03-04\n";
+        TomlMapper mapper = TomlMapper.builder().enable(TomlReadFeature.PARSE_JAVA_TIME).build();
+        try (JsonParser p = mapper.createParser(toml)) {
+            assertEquals(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextValue());
+            assertEquals(JsonParser.NumberType.INT, p.getNumberType());
+            assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextValue());
+            assertEquals(JsonParser.NumberType.LONG, p.getNumberType());
+            assertEquals(10000000000L, p.getLongValue());
+            assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextValue());
+            assertEquals(JsonParser.NumberType.BIG_INTEGER, p.getNumberType());
+            assertEquals(new BigInteger("100000000000000000000"), p.getBigIntegerValue());
+            assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextValue());
+            assertEquals(JsonParser.NumberType.BIG_DECIMAL, p.getNumberType());
+            assertEquals(new BigDecimal("0.5"), p.getDecimalValue());
+            assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextValue());
+            assertTrue(p.isNaN());
+            assertEquals(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextValue());
+            assertEquals(LocalDate.of(2021, 3, 4), p.getEmbeddedObject());
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+        }
+    }
+
+    @Test
+    public void redefinitionAcrossTables() throws Exception {
+        TomlStreamReadException e = assertThrows(TomlStreamReadException.class,
+                () -> MAPPER.readTree("[a]\nb.c = 1\n[d]\n[a.b]\n"));
+        assertTrue(e.getMessage().contains("Table redefined"));
+        e = assertThrows(TomlStreamReadException.class,
+                () -> MAPPER.readTree("[a]\nb = 1\n[d]\n[a]\nb = 2\n"));
+        assertTrue(e.getMessage().contains("Table redefined"));
+        e = assertThrows(TomlStreamReadException.class,
+                () -> MAPPER.readTree("[[a]]\n[d]\n[a.b]\nc = 1\n[a.b]\n"));
+        assertTrue(e.getMessage().contains("Table redefined"));
+    }
+
+    @Test
+    public void stringContent() throws Exception {
+        String toml = "[[a]]\n'key' = \"plain\"\n\"k\\u0065y2\" = 'lit'\n"
+                + "[[a]]\nkey = \"esc\\taped\"\nkey2 = \"\"\"\nmulti\nline\"\"\"\n";
+        try (JsonParser p = MAPPER.createParser(toml)) {
+            assertEquals(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals("a", p.nextFieldName());
+            assertEquals(JsonToken.START_ARRAY, p.nextToken());
+            assertEquals(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals("key", p.nextFieldName());
+            String key = p.currentName();
+            assertEquals(JsonToken.VALUE_STRING, p.nextToken());
+            assertTrue(p.hasTextCharacters());
+            assertEquals("plain", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+            assertEquals("plain", p.getText());
+            assertEquals("key2", p.nextFieldName());
+            String key2 = p.currentName();
+            assertEquals("lit", p.nextTextValue());
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+            assertEquals(JsonToken.START_OBJECT, p.nextToken());
+            // keys are canonicalized
+            assertEquals("key", p.nextFieldName());
+            assertSame(key, p.currentName());
+            assertEquals(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("esc\taped", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+            assertEquals("key2", p.nextFieldName());
+            assertSame(key2, p.currentName());
+            assertEquals("multi\nline", p.nextTextValue());
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+            assertEquals(JsonToken.END_ARRAY, p.nextToken());
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+        }
+    }
+
+    @Test
+    public void lexerBufferSize() throws Exception {
+        TomlFactory factory = TomlFactory.builder().lexerBufferSize(64 * 1024).build();
+        assertEquals(64 * 1024, factory.getLexerBufferSize());
+        assertEquals(64 * 1024, factory.rebuild().build().getLexerBufferSize());
+        assertEquals(0, newTomlFactory().getLexerBufferSize());
+        assertThrows(IllegalArgumentException.class, () -> TomlFactory.builder().lexerBufferSize(-1));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; ++i) {
+            sb.append("[table").append(i).append("]\nkey = \"value ").append(i).append("\"\n");
+        }
+        String toml = sb.toString();
+        assertEquals(MAPPER.readTree(toml), newTomlMapper(factory).readTree(toml));
+    }
+
+    private String tokens(String toml) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (JsonParser p = MAPPER.createParser(toml)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                result.add(t.isStructStart() || t.isStructEnd() ? t.asString() : p.getText());
+            }
+        }
+        return String.join(" ", result);
+    }
+
+    static class CountingReader extends Reader {
+        private final Reader in;
+        int count;
+
+        CountingReader(String content) {
+            in = new StringReader(content);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = in.read(cbuf, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.parser.ParserImpl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
+import com.fasterxml.jackson.dataformat.yaml.util.DirectEventReader;
+
+/**
+ * Non-blocking {@link YAMLParser} that is fed UTF-8 encoded content using
+ * {@link ByteArrayFeeder} (accessed via {@link #getNonBlockingInputFeeder()}),
+ * and returns {@link JsonToken#NOT_AVAILABLE} from {@link #nextToken()} when
+ * more content is needed to decode the next token.
+ * Constructed using {@link YAMLFactory#createNonBlockingByteArrayParser()}.
+ *<p>
+ * Since SnakeYAML can only read content from a blocking {@link Reader}, and
+ * its state can not be suspended, events are produced by a
+ * {@link DirectEventReader} that is fed decoded content instead (and tokens
+ * produced from its events directly, same as with
+ * {@link YAMLParser.Feature#USE_DIRECT_READER}): its state
+ * is saved before each event, and restored if content runs out before the
+ * event is complete. So content is only scanned more than once within a
+ * single event, and only content from the current event on is retained.
+ * Events, and errors for invalid content, are the same as with SnakeYAML
+ * (see {@link DirectEventReader} for details); comments are not reported.
+ *<p>
+ * Note that since content of an incomplete event is scanned again once more
+ * content has been fed, feeding very long tokens (like multi-megabyte
+ * scalars) in very small chunks is inefficient.
+ *
+ * @since 2.19
+ */
+public class NonBlockingYAMLParser
+    extends YAMLParser
+    implements ByteArrayFeeder
+{
+    /**
+     * Signal used to indicate that more content is needed to produce the
+     * next event.
+     */
+    @SuppressWarnings("serial")
+    private final static class NeedMoreInput extends RuntimeException {
+        NeedMoreInput() {
+            super("Need more input", null, false, false);
+        }
+    }
+
+    private final static NeedMoreInput NEED_MORE_INPUT = new NeedMoreInput();
+
+    protected final LoaderOptions _loaderOptions;
+
+    protected final CharsetDecoder _decoder;
+
+    /**
+     * Reader that produces events from content fed
+     */
+    protected final DirectEventReader _eventReader;
+
+    /*
+    /**********************************************************************
+    /* Input state
+    /**********************************************************************
+     */
+
+    /**
+     * Buffer that content fed is decoded into, before being fed to
+     * {@link #_eventReader}
+     */
+    protected final char[] _decodeBuffer = new char[4000];
+
+    /**
+     * Bytes of incomplete UTF-8 character left over from the previous chunk
+     */
+    protected final byte[] _leftoverBytes = new byte[4];
+
+    protected int _leftoverCount;
+
+    protected boolean _endOfInput;
+
+    /**
+     * Error message for problem found when decoding the end of content, if any
+     */
+    protected String _decodingError;
+
+    /**
+     * Token that was current before {@link JsonToken#NOT_AVAILABLE} was returned
+     */
+    protected JsonToken _tokenBeforeNotAvailable;
+
+    /**
+     * Number of Objects and Arrays still open while skipping children
+     * (see {@link #skipChildren()}); 0 if not skipping.
+     */
+    protected int _skipDepth;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    public NonBlockingYAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            LoaderOptions loaderOptions, ObjectCodec codec)
+    {
+        this(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, null);
+    }
+
+    /**
+     * @param symbols Symbol table to use for canonicalizing field names, if any
+     */
+    public NonBlockingYAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            LoaderOptions loaderOptions, ObjectCodec codec, CharsToNameCanonicalizer symbols)
+    {
+        super(ctxt, parserFeatures, formatFeatures, codec, (Reader) null, (ParserImpl) null,
+                null, symbols);
+        _loaderOptions = (loaderOptions == null) ? new LoaderOptions() : loaderOptions;
+        _eventReader = new DirectEventReader(_loaderOptions, ctxt.streamReadConstraints());
+        _directReader = _eventReader;
+        _directTokens = true;
+        _decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    @Override
+    public boolean canParseAsync() {
+        return true;
+    }
+
+    @Override
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return this;
+    }
+
+    /*
+    /**********************************************************************
+    /* ByteArrayFeeder implementation
+    /**********************************************************************
+     */
+
+    /**
+     * Returns {@code true} if no content has been fed yet, or if the parser
+     * has run out of content fed so far (unless end of input has been
+     * indicated). Since content is decoded as soon as it is fed, feeding
+     * content regardless is allowed as well.
+     */
+    @Override
+    public boolean needMoreInput() {
+        return !_endOfInput && _eventReader.needMoreInput();
+    }
+
+    @Override
+    public void feedInput(byte[] data, int offset, int end) throws IOException
+    {
+        if (_endOfInput) {
+            _reportError("Already closed, can not feed more input");
+        }
+        if (end < offset) {
+            _reportError("Input end (%d) may not be before start (%d)", end, offset);
+        }
+        final int len = end - offset;
+        ByteBuffer in;
+        if (_leftoverCount > 0) {
+            // Rare but need to combine leftover bytes with new content
+            byte[] combined = Arrays.copyOf(_leftoverBytes, _leftoverCount + len);
+            System.arraycopy(data, offset, combined, _leftoverCount, len);
+            in = ByteBuffer.wrap(combined);
+        } else {
+            in = ByteBuffer.wrap(data, offset, len);
+        }
+        _decode(in, false);
+        _leftoverCount = in.remaining();
+        in.get(_leftoverBytes, 0, _leftoverCount);
+    }
+
+    @Override
+    public void endOfInput()
+    {
+        if (_endOfInput) {
+            return;
+        }
+        _endOfInput = true;
+        try {
+            _decode(ByteBuffer.wrap(_leftoverBytes, 0, _leftoverCount), true);
+            _leftoverCount = 0;
+        } catch (IOException e) {
+            // can not throw from here, so report when next token is requested
+            _decodingError = e.getMessage();
+        } finally {
+            _eventReader.endOfInput();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing
+    /**********************************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException
+    {
+        if (_skipDepth > 0) {
+            return _skipRemaining();
+        }
+        return _nextToken();
+    }
+
+    /**
+     * Overridden to only skip children at event level once all content has been
+     * fed; before that, skipping is done token by token. If content runs out
+     * before the end of the Object or Array, current token is set to
+     * {@link JsonToken#NOT_AVAILABLE}, and skipping continues on next call to
+     * {@link #nextToken()} (or this method), which returns the matching
+     * {@link JsonToken#END_OBJECT} or {@link JsonToken#END_ARRAY} once found.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException
+    {
+        if (_skipDepth == 0) {
+            if (_currToken != JsonToken.START_OBJECT
+                    && _currToken != JsonToken.START_ARRAY) {
+                return this;
+            }
+            if (_endOfInput) {
+                return super.skipChildren();
+            }
+            _skipDepth = 1;
+        }
+        _skipRemaining();
+        return this;
+    }
+
+    protected JsonToken _nextToken() throws IOException
+    {
+        if (_currToken == JsonToken.NOT_AVAILABLE) {
+            // parsing state depends on the actual previous token
+            _currToken = _tokenBeforeNotAvailable;
+        }
+        try {
+            return super.nextToken();
+        } catch (NeedMoreInput e) {
+            _tokenBeforeNotAvailable = _currToken;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+    }
+
+    /**
+     * Helper method for skipping tokens until the end of the Object or Array
+     * being skipped, or until content runs out.
+     *
+     * @return Matching end token, if reached; {@link JsonToken#NOT_AVAILABLE}
+     *    if more content is needed
+     */
+    protected JsonToken _skipRemaining() throws IOException
+    {
+        while (true) {
+            JsonToken t = _nextToken();
+            if (t == JsonToken.NOT_AVAILABLE) {
+                return t;
+            }
+            if (t == null) {
+                _skipDepth = 0;
+                _handleEOF();
+                return t;
+            }
+            if (t.isStructStart()) {
+                ++_skipDepth;
+            } else if (t.isStructEnd()) {
+                if (--_skipDepth == 0) {
+                    return t;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Event.ID _nextDirectEvent() throws IOException
+    {
+        _checkDecodingError();
+        Event.ID id = super._nextDirectEvent();
+        if (id == null && _eventReader.needMoreInput()) {
+            throw NEED_MORE_INPUT;
+        }
+        return id;
+    }
+
+    @Override
+    protected Event getEvent() throws IOException
+    {
+        _checkDecodingError();
+        Event evt = _eventReader.getEvent();
+        if (evt == null && _eventReader.needMoreInput()) {
+            throw NEED_MORE_INPUT;
+        }
+        return evt;
+    }
+
+    protected void _checkDecodingError() throws IOException
+    {
+        if (_decodingError != null) {
+            String msg = _decodingError;
+            _decodingError = null;
+            _reportError(msg);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, input handling
+    /**********************************************************************
+     */
+
+    protected void _decode(ByteBuffer in, boolean endOfInput) throws IOException
+    {
+        final char[] buf = _decodeBuffer;
+        CharBuffer out = CharBuffer.wrap(buf);
+        CoderResult result;
+        while (true) {
+            result = _decoder.decode(in, out, endOfInput);
+            if (!result.isOverflow()) {
+                break;
+            }
+            _eventReader.feedInput(buf, 0, out.position());
+            out.clear();
+        }
+        if (endOfInput && !result.isError()) {
+            result = _decoder.flush(out);
+        }
+        _eventReader.feedInput(buf, 0, out.position());
+        if (result.isError()) {
+            _reportError(String.format("Invalid UTF-8 content: %s of %d bytes",
+                    result.isMalformed() ? "malformed input" : "unmappable character",
+                    result.length()));
+        }
+    }
+}
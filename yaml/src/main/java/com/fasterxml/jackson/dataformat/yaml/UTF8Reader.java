@@ -1,7 +1,8 @@
 package com.fasterxml.jackson.dataformat.yaml;
 
 import java.io.*;
-import java.lang.ref.SoftReference;
+
+import com.fasterxml.jackson.core.io.IOContext;
 
 /**
  * Optimized Reader that reads UTF-8 encoded content from an input stream.
@@ -13,15 +14,22 @@ public final class UTF8Reader
     extends Reader
 {
     private final static int DEFAULT_BUFFER_SIZE = 8000;
-    
+
     /**
-     * This <code>ThreadLocal</code> contains a {@link java.lang.ref.SoftReference}
-     * to a byte array used for holding content to decode
+     * IO context to use for returning input buffer, iff
+     * buffer is to be recycled when input ends.
+     *
+     * @since 2.19
      */
-    final protected static ThreadLocal<SoftReference<byte[][]>> _bufferRecycler
-        = new ThreadLocal<SoftReference<byte[][]>>();
+    private final IOContext _ioContext;
 
-    protected final byte[][] _bufferHolder;
+    /**
+     * Whether {@link #_inputBuffer} was allocated by this reader (and may
+     * thereby be modified), as opposed to being content passed by caller.
+     *
+     * @since 2.19
+     */
+    private final boolean _ownsBuffer;
     
     private InputStream _inputSource;
 
@@ -61,19 +69,39 @@ public final class UTF8Reader
     /* Life-cycle
     /**********************************************************************
      */
-    
+
+    /**
+     * Constructor used when reading from an {@link InputStream}: input buffer
+     * is allocated from (and returned to) {@link com.fasterxml.jackson.core.util.BufferRecycler}
+     * of given context, so that it is recycled using
+     * {@link com.fasterxml.jackson.core.util.RecyclerPool} configured for the factory.
+     *
+     * @since 2.19
+     */
+    public UTF8Reader(IOContext ctxt, InputStream in, boolean autoClose)
+    {
+        super((in == null) ? new Object() : in);
+        _ioContext = ctxt;
+        _inputSource = in;
+        _inputBuffer = ctxt.allocReadIOBuffer();
+        _ownsBuffer = true;
+        _inputPtr = 0;
+        _inputEnd = 0;
+        _autoClose = autoClose;
+    }
+
+    /**
+     * @deprecated Since 2.19 use {@link #UTF8Reader(IOContext, InputStream, boolean)}
+     *   instead: this constructor will not recycle input buffer
+     */
+    @Deprecated
     public UTF8Reader(InputStream in, boolean autoClose)
     {
         super((in == null) ? new Object() : in);
+        _ioContext = null;
         _inputSource = in;
-        _bufferHolder = _findBufferHolder();
-        byte[] buffer = _bufferHolder[0];
-        if (buffer == null) {
-            buffer = new byte[DEFAULT_BUFFER_SIZE];
-        } else {
-            _bufferHolder[0] = null;
-        }
-        _inputBuffer = buffer;
+        _inputBuffer = new byte[DEFAULT_BUFFER_SIZE];
+        _ownsBuffer = true;
         _inputPtr = 0;
         _inputEnd = 0;
         _autoClose = autoClose;
@@ -82,26 +110,13 @@ public final class UTF8Reader
     public UTF8Reader(byte[] buf, int ptr, int len, boolean autoClose)
     {
         super(new Object());
+        _ioContext = null;
         _inputSource = null;
         _inputBuffer = buf;
+        _ownsBuffer = false;
         _inputPtr = ptr;
         _inputEnd = ptr+len;
         _autoClose = autoClose; 
-        _bufferHolder = null;
-    }
-
-    private static byte[][] _findBufferHolder()
-    {
-        byte[][] bufs = null;
-        SoftReference<byte[][]> ref = _bufferRecycler.get();
-        if (ref != null) {
-            bufs = ref.get();
-        }
-        if (bufs == null) {
-            bufs = new byte[1][];
-            _bufferRecycler.set(new SoftReference<byte[][]>(bufs));
-        }
-        return bufs;
     }
 
     /**
@@ -110,7 +125,7 @@ public final class UTF8Reader
      * but not if it was just given to us.
      */
     protected final boolean canModifyBuffer() {
-        return (_bufferHolder != null);
+        return _ownsBuffer;
     }
 
     /*
@@ -319,6 +334,134 @@ public final class UTF8Reader
         return actualLen;
     }
     
+    /**
+     * Alternative to {@link #read(char[], int, int)} that decodes content
+     * into Unicode code points instead of UTF-16 chars: characters outside
+     * of the Basic Multilingual Plane are returned as single code points
+     * instead of surrogate pairs. Used to feed SnakeYAML code point
+     * buffer without intermediate {@code char[]}.
+     *<p>
+     * Calls to this method should not be mixed with calls to other
+     * {@code read} methods.
+     *
+     * @return Number of code points decoded (at least 1, unless {@code len}
+     *    is 0), or -1 to indicate end-of-input
+     *
+     * @since 2.19
+     */
+    public int readCodePoints(final int[] cbuf, final int start, int len) throws IOException
+    {
+        if (_inputBuffer == null) {
+            return -1;
+        }
+        if (len < 1) {
+            return 0;
+        }
+        len += start;
+        int outPtr = start;
+
+        // Only possible if mixed with `read(char[], ...)`; return as is
+        if (_surrogate >= 0) {
+            cbuf[outPtr++] = _surrogate;
+            _surrogate = -1;
+            if (_inputPtr >= _inputEnd) {
+                _charCount += 1;
+                return 1;
+            }
+        } else {
+            // as with `read(char[], ...)`, only require decoding of a single code point;
+            // but only load more if it is not yet fully available (since that is
+            // not possible for non-modifiable buffers)
+            int left = (_inputEnd - _inputPtr);
+            if (left < 4) {
+                if (left < 1 || left < _utf8Length(_inputBuffer[_inputPtr])) {
+                    if (!loadMore(left)) { // (legal) EOF?
+                        return -1;
+                    }
+                }
+            }
+        }
+        final byte[] buf = _inputBuffer;
+        int inPtr = _inputPtr;
+        final int inBufLen = _inputEnd;
+
+        main_loop:
+        while (outPtr < len) {
+            int c = (int) buf[inPtr++];
+
+            if (c >= 0) {
+                cbuf[outPtr++] = c;
+                int outMax = (len - outPtr);
+                int inMax = (inBufLen - inPtr);
+                int inEnd = inPtr + ((inMax < outMax) ? inMax : outMax);
+
+                while (true) {
+                    if (inPtr >= inEnd) {
+                        break main_loop;
+                    }
+                    c = buf[inPtr++];
+                    if (c < 0) {
+                        break;
+                    }
+                    cbuf[outPtr++] = c;
+                }
+            }
+
+            int needed;
+            if ((c & 0xE0) == 0xC0) { // 2 bytes (0x0080 - 0x07FF)
+                c = (c & 0x1F);
+                needed = 1;
+            } else if ((c & 0xF0) == 0xE0) { // 3 bytes (0x0800 - 0xFFFF)
+                c = (c & 0x0F);
+                needed = 2;
+            } else if ((c & 0xF8) == 0xF0) { // 4 bytes (0x10000 - 0x10FFFF)
+                c = (c & 0x07);
+                needed = 3;
+            } else {
+                reportInvalidInitial(c & 0xFF, outPtr-start);
+                needed = 1;
+            }
+            if ((inBufLen - inPtr) < needed) {
+                --inPtr;
+                break main_loop;
+            }
+            for (int i = 0; i < needed; ++i) {
+                int d = (int) buf[inPtr++];
+                if ((d & 0xC0) != 0x080) {
+                    reportInvalidOther(d & 0xFF, outPtr-start);
+                }
+                c = (c << 6) | (d & 0x3F);
+            }
+            cbuf[outPtr++] = c;
+            if (inPtr >= inBufLen) {
+                break main_loop;
+            }
+        }
+
+        _inputPtr = inPtr;
+        final int actualLen = outPtr - start;
+        _charCount += actualLen;
+        return actualLen;
+    }
+
+    /**
+     * @return Number of bytes in UTF-8 encoded character that starts with
+     *    given byte; 1 for invalid first bytes (reported when decoding)
+     */
+    private static int _utf8Length(int b)
+    {
+        if ((b & 0xE0) == 0xC0) {
+            return 2;
+        }
+        if ((b & 0xF0) == 0xE0) {
+            return 3;
+        }
+        if ((b & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 1;
+    }
+
     /*
     /**********************************************************************
     /* Internal/package methods:
@@ -374,11 +517,11 @@ public final class UTF8Reader
      */
     public final void freeBuffers()
     {
-        if (_bufferHolder != null) {
+        if (_ioContext != null) {
             byte[] buf = _inputBuffer;
             if (buf != null) {
                 _inputBuffer = null;
-                _bufferHolder[0] = buf;
+                _ioContext.releaseReadIOBuffer(buf);
             }
         }
     }
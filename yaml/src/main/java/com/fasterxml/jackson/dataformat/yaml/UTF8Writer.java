@@ -1,7 +1,8 @@
 package com.fasterxml.jackson.dataformat.yaml;
 
 import java.io.*;
-import java.lang.ref.SoftReference;
+
+import com.fasterxml.jackson.core.io.IOContext;
 
 public final class UTF8Writer
     extends Writer
@@ -12,15 +13,14 @@ public final class UTF8Writer
     final static int SURR2_LAST = 0xDFFF;
 
     private final static int DEFAULT_BUFFER_SIZE = 8000;
-    
+
     /**
-     * This <code>ThreadLocal</code> contains a {@link java.lang.ref.SoftReference}
-     * to a byte array used for holding content to decode
+     * IO context to use for returning output buffer, iff
+     * buffer is to be recycled when output is closed.
+     *
+     * @since 2.19
      */
-    final protected static ThreadLocal<SoftReference<byte[][]>> _bufferRecycler
-        = new ThreadLocal<SoftReference<byte[][]>>();
-
-    protected final byte[][] _bufferHolder;
+    private final IOContext _ioContext;
     
     private OutputStream _out;
 
@@ -37,16 +37,33 @@ public final class UTF8Writer
      */
     int _surrogate = 0;
 
+    /**
+     * Constructor that allocates output buffer from (and returns it to)
+     * {@link com.fasterxml.jackson.core.util.BufferRecycler} of given context,
+     * so that it is recycled using
+     * {@link com.fasterxml.jackson.core.util.RecyclerPool} configured for the factory.
+     *
+     * @since 2.19
+     */
+    public UTF8Writer(IOContext ctxt, OutputStream out)
+    {
+        this(ctxt, out, ctxt.allocWriteEncodingBuffer());
+    }
+
+    /**
+     * @deprecated Since 2.19 use {@link #UTF8Writer(IOContext, OutputStream)}
+     *   instead: this constructor will not recycle output buffer
+     */
+    @Deprecated
     public UTF8Writer(OutputStream out)
     {
+        this(null, out, new byte[DEFAULT_BUFFER_SIZE]);
+    }
+
+    private UTF8Writer(IOContext ctxt, OutputStream out, byte[] buffer)
+    {
+        _ioContext = ctxt;
         _out = out;
-        _bufferHolder = _findBufferHolder();
-        byte[] buffer = _bufferHolder[0];
-        if (buffer == null) {
-            buffer = new byte[DEFAULT_BUFFER_SIZE];
-        } else {
-            _bufferHolder[0] = null;
-        }
         _outBuffer = buffer;
         /* Max. expansion for a single char (in unmodified UTF-8) is
          * 4 bytes (or 3 depending on how you view it -- 4 when recombining
@@ -56,20 +73,6 @@ public final class UTF8Writer
         _outPtr = 0;
     }
 
-    private static byte[][] _findBufferHolder()
-    {
-        byte[][] bufs = null;
-        SoftReference<byte[][]> ref = _bufferRecycler.get();
-        if (ref != null) {
-            bufs = ref.get();
-        }
-        if (bufs == null) {
-            bufs = new byte[1][];
-            _bufferRecycler.set(new SoftReference<byte[][]>(bufs));
-        }
-        return bufs;
-    }
-    
     @Override
     public Writer append(char c) throws IOException
     {
@@ -87,14 +90,7 @@ public final class UTF8Writer
             }
             OutputStream out = _out;
             _out = null;
-
-            if (_bufferHolder != null) {
-                byte[] buf = _outBuffer;
-                if (buf != null) {
-                    _outBuffer = null;
-                    _bufferHolder[0] = buf;
-                }
-            }
+            releaseBuffers();
             out.close();
 
             /* Let's 'flush' orphan surrogate, no matter what; but only
@@ -108,6 +104,24 @@ public final class UTF8Writer
         }
     }
 
+    /**
+     * Method called to return output buffer to {@link IOContext} it was
+     * allocated from, when writer is not going to be closed (like when
+     * generator does not close its target). Buffer is only released if all
+     * content has been written out (that is, after {@link #flush()}), and
+     * writer can not be used after it has been released.
+     *
+     * @since 2.19
+     */
+    public void releaseBuffers()
+    {
+        byte[] buf = _outBuffer;
+        if (buf != null && _outPtr == 0 && _ioContext != null) {
+            _outBuffer = null;
+            _ioContext.releaseWriteEncodingBuffer(buf);
+        }
+    }
+
     @Override
     public void flush() throws IOException
     {
@@ -18,6 +18,22 @@ import com.fasterxml.jackson.core.io.IOContext;
 public class YAMLAnchorReplayingFactory extends YAMLFactory {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Maximum number of events to replay for aliases, per document.
+     */
+    protected int _maxReplayedEvents = YAMLAnchorReplayingParser.DEFAULT_MAX_REPLAYED_EVENTS;
+
+    /**
+     * Maximum total length of scalar values to replay for aliases, per document.
+     */
+    protected long _maxReplayedLength = YAMLAnchorReplayingParser.DEFAULT_MAX_REPLAYED_LENGTH;
+
+    /**
+     * Whether merge keys ({@code <<}) within content replayed for aliases are
+     * handled (disabled by default, to return replayed content as read).
+     */
+    protected boolean _expandReplayedMerges;
+
     public YAMLAnchorReplayingFactory() {
         super();
     }
@@ -28,6 +44,12 @@ public class YAMLAnchorReplayingFactory extends YAMLFactory {
 
     public YAMLAnchorReplayingFactory(YAMLFactory src, ObjectCodec oc) {
         super(src, oc);
+        if (src instanceof YAMLAnchorReplayingFactory) {
+            YAMLAnchorReplayingFactory f = (YAMLAnchorReplayingFactory) src;
+            _maxReplayedEvents = f._maxReplayedEvents;
+            _maxReplayedLength = f._maxReplayedLength;
+            _expandReplayedMerges = f._expandReplayedMerges;
+        }
     }
 
     protected YAMLAnchorReplayingFactory(YAMLFactoryBuilder b) {
@@ -45,28 +67,97 @@ public class YAMLAnchorReplayingFactory extends YAMLFactory {
         return new YAMLAnchorReplayingFactory(this, _objectCodec);
     }
 
+    /**
+     * Method for changing the maximum number of events parsers replay for aliases,
+     * per document; exceeding it results in a
+     * {@link com.fasterxml.jackson.core.exc.StreamConstraintsException}.
+     */
+    public YAMLAnchorReplayingFactory setMaxReplayedEvents(int maxEvents) {
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException("Cannot set maxReplayedEvents to a negative value");
+        }
+        _maxReplayedEvents = maxEvents;
+        return this;
+    }
+
+    /**
+     * Method for changing the maximum total length (in characters) of scalar values
+     * parsers replay for aliases, per document; exceeding it results in a
+     * {@link com.fasterxml.jackson.core.exc.StreamConstraintsException}.
+     */
+    public YAMLAnchorReplayingFactory setMaxReplayedLength(long maxLength) {
+        if (maxLength < 0L) {
+            throw new IllegalArgumentException("Cannot set maxReplayedLength to a negative value");
+        }
+        _maxReplayedLength = maxLength;
+        return this;
+    }
+
+    /**
+     * Method for enabling or disabling handling of merge keys ({@code <<})
+     * within anchored content replayed for aliases: if disabled (default),
+     * merge keys are only handled for content read from input, and replayed
+     * content contains them as-is.
+     */
+    public YAMLAnchorReplayingFactory setExpandReplayedMerges(boolean state) {
+        _expandReplayedMerges = state;
+        return this;
+    }
+
+    public int getMaxReplayedEvents() {
+        return _maxReplayedEvents;
+    }
+
+    public long getMaxReplayedLength() {
+        return _maxReplayedLength;
+    }
+
+    public boolean isExpandReplayedMerges() {
+        return _expandReplayedMerges;
+    }
+
+    // Alias replaying not (yet?) supported by non-blocking parser
+    @Override
+    public boolean canParseAsync() {
+        return false;
+    }
+
+    @Override
+    public NonBlockingYAMLParser createNonBlockingByteArrayParser() throws IOException {
+        throw new UnsupportedOperationException(String.format(
+                "Non-blocking source not (yet?) supported for this format (%s)", getFormatName()));
+    }
+
     @Override
     protected YAMLParser _createParser(InputStream input, IOContext ctxt) throws IOException {
-        return new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
+        return _initParser(new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
                 _loaderOptions, _objectCodec,
-                _createReader(input, (JsonEncoding) null, ctxt));
+                _createReader(input, (JsonEncoding) null, ctxt),
+                _createFieldNameSymbols(), _maxReplayedEvents, _maxReplayedLength,
+                _expandReplayedMerges));
     }
 
     @Override
     protected YAMLParser _createParser(Reader r, IOContext ctxt) throws IOException {
-        return new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, r);
+        return _initParser(new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, r,
+                _createFieldNameSymbols(), _maxReplayedEvents, _maxReplayedLength,
+                _expandReplayedMerges));
     }
 
     @Override
     protected YAMLParser _createParser(char[] data, int offset, int len, IOContext ctxt, boolean recyclable) throws IOException {
-        return new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, new CharArrayReader(data, offset, len));
+        return _initParser(new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, new CharArrayReader(data, offset, len),
+                _createFieldNameSymbols(), _maxReplayedEvents, _maxReplayedLength,
+                _expandReplayedMerges));
     }
 
     @Override
     protected YAMLParser _createParser(byte[] data, int offset, int len, IOContext ctxt) throws IOException {
-        return new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, _createReader(data, offset, len, (JsonEncoding) null, ctxt));
+        return _initParser(new YAMLAnchorReplayingParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, _createReader(data, offset, len, (JsonEncoding) null, ctxt),
+                _createFieldNameSymbols(), _maxReplayedEvents, _maxReplayedLength,
+                _expandReplayedMerges));
     }
 }
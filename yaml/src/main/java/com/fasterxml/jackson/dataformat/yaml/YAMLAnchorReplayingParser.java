@@ -5,13 +5,16 @@ import java.io.IOException;
 
 import java.util.*;
 
+import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
 import org.yaml.snakeyaml.events.*;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 
 /**
  * A parser that remembers the events of anchored parts in yaml and repeats them
@@ -19,14 +22,181 @@ import com.fasterxml.jackson.core.io.IOContext;
  *<p>
  * Note: this overwrites the getEvent() since the base `super.nextToken()` manages to much state and
  * it seems to be much simpler to re-emit the events.
+ *<p>
+ * Anchored content is stored in compact form (see {@link AnchoredContent}) instead
+ * of as SnakeYAML events: aliases (and anchors) within anchored content are stored
+ * as references to the referenced content, and locations as plain numbers instead
+ * of {@link Mark}s. Anchors are forgotten at the end of each document, as they can
+ * not be referenced from other documents. Amount of content replayed for aliases
+ * (per document) is limited by {@link #getMaxReplayedEvents()} and
+ * {@link #getMaxReplayedLength()}.
+ *<p>
+ * Merge keys ({@code <<}) are handled for content read from input; content
+ * replayed for aliases is returned as it was read, including merge keys within
+ * it, unless {@link #isExpandReplayedMerges()} is enabled.
  *
  * @since 2.19
  */
 public class YAMLAnchorReplayingParser extends YAMLParser
 {
-    private static class AnchorContext {
+    /**
+     * Compact representation of events of an anchored node, used for replaying
+     * them when aliases to the anchor are found.
+     * Each event is stored as an {@code int} with type and style information,
+     * 6 {@code int}s for start and end locations, and 0 - 3 {@code Object}s:
+     * anchor and tag (if any) and scalar value (or referenced content for
+     * nested anchors and aliases).
+     */
+    protected final static class AnchoredContent
+    {
+        // Event types
+        final static int SCALAR = 1;
+        final static int SEQUENCE_START = 2;
+        final static int SEQUENCE_END = 3;
+        final static int MAPPING_START = 4;
+        final static int MAPPING_END = 5;
+        final static int REFERENCE = 6;
+
+        final static int TYPE_MASK = 0x7;
+        final static int HAS_ANCHOR = 0x8;
+        final static int HAS_TAG = 0x10;
+        // for scalars, ImplicitTuple; for collections, implicit flag
+        final static int IMPLICIT_PLAIN = 0x20;
+        final static int IMPLICIT_NON_PLAIN = 0x40;
+        // ordinal of scalar or flow style
+        final static int STYLE_SHIFT = 8;
+
+        final static int INTS_PER_EVENT = 7;
+
+        /**
+         * Type/style flags and locations of events, {@link #INTS_PER_EVENT}
+         * per event
+         */
+        int[] _eventData = new int[INTS_PER_EVENT * 4];
+        int _eventDataLength;
+
+        Object[] _objects = new Object[4];
+        int _objectCount;
+
+        /**
+         * Number of events stored, not including ones from referenced content.
+         */
+        int _eventCount;
+
+        void add(Event event) throws StreamConstraintsException
+        {
+            final int type;
+            String anchor = null;
+            String tag = null;
+            Object value = null;
+            int flags = 0;
+            if (event instanceof ScalarEvent) {
+                ScalarEvent se = (ScalarEvent) event;
+                type = SCALAR;
+                anchor = se.getAnchor();
+                tag = se.getTag();
+                value = se.getValue();
+                if (se.getImplicit().canOmitTagInPlainScalar()) {
+                    flags |= IMPLICIT_PLAIN;
+                }
+                if (se.getImplicit().canOmitTagInNonPlainScalar()) {
+                    flags |= IMPLICIT_NON_PLAIN;
+                }
+                flags |= se.getScalarStyle().ordinal() << STYLE_SHIFT;
+            } else if (event instanceof CollectionStartEvent) {
+                CollectionStartEvent cse = (CollectionStartEvent) event;
+                type = (event instanceof MappingStartEvent) ? MAPPING_START : SEQUENCE_START;
+                anchor = cse.getAnchor();
+                tag = cse.getTag();
+                if (cse.getImplicit()) {
+                    flags |= IMPLICIT_PLAIN;
+                }
+                flags |= cse.getFlowStyle().ordinal() << STYLE_SHIFT;
+            } else if (event instanceof MappingEndEvent) {
+                type = MAPPING_END;
+            } else if (event instanceof SequenceEndEvent) {
+                type = SEQUENCE_END;
+            } else { // should not get here
+                throw new IllegalStateException("Unexpected event to store: "+event);
+            }
+            if (anchor != null) {
+                flags |= HAS_ANCHOR;
+                _addObject(anchor);
+            }
+            if (tag != null) {
+                flags |= HAS_TAG;
+                _addObject(tag);
+            }
+            if (value != null) {
+                _addObject(value);
+            }
+            _addEvent(type | flags, event.getStartMark(), event.getEndMark());
+        }
+
+        /**
+         * Method for adding a reference to other content: either an alias, or
+         * a nested anchored node.
+         */
+        void addReference(AnchoredContent content, Event event) throws StreamConstraintsException
+        {
+            _addObject(content);
+            _addEvent(REFERENCE, event.getStartMark(), event.getEndMark());
+        }
+
+        private void _addObject(Object ob) {
+            if (_objectCount == _objects.length) {
+                _objects = Arrays.copyOf(_objects, _objectCount << 1);
+            }
+            _objects[_objectCount++] = ob;
+        }
+
+        private void _addEvent(int flags, Mark start, Mark end) throws StreamConstraintsException
+        {
+            if (_eventCount >= MAX_EVENTS) {
+                throw new StreamConstraintsException("too many events to replay");
+            }
+            ++_eventCount;
+            if (_eventDataLength + INTS_PER_EVENT > _eventData.length) {
+                _eventData = Arrays.copyOf(_eventData, _eventData.length << 1);
+            }
+            final int[] ints = _eventData;
+            int ix = _eventDataLength;
+            ints[ix++] = flags;
+            ix = _addMark(ints, ix, start);
+            _eventDataLength = _addMark(ints, ix, end);
+        }
+
+        private static int _addMark(int[] ints, int ix, Mark m) {
+            if (m == null) {
+                ints[ix] = -1;
+                ints[ix+1] = -1;
+                ints[ix+2] = -1;
+            } else {
+                ints[ix] = m.getIndex();
+                ints[ix+1] = m.getLine();
+                ints[ix+2] = m.getColumn();
+            }
+            return ix+3;
+        }
+    }
+
+    /**
+     * Position within {@link AnchoredContent} being replayed.
+     */
+    private final static class ReplayCursor
+    {
+        final AnchoredContent content;
+        int intIndex;
+        int objectIndex;
+
+        ReplayCursor(AnchoredContent content) {
+            this.content = content;
+        }
+    }
+
+    private final static class AnchorContext {
         public final String anchor;
-        public final List<Event> events = new ArrayList<>();
+        public final AnchoredContent content = new AnchoredContent();
         public int depth = 1;
 
         public AnchorContext(String anchor) {
@@ -35,7 +205,7 @@ public class YAMLAnchorReplayingParser extends YAMLParser
     }
 
     /**
-     *  the maximum number of events that can be replayed
+     *  the maximum number of events that can be stored for a single anchor
      */
     public static final int MAX_EVENTS = 9999;
 
@@ -54,6 +224,36 @@ public class YAMLAnchorReplayingParser extends YAMLParser
      */
     public static final int MAX_REFS = 9999;
 
+    /**
+     * Default maximum number of events to replay for aliases, per document.
+     */
+    public static final int DEFAULT_MAX_REPLAYED_EVENTS = 1_000_000;
+
+    /**
+     * Default maximum total length (in characters) of scalar values to replay for
+     * aliases, per document.
+     */
+    public static final long DEFAULT_MAX_REPLAYED_LENGTH = 20_000_000L;
+
+    private final static ImplicitTuple[] IMPLICIT_TUPLES = new ImplicitTuple[] {
+        new ImplicitTuple(false, false),
+        new ImplicitTuple(true, false),
+        new ImplicitTuple(false, true),
+        new ImplicitTuple(true, true),
+    };
+
+    private final static DumperOptions.ScalarStyle[] SCALAR_STYLES = DumperOptions.ScalarStyle.values();
+
+    private final static DumperOptions.FlowStyle[] FLOW_STYLES = DumperOptions.FlowStyle.values();
+
+    private final static int[] NO_MARK_BUFFER = new int[0];
+
+    protected final int _maxReplayedEvents;
+
+    protected final long _maxReplayedLength;
+
+    protected final boolean _expandReplayedMerges;
+
     /**
      * Remembers when a merge has been started in order to skip the corresponding
      * sequence end which needs to be excluded
@@ -68,29 +268,78 @@ public class YAMLAnchorReplayingParser extends YAMLParser
     /**
      * Keeps track of the last sequentially found definition of each anchor
      */
-    private final Map<String, List<Event>> referencedObjects = new HashMap<>();
+    private final Map<String, AnchoredContent> referencedObjects = new HashMap<>();
 
     /**
-     * Keeps track of events that have been insert when processing alias
+     * Keeps track of content being replayed for aliases (innermost last)
      */
-    private final ArrayDeque<Event> refEvents = new ArrayDeque<>();
+    private final ArrayDeque<ReplayCursor> replayStack = new ArrayDeque<>();
 
     /**
      * keeps track of the global depth of nested collections
      */
     private int globalDepth = 0;
 
+    /**
+     * Number of events replayed in the current document
+     */
+    private int replayedEvents;
+
+    /**
+     * Total length of scalar values replayed in the current document
+     */
+    private long replayedLength;
+
+    /**
+     * Name of the input source used for locations of replayed events
+     */
+    private String markName;
+
+    /**
+     * Whether the last event returned by {@link #nextEvent()} was replayed
+     * for an alias (and not read from the underlying parser)
+     */
+    private boolean replaying;
+
     public YAMLAnchorReplayingParser(IOContext ctxt, int parserFeatures, int formatFeatures, LoaderOptions loaderOptions, ObjectCodec codec, Reader reader) {
-        super(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, reader);
+        this(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, reader,
+                null, DEFAULT_MAX_REPLAYED_EVENTS, DEFAULT_MAX_REPLAYED_LENGTH, false);
+    }
+
+    /**
+     * @param symbols Symbol table to use for canonicalizing field names, if any
+     * @param maxReplayedEvents Maximum number of events to replay for aliases, per document
+     * @param maxReplayedLength Maximum total length of scalar values to replay for aliases,
+     *    per document
+     * @param expandReplayedMerges Whether merge keys within content replayed for
+     *    aliases are to be handled as well
+     */
+    public YAMLAnchorReplayingParser(IOContext ctxt, int parserFeatures, int formatFeatures, LoaderOptions loaderOptions, ObjectCodec codec, Reader reader,
+            CharsToNameCanonicalizer symbols, int maxReplayedEvents, long maxReplayedLength,
+            boolean expandReplayedMerges) {
+        super(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, reader, symbols);
+        _maxReplayedEvents = maxReplayedEvents;
+        _maxReplayedLength = maxReplayedLength;
+        _expandReplayedMerges = expandReplayedMerges;
     }
 
-    private void finishContext(AnchorContext context) throws StreamConstraintsException {
+    public int getMaxReplayedEvents() {
+        return _maxReplayedEvents;
+    }
+
+    public long getMaxReplayedLength() {
+        return _maxReplayedLength;
+    }
+
+    public boolean isExpandReplayedMerges() {
+        return _expandReplayedMerges;
+    }
+
+    private void finishContext(AnchorContext context, Event event) throws StreamConstraintsException {
         if (referencedObjects.size() + 1 > MAX_REFS) throw new StreamConstraintsException("too many references in the document");
-        referencedObjects.put(context.anchor, context.events);
+        referencedObjects.put(context.anchor, context.content);
         if (!tokenStack.isEmpty()) {
-            List<Event> events = tokenStack.peek().events;
-            if (events.size() + context.events.size() > MAX_EVENTS) throw new StreamConstraintsException("too many events to replay");
-            events.addAll(context.events);
+            tokenStack.peek().content.addReference(context.content, event);
         }
     }
 
@@ -117,73 +366,182 @@ public class YAMLAnchorReplayingParser extends YAMLParser
 
     @Override
     protected Event getEvent() throws IOException {
-        while(!refEvents.isEmpty()) {
-            Event event = filterEvent(trackDepth(refEvents.removeFirst()));
-            if (event != null) return event;
-        }
-
         Event event = null;
         while (event == null) {
-            event = trackDepth(super.getEvent());
+            event = nextEvent();
             if (event == null) return null;
-            event = filterEvent(event);
+            event = filterEvent(trackDepth(event));
+        }
+
+        // Replayed content is stored as read, including merge keys as-is
+        if ((!replaying || _expandReplayedMerges) && event instanceof ScalarEvent) {
+            ScalarEvent scalarEvent = (ScalarEvent) event;
+            if (scalarEvent.getValue().equals( "<<")) {
+                // expect next node to be a map
+                Event next = getEvent();
+                if (next instanceof MappingStartEvent) {
+                    if (mergeStack.size() + 1 > MAX_MERGES) throw new StreamConstraintsException("too many merges in the document");
+                    mergeStack.push(globalDepth);
+                    return getEvent();
+                }
+                throw new JsonParseException("found field '<<' but value isn't a map");
+            }
         }
+        return event;
+    }
+
+    /**
+     * Method for getting the next event, either from content being replayed,
+     * or from the underlying parser (in which case anchored content is also
+     * recorded); before handling merges.
+     */
+    protected Event nextEvent() throws IOException {
+        while (!replayStack.isEmpty()) {
+            Event event = replayEvent(replayStack.peekLast());
+            if (event != null) {
+                replaying = true;
+                return event;
+            }
+        }
+        replaying = false;
+
+        Event event = super.getEvent();
+        if (event == null) return null;
 
         if (event instanceof AliasEvent) {
             AliasEvent alias = (AliasEvent) event;
-            List<Event> events = referencedObjects.get(alias.getAnchor());
-            if (events != null) {
-                if (refEvents.size() + events.size() > MAX_EVENTS) throw new StreamConstraintsException("too many events to replay");
-                refEvents.addAll(events);
-                return refEvents.removeFirst();
+            AnchoredContent content = referencedObjects.get(alias.getAnchor());
+            if (content == null) {
+                throw new JsonParseException("invalid alias " + alias.getAnchor());
             }
-            throw new JsonParseException("invalid alias " + alias.getAnchor());
+            if (!tokenStack.isEmpty()) {
+                tokenStack.peek().content.addReference(content, event);
+            }
+            startReplay(content);
+            return nextEvent();
+        }
+
+        if (event instanceof DocumentEndEvent || event instanceof StreamEndEvent) {
+            // anchors can not be referenced from other documents
+            referencedObjects.clear();
+            tokenStack.clear();
+            replayedEvents = 0;
+            replayedLength = 0L;
+            return event;
         }
 
         if (event instanceof NodeEvent) {
             String anchor = ((NodeEvent) event).getAnchor();
             if (anchor != null) {
                 AnchorContext context = new AnchorContext(anchor);
-                context.events.add(event);
+                context.content.add(event);
+                if (markName == null && event.getStartMark() != null) {
+                    markName = event.getStartMark().getName();
+                }
                 if (event instanceof CollectionStartEvent) {
                     if (tokenStack.size() + 1 > MAX_ANCHORS) throw new StreamConstraintsException("too many anchors in the document");
                     tokenStack.push(context);
                 } else {
                     // directly store it
-                    finishContext(context);
+                    finishContext(context, event);
                 }
                 return event;
             }
         }
 
-        if (event instanceof ScalarEvent) {
-            ScalarEvent scalarEvent = (ScalarEvent) event;
-            if (scalarEvent.getValue().equals( "<<")) {
-                // expect next node to be a map
-                Event next = getEvent();
-                if (next instanceof MappingStartEvent) {
-                    if (mergeStack.size() + 1 > MAX_MERGES) throw new StreamConstraintsException("too many merges in the document");
-                    mergeStack.push(globalDepth);
-                    return getEvent();
-                }
-                throw new JsonParseException("found field '<<' but value isn't a map");
-            }
-        }
-
-        if (!tokenStack.isEmpty()) {
+        if (!tokenStack.isEmpty() && !(event instanceof CommentEvent)) {
             AnchorContext context = tokenStack.peek();
-            if (context.events.size() + 1 > MAX_EVENTS) throw new StreamConstraintsException("too many events to replay");
-            context.events.add(event);
+            context.content.add(event);
             if (event instanceof CollectionStartEvent) {
                 ++context.depth;
             } else if (event instanceof CollectionEndEvent) {
                 --context.depth;
                 if (context.depth == 0) {
                     tokenStack.pop();
-                    finishContext(context);
+                    finishContext(context, event);
                 }
             }
         }
         return event;
     }
+
+    private void startReplay(AnchoredContent content) throws StreamConstraintsException {
+        if (replayStack.size() + 1 > MAX_REFS) throw new StreamConstraintsException("too many nested references to replay");
+        replayStack.addLast(new ReplayCursor(content));
+        if (_metrics != null) {
+            _metrics.aliasExpanded(content._eventCount);
+        }
+    }
+
+    /**
+     * @return Next event replayed from given content, if any; null if content
+     *    was either exhausted, or the next event was a reference to other content
+     */
+    private Event replayEvent(ReplayCursor cursor) throws StreamConstraintsException {
+        final AnchoredContent content = cursor.content;
+        if (cursor.intIndex >= content._eventDataLength) {
+            replayStack.removeLast();
+            return null;
+        }
+        final int[] ints = content._eventData;
+        int ix = cursor.intIndex;
+        final int flags = ints[ix];
+        final Mark start = mark(ints, ix+1);
+        final Mark end = mark(ints, ix+4);
+        cursor.intIndex = ix + AnchoredContent.INTS_PER_EVENT;
+
+        final Object[] objects = content._objects;
+        final int type = flags & AnchoredContent.TYPE_MASK;
+        if (type == AnchoredContent.REFERENCE) {
+            startReplay((AnchoredContent) objects[cursor.objectIndex++]);
+            return null;
+        }
+        if (++replayedEvents > _maxReplayedEvents) {
+            throw new StreamConstraintsException(String.format(
+                    "Number of events replayed for aliases exceeds the maximum allowed (%d)",
+                    _maxReplayedEvents));
+        }
+        String anchor = null;
+        String tag = null;
+        if ((flags & AnchoredContent.HAS_ANCHOR) != 0) {
+            anchor = (String) objects[cursor.objectIndex++];
+        }
+        if ((flags & AnchoredContent.HAS_TAG) != 0) {
+            tag = (String) objects[cursor.objectIndex++];
+        }
+        final int style = flags >> AnchoredContent.STYLE_SHIFT;
+        switch (type) {
+        case AnchoredContent.SCALAR:
+            {
+                String value = (String) objects[cursor.objectIndex++];
+                replayedLength += value.length();
+                if (replayedLength > _maxReplayedLength) {
+                    throw new StreamConstraintsException(String.format(
+                            "Length of values replayed for aliases exceeds the maximum allowed (%d)",
+                            _maxReplayedLength));
+                }
+                int implicit = ((flags & AnchoredContent.IMPLICIT_PLAIN) != 0 ? 1 : 0)
+                        | ((flags & AnchoredContent.IMPLICIT_NON_PLAIN) != 0 ? 2 : 0);
+                return new ScalarEvent(anchor, tag, IMPLICIT_TUPLES[implicit], value,
+                        start, end, SCALAR_STYLES[style]);
+            }
+        case AnchoredContent.SEQUENCE_START:
+            return new SequenceStartEvent(anchor, tag, (flags & AnchoredContent.IMPLICIT_PLAIN) != 0,
+                    start, end, FLOW_STYLES[style]);
+        case AnchoredContent.MAPPING_START:
+            return new MappingStartEvent(anchor, tag, (flags & AnchoredContent.IMPLICIT_PLAIN) != 0,
+                    start, end, FLOW_STYLES[style]);
+        case AnchoredContent.SEQUENCE_END:
+            return new SequenceEndEvent(start, end);
+        default:
+            return new MappingEndEvent(start, end);
+        }
+    }
+
+    private Mark mark(int[] ints, int ix) {
+        if (ints[ix] < 0) {
+            return null;
+        }
+        return new Mark(markName, ints[ix], ints[ix+1], ints[ix+2], NO_MARK_BUFFER, 0);
+    }
 }
@@ -0,0 +1,271 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.*;
+
+/**
+ * Helper object for reading YAML files that are re-read repeatedly (for example,
+ * configuration files polled for changes): values bound from a file are cached,
+ * and returned as long as content of the file has not changed, without parsing
+ * or binding content again.
+ *<p>
+ * Changes are detected by comparing size and last-modified time of the file
+ * with those seen when content was last read; if either differs, content
+ * is read and its digest (CRC-32) compared, so that files rewritten with
+ * identical content are not parsed again. Content is also verified using
+ * the digest if the file was modified so close to the time it was last read
+ * that a later change could go undetected due to the granularity of
+ * file system timestamps. Digest computation never involves parsing.
+ *<p>
+ * Number of files for which values are cached is bounded: least recently
+ * used entries are evicted once the limit is exceeded.
+ *<p>
+ * NOTE: values (including {@link JsonNode}s) are shared between callers and
+ * must be treated as immutable: modifying a returned value will change
+ * the value returned by later calls.
+ *<p>
+ * Instances are thread-safe.
+ *
+ * @since 2.19
+ */
+public class YAMLCachingFileReader
+{
+    /**
+     * Default maximum number of files for which values are cached.
+     */
+    public final static int DEFAULT_MAX_ENTRIES = 500;
+
+    /**
+     * Time (in milliseconds) since modification of file, within which
+     * matching size and modification time are not considered sufficient
+     * to consider content unchanged.
+     */
+    protected final static long RACY_INTERVAL_MSECS = 2000L;
+
+    protected final ObjectMapper _mapper;
+
+    protected final int _maxEntries;
+
+    /**
+     * Cached entries, keyed by absolute path of the file; in access order
+     * to allow LRU eviction.
+     */
+    protected final LinkedHashMap<Path, CachedFile> _entries;
+
+    public YAMLCachingFileReader(ObjectMapper mapper) {
+        this(mapper, DEFAULT_MAX_ENTRIES);
+    }
+
+    public YAMLCachingFileReader(ObjectMapper mapper, int maxEntries)
+    {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive, was: "+maxEntries);
+        }
+        _mapper = mapper;
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<Path, CachedFile>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CachedFile> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, reading
+    /**********************************************************************
+     */
+
+    public <T> T readValue(File src, Class<T> valueType) throws IOException {
+        return readValue(src, _mapper.constructType(valueType));
+    }
+
+    public <T> T readValue(File src, TypeReference<T> valueTypeRef) throws IOException {
+        return readValue(src, _mapper.constructType(valueTypeRef));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T readValue(File src, JavaType valueType) throws IOException
+    {
+        final Path path = _path(src);
+        final CachedFile entry = _currentEntry(path);
+        byte[] content;
+        synchronized (entry) {
+            if (entry.values.containsKey(valueType)) {
+                return (T) entry.values.get(valueType);
+            }
+            content = entry.content;
+            entry.content = null;
+        }
+        // Content only retained until the first value is bound, so may need to re-read
+        if (content == null) {
+            content = Files.readAllBytes(path);
+            // and if changed since checked, can not cache value
+            if ((content.length != entry.size) || (_digest(content) != entry.digest)) {
+                return _mapper.readValue(content, valueType);
+            }
+        }
+        final T value = _mapper.readValue(content, valueType);
+        synchronized (entry) {
+            entry.values.put(valueType, value);
+        }
+        return value;
+    }
+
+    public JsonNode readTree(File src) throws IOException {
+        return readValue(src, _mapper.constructType(JsonNode.class));
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, change detection, cache management
+    /**********************************************************************
+     */
+
+    /**
+     * Method for checking whether content of given file has changed since
+     * it was last read using this reader (or checked using this method);
+     * files not read before are considered changed.
+     * Content is never parsed by this method: at most, it is read to
+     * calculate its digest.
+     *
+     * @return {@code true} if content of file has changed or was not read
+     *    before; {@code false} if content is unchanged
+     */
+    public boolean hasChanged(File src) throws IOException
+    {
+        final Path path = _path(src);
+        final CachedFile old;
+        synchronized (_entries) {
+            old = _entries.get(path);
+        }
+        return _currentEntry(path) != old;
+    }
+
+    /**
+     * Method for removing cached values of given file, if any.
+     */
+    public void invalidate(File src) {
+        final Path path = _path(src);
+        synchronized (_entries) {
+            _entries.remove(path);
+        }
+    }
+
+    /**
+     * Method for removing all cached values.
+     */
+    public void clear() {
+        synchronized (_entries) {
+            _entries.clear();
+        }
+    }
+
+    /**
+     * @return Number of files for which values (or digests) are currently cached
+     */
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    protected Path _path(File src) {
+        return src.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * Method that returns entry that matches current content of the file:
+     * either existing one (if content has not changed), or a new one (with
+     * no bound values but content that was read to calculate digest).
+     */
+    protected CachedFile _currentEntry(Path path) throws IOException
+    {
+        final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        final long size = attrs.size();
+        final long modified = attrs.lastModifiedTime().toMillis();
+        CachedFile entry;
+        synchronized (_entries) {
+            entry = _entries.get(path);
+        }
+        if (entry != null && entry.matches(size, modified)) {
+            return entry;
+        }
+        // Need to check content; either changed or possibly so
+        final long now = System.currentTimeMillis();
+        final byte[] content = Files.readAllBytes(path);
+        final long digest = _digest(content);
+        if (entry != null && entry.size == content.length && entry.digest == digest) {
+            entry.touch(size, modified, now);
+            return entry;
+        }
+        entry = new CachedFile(content, digest, size, modified, now);
+        synchronized (_entries) {
+            _entries.put(path, entry);
+        }
+        return entry;
+    }
+
+    protected long _digest(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Cached state of a single file: size and digest of its content,
+     * file attributes last seen, and values bound from content.
+     */
+    protected final static class CachedFile
+    {
+        public final long size;
+        public final long digest;
+
+        /**
+         * Values bound from content, keyed by type of value
+         */
+        public final Map<JavaType, Object> values = new HashMap<>();
+
+        /**
+         * Content read for calculating digest, retained until the first
+         * value is bound
+         */
+        byte[] content;
+
+        private long _fileSize, _fileModified, _verifiedAt;
+
+        CachedFile(byte[] content, long digest, long fileSize, long fileModified, long verifiedAt) {
+            this.content = content;
+            this.size = content.length;
+            this.digest = digest;
+            touch(fileSize, fileModified, verifiedAt);
+        }
+
+        synchronized void touch(long fileSize, long fileModified, long verifiedAt) {
+            _fileSize = fileSize;
+            _fileModified = fileModified;
+            _verifiedAt = verifiedAt;
+        }
+
+        synchronized boolean matches(long fileSize, long fileModified) {
+            return (fileSize == _fileSize) && (fileModified == _fileModified)
+                    // if modified just before content was read, may have changed since
+                    && (fileModified + RACY_INTERVAL_MSECS < _verifiedAt);
+        }
+    }
+}
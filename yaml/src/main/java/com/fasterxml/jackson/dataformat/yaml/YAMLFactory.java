@@ -7,6 +7,7 @@ import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.format.InputAccessor;
 import com.fasterxml.jackson.core.format.MatchStrength;
 import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 import com.fasterxml.jackson.dataformat.yaml.util.StringQuotingChecker;
 
 import org.yaml.snakeyaml.DumperOptions;
@@ -98,6 +99,24 @@ public class YAMLFactory extends JsonFactory
      */
     protected final DumperOptions _dumperOptions;
 
+    /**
+     * {@link DumperOptions} built for generators (when no explicit options
+     * are configured) for the generator features last used: shared by
+     * generators, instead of building options for each one, so must
+     * not be modified.
+     *
+     * @since 2.19
+     */
+    protected transient volatile BuiltDumperOptions _builtDumperOptions;
+
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     * Not serialized, since listeners are usually bound to the running process.
+     *
+     * @since 2.19
+     */
+    protected transient YAMLMetrics _metrics;
+
     /*
     /**********************************************************************
     /* Factory construction, configuration
@@ -142,6 +161,7 @@ public class YAMLFactory extends JsonFactory
         _quotingChecker = src._quotingChecker;
         _loaderOptions = src._loaderOptions;
         _dumperOptions = src._dumperOptions;
+        _metrics = src._metrics;
     }
 
     /**
@@ -158,6 +178,7 @@ public class YAMLFactory extends JsonFactory
         _quotingChecker = b.stringQuotingChecker();
         _loaderOptions = b.loaderOptions();
         _dumperOptions = b.dumperOptions();
+        _metrics = b.metrics();
     }
 
     @Override
@@ -207,6 +228,21 @@ public class YAMLFactory extends JsonFactory
         return PackageVersion.VERSION;
     }
 
+    /*
+    /**********************************************************
+    /* Configuration, other
+    /**********************************************************
+     */
+
+    /**
+     * Accessor for {@link YAMLMetrics} listener configured, if any.
+     *
+     * @since 2.19
+     */
+    public YAMLMetrics getMetrics() {
+        return _metrics;
+    }
+
     /*
     /**********************************************************
     /* Capability introspection
@@ -217,6 +253,10 @@ public class YAMLFactory extends JsonFactory
     @Override
     public boolean canUseCharArrays() { return false; }
 
+    // Non-blocking parsing supported since 2.19
+    @Override
+    public boolean canParseAsync() { return true; }
+
     @Override
     public Class<YAMLParser.Feature> getFormatReadFeatureType() {
         return YAMLParser.Feature.class;
@@ -382,6 +422,20 @@ public class YAMLFactory extends JsonFactory
     /**********************************************************
      */
 
+    /**
+     * Method for constructing a {@link NonBlockingYAMLParser} that is fed
+     * UTF-8 encoded content through {@link com.fasterxml.jackson.core.async.ByteArrayFeeder}
+     * (accessed via {@link JsonParser#getNonBlockingInputFeeder()}).
+     *
+     * @since 2.19
+     */
+    @Override
+    public NonBlockingYAMLParser createNonBlockingByteArrayParser() throws IOException {
+        IOContext ctxt = _createNonBlockingContext(null);
+        return _initParser(new NonBlockingYAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, _createFieldNameSymbols()));
+    }
+
     @Override
     public YAMLParser createParser(String content) throws IOException {
         return createParser(new StringReader(content));
@@ -501,40 +555,92 @@ public class YAMLFactory extends JsonFactory
 
     @Override
     protected YAMLParser _createParser(InputStream in, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, _createReader(in, null, ctxt));
+        return _initParser(new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, _createReader(in, null, ctxt),
+                _createFieldNameSymbols()));
     }
 
     @Override
     protected YAMLParser _createParser(Reader r, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, r);
+        return _initParser(new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, r,
+                _createFieldNameSymbols()));
     }
 
     // since 2.4
     @Override
     protected YAMLParser _createParser(char[] data, int offset, int len, IOContext ctxt,
             boolean recyclable) throws IOException {
-        return new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, new CharArrayReader(data, offset, len));
+        return _initParser(new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, new CharArrayReader(data, offset, len),
+                _createFieldNameSymbols()));
     }
 
     @Override
     protected YAMLParser _createParser(byte[] data, int offset, int len, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
-                _loaderOptions, _objectCodec, _createReader(data, offset, len, null, ctxt));
+        return _initParser(new YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                _loaderOptions, _objectCodec, _createReader(data, offset, len, null, ctxt),
+                _createFieldNameSymbols()));
+    }
+
+    /**
+     * Helper method for constructing the symbol table parser uses for
+     * canonicalizing field names: a child of the root table of this factory,
+     * if {@link JsonFactory.Feature#CANONICALIZE_FIELD_NAMES} is enabled;
+     * {@code null} otherwise.
+     *
+     * @since 2.19
+     */
+    protected CharsToNameCanonicalizer _createFieldNameSymbols() {
+        if (isEnabled(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)) {
+            return _rootCharSymbols.makeChild();
+        }
+        return null;
     }
 
     @Override
     protected YAMLGenerator _createGenerator(Writer out, IOContext ctxt) throws IOException {
         int feats = _yamlGeneratorFeatures;
+        YAMLGenerator gen;
         if (_dumperOptions == null) {
-            return new YAMLGenerator(ctxt, _generatorFeatures, feats,
-                    _quotingChecker, _objectCodec, out, _version);
+            gen = new YAMLGenerator(ctxt, _generatorFeatures, feats,
+                    _quotingChecker, _objectCodec, out, _version, _builtDumperOptions(feats));
         } else {
-            return new YAMLGenerator(ctxt, _generatorFeatures, feats,
+            gen = new YAMLGenerator(ctxt, _generatorFeatures, feats,
                     _quotingChecker, _objectCodec, out, _dumperOptions);
         }
+        gen._metrics = _metrics;
+        return gen;
+    }
+
+    /**
+     * Helper method called to complete configuration of a newly constructed
+     * parser.
+     *
+     * @since 2.19
+     */
+    protected <P extends YAMLParser> P _initParser(P p) {
+        p._metrics = _metrics;
+        return p;
+    }
+
+    /**
+     * Helper method for accessing {@link DumperOptions} to use for generators
+     * with given {@link YAMLGenerator.Feature}s, when no explicit options
+     * are configured: built once and reused as long as features do not change.
+     * Options returned are shared and must not be modified.
+     *
+     * @since 2.19
+     */
+    protected DumperOptions _builtDumperOptions(int yamlGeneratorFeatures)
+    {
+        BuiltDumperOptions built = _builtDumperOptions;
+        if ((built == null) || (built.features != yamlGeneratorFeatures)) {
+            built = new BuiltDumperOptions(yamlGeneratorFeatures,
+                    YAMLGenerator._buildDumperOptions(yamlGeneratorFeatures));
+            _builtDumperOptions = built;
+        }
+        return built.options;
     }
 
     @Override
@@ -546,7 +652,7 @@ public class YAMLFactory extends JsonFactory
     @Override
     protected Writer _createWriter(OutputStream out, JsonEncoding enc, IOContext ctxt) throws IOException {
         if (enc == JsonEncoding.UTF8) {
-            return new UTF8Writer(out);
+            return new UTF8Writer(ctxt, out);
         }
         return new OutputStreamWriter(out, enc.getJavaName());
     }
@@ -565,12 +671,37 @@ public class YAMLFactory extends JsonFactory
         // default to UTF-8 if encoding missing
         if (enc == JsonEncoding.UTF8) {
             boolean autoClose = ctxt.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE);
-            return new UTF8Reader(in, autoClose);
+            return new UTF8Reader(ctxt, in, autoClose);
 //          return new InputStreamReader(in, UTF8);
         }
         return new InputStreamReader(in, enc.getJavaName());
     }
 
+    /**
+     * Helper method for constructing {@link Reader} for reading content of
+     * given stream the same way parsers constructed using
+     * {@link #createParser(InputStream)} do (including use of
+     * {@link com.fasterxml.jackson.core.io.InputDecorator}, if any);
+     * closing the reader also releases buffers used for decoding.
+     * Used by {@link YAMLParallelMappingIterator}.
+     *
+     * @since 2.19
+     */
+    protected Reader _createReader(InputStream in) throws IOException
+    {
+        final IOContext ctxt = _createContext(_createContentReference(in), false);
+        return new FilterReader(_createReader(_decorate(in, ctxt), null, ctxt)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    ctxt.close();
+                }
+            }
+        };
+    }
+
     protected Reader _createReader(byte[] data, int offset, int len,
             JsonEncoding enc, IOContext ctxt) throws IOException
     {
@@ -584,4 +715,26 @@ public class YAMLFactory extends JsonFactory
         ByteArrayInputStream in = new ByteArrayInputStream(data, offset, len);
         return new InputStreamReader(in, enc.getJavaName());
     }
+
+    /*
+    /**********************************************************
+    /* Helper types
+    /**********************************************************
+     */
+
+    /**
+     * Container for {@link DumperOptions} built for given generator features.
+     *
+     * @since 2.19
+     */
+    protected final static class BuiltDumperOptions
+    {
+        public final int features;
+        public final DumperOptions options;
+
+        public BuiltDumperOptions(int features, DumperOptions options) {
+            this.features = features;
+            this.options = options;
+        }
+    }
 }
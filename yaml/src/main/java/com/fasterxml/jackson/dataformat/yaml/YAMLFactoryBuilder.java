@@ -84,6 +84,13 @@ public class YAMLFactoryBuilder extends TSFBuilder<YAMLFactory, YAMLFactoryBuild
      */
     protected DumperOptions _dumperOptions;
 
+    /**
+     * Listener to notify of parser and generator activity, if any.
+     *
+     * @since 2.19
+     */
+    protected YAMLMetrics _metrics;
+
     /*
     /**********************************************************
     /* Life cycle
@@ -100,6 +107,7 @@ public class YAMLFactoryBuilder extends TSFBuilder<YAMLFactory, YAMLFactoryBuild
         _formatParserFeatures = base._yamlParserFeatures;
         _version = base._version;
         _quotingChecker = base._quotingChecker;
+        _metrics = base._metrics;
     }
 
     /*
@@ -260,6 +268,19 @@ public class YAMLFactoryBuilder extends TSFBuilder<YAMLFactory, YAMLFactoryBuild
         return this;
     }
 
+    /**
+     * Method for specifying {@link YAMLMetrics} listener to notify of activity
+     * of parsers and generators constructed by factory; {@code null} to
+     * indicate none (default).
+     *
+     * @return This builder instance, to allow chaining
+     * @since 2.19
+     */
+    public YAMLFactoryBuilder metrics(YAMLMetrics metrics) {
+        _metrics = metrics;
+        return this;
+    }
+
     /*
     /**********************************************************
     /* Accessors
@@ -320,6 +341,13 @@ public class YAMLFactoryBuilder extends TSFBuilder<YAMLFactory, YAMLFactoryBuild
         return _dumperOptions;
     }
 
+    /**
+     * @since 2.19
+     */
+    public YAMLMetrics metrics() {
+        return _metrics;
+    }
+
     @Override
     public YAMLFactory build() {
         return new YAMLFactory(this);
@@ -3,7 +3,7 @@ package com.fasterxml.jackson.dataformat.yaml;
 import java.io.*;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -17,7 +17,9 @@ import org.yaml.snakeyaml.nodes.Tag;
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.base.GeneratorBase;
 import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.core.util.JacksonFeatureSet;
+import com.fasterxml.jackson.dataformat.yaml.util.DirectBlockWriter;
 import com.fasterxml.jackson.dataformat.yaml.util.StringQuotingChecker;
 import com.fasterxml.jackson.core.io.IOContext;
 
@@ -176,6 +178,25 @@ public class YAMLGenerator extends GeneratorBase
          * @since 2.14
          */
         ALLOW_LONG_KEYS(false),
+
+        /**
+         * Feature that determines whether block-style output is written directly
+         * by {@link DirectBlockWriter}, instead of constructing SnakeYAML events
+         * and passing them to SnakeYAML {@link Emitter}. Output is identical,
+         * but producing it needs less allocation and fewer calls to the underlying
+         * {@link Writer}.
+         * Feature has no effect if {@code DumperOptions} in use require output
+         * that the direct writer does not support (canonical output, flow style or
+         * comment processing): {@link Emitter} is used for those.
+         *<p>
+         * Note that feature only has effect when generator is constructed, so it
+         * needs to be enabled on {@link YAMLFactory} (or {@link YAMLMapper}).
+         *<p>
+         * Default value is {@code false} for backwards-compatibility.
+         *
+         * @since 2.19
+         */
+        USE_DIRECT_WRITER(false),
         ;
 
         protected final boolean _defaultState;
@@ -240,8 +261,21 @@ public class YAMLGenerator extends GeneratorBase
 
     protected Writer _writer;
 
+    /**
+     * Options used for output. NOTE: since 2.19, may be shared with other
+     * generators created by the same {@link YAMLFactory}, and must not be
+     * modified.
+     */
     protected DumperOptions _outputOptions;
 
+    /**
+     * Listener to notify of generation activity, if any; assigned by
+     * {@link YAMLFactory} after construction.
+     *
+     * @since 2.19
+     */
+    protected YAMLMetrics _metrics;
+
     protected final org.yaml.snakeyaml.DumperOptions.Version _docVersion;
 
     // for field names, leave out quotes
@@ -268,6 +302,15 @@ public class YAMLGenerator extends GeneratorBase
 
     protected Emitter _emitter;
 
+    /**
+     * Writer used instead of {@link #_emitter}, if
+     * {@link Feature#USE_DIRECT_WRITER} is enabled (and output options
+     * are supported by it); {@code null} otherwise.
+     *
+     * @since 2.19
+     */
+    protected DirectBlockWriter _directWriter;
+
     /**
      * YAML supports native Object identifiers, so databinder may indicate
      * need to output one.
@@ -296,20 +339,8 @@ public class YAMLGenerator extends GeneratorBase
             org.yaml.snakeyaml.DumperOptions.Version version)
         throws IOException
     {
-        super(jsonFeatures, codec, ctxt);
-        _streamWriteConstraints = ctxt.streamWriteConstraints();
-        _formatFeatures = yamlFeatures;
-        _quotingChecker = (quotingChecker == null)
-                ? StringQuotingChecker.Default.instance() : quotingChecker;
-        _writer = out;
-        _docVersion = version;
-
-        _outputOptions = buildDumperOptions(jsonFeatures, yamlFeatures, version);
-
-        _emitter = new Emitter(_writer, _outputOptions);
-        // should we start output now, or try to defer?
-        _emit(new StreamStartEvent(null, null));
-        _emitStartDocument();
+        this(ctxt, jsonFeatures, yamlFeatures, quotingChecker, codec, out,
+                version, null, false);
     }
 
     /**
@@ -320,6 +351,45 @@ public class YAMLGenerator extends GeneratorBase
                          ObjectCodec codec, Writer out,
                          org.yaml.snakeyaml.DumperOptions dumperOptions)
             throws IOException
+    {
+        this(ctxt, jsonFeatures, yamlFeatures, quotingChecker, codec, out,
+                dumperOptions.getVersion(), dumperOptions, false);
+    }
+
+    /**
+     * Constructor that takes {@link DumperOptions} built for given features
+     * by caller (as per {@link #buildDumperOptions}), instead of building them:
+     * used by {@link YAMLFactory} to share options between generators.
+     * Unlike with user-provided {@link DumperOptions}, YAML version to write
+     * is passed separately. Options are shared and never modified; since
+     * subclasses may modify {@link #_outputOptions} (or override
+     * {@link #buildDumperOptions}), they get options of their own instead.
+     *
+     * @since 2.19
+     */
+    public YAMLGenerator(IOContext ctxt, int jsonFeatures, int yamlFeatures,
+            StringQuotingChecker quotingChecker,
+            ObjectCodec codec, Writer out,
+            org.yaml.snakeyaml.DumperOptions.Version version,
+            DumperOptions builtOptions)
+        throws IOException
+    {
+        this(ctxt, jsonFeatures, yamlFeatures, quotingChecker, codec, out,
+                version, builtOptions, true);
+    }
+
+    /**
+     * @param options Options to use, if any; if {@code null}, built using
+     *    {@link #buildDumperOptions}
+     * @param sharedOptions Whether {@code options} are shared with other
+     *    generators
+     */
+    private YAMLGenerator(IOContext ctxt, int jsonFeatures, int yamlFeatures,
+            StringQuotingChecker quotingChecker,
+            ObjectCodec codec, Writer out,
+            org.yaml.snakeyaml.DumperOptions.Version version,
+            DumperOptions options, boolean sharedOptions)
+        throws IOException
     {
         super(jsonFeatures, codec, ctxt);
         _streamWriteConstraints = ctxt.streamWriteConstraints();
@@ -327,15 +397,30 @@ public class YAMLGenerator extends GeneratorBase
         _quotingChecker = (quotingChecker == null)
                 ? StringQuotingChecker.Default.instance() : quotingChecker;
         _writer = out;
-        _docVersion = dumperOptions.getVersion();
-        _outputOptions = dumperOptions;
+        _docVersion = version;
+        if ((options == null) || (sharedOptions && (getClass() != YAMLGenerator.class))) {
+            options = buildDumperOptions(jsonFeatures, yamlFeatures, version);
+        }
+        _outputOptions = options;
 
-        _emitter = new Emitter(_writer, _outputOptions);
-        // should we start output now, or try to defer?
-        _emit(new StreamStartEvent(null, null));
+        _initEmitter(ctxt);
         _emitStartDocument();
     }
 
+    // @since 2.19
+    private void _initEmitter(IOContext ctxt) throws IOException
+    {
+        if (Feature.USE_DIRECT_WRITER.enabledIn(_formatFeatures)
+                && DirectBlockWriter.isSupported(_outputOptions)) {
+            _directWriter = new DirectBlockWriter(_writer, _outputOptions,
+                    ctxt.allocConcatBuffer());
+        } else {
+            _emitter = new Emitter(_writer, _outputOptions);
+            // should we start output now, or try to defer?
+            _emit(new StreamStartEvent(null, null));
+        }
+    }
+
     @Deprecated // since 2.12
     public YAMLGenerator(IOContext ctxt, int jsonFeatures, int yamlFeatures,
             ObjectCodec codec, Writer out,
@@ -346,10 +431,21 @@ public class YAMLGenerator extends GeneratorBase
 
     protected DumperOptions buildDumperOptions(int jsonFeatures, int yamlFeatures,
             org.yaml.snakeyaml.DumperOptions.Version version)
+    {
+        return _buildDumperOptions(_formatFeatures);
+    }
+
+    /**
+     * Helper method that {@link #buildDumperOptions} delegates to; also used by
+     * {@link YAMLFactory} for building options to share between generators.
+     *
+     * @since 2.19
+     */
+    protected static DumperOptions _buildDumperOptions(int yamlFeatures)
     {
         DumperOptions opt = new DumperOptions();
         // would we want canonical?
-        if (Feature.CANONICAL_OUTPUT.enabledIn(_formatFeatures)) {
+        if (Feature.CANONICAL_OUTPUT.enabledIn(yamlFeatures)) {
             opt.setCanonical(true);
         } else {
             opt.setCanonical(false);
@@ -357,9 +453,9 @@ public class YAMLGenerator extends GeneratorBase
             opt.setDefaultFlowStyle(FlowStyle.BLOCK);
         }
         // split-lines for text blocks?
-        opt.setSplitLines(Feature.SPLIT_LINES.enabledIn(_formatFeatures));
+        opt.setSplitLines(Feature.SPLIT_LINES.enabledIn(yamlFeatures));
         // array indentation?
-        if (Feature.INDENT_ARRAYS.enabledIn(_formatFeatures)) {
+        if (Feature.INDENT_ARRAYS.enabledIn(yamlFeatures)) {
             // But, wrt [dataformats-text#34]: need to set both to diff values to work around bug
             // (otherwise indentation level is "invisible". Note that this should NOT be necessary
             // but is needed up to at least SnakeYAML 1.18.
@@ -368,16 +464,16 @@ public class YAMLGenerator extends GeneratorBase
             opt.setIndent(2);
         }
         // [dataformats-text#175]: further configurability that overrides prev setting
-        if (Feature.INDENT_ARRAYS_WITH_INDICATOR.enabledIn(_formatFeatures)) {
+        if (Feature.INDENT_ARRAYS_WITH_INDICATOR.enabledIn(yamlFeatures)) {
             opt.setIndicatorIndent(2);
             opt.setIndentWithIndicator(true);
         }
         // 14-May-2018: [dataformats-text#84] allow use of platform linefeed
-        if (Feature.USE_PLATFORM_LINE_BREAKS.enabledIn(_formatFeatures)) {
+        if (Feature.USE_PLATFORM_LINE_BREAKS.enabledIn(yamlFeatures)) {
             opt.setLineBreak(DumperOptions.LineBreak.getPlatformLineBreak());
         }
 
-        if (Feature.ALLOW_LONG_KEYS.enabledIn(_formatFeatures)) {
+        if (Feature.ALLOW_LONG_KEYS.enabledIn(yamlFeatures)) {
             opt.setMaxSimpleKeyLength(1024);
         }
         return opt;
@@ -430,10 +526,14 @@ public class YAMLGenerator extends GeneratorBase
 
     /**
      * SnakeYAML does not expose buffered content amount, so we can only return
-     * <code>-1</code> from here
+     * <code>-1</code> from here, unless {@link Feature#USE_DIRECT_WRITER}
+     * is enabled.
      */
     @Override
     public int getOutputBuffered() {
+        if (_directWriter != null) {
+            return _directWriter.getOutputBuffered();
+        }
         return -1;
     }
 
@@ -549,9 +649,15 @@ public class YAMLGenerator extends GeneratorBase
     @Override
     public final void flush() throws IOException
     {
+        if (_directWriter != null) {
+            _directWriter.flush();
+        }
         if (isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
             _writer.flush();
         }
+        if (_metrics != null) {
+            _metrics.outputFlushed();
+        }
     }
 
     @Override
@@ -562,13 +668,16 @@ public class YAMLGenerator extends GeneratorBase
             //   but need END_DOCUMENT regardless
 
             _emitEndDocument();
-            _emit(new StreamEndEvent(null, null));
+            if (_directWriter != null) {
+                _directWriter.writeStreamEnd();
+            } else {
+                _emit(new StreamEndEvent(null, null));
+            }
 
             /* 25-Nov-2008, tatus: As per [JACKSON-16] we are not to call close()
              *   on the underlying Reader, unless we "own" it, or auto-closing
-             *   feature is enabled.
-             *   One downside: when using UTF8Writer, underlying buffer(s)
-             *   may not be properly recycled if we don't close the writer.
+             *   feature is enabled. If writer is not closed, buffer of UTF8Writer
+             *   (if one used) is released by _releaseBuffers().
              */
             if (_writer != null) {
                 if (_ioContext.isResourceManaged() || isEnabled(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
@@ -578,6 +687,7 @@ public class YAMLGenerator extends GeneratorBase
                     _writer.flush();
                 }
             }
+            _releaseBuffers();
             super.close();
         }
     }
@@ -601,8 +711,12 @@ public class YAMLGenerator extends GeneratorBase
         if (anchor != null) {
             _objectId = null;
         }
-        _emit(new SequenceStartEvent(anchor, yamlTag,
-                implicit,  null, null, style));
+        if (_directWriter != null) {
+            _directWriter.writeSequenceStart(anchor, yamlTag);
+        } else {
+            _emit(new SequenceStartEvent(anchor, yamlTag,
+                    implicit,  null, null, style));
+        }
     }
 
     @Override
@@ -614,7 +728,11 @@ public class YAMLGenerator extends GeneratorBase
         // just to make sure we don't "leak" type ids
         _typeId = null;
         _writeContext = _writeContext.getParent();
-        _emit(new SequenceEndEvent(null, null));
+        if (_directWriter != null) {
+            _directWriter.writeSequenceEnd();
+        } else {
+            _emit(new SequenceEndEvent(null, null));
+        }
     }
 
     @Override
@@ -630,8 +748,12 @@ public class YAMLGenerator extends GeneratorBase
         if (anchor != null) {
             _objectId = null;
         }
-        _emit(new MappingStartEvent(anchor, yamlTag,
-                implicit, null, null, style));
+        if (_directWriter != null) {
+            _directWriter.writeMappingStart(anchor, yamlTag);
+        } else {
+            _emit(new MappingStartEvent(anchor, yamlTag,
+                    implicit, null, null, style));
+        }
     }
 
     @Override
@@ -643,7 +765,51 @@ public class YAMLGenerator extends GeneratorBase
         // just to make sure we don't "leak" type ids
         _typeId = null;
         _writeContext = _writeContext.getParent();
-        _emit(new MappingEndEvent(null, null));
+        if (_directWriter != null) {
+            _directWriter.writeMappingEnd();
+        } else {
+            _emit(new MappingEndEvent(null, null));
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API: copying (transcoding)
+    /**********************************************************************
+     */
+
+    /**
+     * Method for copying all remaining content of given parser (starting
+     * with its current token, if any): for YAML input, each document is
+     * written as a separate document.
+     * String values read from plain YAML scalars are written without
+     * re-checking whether they need quoting (see
+     * {@link #writePlainScalarString(String)}).
+     *<p>
+     * Note that type ids (tags) and object ids (anchors) are not copied.
+     *
+     * @since 2.19
+     */
+    public void copyFrom(JsonParser p) throws IOException
+    {
+        JsonToken t = p.currentToken();
+        if (t == null) {
+            t = p.nextToken();
+        }
+        for (; t != null; t = p.nextToken()) {
+            copyCurrentEvent(p);
+        }
+    }
+
+    // Overridden to retain "plain scalar" hint from YAML input
+    @Override // since 2.19
+    protected void _copyCurrentStringValue(JsonParser p) throws IOException
+    {
+        if ((p instanceof YAMLParser) && ((YAMLParser) p).isCurrentPlainScalar()) {
+            writePlainScalarString(p.getText());
+        } else {
+            super._copyCurrentStringValue(p);
+        }
     }
 
     /*
@@ -696,6 +862,36 @@ public class YAMLGenerator extends GeneratorBase
         writeString(new String(text, offset, len));
     }
 
+    /**
+     * Method for writing a String value known to have been read from a plain
+     * YAML scalar (see {@link YAMLParser#isCurrentPlainScalar()}): if
+     * {@link Feature#MINIMIZE_QUOTES} is enabled, value is written as plain
+     * scalar unless {@link StringQuotingChecker#needToQuotePlainValue(String)}
+     * indicates otherwise, without checking its characters for quoting.
+     *
+     * @since 2.19
+     */
+    public void writePlainScalarString(String text) throws IOException
+    {
+        if (!Feature.MINIMIZE_QUOTES.enabledIn(_formatFeatures)) {
+            writeString(text);
+            return;
+        }
+        _verifyValueWrite("write String value");
+        DumperOptions.ScalarStyle style;
+        // (plain scalars with empty lines may contain linefeeds)
+        if (text.indexOf('\n') >= 0) {
+            style = STYLE_LITERAL;
+        } else if (_quotingChecker.needToQuotePlainValue(text)
+                || (Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS.enabledIn(_formatFeatures)
+                        && PLAIN_NUMBER_P.matcher(text).matches())) {
+            style = STYLE_QUOTED;
+        } else {
+            style = STYLE_PLAIN;
+        }
+        _writeScalar(text, "string", style);
+    }
+
     @Override
     public final void writeString(SerializableString sstr)
         throws IOException
@@ -772,10 +968,46 @@ public class YAMLGenerator extends GeneratorBase
             return;
         }
         _verifyValueWrite("write Binary value");
-        if (offset > 0 || (offset+len) != data.length) {
-            data = Arrays.copyOfRange(data, offset, offset+len);
+        b64variant = _binaryVariant(b64variant);
+        if ((_directWriter != null) && _directWriter.canWriteBinaryScalars()) {
+            _directWriter.writeBinaryScalar(null, TAG_BINARY, b64variant, data, offset, len);
+        } else {
+            _writeScalarBinary(b64variant, data, offset, len);
+        }
+    }
+
+    @Override // since 2.19
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength)
+        throws IOException
+    {
+        _verifyValueWrite("write Binary value");
+        b64variant = _binaryVariant(b64variant);
+        byte[] readBuffer = _ioContext.allocBase64Buffer();
+        int bytes;
+        try {
+            if ((_directWriter != null) && _directWriter.canWriteBinaryScalars()) {
+                // With direct writer, can encode content as it is read
+                bytes = _directWriter.writeBinaryScalar(null, TAG_BINARY, b64variant,
+                        data, dataLength, readBuffer);
+            } else {
+                // but otherwise need all of content as a String
+                ByteArrayBuilder bb = new ByteArrayBuilder((dataLength < 0) ? 500 : dataLength);
+                int count;
+                while ((bb.size() != dataLength)
+                        && (count = data.read(readBuffer, 0, (dataLength < 0) ? readBuffer.length
+                                : Math.min(readBuffer.length, dataLength - bb.size()))) >= 0) {
+                    bb.write(readBuffer, 0, count);
+                }
+                bytes = bb.size();
+                _writeScalarBinary(b64variant, bb.toByteArray(), 0, bytes);
+            }
+        } finally {
+            _ioContext.releaseBase64Buffer(readBuffer);
+        }
+        if ((dataLength >= 0) && (bytes < dataLength)) {
+            _reportError("Too few bytes available: missing "+(dataLength - bytes)+" bytes (out of "+dataLength+")");
         }
-        _writeScalarBinary(b64variant, data);
+        return bytes;
     }
 
     /*
@@ -899,6 +1131,10 @@ public class YAMLGenerator extends GeneratorBase
         throws IOException
     {
         _verifyValueWrite("write Object reference");
+        if (_directWriter != null) {
+            _directWriter.writeAlias(String.valueOf(id));
+            return;
+        }
         AliasEvent evt = new AliasEvent(String.valueOf(id), null, null);
         _emit(evt);
     }
@@ -938,7 +1174,17 @@ public class YAMLGenerator extends GeneratorBase
 
     @Override
     protected void _releaseBuffers() {
-        // nothing special to do...
+        if (_directWriter != null) {
+            char[] buf = _directWriter.releaseBuffer();
+            if (buf != null) {
+                _ioContext.releaseConcatBuffer(buf);
+            }
+        }
+        // If target was not closed, writer still holds on to its buffer
+        // (content has been flushed when end of stream was written)
+        if (_writer instanceof UTF8Writer) {
+            ((UTF8Writer) _writer).releaseBuffers();
+        }
     }
 
     /*
@@ -955,20 +1201,81 @@ public class YAMLGenerator extends GeneratorBase
 
     protected void _writeScalar(String value, String type, DumperOptions.ScalarStyle style) throws IOException
     {
+        if (_directWriter != null) {
+            // same as what _scalarEvent() does, but without constructing event
+            String yamlTag = _typeId;
+            if (yamlTag != null) {
+                _typeId = null;
+            }
+            String anchor = _objectId;
+            if (anchor != null) {
+                _objectId = null;
+            }
+            _directWriter.writeScalar(anchor, yamlTag, true, value, style);
+            return;
+        }
         _emit(_scalarEvent(value, style));
     }
 
+    // 15-Dec-2017, tatu: as per [dataformats-text#62], can not use SnakeYAML's internal
+    //    codec. Also: force use of linefeed variant if using default
+    private Base64Variant _binaryVariant(Base64Variant b64variant) {
+        if (b64variant == Base64Variants.getDefaultVariant()) {
+            return Base64Variants.MIME;
+        }
+        return b64variant;
+    }
+
     private void _writeScalarBinary(Base64Variant b64variant,
-            byte[] data) throws IOException
+            byte[] data, int offset, int len) throws IOException
     {
-        // 15-Dec-2017, tatu: as per [dataformats-text#62], can not use SnakeYAML's internal
-        //    codec. Also: force use of linefeed variant if using default
-        if (b64variant == Base64Variants.getDefaultVariant()) {
-            b64variant = Base64Variants.MIME;
+        String encoded = _encodeBinary(b64variant, data, offset, len);
+        if (_directWriter != null) {
+            _directWriter.writeScalar(null, TAG_BINARY, false, encoded, STYLE_BASE64);
+        } else {
+            _emit(new ScalarEvent(null, TAG_BINARY, EXPLICIT_TAGS, encoded,
+                    null, null, STYLE_BASE64));
         }
-        String encoded = b64variant.encode(data, false, _lf());
-        _emit(new ScalarEvent(null, TAG_BINARY, EXPLICIT_TAGS, encoded,
-                null, null, STYLE_BASE64));
+    }
+
+    /**
+     * Helper method for base64-encoding given content: produces same String as
+     * {@link Base64Variant#encode(byte[], boolean, String)}, but without
+     * copying input range or using intermediate {@link StringBuilder}.
+     */
+    private String _encodeBinary(Base64Variant b64variant,
+            byte[] data, int offset, int len)
+    {
+        final byte[] lf = _lf().getBytes(StandardCharsets.US_ASCII);
+        final int chunksPerLine = Math.max(1, b64variant.getMaxLineLength() >> 2);
+        final int fullChunks = len / 3;
+        final int encLen = ((len + 2) / 3) * 4 + (fullChunks / chunksPerLine) * lf.length;
+        final byte[] enc = new byte[encLen];
+        int outPtr = 0;
+        int chunksLeft = chunksPerLine;
+        final int end = offset + len;
+        int ptr = offset;
+
+        for (final int safeEnd = end - 3; ptr <= safeEnd; ) {
+            int b24 = (data[ptr++] << 8) | (data[ptr++] & 0xFF);
+            b24 = (b24 << 8) | (data[ptr++] & 0xFF);
+            outPtr = b64variant.encodeBase64Chunk(b24, enc, outPtr);
+            if (--chunksLeft <= 0) {
+                for (byte b : lf) {
+                    enc[outPtr++] = b;
+                }
+                chunksLeft = chunksPerLine;
+            }
+        }
+        final int left = end - ptr;
+        if (left > 0) {
+            int b24 = data[ptr++] << 16;
+            if (left == 2) {
+                b24 |= (data[ptr] & 0xFF) << 8;
+            }
+            outPtr = b64variant.encodeBase64Partial(b24, left, enc, outPtr);
+        }
+        return new String(enc, 0, outPtr, StandardCharsets.US_ASCII);
     }
 
     protected ScalarEvent _scalarEvent(String value, DumperOptions.ScalarStyle style)
@@ -994,8 +1301,12 @@ public class YAMLGenerator extends GeneratorBase
     // @since 2.10.2
     protected void _emitStartDocument() throws IOException
     {
-        Map<String,String> noTags = Collections.emptyMap();
         boolean startMarker = Feature.WRITE_DOC_START_MARKER.enabledIn(_formatFeatures);
+        if (_directWriter != null) {
+            _directWriter.writeDocumentStart(startMarker, _docVersion);
+            return;
+        }
+        Map<String,String> noTags = Collections.emptyMap();
         _emit(new DocumentStartEvent(null, null, startMarker,
                 _docVersion, // for 1.10 was: ((version == null) ? null : version.getArray()),
                 noTags));
@@ -1003,7 +1314,14 @@ public class YAMLGenerator extends GeneratorBase
 
     // @since 2.10.2
     protected void _emitEndDocument() throws IOException {
-        _emit(new DocumentEndEvent(null, null, false));
+        if (_directWriter != null) {
+            _directWriter.writeDocumentEnd();
+        } else {
+            _emit(new DocumentEndEvent(null, null, false));
+        }
+        if (_metrics != null) {
+            _metrics.documentWritten();
+        }
     }
 
     // @since 2.10.2
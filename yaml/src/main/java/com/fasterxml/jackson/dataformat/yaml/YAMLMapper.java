@@ -1,5 +1,10 @@
 package com.fasterxml.jackson.dataformat.yaml;
 
+import java.io.IOException;
+import java.io.Reader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.cfg.MapperBuilder;
 
@@ -145,6 +150,55 @@ public class YAMLMapper extends ObjectMapper
         return this;
     }
 
+    /*
+    /**********************************************************************
+    /* Factory methods for helper objects
+    /**********************************************************************
+     */
+
+    /**
+     * Factory method for constructing {@link YAMLCachingFileReader} that uses
+     * this mapper for binding values, and caches values of at most
+     * given number of files.
+     *
+     * @since 2.19
+     */
+    public YAMLCachingFileReader cachingFileReader(int maxEntries) {
+        return new YAMLCachingFileReader(this, maxEntries);
+    }
+
+    /*
+    /**********************************************************************
+    /* Streaming transcoding
+    /**********************************************************************
+     */
+
+    /**
+     * Method for copying all YAML content (all documents) read from given
+     * source to given generator as a stream of tokens, without binding or
+     * building a tree. Generator may be of any format: with JSON
+     * multiple documents are written as root-level values separated
+     * by root value separator; with YAML each document is written as a
+     * separate document, and String values read from plain scalars are
+     * written without checking whether they need quoting (see
+     * {@link YAMLGenerator#writePlainScalarString(String)}).
+     *<p>
+     * Source is closed after all content is read (unless
+     * {@link JsonParser.Feature#AUTO_CLOSE_SOURCE} is disabled); generator
+     * is flushed but not closed.
+     *
+     * @since 2.19
+     */
+    public void transcode(Reader src, JsonGenerator gen) throws IOException
+    {
+        try (JsonParser p = getFactory().createParser(src)) {
+            while (p.nextToken() != null) {
+                gen.copyCurrentEvent(p);
+            }
+        }
+        gen.flush();
+    }
+
     /*
     /**********************************************************************
     /* Additional typed accessors
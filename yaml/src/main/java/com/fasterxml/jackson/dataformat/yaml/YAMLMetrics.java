@@ -0,0 +1,134 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener that a {@link YAMLFactory} may be configured with (see
+ * {@link YAMLFactoryBuilder#metrics(YAMLMetrics)}) to be notified of what
+ * {@link YAMLParser}s and {@link YAMLGenerator}s it constructs do, for
+ * example to collect counters or emit JDK Flight Recorder events.
+ *<p>
+ * Events are reported at the level of YAML structure: a multi-document
+ * stream reports {@link #documentRead} once per {@code ---} separated
+ * document, and {@link #aliasRead} once per {@code *alias} returned as-is.
+ * Aliases expanded by {@link YAMLAnchorReplayingParser} are reported with
+ * {@link #aliasExpanded} instead, along with the size of the anchored node,
+ * which is useful for spotting "billion laughs" style inputs. Generators
+ * report each document when its end marker is emitted, and each flush of
+ * the emitter output.
+ *<p>
+ * All methods have empty default implementations, so implementations only
+ * need to override ones they are interested in. A simple counting
+ * implementation is available as {@link Counters}; like any implementation
+ * it is called from all parsers and generators of the factory, so it
+ * needs to be thread-safe.
+ *
+ * @since 2.19
+ */
+public interface YAMLMetrics
+{
+    /**
+     * Method called when a parser starts reading a document.
+     */
+    default void documentRead() { }
+
+    /**
+     * Method called when a parser returns an alias (reference to an anchored
+     * node) as a token.
+     */
+    default void aliasRead() { }
+
+    /**
+     * Method called when a {@link YAMLAnchorReplayingParser} expands an alias
+     * by replaying content of the anchored node.
+     *
+     * @param eventCount Number of events of the anchored node itself (not
+     *    including content of aliases and anchored nodes it contains)
+     */
+    default void aliasExpanded(int eventCount) { }
+
+    /**
+     * Method called when a parser is closed.
+     *
+     * @param charCount Number of characters of input read, up to the end of
+     *    the last token returned
+     */
+    default void parserClosed(long charCount) { }
+
+    /**
+     * Method called when a generator has completed writing a document.
+     */
+    default void documentWritten() { }
+
+    /**
+     * Method called when a generator is flushed.
+     */
+    default void outputFlushed() { }
+
+    /**
+     * Simple {@link YAMLMetrics} implementation that just keeps track of
+     * cumulative counts.
+     */
+    public static class Counters implements YAMLMetrics
+    {
+        protected final LongAdder _documentsRead = new LongAdder();
+        protected final LongAdder _aliasesRead = new LongAdder();
+        protected final LongAdder _aliasExpansions = new LongAdder();
+        protected final LongAdder _eventsReplayed = new LongAdder();
+        protected final LongAdder _parsersClosed = new LongAdder();
+        protected final LongAdder _charsRead = new LongAdder();
+        protected final LongAdder _documentsWritten = new LongAdder();
+        protected final LongAdder _outputFlushes = new LongAdder();
+
+        @Override
+        public void documentRead() {
+            _documentsRead.increment();
+        }
+
+        @Override
+        public void aliasRead() {
+            _aliasesRead.increment();
+        }
+
+        @Override
+        public void aliasExpanded(int eventCount) {
+            _aliasExpansions.increment();
+            _eventsReplayed.add(eventCount);
+        }
+
+        @Override
+        public void parserClosed(long charCount) {
+            _parsersClosed.increment();
+            _charsRead.add(charCount);
+        }
+
+        @Override
+        public void documentWritten() {
+            _documentsWritten.increment();
+        }
+
+        @Override
+        public void outputFlushed() {
+            _outputFlushes.increment();
+        }
+
+        public long getDocumentsRead() { return _documentsRead.sum(); }
+        public long getAliasesRead() { return _aliasesRead.sum(); }
+        public long getAliasExpansions() { return _aliasExpansions.sum(); }
+        public long getEventsReplayed() { return _eventsReplayed.sum(); }
+        public long getParsersClosed() { return _parsersClosed.sum(); }
+        public long getCharsRead() { return _charsRead.sum(); }
+        public long getDocumentsWritten() { return _documentsWritten.sum(); }
+        public long getOutputFlushes() { return _outputFlushes.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format(
+"[YAMLMetrics.Counters: documents read=%d, aliases read=%d, alias expansions=%d (%d events), parsers closed=%d (%d chars); documents written=%d, output flushes=%d]",
+                    getDocumentsRead(), getAliasesRead(),
+                    getAliasExpansions(), getEventsReplayed(),
+                    getParsersClosed(), getCharsRead(),
+                    getDocumentsWritten(), getOutputFlushes());
+        }
+    }
+}
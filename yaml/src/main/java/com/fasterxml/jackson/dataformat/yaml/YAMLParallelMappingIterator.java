@@ -0,0 +1,495 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.dataformat.yaml.util.DocumentSplitter;
+
+/**
+ * Alternative to {@link MappingIterator} for reading values from multi-document
+ * YAML streams, in which documents are parsed and bound in parallel:
+ * content is split (using the thread that iterates over values) into batches
+ * of complete documents using {@link DocumentSplitter}, and each batch is then
+ * parsed and bound using a separate {@link YAMLParser}, by a thread of given
+ * {@link Executor} (by default, {@link ForkJoinPool#commonPool()}).
+ * Values are still returned in the order documents appear in input; and the
+ * number of batches being processed (or waiting to be consumed) is bounded,
+ * so that reading will not proceed too far ahead of the caller.
+ *<p>
+ * Values returned are the same as those returned by {@link MappingIterator}
+ * constructed using {@link ObjectReader#readValues(Reader)}; tag handles
+ * declared using {@code %TAG} directives are carried over to following
+ * batches. However, locations reported for content of batches other than
+ * the first one (for example in exception messages) are relative to the
+ * start of the batch, not the whole content.
+ *<p>
+ * As with {@link MappingIterator}, if the first document is a sequence, values
+ * are the elements of that sequence (and the following documents are not read).
+ * Errors are also reported at the same point in sequence: values of documents
+ * before a failing one are returned first, the failure is thrown from
+ * {@link #nextValue}; iteration may continue after a binding failure but not
+ * after a parsing failure.
+ *<p>
+ * Typical usage:
+ *<pre>
+ *  YAMLMapper mapper = new YAMLMapper();
+ *  try (YAMLParallelMappingIterator&lt;Manifest&gt; it = YAMLParallelMappingIterator.readValues(
+ *          mapper.readerFor(Manifest.class), input)) {
+ *      while (it.hasNextValue()) {
+ *          Manifest value = it.nextValue();
+ *          // ...
+ *      }
+ *  }
+ *</pre>
+ *
+ * @since 2.19
+ */
+public class YAMLParallelMappingIterator<T>
+    implements Iterator<T>, Closeable
+{
+    /**
+     * Default minimum length (in characters) of content to parse as a
+     * single batch: documents are combined into batches until this length
+     * is reached.
+     */
+    public final static int DEFAULT_MIN_BATCH_LENGTH = 32000;
+
+    /**
+     * Default maximum number of batches to have in progress at any given
+     * point.
+     */
+    public final static int DEFAULT_MAX_PENDING_BATCHES = 2 * Runtime.getRuntime().availableProcessors();
+
+    /*
+    /**********************************************************************
+    /* Configuration
+    /**********************************************************************
+     */
+
+    /**
+     * Reader used for parsing and binding values.
+     */
+    protected final ObjectReader _valueReader;
+
+    /**
+     * Splitter used for reading batches of documents, accessed only by the
+     * thread iterating over values.
+     */
+    protected final DocumentSplitter _splitter;
+
+    /**
+     * Source to close when this iterator is closed, if any.
+     */
+    protected final Closeable _source;
+
+    protected final Executor _executor;
+
+    protected final int _maxPendingBatches;
+
+    /*
+    /**********************************************************************
+    /* State
+    /**********************************************************************
+     */
+
+    /**
+     * Batches submitted for parsing, in input order.
+     */
+    protected final ArrayDeque<Future<List<Object>>> _pending;
+
+    /**
+     * Results of the batch currently being iterated over, if any:
+     * either bound values or {@link Failure}s, in input order.
+     */
+    protected List<Object> _currentBatch;
+
+    protected int _currentIndex;
+
+    /**
+     * Number of batches read so far.
+     */
+    protected int _batchCount;
+
+    /**
+     * Flag set once all the input has been read into batches.
+     */
+    protected boolean _inputDone;
+
+    protected boolean _closed;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    /**
+     * @param valueReader Reader to use for parsing and binding values; needs
+     *    to use {@link YAMLFactory}
+     * @param splitter Splitter to read batches of documents from
+     * @param source Source to close when iterator is closed, if any
+     * @param executor Executor to use for parsing batches
+     * @param maxPendingBatches Maximum number of batches to have in progress
+     *    (either being parsed, or waiting to be consumed)
+     */
+    public YAMLParallelMappingIterator(ObjectReader valueReader, DocumentSplitter splitter,
+            Closeable source, Executor executor, int maxPendingBatches)
+    {
+        if (maxPendingBatches < 1) {
+            throw new IllegalArgumentException("Invalid maxPendingBatches ("+maxPendingBatches+"): must be at least 1");
+        }
+        _valueReader = Objects.requireNonNull(valueReader, "valueReader");
+        _yamlFactory(valueReader);
+        _splitter = Objects.requireNonNull(splitter, "splitter");
+        _source = source;
+        _executor = Objects.requireNonNull(executor, "executor");
+        _maxPendingBatches = maxPendingBatches;
+        _pending = new ArrayDeque<>(maxPendingBatches);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings and {@link ForkJoinPool#commonPool()}.
+     */
+    public static <T> YAMLParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            Reader src) {
+        return readValues(valueReader, src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings.
+     */
+    public static <T> YAMLParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            Reader src, Executor executor)
+    {
+        return new YAMLParallelMappingIterator<T>(valueReader,
+                new DocumentSplitter(src, DEFAULT_MIN_BATCH_LENGTH), src,
+                executor, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * UTF-8 encoded input, using default batch settings and
+     * {@link ForkJoinPool#commonPool()}.
+     */
+    public static <T> YAMLParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            InputStream src) throws IOException {
+        return readValues(valueReader, src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * UTF-8 encoded input, using default batch settings. Content is decoded
+     * the same way as by parsers {@link YAMLFactory} of {@code valueReader}
+     * constructs for {@link InputStream}s; and as with them, stream is closed
+     * when iterator is closed only if {@link JsonParser.Feature#AUTO_CLOSE_SOURCE}
+     * is enabled.
+     */
+    public static <T> YAMLParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            InputStream src, Executor executor) throws IOException
+    {
+        return readValues(valueReader, _yamlFactory(valueReader)._createReader(src), executor);
+    }
+
+    /**
+     * Factory method for constructing iterator to read values from given
+     * input, using default batch settings and {@link ForkJoinPool#commonPool()}.
+     */
+    public static <T> YAMLParallelMappingIterator<T> readValues(ObjectReader valueReader,
+            String src) {
+        return readValues(valueReader, new StringReader(src), ForkJoinPool.commonPool());
+    }
+
+    /*
+    /**********************************************************************
+    /* Iterator/Closeable implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public boolean hasNext()
+    {
+        try {
+            return hasNextValue();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T next()
+    {
+        try {
+            return nextValue();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Method for closing the iterator: will cancel any batches not yet
+     * consumed and close the underlying source, if any.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            _inputDone = true;
+            _currentBatch = null;
+            _cancelPending();
+            if (_source != null) {
+                _source.close();
+            }
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Equivalent of {@link #hasNext} but one that may throw checked
+     * exceptions from Jackson due to invalid input.
+     */
+    public boolean hasNextValue() throws IOException
+    {
+        while (true) {
+            if (_currentBatch != null) {
+                if (_currentIndex < _currentBatch.size()) {
+                    return true;
+                }
+                _currentBatch = null;
+            }
+            if (_closed) {
+                return false;
+            }
+            _fillPipeline();
+            Future<List<Object>> f = _pending.poll();
+            if (f == null) {
+                return false;
+            }
+            // read more while waiting for the oldest batch to be parsed
+            _fillPipeline();
+            _currentBatch = _await(f);
+            _currentIndex = 0;
+        }
+    }
+
+    /**
+     * Equivalent of {@link #next} but one that may throw checked
+     * exceptions from Jackson due to invalid input.
+     */
+    @SuppressWarnings("unchecked")
+    public T nextValue() throws IOException
+    {
+        if (!hasNextValue()) {
+            throw new NoSuchElementException();
+        }
+        Object result = _currentBatch.get(_currentIndex++);
+        if (result instanceof Failure) {
+            Failure failure = (Failure) result;
+            if (failure.last) {
+                // nothing after parsing failure, same as with MappingIterator
+                _inputDone = true;
+                _cancelPending();
+            }
+            return _rethrow(failure.error);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Convenience method for reading all remaining values into given
+     * {@link List}.
+     */
+    public List<T> readAll() throws IOException {
+        return readAll(new ArrayList<T>());
+    }
+
+    /**
+     * Convenience method for reading all remaining values into given
+     * {@link Collection}.
+     */
+    public <C extends Collection<? super T>> C readAll(C resultList) throws IOException
+    {
+        while (hasNextValue()) {
+            resultList.add(nextValue());
+        }
+        return resultList;
+    }
+
+    /**
+     * Method for exposing remaining values as a sequential {@link Stream};
+     * closing the stream will close this iterator.
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    protected static YAMLFactory _yamlFactory(ObjectReader valueReader)
+    {
+        if (!(valueReader.getFactory() instanceof YAMLFactory)) {
+            throw new IllegalArgumentException("valueReader must use YAMLFactory, not "
+                    +valueReader.getFactory().getClass().getName());
+        }
+        return (YAMLFactory) valueReader.getFactory();
+    }
+
+    /**
+     * Method that reads and submits batches until either the maximum number
+     * of pending batches is reached, or input is exhausted.
+     */
+    protected void _fillPipeline() throws IOException
+    {
+        while (!_inputDone && (_pending.size() < _maxPendingBatches)) {
+            final String batch = _splitter.nextBatch();
+            if (batch == null) {
+                _inputDone = true;
+                break;
+            }
+            final boolean unwrap = (_batchCount++ == 0) && _startsWithSequence(batch);
+            if (unwrap) {
+                // values only from the first document: no need to read further
+                _inputDone = true;
+            }
+            FutureTask<List<Object>> task = new FutureTask<>(() -> _parseBatch(batch, unwrap));
+            // must not queue tasks that were not accepted, to be waited for
+            _executor.execute(task);
+            _pending.add(task);
+        }
+    }
+
+    /**
+     * Method for checking whether the first document of the first batch
+     * is a sequence, to be "unwrapped" (as {@link MappingIterator} does).
+     */
+    protected boolean _startsWithSequence(String batch)
+    {
+        try (JsonParser p = _valueReader.createParser(batch)) {
+            return p.nextToken() == JsonToken.START_ARRAY;
+        } catch (IOException e) {
+            // will be reported when batch is parsed
+            return false;
+        }
+    }
+
+    /**
+     * Method called (by a thread of {@link #_executor}) to parse and bind
+     * values from a batch of documents. Failure to bind a document is
+     * recorded in its place as a {@link Failure}, and binding continues with
+     * the following documents; failure to parse ends the batch.
+     *
+     * @param unwrap Whether the first document contains a sequence, elements
+     *    of which are returned as values (same as {@link MappingIterator} does);
+     *    otherwise each document is one value
+     */
+    protected List<Object> _parseBatch(String batch, boolean unwrap)
+    {
+        List<Object> result = new ArrayList<>();
+        try (JsonParser p = _valueReader.createParser(batch)) {
+            if (unwrap) {
+                p.nextToken();
+                p.clearCurrentToken();
+            }
+            // parser passed as-is, so root-level sequences will not be unwrapped
+            MappingIterator<T> it = _valueReader.readValues(p);
+            while (it.hasNextValue()) {
+                try {
+                    result.add(it.nextValue());
+                } catch (JsonMappingException e) {
+                    result.add(new Failure(e, false));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            result.add(new Failure(e, true));
+        }
+        return result;
+    }
+
+    protected void _cancelPending()
+    {
+        Future<List<Object>> f;
+        while ((f = _pending.poll()) != null) {
+            f.cancel(false);
+        }
+    }
+
+    protected List<Object> _await(Future<List<Object>> f) throws IOException
+    {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for values to be parsed");
+            ioe.initCause(e);
+            throw ioe;
+        } catch (ExecutionException e) {
+            return _rethrow(e.getCause());
+        }
+    }
+
+    protected <R> R _rethrow(Throwable t) throws IOException
+    {
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new RuntimeException(t);
+    }
+
+    /**
+     * Placeholder for a value that could not be parsed or bound.
+     */
+    protected static final class Failure
+    {
+        public final Throwable error;
+
+        /**
+         * Whether iteration is to end after this failure
+         */
+        public final boolean last;
+
+        public Failure(Throwable error, boolean last) {
+            this.error = error;
+            this.last = last;
+        }
+    }
+}
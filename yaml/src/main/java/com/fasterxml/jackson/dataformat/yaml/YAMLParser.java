@@ -15,9 +15,18 @@ import org.yaml.snakeyaml.resolver.Resolver;
 
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.base.ParserBase;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.core.util.JacksonFeatureSet;
+import com.fasterxml.jackson.dataformat.yaml.util.DirectEventReader;
+import com.fasterxml.jackson.dataformat.yaml.util.ImplicitScalarResolver;
+import com.fasterxml.jackson.dataformat.yaml.util.LightweightStreamReader;
+import com.fasterxml.jackson.dataformat.yaml.util.LookaheadLimitingReader;
+import com.fasterxml.jackson.dataformat.yaml.util.ParsedTag;
+import com.fasterxml.jackson.dataformat.yaml.util.UTF8StreamReader;
 
 /**
  * {@link JsonParser} implementation used to expose YAML documents
@@ -51,6 +60,49 @@ public class YAMLParser extends ParserBase
          * @since 2.15
          */
         PARSE_BOOLEAN_LIKE_WORDS_AS_STRINGS(false),
+
+        /**
+         * Feature that determines whether YAML content is tokenized using
+         * {@link DirectEventReader} (which reads content directly from an
+         * in-memory buffer) instead of SnakeYAML {@link ParserImpl}; tokens
+         * are then produced from the events of the reader directly, without
+         * constructing SnakeYAML {@link Event}s and {@link Mark}s.
+         * Resulting token streams are identical (including tokens returned
+         * before an error for invalid content); only snippets of content
+         * in error messages may differ. If comments are to be processed
+         * ({@link LoaderOptions#isProcessComments()}), SnakeYAML is used instead.
+         *<p>
+         * Content is read incrementally, in windows of 1024 characters (same
+         * as SnakeYAML) as needed for the next token, so parsing from a pipe
+         * or socket does not block until end of input; and content before
+         * the current token is not retained.
+         *<p>
+         * Note that the feature needs to be enabled on {@link YAMLFactory}
+         * as it only has effect when the parser is constructed.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.19
+         */
+        USE_DIRECT_READER(false),
+
+        /**
+         * Feature that determines whether SnakeYAML {@link Mark}s created for
+         * events retain only the position (index, line and column) of the
+         * event, instead of also referencing the content buffer (needed for
+         * rendering snippets of content in exception messages).
+         * If enabled, marks of exceptions are rebuilt with content snippets
+         * (to the degree content is still buffered) only when an exception is
+         * thrown; locations of tokens are not affected.
+         *<p>
+         * Note that the feature needs to be enabled on {@link YAMLFactory}
+         * as it only has effect when the parser is constructed.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.19
+         */
+        LIGHTWEIGHT_MARKS(false),
         ;
 
         final boolean _defaultState;
@@ -91,7 +143,24 @@ public class YAMLParser extends ParserBase
     //    doubles correctly
 //    private final static Pattern PATTERN_FLOAT = Pattern.compile(
 //            "[-+]?([0-9][0-9_]*)?\\.[0-9]*([eE][-+][0-9]+)?");
-    
+
+    /**
+     * Shared default SnakeYAML resolver: not used for resolution (since
+     * {@link ImplicitScalarResolver} handles the default case) but
+     * retained as the marker for "no custom resolver".
+     *
+     * @since 2.19
+     */
+    protected final static Resolver DEFAULT_RESOLVER = new Resolver();
+
+    /**
+     * Number of base64 characters decoded at a time by
+     * {@link #readBinaryValue(Base64Variant, OutputStream)}.
+     *
+     * @since 2.19
+     */
+    protected final static int BINARY_DECODE_CHUNK = 4000;
+
     /*
     /**********************************************************************
     /* Configuration
@@ -121,7 +190,48 @@ public class YAMLParser extends ParserBase
     protected final Reader _reader;
 
     protected final ParserImpl _yamlParser;
-    protected final Resolver _yamlResolver = new Resolver();
+
+    /**
+     * Alternative to {@link #_yamlParser} used if
+     * {@link Feature#USE_DIRECT_READER} is enabled.
+     *
+     * @since 2.19
+     */
+    protected DirectEventReader _directReader;
+
+    /**
+     * Whether tokens are produced from the current event of
+     * {@link #_directReader} directly, without constructing {@link Event}s:
+     * only done for parsers of this exact type, since sub-classes may
+     * override {@link #getEvent()} to modify events.
+     *
+     * @since 2.19
+     */
+    protected boolean _directTokens;
+
+    /**
+     * Reader used by {@link #_yamlParser} if
+     * {@link Feature#LIGHTWEIGHT_MARKS} is enabled; needed for rebuilding
+     * marks of exceptions.
+     *
+     * @since 2.19
+     */
+    protected LightweightStreamReader _lightweightReader;
+
+    /**
+     * SnakeYAML resolver to use for resolving types of plain scalars, if
+     * custom one was specified; if not, will be {@link #DEFAULT_RESOLVER}
+     * and {@link #_scalarResolver} is used instead.
+     */
+    protected final Resolver _yamlResolver;
+
+    /**
+     * Resolver used for resolving types of plain scalars, unless
+     * a custom {@link #_yamlResolver} is used.
+     *
+     * @since 2.19
+     */
+    protected final ImplicitScalarResolver _scalarResolver = ImplicitScalarResolver.instance();
 
     /*
     /**********************************************************************
@@ -143,6 +253,23 @@ public class YAMLParser extends ParserBase
      */
     protected Event _lastTagEvent;
 
+    /**
+     * Tag of the last Scalar, MappingStart or SequenceStart event, if any,
+     * when tokens are produced directly (see {@link #_directTokens}):
+     * used instead of {@link #_lastTagEvent}.
+     *
+     * @since 2.19
+     */
+    protected String _lastTag;
+
+    /**
+     * Cache of explicit tags seen, to avoid re-parsing repeated tags;
+     * constructed when first needed.
+     *
+     * @since 2.19
+     */
+    protected ParsedTag.Cache _tagCache;
+
     /**
      * We need to keep track of text values.
      */
@@ -150,15 +277,43 @@ public class YAMLParser extends ParserBase
 
     /**
      * For some tokens (specifically, numbers), we'll have cleaned up version,
-     * mostly free of underscores
+     * mostly free of underscores.
+     *<p>
+     * NOTE: since 2.19, not constructed for integer values decoded eagerly;
+     * and for floating-point values with underscores only constructed if needed
+     * (see {@link #_cleanedText()}).
      */
     protected String _cleanedTextValue;
+
+    /**
+     * Buffer used for stripping underscores from floating-point values
+     * without constructing intermediate Strings.
+     *
+     * @since 2.19
+     */
+    protected char[] _numberBuffer;
     
     /**
      * Let's also have a local copy of the current field name
      */
     protected String _currentFieldName;
 
+    /**
+     * Symbol table used for canonicalizing field names, if
+     * {@link JsonFactory.Feature#CANONICALIZE_FIELD_NAMES} is enabled;
+     * {@code null} if not.
+     *
+     * @since 2.19
+     */
+    protected final CharsToNameCanonicalizer _symbols;
+
+    /**
+     * Buffer used for copying field names to look up from {@link #_symbols}.
+     *
+     * @since 2.19
+     */
+    protected char[] _nameCopyBuffer;
+
     /**
      * Flag that is set when current token was derived from an Alias
      * (reference to another value's anchor)
@@ -167,6 +322,14 @@ public class YAMLParser extends ParserBase
      */
     protected boolean _currentIsAlias;
 
+    /**
+     * Listener to notify of parsing activity, if any; assigned by
+     * {@link YAMLFactory} after construction.
+     *
+     * @since 2.19
+     */
+    protected YAMLMetrics _metrics;
+
     /**
      * Anchor for the value that parser currently points to: in case of
      * structured types, value whose first token current token is.
@@ -192,10 +355,65 @@ public class YAMLParser extends ParserBase
 
     public YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
             LoaderOptions loaderOptions, ObjectCodec codec, Reader reader)
+    {
+        this(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, reader, null);
+    }
+
+    /**
+     * @param symbols Symbol table to use for canonicalizing field names, if any
+     *
+     * @since 2.19
+     */
+    public YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            LoaderOptions loaderOptions, ObjectCodec codec, Reader reader,
+            CharsToNameCanonicalizer symbols)
+    {
+        this(ctxt, parserFeatures, formatFeatures, loaderOptions, codec, reader, symbols,
+             Feature.USE_DIRECT_READER.enabledIn(formatFeatures) ? null
+                 : _createStreamReader(ctxt, reader, formatFeatures, loaderOptions));
+    }
+
+    private YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            LoaderOptions loaderOptions, ObjectCodec codec, Reader reader,
+            CharsToNameCanonicalizer symbols, StreamReader yamlReader)
     {
         this(ctxt, parserFeatures, formatFeatures, codec, reader,
-             new ParserImpl(new StreamReader(reader),
-                     (loaderOptions == null) ? new LoaderOptions() : loaderOptions));
+             (yamlReader == null) ? null
+                 : new ParserImpl(yamlReader,
+                     (loaderOptions == null) ? new LoaderOptions() : loaderOptions),
+             null, symbols);
+        if (_yamlParser == null) {
+            _directReader = new DirectEventReader(reader, loaderOptions);
+            _directTokens = (getClass() == YAMLParser.class);
+        } else if ((yamlReader instanceof LightweightStreamReader)
+                && Feature.LIGHTWEIGHT_MARKS.enabledIn(formatFeatures)) {
+            _lightweightReader = (LightweightStreamReader) yamlReader;
+        }
+    }
+
+    /**
+     * Helper method for constructing SnakeYAML {@link StreamReader} to use,
+     * depending on whether {@link Feature#LIGHTWEIGHT_MARKS} is enabled.
+     * Content is read through {@link LookaheadLimitingReader}, to fail early
+     * on unbroken runs of content that exceed limits; except for UTF-8
+     * encoded content which is decoded using {@link UTF8StreamReader}.
+     *
+     * @since 2.19
+     */
+    protected static StreamReader _createStreamReader(IOContext ctxt, Reader r,
+            int formatFeatures, LoaderOptions loaderOptions)
+    {
+        // UTF-8 decoded directly into code points, without intermediate chars
+        if (r instanceof UTF8Reader) {
+            return new UTF8StreamReader((UTF8Reader) r, ctxt.streamReadConstraints(),
+                    loaderOptions, Feature.LIGHTWEIGHT_MARKS.enabledIn(formatFeatures));
+        }
+        LookaheadLimitingReader limiting = new LookaheadLimitingReader(r,
+                ctxt.streamReadConstraints(), loaderOptions);
+        StreamReader result = Feature.LIGHTWEIGHT_MARKS.enabledIn(formatFeatures)
+                ? new LightweightStreamReader(limiting) : new StreamReader(limiting);
+        limiting.setStreamReader(result);
+        return result;
     }
 
     /**
@@ -207,12 +425,45 @@ public class YAMLParser extends ParserBase
     protected YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
             ObjectCodec codec, Reader reader,
             ParserImpl yamlParser)
+    {
+        this(ctxt, parserFeatures, formatFeatures, codec, reader, yamlParser, null);
+    }
+
+    /**
+     * Constructor to overload by custom parser sub-classes that want to replace
+     * {@link ParserImpl} passed, and/or use custom {@link Resolver} for
+     * resolving types of plain scalars (if {@code null}, default resolution
+     * is used).
+     *
+     * @since 2.19
+     */
+    protected YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            ObjectCodec codec, Reader reader,
+            ParserImpl yamlParser, Resolver yamlResolver)
+    {
+        this(ctxt, parserFeatures, formatFeatures, codec, reader, yamlParser, yamlResolver, null);
+    }
+
+    /**
+     * Constructor to overload by custom parser sub-classes that want to replace
+     * {@link ParserImpl} passed, use custom {@link Resolver}, and/or canonicalize
+     * field names using given symbol table (if {@code null}, no canonicalization
+     * is done).
+     *
+     * @since 2.19
+     */
+    protected YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            ObjectCodec codec, Reader reader,
+            ParserImpl yamlParser, Resolver yamlResolver,
+            CharsToNameCanonicalizer symbols)
     {
         super(ctxt, parserFeatures);
+        _symbols = symbols;
         _objectCodec = codec;
         _formatFeatures = formatFeatures;
         _reader = reader;
         _yamlParser = yamlParser;
+        _yamlResolver = (yamlResolver == null) ? DEFAULT_RESOLVER : yamlResolver;
         _cfgEmptyStringsToNull = Feature.EMPTY_STRING_AS_NULL.enabledIn(formatFeatures);
     }
 
@@ -242,6 +493,25 @@ public class YAMLParser extends ParserBase
         return _currentIsAlias;
     }
 
+    /**
+     * Method that can be used to check whether current token is a String
+     * value read from a plain (unquoted) YAML scalar: if so, it is known to be
+     * writable as a plain scalar (in block context), which allows generators
+     * to avoid checking whether it needs quoting when copying content.
+     *
+     * @since 2.19
+     */
+    public boolean isCurrentPlainScalar() {
+        if ((_currToken != JsonToken.VALUE_STRING) || _currentIsAlias) {
+            return false;
+        }
+        if (_directTokens) {
+            return (_directReader.currentEventId() == Event.ID.Scalar)
+                    && _directReader.isPlain();
+        }
+        return (_lastEvent instanceof ScalarEvent) && ((ScalarEvent) _lastEvent).isPlain();
+    }
+
     /**
      * Method that can be used to check if the current token has an
      * associated anchor (id to reference via Alias)
@@ -298,6 +568,13 @@ public class YAMLParser extends ParserBase
 
     @Override
     protected void _closeInput() throws IOException {
+        if (_metrics != null) {
+            if (_directTokens) {
+                _metrics.parserClosed(_directReader.getEndIndex());
+            } else {
+                _metrics.parserClosed((_lastEvent == null) ? 0L : _lastEvent.getEndMark().getIndex());
+            }
+        }
         /* 25-Nov-2008, tatus: As per [JACKSON-16] we are not to call close()
          *   on the underlying Reader, unless we "own" it, or auto-closing
          *   feature is enabled.
@@ -312,6 +589,20 @@ public class YAMLParser extends ParserBase
         }
     }
 
+    @Override
+    protected void _releaseBuffers() throws IOException {
+        super._releaseBuffers();
+        // Reader we construct for byte sources has buffer from `IOContext`
+        // that must be returned even if source is not closed
+        if (_reader instanceof UTF8Reader) {
+            ((UTF8Reader) _reader).freeBuffers();
+        }
+        // merge found symbols into the shared root table
+        if (_symbols != null) {
+            _symbols.release();
+        }
+    }
+
     /*
     /**********************************************************
     /* FormatFeature support
@@ -391,6 +682,13 @@ public class YAMLParser extends ParserBase
     @Override // since 2.17
     public JsonLocation currentLocation() {
         // can assume we are at the end of token now...
+        if (_directTokens) {
+            final DirectEventReader r = _directReader;
+            if (r.currentEventId() == null) {
+                return JsonLocation.NA;
+            }
+            return _locationFor(r.getEndIndex(), r.getEndLine(), r.getEndColumn());
+        }
         if (_lastEvent == null) {
             return JsonLocation.NA;
         }
@@ -400,6 +698,13 @@ public class YAMLParser extends ParserBase
     @Override // since 2.17
     public JsonLocation currentTokenLocation()
     {
+        if (_directTokens) {
+            final DirectEventReader r = _directReader;
+            if (r.currentEventId() == null) {
+                return JsonLocation.NA;
+            }
+            return _locationFor(r.getStartIndex(), r.getStartLine(), r.getStartColumn());
+        }
         if (_lastEvent == null) {
             return JsonLocation.NA;
         }
@@ -420,10 +725,21 @@ public class YAMLParser extends ParserBase
             return new JsonLocation(_ioContext.contentReference(),
                     -1, -1, -1);
         }
+        return _locationFor(m.getIndex(), m.getLine(), m.getColumn());
+    }
+
+    /**
+     * @param line 0-based line number
+     * @param column 0-based column number
+     *
+     * @since 2.19
+     */
+    protected JsonLocation _locationFor(int index, int line, int column)
+    {
         return new JsonLocation(_ioContext.contentReference(),
-                m.getIndex(),
-                m.getLine() + 1, // from 0- to 1-based
-                m.getColumn() + 1); // ditto
+                index,
+                line + 1, // from 0- to 1-based
+                column + 1); // ditto
     }
 
     // Note: SHOULD override 'getTokenLineNr', 'getTokenColumnNr', but those are final in 2.0
@@ -443,25 +759,12 @@ public class YAMLParser extends ParserBase
         if (_closed) {
             return null;
         }
+        if (_directTokens) {
+            return _nextTokenDirect();
+        }
 
         while (true) {
-            Event evt;
-            try {
-                evt = getEvent();
-            } catch (org.yaml.snakeyaml.error.YAMLException e) {
-                if (e instanceof org.yaml.snakeyaml.error.MarkedYAMLException) {
-                    throw com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.MarkedYAMLException.from
-                        (this, (org.yaml.snakeyaml.error.MarkedYAMLException) e);
-                }
-                throw new JacksonYAMLParseException(this, e.getMessage(), e);
-            } catch (NumberFormatException e) {
-                // 12-Jan-2024, tatu: As per https://bugs.chromium.org/p/oss-fuzz/issues/detail?id=63274
-                //    we seem to have unhandled case by SnakeYAML
-                throw _constructError(String.format(
-                        "Malformed Number token: failed to tokenize due to (%s): %s",
-                        e.getClass().getName(), e.getMessage()),
-                        e);
-            }
+            Event evt = _nextEvent();
             // is null ok? Assume it is, for now, consider to be same as end-of-doc
             if (evt == null) {
                 _currentAnchor = null;
@@ -505,7 +808,7 @@ public class YAMLParser extends ParserBase
                     if (!firstEntry) {
                         _lastTagEvent = evt;
                     }
-                    final String name = scalar.getValue();
+                    final String name = _canonicalName(scalar.getValue());
                     _currentFieldName = name;
                     _parsingContext.setCurrentName(name);
                     return _updateToken(JsonToken.FIELD_NAME);
@@ -560,11 +863,17 @@ public class YAMLParser extends ParserBase
             if (evt.is(Event.ID.DocumentStart)) {
 //                DocumentStartEvent dd = (DocumentStartEvent) evt;
                 // does this matter? Shouldn't, should it?
+                if (_metrics != null) {
+                    _metrics.documentRead();
+                }
                 continue;
             }
             if (evt.is(Event.ID.Alias)) {
                 AliasEvent alias = (AliasEvent) evt;
                 _currentIsAlias = true;
+                if (_metrics != null) {
+                    _metrics.aliasRead();
+                }
                 _textValue = alias.getAnchor();
                 _cleanedTextValue = null;
                 // for now, nothing to do: in future, maybe try to expose as ObjectIds?
@@ -577,6 +886,244 @@ public class YAMLParser extends ParserBase
         }
     }
 
+    /**
+     * Implementation of {@link #nextToken()} used when tokens are produced
+     * directly (see {@link #_directTokens}): same as the default one, except
+     * that details of events are accessed from {@link #_directReader}.
+     *
+     * @since 2.19
+     */
+    protected JsonToken _nextTokenDirect() throws IOException
+    {
+        final DirectEventReader r = _directReader;
+        while (true) {
+            final Event.ID id = _nextDirectEvent();
+            if (id == null) {
+                _currentAnchor = null;
+                _lastTag = null;
+                return _updateTokenToNull();
+            }
+            if (_parsingContext.inObject()) {
+                if (_currToken != JsonToken.FIELD_NAME) {
+                    if (id != Event.ID.Scalar) {
+                        _currentAnchor = null;
+                        _lastTag = null;
+                        if (id == Event.ID.MappingEnd) {
+                            _parsingContext = _parsingContext.getParent();
+                            return _updateToken(JsonToken.END_OBJECT);
+                        }
+                        _reportError("Expected a field name (Scalar value in YAML), got this instead: "
+                                +r.currentEvent());
+                    }
+                    // Anchor and type id of the first entry deferred, see `nextToken()`
+                    final String newAnchor = r.getAnchor();
+                    final boolean firstEntry = (_currToken == JsonToken.START_OBJECT);
+                    if ((newAnchor != null) || !firstEntry) {
+                        _currentAnchor = newAnchor;
+                    }
+                    if (!firstEntry) {
+                        _lastTag = r.getTag();
+                    }
+                    final String name = _canonicalName(r.getValue());
+                    _currentFieldName = name;
+                    _parsingContext.setCurrentName(name);
+                    return _updateToken(JsonToken.FIELD_NAME);
+                }
+            } else if (_parsingContext.inArray()) {
+                _parsingContext.expectComma();
+            }
+
+            _currentAnchor = null;
+            switch (id) {
+            case Scalar:
+                _lastTag = r.getTag();
+                return _updateToken(_decodeScalar(r.getValue(), _lastTag, r.getImplicit()));
+            case MappingStart:
+                _lastTag = r.getTag();
+                _currentAnchor = r.getAnchor();
+                createChildObjectContext(r.getStartLine(), r.getStartColumn());
+                return _updateToken(JsonToken.START_OBJECT);
+            case MappingEnd: // actually error; can not have map-end here
+                _lastTag = null;
+                _reportError("Not expecting END_OBJECT but a value");
+                break;
+            case SequenceStart:
+                _lastTag = r.getTag();
+                _currentAnchor = r.getAnchor();
+                createChildArrayContext(r.getStartLine(), r.getStartColumn());
+                return _updateToken(JsonToken.START_ARRAY);
+            case SequenceEnd:
+                _lastTag = null;
+                if (!_parsingContext.inArray()) { // sanity check is optional, but let's do it for now
+                    _reportMismatchedEndMarker(']', '}');
+                }
+                _parsingContext = _parsingContext.getParent();
+                return _updateToken(JsonToken.END_ARRAY);
+            case DocumentStart:
+                _lastTag = null;
+                if (_metrics != null) {
+                    _metrics.documentRead();
+                }
+                break;
+            case Alias:
+                _lastTag = null;
+                _currentIsAlias = true;
+                if (_metrics != null) {
+                    _metrics.aliasRead();
+                }
+                _textValue = r.getAnchor();
+                _cleanedTextValue = null;
+                return _updateToken(JsonToken.VALUE_STRING);
+            case StreamEnd: // end-of-input; force closure
+                _lastTag = null;
+                close();
+                return _updateTokenToNull();
+            default: // stream start, document end: skip
+                _lastTag = null;
+            }
+        }
+    }
+
+    /**
+     * Overridden to skip contents of Objects and Arrays by consuming underlying
+     * events, only keeping track of nesting: scalar values are neither resolved
+     * nor decoded, and no per-token state (anchors, type ids) is updated for
+     * skipped content.
+     *
+     * @since 2.19
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException
+    {
+        if (_currToken != JsonToken.START_OBJECT
+                && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        while (true) {
+            final Event evt;
+            final Event.ID id;
+            if (_directTokens) {
+                evt = null;
+                id = _nextDirectEvent();
+            } else {
+                evt = _nextEvent();
+                id = (evt == null) ? null : evt.getEventId();
+            }
+            if (id == null || id == Event.ID.StreamEnd) {
+                _handleEOF();
+                return this;
+            }
+            if (id == Event.ID.MappingStart || id == Event.ID.SequenceStart) {
+                ++open;
+                _streamReadConstraints.validateNestingDepth(_parsingContext.getNestingDepth() + open - 1);
+            } else if (id == Event.ID.MappingEnd || id == Event.ID.SequenceEnd) {
+                if (--open == 0) {
+                    final boolean isObject = (id == Event.ID.MappingEnd);
+                    if (evt != null) {
+                        _lastEvent = evt;
+                    }
+                    _currentIsAlias = false;
+                    _currentAnchor = null;
+                    _lastTagEvent = isObject ? null : evt;
+                    _lastTag = null;
+                    _parsingContext = _parsingContext.getParent();
+                    _updateToken(isObject ? JsonToken.END_OBJECT : JsonToken.END_ARRAY);
+                    return this;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method for getting the next event, translating SnakeYAML exceptions
+     * into Jackson ones.
+     *
+     * @since 2.19
+     */
+    protected Event _nextEvent() throws IOException
+    {
+        try {
+            return getEvent();
+        } catch (org.yaml.snakeyaml.error.YAMLException e) {
+            throw _wrapYAMLException(e);
+        } catch (NumberFormatException e) {
+            throw _wrapNumberFormatException(e);
+        }
+    }
+
+    /**
+     * Helper method for advancing {@link #_directReader} to the next event
+     * (see {@link #_directTokens}), translating SnakeYAML exceptions into
+     * Jackson ones.
+     *
+     * @return Type of the next event, or {@code null} if there are no more events
+     *
+     * @since 2.19
+     */
+    protected Event.ID _nextDirectEvent() throws IOException
+    {
+        try {
+            return _directReader.nextEvent();
+        } catch (org.yaml.snakeyaml.error.YAMLException e) {
+            throw _wrapYAMLException(e);
+        } catch (NumberFormatException e) {
+            throw _wrapNumberFormatException(e);
+        }
+    }
+
+    /**
+     * @since 2.19
+     */
+    @SuppressWarnings("deprecation")
+    protected JsonProcessingException _wrapYAMLException(org.yaml.snakeyaml.error.YAMLException e)
+    {
+        // limits checked while reading content reported as-is
+        if (e.getCause() instanceof StreamConstraintsException) {
+            return (StreamConstraintsException) e.getCause();
+        }
+        if (e instanceof org.yaml.snakeyaml.error.MarkedYAMLException) {
+            org.yaml.snakeyaml.error.MarkedYAMLException me = (org.yaml.snakeyaml.error.MarkedYAMLException) e;
+            if (_lightweightReader != null) {
+                me = _lightweightReader.withFullMarks(me);
+            }
+            return com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.MarkedYAMLException.from
+                (this, me);
+        }
+        return new JacksonYAMLParseException(this, e.getMessage(), e);
+    }
+
+    /**
+     * @since 2.19
+     */
+    protected JsonProcessingException _wrapNumberFormatException(NumberFormatException e)
+    {
+        // 12-Jan-2024, tatu: As per https://bugs.chromium.org/p/oss-fuzz/issues/detail?id=63274
+        //    we seem to have unhandled case by SnakeYAML
+        return _constructError(String.format(
+                "Malformed Number token: failed to tokenize due to (%s): %s",
+                e.getClass().getName(), e.getMessage()),
+                e);
+    }
+
+    // Overridden to avoid going through `currentName()`; with canonicalized
+    // names, match is usually found by identity comparison
+    @Override // since 2.19
+    public boolean nextFieldName(SerializableString str) throws IOException
+    {
+        if (nextToken() != JsonToken.FIELD_NAME) {
+            return false;
+        }
+        final String name = str.getValue();
+        return (name == _currentFieldName) || name.equals(_currentFieldName);
+    }
+
+    @Override // since 2.19
+    public String nextFieldName() throws IOException
+    {
+        return (nextToken() == JsonToken.FIELD_NAME) ? _currentFieldName : null;
+    }
+
     /**
      * Since the parserImpl cannot be replaced allow subclasses to at least be able to
      * influence the events being consumed.
@@ -590,12 +1137,27 @@ public class YAMLParser extends ParserBase
      * @since 2.18
      */
     protected Event getEvent() throws IOException {
+        if (_directReader != null) {
+            return _directReader.getEvent();
+        }
         return _yamlParser.getEvent();
     }
 
     protected JsonToken _decodeScalar(ScalarEvent scalar) throws IOException
     {
-        String value = scalar.getValue();
+        return _decodeScalar(scalar.getValue(), scalar.getTag(), scalar.getImplicit());
+    }
+
+    /**
+     * @param typeTag Explicit tag of the scalar, if any
+     * @param implicit Implicitness of the tag (see {@link ScalarEvent#getImplicit()})
+     *
+     * @since 2.19
+     */
+    protected JsonToken _decodeScalar(String value, String typeTag, ImplicitTuple implicit)
+        throws IOException
+    {
+        _streamReadConstraints.validateStringLength(value.length());
 
         _textValue = value;
         _cleanedTextValue = null;
@@ -607,11 +1169,17 @@ public class YAMLParser extends ParserBase
         }
 
         // we may get an explicit tag, if so, use for corroborating...
-        String typeTag = scalar.getTag();
         final int len = value.length();
 
         if (typeTag == null || typeTag.equals("!")) { // no, implicit
-            Tag nodeTag = _yamlResolver.resolve(NodeId.scalar, value, scalar.getImplicit().canOmitTagInPlainScalar());
+            final Tag nodeTag;
+            if (!implicit.canOmitTagInPlainScalar()) {
+                nodeTag = Tag.STR;
+            } else if (_yamlResolver == DEFAULT_RESOLVER) {
+                nodeTag = _scalarResolver.resolve(value);
+            } else {
+                nodeTag = _yamlResolver.resolve(NodeId.scalar, value, true);
+            }
             if (nodeTag == Tag.STR) {
                 return JsonToken.VALUE_STRING;
             }
@@ -634,49 +1202,38 @@ public class YAMLParser extends ParserBase
                 return JsonToken.VALUE_STRING;
             }
         } else { // yes, got type tag
-            if (typeTag.startsWith("tag:yaml.org,2002:")) {
-                typeTag = typeTag.substring("tag:yaml.org,2002:".length());
-                if (typeTag.contains(",")) {
-                    final String[] tags = typeTag.split(",");
-                    typeTag = (tags.length == 0) ? "" : tags[0];
-                }
-            }
+            final ParsedTag tag = _parsedTag(typeTag);
+            switch (tag.kind) {
             // [dataformats-text#39]: support binary type
-            if ("binary".equals(typeTag)) {
-                // 15-Dec-2017, tatu: 2.9.4 uses Jackson's codec because SnakeYAML does
-                //    not export its codec via OSGi (breaking 2.9.3). Note that trailing
-                //    whitespace is ok with core 2.9.4, but not earlier, so we'll trim
-                //    on purpose here
-                value = value.trim();
-                try {
-                    _binaryValue = Base64Variants.MIME.decode(value);
-                } catch (IllegalArgumentException e) {
-                    _reportError(e.getMessage());
-                }
+            case ParsedTag.KIND_BINARY:
+                // 2.19: decoded lazily, see `getBinaryValue()`, `readBinaryValue()`
                 return JsonToken.VALUE_EMBEDDED_OBJECT;
-            }
             // canonical values by YAML are actually 'y' and 'n'; but plenty more unofficial:
-            if ("bool".equals(typeTag)) { // must be "true" or "false"
+            case ParsedTag.KIND_BOOL: // must be "true" or "false"
                 Boolean B = _matchYAMLBoolean(value, len);
                 if (B != null) {
                     return B ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE;
                 }
-            } else {
-                // 17-Sep-2022, tatu: empty String value is not valid number;
-                //    so we could indicate exception or... for now, report as
-                //    String value?
+                break;
+            // 17-Sep-2022, tatu: empty String value is not valid number;
+            //    so we could indicate exception or... for now, report as
+            //    String value?
+            case ParsedTag.KIND_INT:
                 if (len > 0) {
-                    if ("int".equals(typeTag)) {
-                        return _decodeNumberScalar(value, len);
-                    }
-                    if ("float".equals(typeTag)) {
-                        _numTypesValid = 0;
-                        return _cleanYamlFloat(value);
-                    }
-                    if ("null".equals(typeTag)) {
-                        return JsonToken.VALUE_NULL;
-                    }
+                    return _decodeNumberScalar(value, len);
+                }
+                break;
+            case ParsedTag.KIND_FLOAT:
+                if (len > 0) {
+                    _numTypesValid = 0;
+                    return _cleanYamlFloat(value);
                 }
+                break;
+            case ParsedTag.KIND_NULL:
+                if (len > 0) {
+                    return JsonToken.VALUE_NULL;
+                }
+                break;
             }
         }
         
@@ -757,6 +1314,12 @@ public class YAMLParser extends ParserBase
                 return _decodeNumberIntBinary(value, i+1, len, _numberNegative);
             case 'x': case 'X': // hex
                 return _decodeNumberIntHex(value, i+1, len, _numberNegative);
+            case 'o': case 'O': // octal, YAML 1.2 style (only with explicit tag)
+                // but as String (as before 2.19) unless there are valid digits
+                if (!_hasOnlyOctalDigits(value, i+1, len)) {
+                    return JsonToken.VALUE_STRING;
+                }
+                return _decodeNumberIntOctal(value, i+1, len, _numberNegative);
             case '0': case '1': case '2': case '3': case '4':
             case '5': case '6': case '7': case '8': case '9':
             case '_':
@@ -773,7 +1336,11 @@ public class YAMLParser extends ParserBase
         //    more involved but also because it can accidentally "detect" values
         //    that we most likely expressing either Times or IP numbers.
         
+        // 2.19: accumulate value while scanning, to avoid constructing
+        //   cleaned-up copy and re-parsing for values that fit in `long`
         boolean underscores = false;
+        int digits = 0;
+        long l = 0L;
 
         while (true) {
             int c = value.charAt(i);
@@ -783,10 +1350,30 @@ public class YAMLParser extends ParserBase
                 } else {
                     break;
                 }
+            } else {
+                l = (l * 10) + (c - '0');
+                ++digits;
             }
             if (++i == len) {
+                if (digits == 0) {
+                    _reportError(String.format("Invalid number ('%s')", value));
+                }
+                if (digits <= 18) {
+                    if (_numberNegative) {
+                        l = -l;
+                    }
+                    if (l >= MIN_INT_L && l <= MAX_INT_L) {
+                        _numberInt = (int) l;
+                        _numTypesValid = NR_INT;
+                    } else {
+                        _numberLong = l;
+                        _numTypesValid = NR_LONG;
+                    }
+                    return JsonToken.VALUE_NUMBER_INT;
+                }
                 _numTypesValid = 0;
-                if (underscores) {
+                // leading plus sign would throw off length checks
+                if (underscores || value.charAt(0) == '+') {
                     return _cleanYamlInt(value);
                 }
                 _cleanedTextValue = _textValue;
@@ -810,6 +1397,10 @@ public class YAMLParser extends ParserBase
             boolean negative)
         throws IOException
     {
+        JsonToken t = _decodeNumberIntRadix(value, i, origLen, negative, 2, 31, 63, 32);
+        if (t != null) {
+            return t;
+        }
         final String cleansed = _cleanUnderscores(value, i, origLen);
         int digitLen = cleansed.length();
 
@@ -834,6 +1425,10 @@ public class YAMLParser extends ParserBase
             boolean negative)
         throws IOException
     {
+        JsonToken t = _decodeNumberIntRadix(value, i, origLen, negative, 8, 10, 21, -1);
+        if (t != null) {
+            return t;
+        }
         final String cleansed = _cleanUnderscores(value, i, origLen);
         int digitLen = cleansed.length();
 
@@ -857,6 +1452,10 @@ public class YAMLParser extends ParserBase
             boolean negative)
         throws IOException
     {
+        JsonToken t = _decodeNumberIntRadix(value, i, origLen, negative, 16, 7, 15, 8);
+        if (t != null) {
+            return t;
+        }
         final String cleansed = _cleanUnderscores(value, i, origLen);
         int digitLen = cleansed.length();
 
@@ -876,6 +1475,61 @@ public class YAMLParser extends ParserBase
         return _decodeFromBigInteger(_decodeBigInt(cleansed, 16), negative);
     }
 
+    /**
+     * Helper method for decoding binary, octal and hex values that fit in
+     * {@code long} directly from the value, skipping underscores, without
+     * constructing a cleaned-up copy. Digit count limits match those used
+     * when decoding from cleaned-up copy, to produce same number types.
+     *
+     * @return {@link JsonToken#VALUE_NUMBER_INT} if value was decoded; {@code null}
+     *    if value is either invalid or too long, and needs to be decoded by the
+     *    caller
+     *
+     * @since 2.19
+     */
+    private JsonToken _decodeNumberIntRadix(final String value, int i, final int len,
+            boolean negative, int radix, int maxIntDigits, int maxLongDigits,
+            int checkIfIntDigits)
+    {
+        final int shift = (radix == 16) ? 4 : ((radix == 8) ? 3 : 1);
+        int digits = 0;
+        long v = 0L;
+        for (; i < len; ++i) {
+            final char ch = value.charAt(i);
+            if (ch == '_') {
+                continue;
+            }
+            final int d = Character.digit(ch, radix);
+            if (d < 0 || ++digits > maxLongDigits) {
+                return null;
+            }
+            v = (v << shift) | d;
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (digits <= maxIntDigits) {
+            _numberInt = negative ? -(int) v : (int) v;
+            _numTypesValid = NR_INT;
+            return JsonToken.VALUE_NUMBER_INT;
+        }
+        return _decodeFromLong(v, negative, (digits == checkIfIntDigits));
+    }
+
+    private static boolean _hasOnlyOctalDigits(final String value, int i, final int len)
+    {
+        boolean digits = false;
+        for (; i < len; ++i) {
+            final char ch = value.charAt(i);
+            if (ch >= '0' && ch <= '7') {
+                digits = true;
+            } else if (ch != '_') {
+                return false;
+            }
+        }
+        return digits;
+    }
+
     private JsonToken _decodeFromLong(long unsignedValue, boolean negative,
             boolean checkIfInt)
     {
@@ -1038,22 +1692,87 @@ public class YAMLParser extends ParserBase
     @Override
     public Object getEmbeddedObject() throws IOException {
         if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT ) {
-            return _binaryValue;
+            return getBinaryValue(Base64Variants.MIME);
         }
         return null;
     }
 
-    // Base impl from `ParserBase` works fine here:
-//    public byte[] getBinaryValue(Base64Variant variant) throws IOException
+    @Override // since 2.19
+    public byte[] getBinaryValue(Base64Variant variant) throws IOException
+    {
+        // Binary scalars are decoded lazily: and always using MIME variant
+        if ((_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) && (_binaryValue == null)) {
+            // 15-Dec-2017, tatu: 2.9.4 uses Jackson's codec because SnakeYAML does
+            //    not export its codec via OSGi (breaking 2.9.3). Note that trailing
+            //    whitespace is ok with core 2.9.4, but not earlier, so we'll trim
+            //    on purpose here
+            try {
+                _binaryValue = Base64Variants.MIME.decode(_textValue.trim());
+            } catch (IllegalArgumentException e) {
+                _reportError(e.getMessage());
+            }
+        }
+        return super.getBinaryValue(variant);
+    }
 
     @Override
     public int readBinaryValue(Base64Variant b64variant, OutputStream out) throws IOException
     {
+        // 2.19: if not yet decoded, decode in chunks, directly into output
+        if (_binaryValue == null) {
+            if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                return _readBinaryChunked(Base64Variants.MIME, _textValue, out);
+            }
+            if (_currToken == JsonToken.VALUE_STRING) {
+                return _readBinaryChunked(b64variant, _textValue, out);
+            }
+        }
         byte[] b = getBinaryValue(b64variant);
         out.write(b);
         return b.length;
     }
 
+    /**
+     * Helper method for decoding base64-encoded text in chunks of
+     * {@link #BINARY_DECODE_CHUNK} encoded characters, writing decoded content
+     * to given stream as it goes.
+     *
+     * @since 2.19
+     */
+    protected int _readBinaryChunked(Base64Variant variant, String text, OutputStream out)
+        throws IOException
+    {
+        final int len = text.length();
+        final ByteArrayBuilder bb = new ByteArrayBuilder((BINARY_DECODE_CHUNK >> 2) * 3);
+        int total = 0;
+        int start = 0;
+        while (start < len) {
+            // Chunks end after full base64 quads, which may only be preceded
+            // by white space: so only count non-white-space characters
+            int end = start;
+            for (int count = 0; (end < len) && (count < BINARY_DECODE_CHUNK); ++end) {
+                if (text.charAt(end) > ' ') {
+                    ++count;
+                }
+            }
+            bb.reset();
+            try {
+                variant.decode(text.substring(start, end), bb);
+            } catch (IllegalArgumentException e) {
+                _reportError(e.getMessage());
+            }
+            final int count = bb.size();
+            if (count == bb.getCurrentSegmentLength()) {
+                out.write(bb.getCurrentSegment(), 0, count);
+            } else {
+                out.write(bb.toByteArray());
+            }
+            total += count;
+            start = end;
+        }
+        return total;
+    }
+
     /*
     /**********************************************************************
     /* Number accessor overrides
@@ -1102,7 +1821,7 @@ public class YAMLParser extends ParserBase
         }
 
         // But if not, same as BigInteger, let lazy/deferred handling be done
-        return _cleanedTextValue;
+        return _cleanedText();
     }
 
     @Override
@@ -1163,10 +1882,22 @@ public class YAMLParser extends ParserBase
             }
         }
         if (_currToken == JsonToken.VALUE_NUMBER_FLOAT) {
-            // strip out optional underscores, if any:
             final String numStr = _cleanedTextValue;
             try {
-                if (expType == NR_BIGDECIMAL) {
+                if (numStr == null) {
+                    // 2.19: strip out underscores into buffer, parse from there
+                    final int len = _stripUnderscores(_textValue);
+                    streamReadConstraints().validateFPLength(len);
+                    if (expType == NR_BIGDECIMAL) {
+                        _numberBigDecimal = NumberInput.parseBigDecimal(_numberBuffer, 0, len,
+                                isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
+                        _numTypesValid = NR_BIGDECIMAL;
+                    } else {
+                        _numberDouble = NumberInput.parseDouble(_numberBuffer, 0, len,
+                                isEnabled(StreamReadFeature.USE_FAST_DOUBLE_PARSER));
+                        _numTypesValid = NR_DOUBLE;
+                    }
+                } else if (expType == NR_BIGDECIMAL) {
                     streamReadConstraints().validateFPLength(numStr.length());
                     _numberBigDecimal = NumberInput.parseBigDecimal(
                             numStr, isEnabled(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER));
@@ -1225,7 +1956,9 @@ public class YAMLParser extends ParserBase
     {
         String tag;
 
-        if (_lastTagEvent instanceof CollectionStartEvent) {
+        if (_directTokens) {
+            tag = _lastTag;
+        } else if (_lastTagEvent instanceof CollectionStartEvent) {
             tag = ((CollectionStartEvent) _lastTagEvent).getTag();
 //System.err.println("getTypeId() at "+currentToken()+", last was collection ("+_lastTagEvent.getClass().getSimpleName()+") -> "+tag);
         } else if (_lastTagEvent instanceof ScalarEvent) {
@@ -1238,11 +1971,9 @@ public class YAMLParser extends ParserBase
         }
         if (tag != null) {
             // 04-Aug-2013, tatu: Looks like YAML parser's expose these in... somewhat exotic
-            //   ways sometimes. So let's prepare to peel off some wrappings:
-            while (tag.startsWith("!")) {
-                tag = tag.substring(1);
-            }
-            return tag;
+            //   ways sometimes. So let's prepare to peel off some wrappings
+            //   (2.19: done once per distinct tag, see `ParsedTag`)
+            return _parsedTag(tag).typeId;
         }
         return null;
     }
@@ -1253,6 +1984,42 @@ public class YAMLParser extends ParserBase
     /**********************************************************************
      */
     
+    /**
+     * Helper method for finding pre-parsed information on given explicit tag.
+     *
+     * @since 2.19
+     */
+    protected ParsedTag _parsedTag(String tag)
+    {
+        if (_tagCache == null) {
+            _tagCache = new ParsedTag.Cache();
+        }
+        return _tagCache.find(tag);
+    }
+
+    /**
+     * Helper method for canonicalizing given field name using symbol table,
+     * if one is used: this way all instances of the same key share the same
+     * {@link String} instance.
+     *
+     * @since 2.19
+     */
+    protected String _canonicalName(String name) throws IOException
+    {
+        if (_symbols == null) {
+            // (symbol table validates length of names it adds)
+            _streamReadConstraints.validateNameLength(name.length());
+            return name;
+        }
+        final int len = name.length();
+        char[] buf = _nameCopyBuffer;
+        if (buf == null || buf.length < len) {
+            _nameCopyBuffer = buf = new char[Math.max(len, 64)];
+        }
+        name.getChars(0, len, buf, 0);
+        return _symbols.findSymbol(buf, 0, len, _symbols.calcHash(buf, 0, len));
+    }
+
     /**
      * Helper method used to clean up YAML integer value so it can be parsed
      * using standard JDK classes.
@@ -1296,23 +2063,50 @@ public class YAMLParser extends ParserBase
 
     private JsonToken _cleanYamlFloat(String str)
     {
-        // Here we do NOT yet know whether we might have underscores so check
+        // Here we do NOT yet know whether we might have underscores so check;
+        // if there are, leave them to be stripped only when value is needed
+        _cleanedTextValue = (str.indexOf('_') < 0) ? str : null;
+        return JsonToken.VALUE_NUMBER_FLOAT;
+    }
+
+    /**
+     * Accessor for cleaned-up version of the current numeric value: constructs
+     * it if not yet done.
+     *
+     * @since 2.19
+     */
+    protected String _cleanedText()
+    {
+        if (_cleanedTextValue == null && _currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            final int len = _stripUnderscores(_textValue);
+            _cleanedTextValue = new String(_numberBuffer, 0, len);
+        }
+        return _cleanedTextValue;
+    }
+
+    /**
+     * Helper method for copying given floating-point value into {@link #_numberBuffer},
+     * skipping underscores (and leading plus sign, if any).
+     *
+     * @return Number of characters copied
+     *
+     * @since 2.19
+     */
+    private int _stripUnderscores(String str)
+    {
         final int len = str.length();
-        int ix = str.indexOf('_');
-        if (ix < 0 || len == 0) {
-            _cleanedTextValue = str;
-            return JsonToken.VALUE_NUMBER_FLOAT;
+        char[] buf = _numberBuffer;
+        if (buf == null || buf.length < len) {
+            _numberBuffer = buf = new char[Math.max(len, 32)];
         }
-        StringBuilder sb = new StringBuilder(len);
-        // first: do we have a leading plus sign to skip?
-        int i = (str.charAt(0) == '+') ? 1 : 0;
+        int count = 0;
+        int i = (len > 0 && str.charAt(0) == '+') ? 1 : 0;
         for (; i < len; ++i) {
             char c = str.charAt(i);
             if (c != '_') {
-                sb.append(c);
+                buf[count++] = c;
             }
         }
-        _cleanedTextValue = sb.toString();
-        return JsonToken.VALUE_NUMBER_FLOAT;
+        return count;
     }
 }
@@ -0,0 +1,1613 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.DumperOptions.ScalarStyle;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.emitter.EmitterException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import com.fasterxml.jackson.core.Base64Variant;
+
+/**
+ * Alternative to SnakeYAML {@link Emitter} used by
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLGenerator} when
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLGenerator.Feature#USE_DIRECT_WRITER}
+ * is enabled. It produces the same output as {@link Emitter} but is driven
+ * by method calls instead of {@link Event} objects, does not queue events
+ * (only one look-ahead event is needed, and is kept in fields) and writes
+ * content into an output buffer instead of writing every fragment separately
+ * to the underlying {@link Writer}.
+ *<p>
+ * Only block-style output is supported: use {@link #isSupported} to check
+ * whether given {@link DumperOptions} can be used. Empty collections are
+ * written in flow style, same as with {@link Emitter}.
+ * Documents are written as if they had an empty map of tag directives
+ * (which is what {@code YAMLGenerator} uses).
+ *
+ * @since 2.19
+ */
+public class DirectBlockWriter
+{
+    private final static int MIN_BUFFER_LENGTH = 64;
+
+    private final static String DEFAULT_TAG_PREFIX = Tag.PREFIX;
+
+    // Characters that are not allowed in anchors, in the order
+    // SnakeYAML checks them
+    private final static String INVALID_ANCHOR_CHARS = "&*[{,]}";
+
+    // // // Event types
+
+    private final static int EV_DOCUMENT_START = 1;
+    private final static int EV_DOCUMENT_END = 2;
+    private final static int EV_STREAM_END = 3;
+    private final static int EV_SEQUENCE_START = 4;
+    private final static int EV_SEQUENCE_END = 5;
+    private final static int EV_MAPPING_START = 6;
+    private final static int EV_MAPPING_END = 7;
+    private final static int EV_SCALAR = 8;
+    private final static int EV_ALIAS = 9;
+
+    // // // States (same as SnakeYAML Emitter states, minus flow ones)
+
+    private final static int ST_FIRST_DOCUMENT_START = 1;
+    private final static int ST_DOCUMENT_START = 2;
+    private final static int ST_DOCUMENT_ROOT = 3;
+    private final static int ST_DOCUMENT_END = 4;
+    private final static int ST_NOTHING = 5;
+    private final static int ST_FIRST_SEQUENCE_ITEM = 6;
+    private final static int ST_SEQUENCE_ITEM = 7;
+    private final static int ST_FIRST_MAPPING_KEY = 8;
+    private final static int ST_MAPPING_KEY = 9;
+    private final static int ST_MAPPING_SIMPLE_VALUE = 10;
+    private final static int ST_MAPPING_VALUE = 11;
+
+    /*
+    /**********************************************************************
+    /* Configuration
+    /**********************************************************************
+     */
+
+    protected final Writer _out;
+
+    protected final boolean _allowUnicode;
+
+    protected final int _bestIndent;
+
+    protected final int _indicatorIndent;
+
+    protected final boolean _indentWithIndicator;
+
+    protected final int _bestWidth;
+
+    protected final String _lineBreak;
+
+    protected final boolean _splitLines;
+
+    protected final int _maxSimpleKeyLength;
+
+    /*
+    /**********************************************************************
+    /* Output buffering
+    /**********************************************************************
+     */
+
+    protected char[] _outputBuffer;
+
+    protected int _outputTail;
+
+    /*
+    /**********************************************************************
+    /* Emitter state
+    /**********************************************************************
+     */
+
+    private int _state = ST_FIRST_DOCUMENT_START;
+
+    private int[] _states = new int[16];
+
+    private int _statesTop;
+
+    /**
+     * Current indentation; -1 if none
+     */
+    private int _indent = -1;
+
+    private int[] _indents = new int[16];
+
+    private int _indentsTop;
+
+    private boolean _rootContext;
+
+    private boolean _mappingContext;
+
+    private boolean _simpleKeyContext;
+
+    private int _column;
+
+    private boolean _whitespace = true;
+
+    private boolean _indention = true;
+
+    private boolean _openEnded;
+
+    /*
+    /**********************************************************************
+    /* Current event, look-ahead
+    /**********************************************************************
+     */
+
+    private int _evType;
+    private String _evAnchor;
+    private String _evTag;
+    private boolean _evImplicit;
+    private String _evValue;
+    private ScalarStyle _evStyle;
+    private boolean _evExplicit;
+    private DumperOptions.Version _evVersion;
+
+    // Start events need to see the following event before being processed
+
+    private int _pendingType;
+    private String _pendingAnchor;
+    private String _pendingTag;
+    private boolean _pendingExplicit;
+    private DumperOptions.Version _pendingVersion;
+
+    private int _nextType;
+
+    // Whether the following event is a scalar that makes document "empty"
+    private boolean _nextEmptyScalar;
+
+    // Whether the following event was handled along with the current one
+    private boolean _nextConsumed;
+
+    /*
+    /**********************************************************************
+    /* Scalar state
+    /**********************************************************************
+     */
+
+    private boolean _analyzed;
+    private boolean _analysisEmpty;
+    private boolean _analysisMultiline;
+    private boolean _allowBlockPlain;
+    private boolean _allowSingleQuoted;
+    private boolean _allowBlock;
+
+    private ScalarStyle _style;
+
+    /*
+    /**********************************************************************
+    /* Binary scalar state
+    /**********************************************************************
+     */
+
+    // Variant used for encoding binary scalar being written, if any
+    private Base64Variant _binVariant;
+
+    // Content of binary scalar, either all of it, or buffered from `_binInput`
+    private byte[] _binBuffer;
+    private int _binPtr, _binEnd;
+
+    private InputStream _binInput;
+
+    // Number of bytes still to read from `_binInput`; -1 if to read until end
+    private int _binToRead;
+
+    // Total length of binary content, if known; -1 if not
+    private int _binLength;
+
+    // Number of bytes read from `_binInput`
+    private int _binBytesRead;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    /**
+     * @param out Writer to write output to
+     * @param opts Output options; should be ones for which {@link #isSupported}
+     *    returns {@code true}
+     * @param buffer Buffer to use for buffering output
+     */
+    public DirectBlockWriter(Writer out, DumperOptions opts, char[] buffer)
+    {
+        _out = out;
+        _allowUnicode = opts.isAllowUnicode();
+        int indent = opts.getIndent();
+        _bestIndent = ((indent > Emitter.MIN_INDENT) && (indent < Emitter.MAX_INDENT)) ? indent : 2;
+        _indicatorIndent = opts.getIndicatorIndent();
+        _indentWithIndicator = opts.getIndentWithIndicator();
+        _bestWidth = (opts.getWidth() > _bestIndent * 2) ? opts.getWidth() : 80;
+        _lineBreak = opts.getLineBreak().getString();
+        _splitLines = opts.getSplitLines();
+        _maxSimpleKeyLength = opts.getMaxSimpleKeyLength();
+        _outputBuffer = ((buffer == null) || (buffer.length < MIN_BUFFER_LENGTH))
+                ? new char[4000] : buffer;
+    }
+
+    /**
+     * Method for checking whether output using given options can be written
+     * using this writer: this is the case unless canonical output, flow style
+     * (or pretty flow) or comment processing is requested.
+     */
+    public static boolean isSupported(DumperOptions opts)
+    {
+        return !opts.isCanonical()
+                && (opts.getDefaultFlowStyle() == DumperOptions.FlowStyle.BLOCK)
+                && !opts.isPrettyFlow()
+                && !opts.isProcessComments();
+    }
+
+    /**
+     * Method for getting the buffer used for output, once no more output
+     * is to be written; so that caller may recycle it.
+     */
+    public char[] releaseBuffer() {
+        char[] buf = _outputBuffer;
+        _outputBuffer = null;
+        return buf;
+    }
+
+    public int getOutputBuffered() {
+        return _outputTail;
+    }
+
+    /**
+     * Method for writing out all buffered output to the underlying
+     * {@link Writer} (but without flushing it).
+     * Note that structural output may be pending until more content is written
+     * to determine how it is to be written (for example, whether a collection
+     * is empty).
+     */
+    public void flush() throws IOException {
+        _flushBuffer();
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, output
+    /**********************************************************************
+     */
+
+    /**
+     * @param explicit Whether explicit document start marker is to be written
+     * @param version YAML version to write directive for, if any
+     */
+    public void writeDocumentStart(boolean explicit, DumperOptions.Version version) throws IOException
+    {
+        if (_pendingType != 0 && _processPending(EV_DOCUMENT_START, null, null, null)) {
+            return;
+        }
+        _pendingType = EV_DOCUMENT_START;
+        _pendingAnchor = null;
+        _pendingTag = null;
+        _pendingExplicit = explicit;
+        _pendingVersion = version;
+    }
+
+    public void writeDocumentEnd() throws IOException {
+        _event(EV_DOCUMENT_END, null, null, false, null, null);
+    }
+
+    public void writeStreamEnd() throws IOException {
+        _event(EV_STREAM_END, null, null, false, null, null);
+    }
+
+    /**
+     * @param anchor Anchor (native object id) to write, if any
+     * @param tag Tag (native type id) to write, if any
+     */
+    public void writeSequenceStart(String anchor, String tag) throws IOException {
+        _startCollection(EV_SEQUENCE_START, anchor, tag);
+    }
+
+    public void writeSequenceEnd() throws IOException {
+        _event(EV_SEQUENCE_END, null, null, false, null, null);
+    }
+
+    /**
+     * @param anchor Anchor (native object id) to write, if any
+     * @param tag Tag (native type id) to write, if any
+     */
+    public void writeMappingStart(String anchor, String tag) throws IOException {
+        _startCollection(EV_MAPPING_START, anchor, tag);
+    }
+
+    public void writeMappingEnd() throws IOException {
+        _event(EV_MAPPING_END, null, null, false, null, null);
+    }
+
+    /**
+     * @param anchor Anchor (native object id) to write, if any
+     * @param tag Tag of the value, if any
+     * @param implicit Whether tag may be omitted (same as {@link ImplicitTuple}
+     *   with both values set to this value)
+     * @param value Scalar value to write
+     * @param style Preferred style to use; may be overridden if value
+     *   can not be written using it
+     */
+    public void writeScalar(String anchor, String tag, boolean implicit,
+            String value, ScalarStyle style) throws IOException {
+        _event(EV_SCALAR, anchor, tag, implicit, value, style);
+    }
+
+    public void writeAlias(String anchor) throws IOException {
+        _event(EV_ALIAS, anchor, null, false, null, null);
+    }
+
+    /**
+     * Method for checking whether {@code writeBinaryScalar} methods may be used:
+     * this is only the case if configured line break is plain linefeed, since
+     * other line breaks within encoded content prevent use of literal style
+     * (and content is written as double-quoted scalar instead).
+     */
+    public boolean canWriteBinaryScalars() {
+        return "\n".equals(_lineBreak);
+    }
+
+    /**
+     * Method for writing binary content as a base64-encoded literal block scalar,
+     * encoding content directly into the output buffer instead of constructing
+     * the encoded {@link String} first. Output is the same as that of
+     * {@link #writeScalar} with content encoded using
+     * {@link Base64Variant#encode(byte[], boolean, String)} (with configured
+     * line break as linefeed) and {@link ScalarStyle#LITERAL}.
+     * Should only be called if {@link #canWriteBinaryScalars()} returns {@code true}.
+     *
+     * @param anchor Anchor (native object id) to write, if any
+     * @param tag Tag of the value; must not be {@code null}
+     * @param variant Base64 variant to use for encoding
+     */
+    public void writeBinaryScalar(String anchor, String tag, Base64Variant variant,
+            byte[] data, int offset, int len) throws IOException
+    {
+        if (len == 0) {
+            writeScalar(anchor, tag, false, "", ScalarStyle.LITERAL);
+            return;
+        }
+        _binBuffer = data;
+        _binPtr = offset;
+        _binEnd = offset + len;
+        _binInput = null;
+        _binToRead = 0;
+        _binLength = len;
+        _writeBinaryScalar(anchor, tag, variant);
+    }
+
+    /**
+     * Method similar to {@link #writeBinaryScalar(String, String, Base64Variant, byte[], int, int)}
+     * but reading content to write from given {@link InputStream}, using given
+     * buffer. If length of content is not known, encoded content does not end with
+     * linefeed (which {@link Base64Variant#encode(byte[], boolean, String)}
+     * would add if content consists of full lines); this does not change the value
+     * read back.
+     *
+     * @param dataLength Number of bytes to read, if known; -1 to read until
+     *    end of stream
+     * @param readBuffer Buffer to use for reading; at least 3 bytes long
+     *
+     * @return Number of bytes read and written (less than {@code dataLength} if
+     *    stream ended before that)
+     */
+    public int writeBinaryScalar(String anchor, String tag, Base64Variant variant,
+            InputStream in, int dataLength, byte[] readBuffer) throws IOException
+    {
+        _binBuffer = readBuffer;
+        _binPtr = _binEnd = 0;
+        _binInput = in;
+        _binToRead = dataLength;
+        _binLength = dataLength;
+        _binBytesRead = 0;
+        // need to know whether there is any content, to write empty value
+        // same as with byte[]
+        if (!_loadBinary()) {
+            _binBuffer = null;
+            _binInput = null;
+            writeScalar(anchor, tag, false, "", ScalarStyle.LITERAL);
+            return 0;
+        }
+        _writeBinaryScalar(anchor, tag, variant);
+        return _binBytesRead;
+    }
+
+    /*
+    /**********************************************************************
+    /* Event dispatching
+    /**********************************************************************
+     */
+
+    private void _writeBinaryScalar(String anchor, String tag, Base64Variant variant)
+        throws IOException
+    {
+        _binVariant = variant;
+        try {
+            _event(EV_SCALAR, anchor, tag, false, null, ScalarStyle.LITERAL);
+        } finally {
+            _binVariant = null;
+            _binBuffer = null;
+            _binInput = null;
+        }
+    }
+
+    private void _startCollection(int type, String anchor, String tag) throws IOException
+    {
+        if (_pendingType != 0 && _processPending(type, anchor, tag, null)) {
+            return;
+        }
+        _pendingType = type;
+        _pendingAnchor = anchor;
+        _pendingTag = tag;
+        _pendingExplicit = false;
+        _pendingVersion = null;
+    }
+
+    private void _event(int type, String anchor, String tag, boolean implicit,
+            String value, ScalarStyle style) throws IOException
+    {
+        if (_pendingType != 0 && _processPending(type, anchor, tag, value)) {
+            return;
+        }
+        _evType = type;
+        _evAnchor = anchor;
+        _evTag = tag;
+        _evImplicit = implicit;
+        _evValue = value;
+        _evStyle = style;
+        _expect();
+    }
+
+    /**
+     * Method for processing pending start event, now that the following
+     * event is known.
+     *
+     * @return True if the following event was handled as well
+     */
+    private boolean _processPending(int nextType, String nextAnchor, String nextTag,
+            String nextValue) throws IOException
+    {
+        _evType = _pendingType;
+        _evAnchor = _pendingAnchor;
+        _evTag = _pendingTag;
+        _evImplicit = (_pendingTag == null);
+        _evValue = null;
+        _evStyle = null;
+        _evExplicit = _pendingExplicit;
+        _evVersion = _pendingVersion;
+        _pendingType = 0;
+        _pendingAnchor = null;
+        _pendingTag = null;
+        _pendingVersion = null;
+
+        _nextType = nextType;
+        _nextEmptyScalar = (nextType == EV_SCALAR) && (nextAnchor == null)
+                && (nextTag == null) && (nextValue != null) && nextValue.isEmpty();
+        _nextConsumed = false;
+        try {
+            _expect();
+        } finally {
+            _nextType = 0;
+        }
+        return _nextConsumed;
+    }
+
+    private void _expect() throws IOException
+    {
+        switch (_state) {
+        case ST_FIRST_DOCUMENT_START:
+            _expectDocumentStart(true);
+            return;
+        case ST_DOCUMENT_START:
+            _expectDocumentStart(false);
+            return;
+        case ST_DOCUMENT_ROOT:
+            _pushState(ST_DOCUMENT_END);
+            _expectNode(true, false, false);
+            return;
+        case ST_DOCUMENT_END:
+            if (_evType != EV_DOCUMENT_END) {
+                throw _constructError("expected DocumentEndEvent, but got " + _describeEvent());
+            }
+            _writeIndent();
+            _flushStream();
+            _state = ST_DOCUMENT_START;
+            return;
+        case ST_FIRST_SEQUENCE_ITEM:
+        case ST_SEQUENCE_ITEM:
+            {
+                final boolean first = (_state == ST_FIRST_SEQUENCE_ITEM);
+                if (!first && _evType == EV_SEQUENCE_END) {
+                    _indent = _popIndent();
+                    _state = _popState();
+                    return;
+                }
+                _writeIndent();
+                if (!_indentWithIndicator || first) {
+                    _writeWhitespace(_indicatorIndent);
+                }
+                _writeIndicator("-", true, false, true);
+                if (_indentWithIndicator && first) {
+                    _indent += _indicatorIndent;
+                }
+                _pushState(ST_SEQUENCE_ITEM);
+                _expectNode(false, false, false);
+            }
+            return;
+        case ST_FIRST_MAPPING_KEY:
+        case ST_MAPPING_KEY:
+            if ((_state == ST_MAPPING_KEY) && _evType == EV_MAPPING_END) {
+                _indent = _popIndent();
+                _state = _popState();
+                return;
+            }
+            _writeIndent();
+            if (_checkSimpleKey()) {
+                _pushState(ST_MAPPING_SIMPLE_VALUE);
+                _expectNode(false, true, true);
+            } else {
+                _writeIndicator("?", true, false, true);
+                _pushState(ST_MAPPING_VALUE);
+                _expectNode(false, true, false);
+            }
+            return;
+        case ST_MAPPING_SIMPLE_VALUE:
+            _writeIndicator(":", false, false, false);
+            _pushState(ST_MAPPING_KEY);
+            _expectNode(false, true, false);
+            return;
+        case ST_MAPPING_VALUE:
+            _writeIndent();
+            _writeIndicator(":", true, false, true);
+            _pushState(ST_MAPPING_KEY);
+            _expectNode(false, true, false);
+            return;
+        default: // ST_NOTHING
+            throw _constructError("expecting nothing, but got " + _describeEvent());
+        }
+    }
+
+    private void _expectDocumentStart(boolean first) throws IOException
+    {
+        if (_evType == EV_DOCUMENT_START) {
+            // NOTE: tag directives are always specified (as empty map)
+            if (_openEnded) {
+                _writeIndicator("...", true, false, false);
+                _writeIndent();
+            }
+            if (_evVersion != null) {
+                if (_evVersion.major() != 1) {
+                    throw _constructError("unsupported YAML version: " + _evVersion);
+                }
+                _writeRaw("%YAML ");
+                _writeRaw(_evVersion.getRepresentation());
+                _writeLineBreak(null);
+            }
+            boolean implicit = first && !_evExplicit && (_evVersion == null)
+                    && !_nextEmptyScalar;
+            if (!implicit) {
+                _writeIndent();
+                _writeIndicator("---", true, false, false);
+            }
+            _state = ST_DOCUMENT_ROOT;
+        } else if (_evType == EV_STREAM_END) {
+            _flushStream();
+            _state = ST_NOTHING;
+        } else {
+            throw _constructError("expected DocumentStartEvent, but got " + _describeEvent());
+        }
+    }
+
+    private void _expectNode(boolean root, boolean mapping, boolean simpleKey) throws IOException
+    {
+        _rootContext = root;
+        _mappingContext = mapping;
+        _simpleKeyContext = simpleKey;
+        switch (_evType) {
+        case EV_ALIAS:
+            _processAnchor("*");
+            _state = _popState();
+            return;
+        case EV_SCALAR:
+            _processAnchor("&");
+            _processTag();
+            _increaseIndent(true, false);
+            _processScalar();
+            _indent = _popIndent();
+            _state = _popState();
+            return;
+        case EV_SEQUENCE_START:
+            _processAnchor("&");
+            _processTag();
+            if (_nextType == EV_SEQUENCE_END) {
+                _writeEmptyCollection("[", "]");
+            } else {
+                _increaseIndent(false, _mappingContext && !_indention);
+                _state = ST_FIRST_SEQUENCE_ITEM;
+            }
+            return;
+        case EV_MAPPING_START:
+            _processAnchor("&");
+            _processTag();
+            if (_nextType == EV_MAPPING_END) {
+                _writeEmptyCollection("{", "}");
+            } else {
+                _increaseIndent(false, false);
+                _state = ST_FIRST_MAPPING_KEY;
+            }
+            return;
+        }
+        throw _constructError("expected NodeEvent, but got " + _describeEvent());
+    }
+
+    private void _writeEmptyCollection(String start, String end) throws IOException
+    {
+        _writeIndicator(start, true, true, false);
+        _writeIndicator(end, false, false, false);
+        _state = _popState();
+        _nextConsumed = true;
+    }
+
+    private void _increaseIndent(boolean flow, boolean indentless)
+    {
+        if (_indentsTop == _indents.length) {
+            _indents = Arrays.copyOf(_indents, _indentsTop << 1);
+        }
+        _indents[_indentsTop++] = _indent;
+        if (_indent < 0) {
+            _indent = flow ? _bestIndent : 0;
+        } else if (!indentless) {
+            _indent += _bestIndent;
+        }
+    }
+
+    private int _popIndent() {
+        return _indents[--_indentsTop];
+    }
+
+    private void _pushState(int state) {
+        if (_statesTop == _states.length) {
+            _states = Arrays.copyOf(_states, _statesTop << 1);
+        }
+        _states[_statesTop++] = state;
+    }
+
+    private int _popState() {
+        return _states[--_statesTop];
+    }
+
+    private boolean _checkSimpleKey()
+    {
+        int length = 0;
+        if (_evType == EV_SCALAR || _evType == EV_ALIAS
+                || _evType == EV_SEQUENCE_START || _evType == EV_MAPPING_START) {
+            if (_evAnchor != null) {
+                length += _prepareAnchor(_evAnchor).length();
+            }
+        }
+        if (_evTag != null) {
+            length += _prepareTag(_evTag).length();
+        }
+        // binary scalars are always long enough to not be simple keys, if non-empty
+        if (_binVariant != null) {
+            return false;
+        }
+        if (_evType == EV_SCALAR) {
+            _analyzeScalar(_evValue);
+            length += _evValue.length();
+        }
+        if (length >= _maxSimpleKeyLength) {
+            return false;
+        }
+        switch (_evType) {
+        case EV_ALIAS:
+            return true;
+        case EV_SCALAR:
+            return !_analysisEmpty && !_analysisMultiline;
+        case EV_SEQUENCE_START:
+            return _nextType == EV_SEQUENCE_END;
+        case EV_MAPPING_START:
+            return _nextType == EV_MAPPING_END;
+        }
+        return false;
+    }
+
+    /*
+    /**********************************************************************
+    /* Anchor, tag, scalar processing
+    /**********************************************************************
+     */
+
+    private void _processAnchor(String indicator) throws IOException
+    {
+        if (_evAnchor != null) {
+            _writeIndicator(indicator, _prepareAnchor(_evAnchor), true, false, false);
+        }
+    }
+
+    private void _processTag() throws IOException
+    {
+        if (_evType == EV_SCALAR) {
+            if (_style == null) {
+                _style = _chooseScalarStyle();
+            }
+        }
+        if (_evImplicit) { // no tag needed
+            return;
+        }
+        if (_evTag == null) {
+            throw _constructError("tag is not specified");
+        }
+        _writeIndicator(_prepareTag(_evTag), true, false, false);
+    }
+
+    private ScalarStyle _chooseScalarStyle()
+    {
+        // Base64-encoded content always allows literal style
+        if (_binVariant != null) {
+            return ScalarStyle.LITERAL;
+        }
+        _analyzeScalar(_evValue);
+        final ScalarStyle style = _evStyle;
+        if (style == ScalarStyle.DOUBLE_QUOTED) {
+            return ScalarStyle.DOUBLE_QUOTED;
+        }
+        if (style == ScalarStyle.JSON_SCALAR_STYLE) {
+            // special case for strings which are always double-quoted in JSON
+            if (Tag.STR.getValue().equals(_evTag)) {
+                return ScalarStyle.DOUBLE_QUOTED;
+            }
+        }
+        if ((style == ScalarStyle.PLAIN || style == ScalarStyle.JSON_SCALAR_STYLE) && _evImplicit) {
+            if (!(_simpleKeyContext && (_analysisEmpty || _analysisMultiline))
+                    && _allowBlockPlain) {
+                return ScalarStyle.PLAIN;
+            }
+        }
+        if (style == ScalarStyle.LITERAL || style == ScalarStyle.FOLDED) {
+            if (!_simpleKeyContext && _allowBlock) {
+                return style;
+            }
+        }
+        if (style == ScalarStyle.PLAIN || style == ScalarStyle.SINGLE_QUOTED) {
+            if (_allowSingleQuoted && !(_simpleKeyContext && _analysisMultiline)) {
+                return ScalarStyle.SINGLE_QUOTED;
+            }
+        }
+        return ScalarStyle.DOUBLE_QUOTED;
+    }
+
+    private void _processScalar() throws IOException
+    {
+        final String text = _evValue;
+        final boolean split = !_simpleKeyContext && _splitLines;
+        switch (_style) {
+        case PLAIN:
+            _writePlain(text, split);
+            break;
+        case DOUBLE_QUOTED:
+            _writeDoubleQuoted(text, split);
+            break;
+        case SINGLE_QUOTED:
+            _writeSingleQuoted(text, split);
+            break;
+        case FOLDED:
+            _writeFolded(text, split);
+            break;
+        case LITERAL:
+            if (_binVariant != null) {
+                _writeLiteralBinary();
+            } else {
+                _writeLiteral(text);
+            }
+            break;
+        default:
+            throw _constructError("Unexpected style: " + _style);
+        }
+        _analyzed = false;
+        _style = null;
+    }
+
+    private String _prepareAnchor(String anchor)
+    {
+        if (anchor.isEmpty()) {
+            throw _constructError("anchor must not be empty");
+        }
+        for (int i = 0; i < INVALID_ANCHOR_CHARS.length(); ++i) {
+            char c = INVALID_ANCHOR_CHARS.charAt(i);
+            if (anchor.indexOf(c) >= 0) {
+                throw _constructError("Invalid character '" + c + "' in the anchor: " + anchor);
+            }
+        }
+        for (int i = 0, end = anchor.length(); i < end; ++i) {
+            switch (anchor.charAt(i)) {
+            case ' ': case '\t': case '\n': case '\u000B': case '\f': case '\r':
+                throw _constructError("Anchor may not contain spaces: " + anchor);
+            }
+        }
+        return anchor;
+    }
+
+    private String _prepareTag(String tag)
+    {
+        if (tag.isEmpty()) {
+            throw _constructError("tag must not be empty");
+        }
+        if ((tag.length() > DEFAULT_TAG_PREFIX.length()) && tag.startsWith(DEFAULT_TAG_PREFIX)) {
+            return "!!" + tag.substring(DEFAULT_TAG_PREFIX.length());
+        }
+        if (tag.charAt(0) == '!') {
+            return tag;
+        }
+        return "!<" + tag + ">";
+    }
+
+    /*
+    /**********************************************************************
+    /* Scalar analysis
+    /**********************************************************************
+     */
+
+    private static boolean _isLineBreak(int c) {
+        return (c == '\n') || (c == 0x85) || (c == 0x2028) || (c == 0x2029);
+    }
+
+    private static boolean _isNullBlankOrTab(int c) {
+        return (c == ' ') || (c == '\t') || (c == 0);
+    }
+
+    // Equivalent of Pattern.compile("0[0-9_]+").matcher(scalar).matches()
+    private static boolean _hasLeadingZero(String scalar)
+    {
+        final int len = scalar.length();
+        if (len > 1 && scalar.charAt(0) == '0') {
+            for (int i = 1; i < len; i++) {
+                char ch = scalar.charAt(i);
+                if ((ch < '0' || ch > '9') && ch != '_') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method that determines which styles scalar may be written in:
+     * same as {@code Emitter.analyzeScalar()}, except that only information
+     * needed for block context is calculated.
+     */
+    private void _analyzeScalar(String scalar)
+    {
+        if (_analyzed) {
+            return;
+        }
+        _analyzed = true;
+        final int len = scalar.length();
+        if (len == 0) {
+            _analysisEmpty = true;
+            _analysisMultiline = false;
+            _allowBlockPlain = true;
+            _allowSingleQuoted = true;
+            _allowBlock = false;
+            return;
+        }
+        _analysisEmpty = false;
+
+        boolean blockIndicators = false;
+        boolean lineBreaks = false;
+        boolean specialCharacters = false;
+
+        boolean leadingSpace = false;
+        boolean leadingBreak = false;
+        boolean trailingSpace = false;
+        boolean trailingBreak = false;
+        boolean breakSpace = false;
+        boolean spaceBreak = false;
+
+        if (scalar.startsWith("---") || scalar.startsWith("...")) {
+            blockIndicators = true;
+        }
+        boolean precededByWhitespace = true;
+        boolean followedByWhitespace = (len == 1) || _isNullBlankOrTab(scalar.codePointAt(1))
+                || _isLineBreak(scalar.codePointAt(1)) || (scalar.charAt(1) == '\r');
+        boolean previousSpace = false;
+        boolean previousBreak = false;
+
+        int index = 0;
+        while (index < len) {
+            final int c = scalar.codePointAt(index);
+            if (index == 0) {
+                switch (c) {
+                case '#': case ',': case '[': case ']': case '{': case '}':
+                case '&': case '*': case '!': case '|': case '>': case '\'':
+                case '"': case '%': case '@': case '`':
+                    blockIndicators = true;
+                    break;
+                case '?': case ':': case '-':
+                    if (followedByWhitespace) {
+                        blockIndicators = true;
+                    }
+                    break;
+                }
+            } else {
+                if (c == ':') {
+                    if (followedByWhitespace) {
+                        blockIndicators = true;
+                    }
+                } else if (c == '#' && precededByWhitespace) {
+                    blockIndicators = true;
+                }
+            }
+            final boolean isLineBreak = _isLineBreak(c);
+            if (isLineBreak) {
+                lineBreaks = true;
+            }
+            if (!(c == '\n' || (0x20 <= c && c <= 0x7E))) {
+                if (c == 0x85 || (c >= 0xA0 && c <= 0xD7FF) || (c >= 0xE000 && c <= 0xFFFD)
+                        || (c >= 0x10000 && c <= 0x10FFFF)) {
+                    if (!_allowUnicode) {
+                        specialCharacters = true;
+                    }
+                } else {
+                    specialCharacters = true;
+                }
+            }
+            if (c == ' ') {
+                if (index == 0) {
+                    leadingSpace = true;
+                }
+                if (index == len - 1) {
+                    trailingSpace = true;
+                }
+                if (previousBreak) {
+                    breakSpace = true;
+                }
+                previousSpace = true;
+                previousBreak = false;
+            } else if (isLineBreak) {
+                if (index == 0) {
+                    leadingBreak = true;
+                }
+                if (index == len - 1) {
+                    trailingBreak = true;
+                }
+                if (previousSpace) {
+                    spaceBreak = true;
+                }
+                previousSpace = false;
+                previousBreak = true;
+            } else {
+                previousSpace = false;
+                previousBreak = false;
+            }
+
+            index += Character.charCount(c);
+            precededByWhitespace = _isNullBlankOrTab(c) || isLineBreak;
+            followedByWhitespace = true;
+            if (index + 1 < len) {
+                int nextIndex = index + Character.charCount(scalar.codePointAt(index));
+                if (nextIndex < len) {
+                    followedByWhitespace = _isNullBlankOrTab(scalar.codePointAt(nextIndex)) || isLineBreak;
+                }
+            }
+        }
+        boolean allowBlockPlain = true;
+        boolean allowSingleQuoted = true;
+        boolean allowBlock = true;
+        if (leadingSpace || leadingBreak || trailingSpace || trailingBreak || _hasLeadingZero(scalar)) {
+            allowBlockPlain = false;
+        }
+        if (trailingSpace) {
+            allowBlock = false;
+        }
+        if (breakSpace) {
+            allowBlockPlain = allowSingleQuoted = false;
+        }
+        if (spaceBreak || specialCharacters) {
+            allowBlockPlain = allowSingleQuoted = allowBlock = false;
+        }
+        if (blockIndicators) {
+            allowBlockPlain = false;
+        }
+        _analysisMultiline = lineBreaks;
+        _allowBlockPlain = allowBlockPlain;
+        _allowSingleQuoted = allowSingleQuoted;
+        _allowBlock = allowBlock;
+    }
+
+    /*
+    /**********************************************************************
+    /* Low-level writing
+    /**********************************************************************
+     */
+
+    private void _flushStream() throws IOException {
+        _flushBuffer();
+        _out.flush();
+    }
+
+    private void _writeIndicator(String indicator, boolean needWhitespace,
+            boolean whitespace, boolean indentation) throws IOException
+    {
+        if (!_whitespace && needWhitespace) {
+            ++_column;
+            _writeRaw(' ');
+        }
+        _whitespace = whitespace;
+        _indention = _indention && indentation;
+        _column += indicator.length();
+        _openEnded = false;
+        _writeRaw(indicator);
+    }
+
+    // Same as above, but for indicator consisting of 2 parts
+    private void _writeIndicator(String prefix, String indicator, boolean needWhitespace,
+            boolean whitespace, boolean indentation) throws IOException
+    {
+        if (!_whitespace && needWhitespace) {
+            ++_column;
+            _writeRaw(' ');
+        }
+        _whitespace = whitespace;
+        _indention = _indention && indentation;
+        _column += prefix.length() + indicator.length();
+        _openEnded = false;
+        _writeRaw(prefix);
+        _writeRaw(indicator);
+    }
+
+    private void _writeIndent() throws IOException
+    {
+        final int indent = Math.max(_indent, 0);
+        if (!_indention || _column > indent || (_column == indent && !_whitespace)) {
+            _writeLineBreak(null);
+        }
+        _writeWhitespace(indent - _column);
+    }
+
+    private void _writeWhitespace(int length) throws IOException
+    {
+        if (length <= 0) {
+            return;
+        }
+        _whitespace = true;
+        _column += length;
+        for (int i = 0; i < length; ++i) {
+            _writeRaw(' ');
+        }
+    }
+
+    private void _writeLineBreak(String data) throws IOException
+    {
+        _whitespace = true;
+        _indention = true;
+        _column = 0;
+        _writeRaw((data == null) ? _lineBreak : data);
+    }
+
+    // Writes line breaks in given range (writing "\n" using configured line break)
+    private void _writeLineBreaks(String text, int start, int end) throws IOException
+    {
+        for (int i = start; i < end; ++i) {
+            char br = text.charAt(i);
+            _writeLineBreak((br == '\n') ? null : String.valueOf(br));
+        }
+    }
+
+    private void _writeRaw(char c) throws IOException
+    {
+        if (_outputTail >= _outputBuffer.length) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = c;
+    }
+
+    private void _writeRaw(String text) throws IOException {
+        _writeRaw(text, 0, text.length());
+    }
+
+    private void _writeRaw(String text, int offset, int len) throws IOException
+    {
+        int room = _outputBuffer.length - _outputTail;
+        if (len > room) {
+            _flushBuffer();
+            room = _outputBuffer.length;
+            if (len > room) {
+                _out.write(text, offset, len);
+                return;
+            }
+        }
+        text.getChars(offset, offset+len, _outputBuffer, _outputTail);
+        _outputTail += len;
+    }
+
+    private void _flushBuffer() throws IOException
+    {
+        if (_outputTail > 0) {
+            final int len = _outputTail;
+            _outputTail = 0;
+            _out.write(_outputBuffer, 0, len);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Scalar writing
+    /**********************************************************************
+     */
+
+    private void _writePlain(String text, boolean split) throws IOException
+    {
+        if (_rootContext) {
+            _openEnded = true;
+        }
+        final int len = text.length();
+        if (len == 0) {
+            return;
+        }
+        if (!_whitespace) {
+            ++_column;
+            _writeRaw(' ');
+        }
+        _whitespace = false;
+        _indention = false;
+        boolean spaces = false;
+        boolean breaks = false;
+        int start = 0, end = 0;
+        while (end <= len) {
+            char ch = (end < len) ? text.charAt(end) : 0;
+            if (spaces) {
+                if (ch != ' ') {
+                    if (start + 1 == end && _column > _bestWidth && split) {
+                        _writeIndent();
+                        _whitespace = false;
+                        _indention = false;
+                    } else {
+                        _column += end - start;
+                        _writeRaw(text, start, end - start);
+                    }
+                    start = end;
+                }
+            } else if (breaks) {
+                if (!_isLineBreak(ch)) {
+                    if (text.charAt(start) == '\n') {
+                        _writeLineBreak(null);
+                    }
+                    _writeLineBreaks(text, start, end);
+                    _writeIndent();
+                    _whitespace = false;
+                    _indention = false;
+                    start = end;
+                }
+            } else if (ch == 0 || ch == ' ' || _isLineBreak(ch)) {
+                _column += end - start;
+                _writeRaw(text, start, end - start);
+                start = end;
+            }
+            if (ch != 0) {
+                spaces = (ch == ' ');
+                breaks = _isLineBreak(ch);
+            }
+            ++end;
+        }
+    }
+
+    private void _writeSingleQuoted(String text, boolean split) throws IOException
+    {
+        _writeIndicator("'", true, false, false);
+        final int len = text.length();
+        boolean spaces = false;
+        boolean breaks = false;
+        int start = 0, end = 0;
+        while (end <= len) {
+            char ch = (end < len) ? text.charAt(end) : 0;
+            if (spaces) {
+                if (ch == 0 || ch != ' ') {
+                    if (start + 1 == end && _column > _bestWidth && split && start != 0
+                            && end != len) {
+                        _writeIndent();
+                    } else {
+                        _column += end - start;
+                        _writeRaw(text, start, end - start);
+                    }
+                    start = end;
+                }
+            } else if (breaks) {
+                if (ch == 0 || !_isLineBreak(ch)) {
+                    if (text.charAt(start) == '\n') {
+                        _writeLineBreak(null);
+                    }
+                    _writeLineBreaks(text, start, end);
+                    _writeIndent();
+                    start = end;
+                }
+            } else if (ch == 0 || ch == ' ' || ch == '\'' || _isLineBreak(ch)) {
+                if (start < end) {
+                    _column += end - start;
+                    _writeRaw(text, start, end - start);
+                    start = end;
+                }
+            }
+            if (ch == '\'') {
+                _column += 2;
+                _writeRaw("''");
+                start = end + 1;
+            }
+            if (ch != 0) {
+                spaces = (ch == ' ');
+                breaks = _isLineBreak(ch);
+            }
+            ++end;
+        }
+        _writeIndicator("'", false, false, false);
+    }
+
+    private void _writeDoubleQuoted(String text, boolean split) throws IOException
+    {
+        _writeIndicator("\"", true, false, false);
+        final int len = text.length();
+        int start = 0;
+        int end = 0;
+        while (end <= len) {
+            final boolean atEnd = (end == len);
+            final char ch = atEnd ? 0 : text.charAt(end);
+            if (atEnd || ch < 0x20 || ch > 0x7E || ch == '"' || ch == '\\') {
+                if (start < end) {
+                    _column += end - start;
+                    _writeRaw(text, start, end - start);
+                    start = end;
+                }
+                if (!atEnd) {
+                    String data = _escape(ch);
+                    if (data == null) {
+                        int codePoint = ch;
+                        if (Character.isHighSurrogate(ch) && end + 1 < len) {
+                            codePoint = Character.toCodePoint(ch, text.charAt(end + 1));
+                        }
+                        if (_allowUnicode && StreamReader.isPrintable(codePoint)) {
+                            data = String.valueOf(Character.toChars(codePoint));
+                            if (Character.charCount(codePoint) == 2) {
+                                ++end;
+                            }
+                        } else if (ch <= '\u00FF') {
+                            String s = "0" + Integer.toString(ch, 16);
+                            data = "\\x" + s.substring(s.length() - 2);
+                        } else if (Character.charCount(codePoint) == 2) {
+                            ++end;
+                            String s = "000" + Long.toHexString(codePoint);
+                            data = "\\U" + s.substring(s.length() - 8);
+                        } else {
+                            String s = "000" + Integer.toString(ch, 16);
+                            data = "\\u" + s.substring(s.length() - 4);
+                        }
+                    }
+                    _column += data.length();
+                    _writeRaw(data);
+                    start = end + 1;
+                }
+            }
+            if ((0 < end && end < (len - 1)) && (ch == ' ' || start >= end)
+                    && (_column + (end - start)) > _bestWidth && split) {
+                if (start < end) {
+                    _column += end - start;
+                    _writeRaw(text, start, end - start);
+                    start = end;
+                }
+                ++_column;
+                _writeRaw('\\');
+                _writeIndent();
+                _whitespace = false;
+                _indention = false;
+                if (text.charAt(start) == ' ') {
+                    ++_column;
+                    _writeRaw('\\');
+                }
+            }
+            ++end;
+        }
+        _writeIndicator("\"", false, false, false);
+    }
+
+    // Escape replacements SnakeYAML uses; null if none
+    private static String _escape(char ch)
+    {
+        switch (ch) {
+        case '\0': return "\\0";
+        case '\u0007': return "\\a";
+        case '\u0008': return "\\b";
+        case '\u0009': return "\\t";
+        case '\n': return "\\n";
+        case '\u000B': return "\\v";
+        case '\u000C': return "\\f";
+        case '\r': return "\\r";
+        case '\u001B': return "\\e";
+        case '"': return "\\\"";
+        case '\\': return "\\\\";
+        case '\u0085': return "\\N";
+        case '\u00A0': return "\\_";
+        case '\u2028': return "\\L";
+        case '\u2029': return "\\P";
+        }
+        return null;
+    }
+
+    private String _determineBlockHints(String text)
+    {
+        final int len = text.length();
+        String hints = "";
+        char first = text.charAt(0);
+        if (first == ' ' || _isLineBreak(first)) {
+            hints = String.valueOf(_bestIndent);
+        }
+        char last = text.charAt(len - 1);
+        if (!_isLineBreak(last)) {
+            hints += "-";
+        } else if (len == 1 || _isLineBreak(text.charAt(len - 2))) {
+            hints += "+";
+        }
+        return hints;
+    }
+
+    private void _writeFolded(String text, boolean split) throws IOException
+    {
+        String hints = _determineBlockHints(text);
+        _writeIndicator(">", hints, true, false, false);
+        if (hints.endsWith("+")) {
+            _openEnded = true;
+        }
+        _writeLineBreak(null);
+        final int len = text.length();
+        boolean leadingSpace = true;
+        boolean spaces = false;
+        boolean breaks = true;
+        int start = 0, end = 0;
+        while (end <= len) {
+            char ch = (end < len) ? text.charAt(end) : 0;
+            if (breaks) {
+                if (ch == 0 || !_isLineBreak(ch)) {
+                    if (!leadingSpace && ch != 0 && ch != ' ' && text.charAt(start) == '\n') {
+                        _writeLineBreak(null);
+                    }
+                    leadingSpace = (ch == ' ');
+                    _writeLineBreaks(text, start, end);
+                    if (ch != 0) {
+                        _writeIndent();
+                    }
+                    start = end;
+                }
+            } else if (spaces) {
+                if (ch != ' ') {
+                    if (start + 1 == end && _column > _bestWidth && split) {
+                        _writeIndent();
+                    } else {
+                        _column += end - start;
+                        _writeRaw(text, start, end - start);
+                    }
+                    start = end;
+                }
+            } else if (ch == 0 || ch == ' ' || _isLineBreak(ch)) {
+                _column += end - start;
+                _writeRaw(text, start, end - start);
+                if (ch == 0) {
+                    _writeLineBreak(null);
+                }
+                start = end;
+            }
+            if (ch != 0) {
+                breaks = _isLineBreak(ch);
+                spaces = (ch == ' ');
+            }
+            ++end;
+        }
+    }
+
+    private void _writeLiteral(String text) throws IOException
+    {
+        String hints = _determineBlockHints(text);
+        _writeIndicator("|", hints, true, false, false);
+        if (hints.endsWith("+")) {
+            _openEnded = true;
+        }
+        _writeLineBreak(null);
+        final int len = text.length();
+        boolean breaks = true;
+        int start = 0, end = 0;
+        while (end <= len) {
+            char ch = (end < len) ? text.charAt(end) : 0;
+            if (breaks) {
+                if (ch == 0 || !_isLineBreak(ch)) {
+                    _writeLineBreaks(text, start, end);
+                    if (ch != 0) {
+                        _writeIndent();
+                    }
+                    start = end;
+                }
+            } else if (ch == 0 || _isLineBreak(ch)) {
+                // NOTE: SnakeYAML does not update column here either
+                _writeRaw(text, start, end - start);
+                if (ch == 0) {
+                    _writeLineBreak(null);
+                }
+                start = end;
+            }
+            if (ch != 0) {
+                breaks = _isLineBreak(ch);
+            }
+            ++end;
+        }
+    }
+
+    // Same as `_writeLiteral()` for base64-encoded content, but encoding
+    // content as it is written
+    private void _writeLiteralBinary() throws IOException
+    {
+        final Base64Variant variant = _binVariant;
+        final int chunksPerLine = Math.max(1, variant.getMaxLineLength() >> 2);
+        // encoded content ends with linefeed if it consists of full lines
+        final int length = _binLength;
+        final boolean trailingBreak = (length > 0) && ((length % 3) == 0)
+                && (((length / 3) % chunksPerLine) == 0);
+        final String hints;
+        if (!trailingBreak) {
+            hints = "-";
+        } else if (_lineBreak.length() > 1) { // ends with 2 line break chars
+            hints = "+";
+            _openEnded = true;
+        } else {
+            hints = "";
+        }
+        _writeIndicator("|", hints, true, false, false);
+        _writeLineBreak(null);
+
+        final byte[] input = _binBuffer;
+        int chunksLeft = chunksPerLine;
+        boolean firstLine = true;
+        while (_loadBinary()) {
+            final int avail = _binEnd - _binPtr;
+            if (chunksLeft == chunksPerLine) {
+                if (!firstLine) {
+                    _writeLineBreaks(_lineBreak, 0, _lineBreak.length());
+                }
+                firstLine = false;
+                _writeIndent();
+            }
+            if (avail < 3) { // partial chunk, always last one
+                int b24 = input[_binPtr++] << 16;
+                if (avail == 2) {
+                    b24 |= (input[_binPtr++] & 0xFF) << 8;
+                }
+                if ((_outputTail + 4) > _outputBuffer.length) {
+                    _flushBuffer();
+                }
+                _outputTail = variant.encodeBase64Partial(b24, avail, _outputBuffer, _outputTail);
+                chunksLeft = 0;
+                break;
+            }
+            int chunks = Math.min(avail / 3, chunksLeft);
+            chunksLeft -= chunks;
+            int ptr = _binPtr;
+            while (--chunks >= 0) {
+                int b24 = (input[ptr++] << 8) | (input[ptr++] & 0xFF);
+                b24 = (b24 << 8) | (input[ptr++] & 0xFF);
+                if ((_outputTail + 4) > _outputBuffer.length) {
+                    _flushBuffer();
+                }
+                _outputTail = variant.encodeBase64Chunk(b24, _outputBuffer, _outputTail);
+            }
+            _binPtr = ptr;
+            if (chunksLeft == 0) {
+                chunksLeft = chunksPerLine;
+            }
+        }
+        if (trailingBreak && (chunksLeft == chunksPerLine)) {
+            _writeLineBreaks(_lineBreak, 0, _lineBreak.length());
+        } else {
+            _writeLineBreak(null);
+        }
+    }
+
+    /**
+     * Method that makes sure that at least 3 bytes of binary content are
+     * available in buffer, if there is that much content left.
+     *
+     * @return True if there is any binary content left
+     */
+    private boolean _loadBinary() throws IOException
+    {
+        int avail = _binEnd - _binPtr;
+        if ((avail >= 3) || (_binInput == null) || (_binToRead == 0)) {
+            return (avail > 0);
+        }
+        final byte[] buf = _binBuffer;
+        if (avail > 0) {
+            System.arraycopy(buf, _binPtr, buf, 0, avail);
+        }
+        _binPtr = 0;
+        _binEnd = avail;
+        while ((_binEnd < 3) && (_binToRead != 0)) {
+            int max = buf.length - _binEnd;
+            if ((_binToRead > 0) && (_binToRead < max)) {
+                max = _binToRead;
+            }
+            int count = _binInput.read(buf, _binEnd, max);
+            if (count < 0) {
+                _binToRead = 0;
+                break;
+            }
+            _binEnd += count;
+            _binBytesRead += count;
+            if (_binToRead > 0) {
+                _binToRead -= count;
+            }
+        }
+        return (_binEnd > 0);
+    }
+
+    /*
+    /**********************************************************************
+    /* Error reporting
+    /**********************************************************************
+     */
+
+    // Content written before the problem is output, same as with Emitter
+    private EmitterException _constructError(String msg)
+    {
+        try {
+            _flushBuffer();
+        } catch (IOException e) {
+            // ignore, will be reporting the problem anyway
+        }
+        return new EmitterException(msg);
+    }
+
+    // Description of the current event, same as SnakeYAML would include
+    // in error messages
+    private String _describeEvent()
+    {
+        Event e;
+        switch (_evType) {
+        case EV_DOCUMENT_START:
+            e = new DocumentStartEvent(null, null, _evExplicit, _evVersion,
+                    Collections.<String,String>emptyMap());
+            break;
+        case EV_DOCUMENT_END:
+            e = new DocumentEndEvent(null, null, false);
+            break;
+        case EV_STREAM_END:
+            e = new StreamEndEvent(null, null);
+            break;
+        case EV_SEQUENCE_START:
+            e = new SequenceStartEvent(_evAnchor, _evTag, _evImplicit, null, null,
+                    DumperOptions.FlowStyle.BLOCK);
+            break;
+        case EV_SEQUENCE_END:
+            e = new SequenceEndEvent(null, null);
+            break;
+        case EV_MAPPING_START:
+            e = new MappingStartEvent(_evAnchor, _evTag, _evImplicit, null, null,
+                    DumperOptions.FlowStyle.BLOCK);
+            break;
+        case EV_MAPPING_END:
+            e = new MappingEndEvent(null, null);
+            break;
+        case EV_SCALAR:
+            e = new ScalarEvent(_evAnchor, _evTag, new ImplicitTuple(_evImplicit, _evImplicit),
+                    (_evValue == null) ? "" : _evValue, null, null, _evStyle);
+            break;
+        default:
+            e = new AliasEvent(_evAnchor, null, null);
+        }
+        return e.toString();
+    }
+}
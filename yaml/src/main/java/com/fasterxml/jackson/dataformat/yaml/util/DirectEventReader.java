@@ -0,0 +1,3246 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.parser.ParserException;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.ReaderException;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.scanner.ScannerException;
+import org.yaml.snakeyaml.util.UriEncoder;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+
+/**
+ * Alternative to SnakeYAML {@link ParserImpl} used by
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser} when
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature#USE_DIRECT_READER}
+ * is enabled. It produces the same events as SnakeYAML but tokenizes content
+ * directly from a {@code char[]} buffer, instead of going through SnakeYAML
+ * {@link StreamReader} (which converts all content into code points) and
+ * {@code ScannerImpl}/{@code ParserImpl} (which allocate {@link Mark}s for
+ * every token and a state object for every production).
+ *<p>
+ * Reader works as a cursor: {@link #nextEvent()} advances to the next event,
+ * details of which are then available through accessors like
+ * {@link #getValue()} and {@link #getStartLine()}; {@link Event} itself
+ * (with its {@link Mark}s) is only constructed if requested using
+ * {@link #currentEvent()} (or {@link #getEvent()}, which combines the two).
+ *<p>
+ * Content is read from the source incrementally, only as far as needed for
+ * the next event (same as with SnakeYAML), so events from sources like pipes
+ * or sockets are available before the whole input has been received; and
+ * content before the current event is dropped, so that memory usage only
+ * depends on the length of the longest event, not that of the whole input.
+ * Invalid content is reported by this reader, with the same exceptions and
+ * messages as SnakeYAML uses, except for content snippets (which only include
+ * content still retained) and for columns of byte order marks within comments
+ * (which SnakeYAML does not count). The same per-document limit,
+ * {@link LoaderOptions#getCodePointLimit()}, is also enforced.
+ * Comment processing ({@link LoaderOptions#isProcessComments()}) is not
+ * supported: if enabled, SnakeYAML is used to read the whole input.
+ *<p>
+ * Alternatively reader may be constructed without a source, to be fed
+ * content as it becomes available (see {@link #feedInput}; used by
+ * {@link com.fasterxml.jackson.dataformat.yaml.NonBlockingYAMLParser}).
+ * In this mode the reading state is saved before each event, and if fed
+ * content runs out before the event is complete, restored, so that the event
+ * is produced once more content has been fed. Comments are never reported
+ * in this mode.
+ *
+ * @since 2.19
+ */
+public class DirectEventReader
+{
+    /**
+     * Name SnakeYAML {@link StreamReader} uses for {@link Reader} sources
+     */
+    protected final static String SOURCE_NAME = "'reader'";
+
+    /**
+     * Maximum length of simple (implicit) keys
+     */
+    protected final static int MAX_SIMPLE_KEY_LENGTH = 1024;
+
+    /**
+     * Size of windows in which content is read (and verified): same as
+     * what SnakeYAML {@link StreamReader} uses, so that invalid content is
+     * reported at the same point regardless of how the source splits reads
+     */
+    protected final static int READ_WINDOW = 1024;
+
+    /**
+     * Number of characters beyond the one needed that must be available,
+     * at minimum: since SnakeYAML looks ahead by up to 4 characters (like
+     * with {@code prefix(3)}), next window must be read at least as early
+     * as it would be by SnakeYAML
+     */
+    protected final static int MIN_LOOKAHEAD = 4;
+
+    /**
+     * Number of characters before the current position to retain when
+     * dropping content no longer needed by a fed reader, so that error
+     * messages can include some context
+     */
+    protected final static int FEED_CONTEXT = 64;
+
+    /**
+     * Maximum number of code points on either side of a location to include
+     * in snippets of error messages: enough for what SnakeYAML {@link Mark}
+     * displays
+     */
+    private final static int SNIPPET_CONTEXT = 40;
+
+    private final static int[] NO_SNIPPET = new int[0];
+
+    private final static String DEFAULT_TAG_PREFIX = "tag:yaml.org,2002:";
+
+    private final static ImplicitTuple IMPLICIT_PLAIN = new ImplicitTuple(true, false);
+    private final static ImplicitTuple IMPLICIT_NON_PLAIN = new ImplicitTuple(false, true);
+    private final static ImplicitTuple IMPLICIT_NONE = new ImplicitTuple(false, false);
+
+    // // // Token types (same as SnakeYAML Token.ID, minus comments)
+
+    private final static int T_STREAM_START = 1;
+    private final static int T_STREAM_END = 2;
+    private final static int T_DOCUMENT_START = 3;
+    private final static int T_DOCUMENT_END = 4;
+    private final static int T_BLOCK_SEQUENCE_START = 5;
+    private final static int T_BLOCK_MAPPING_START = 6;
+    private final static int T_BLOCK_END = 7;
+    private final static int T_FLOW_SEQUENCE_START = 8;
+    private final static int T_FLOW_MAPPING_START = 9;
+    private final static int T_FLOW_SEQUENCE_END = 10;
+    private final static int T_FLOW_MAPPING_END = 11;
+    private final static int T_KEY = 12;
+    private final static int T_VALUE = 13;
+    private final static int T_BLOCK_ENTRY = 14;
+    private final static int T_FLOW_ENTRY = 15;
+    private final static int T_ALIAS = 16;
+    private final static int T_ANCHOR = 17;
+    private final static int T_TAG = 18;
+    private final static int T_SCALAR = 19;
+    private final static int T_DIRECTIVE = 20;
+
+    // // // Parser states (same as SnakeYAML ParserImpl productions)
+
+    private final static int S_END = 0;
+    private final static int S_STREAM_START = 1;
+    private final static int S_IMPLICIT_DOCUMENT_START = 2;
+    private final static int S_DOCUMENT_START = 3;
+    private final static int S_DOCUMENT_END = 4;
+    private final static int S_DOCUMENT_CONTENT = 5;
+    private final static int S_BLOCK_NODE = 6;
+    private final static int S_BLOCK_SEQUENCE_FIRST_ENTRY = 7;
+    private final static int S_BLOCK_SEQUENCE_ENTRY = 8;
+    private final static int S_INDENTLESS_SEQUENCE_ENTRY = 9;
+    private final static int S_BLOCK_MAPPING_FIRST_KEY = 10;
+    private final static int S_BLOCK_MAPPING_KEY = 11;
+    private final static int S_BLOCK_MAPPING_VALUE = 12;
+    private final static int S_FLOW_SEQUENCE_FIRST_ENTRY = 13;
+    private final static int S_FLOW_SEQUENCE_ENTRY = 14;
+    private final static int S_FLOW_SEQUENCE_ENTRY_MAPPING_KEY = 15;
+    private final static int S_FLOW_SEQUENCE_ENTRY_MAPPING_VALUE = 16;
+    private final static int S_FLOW_SEQUENCE_ENTRY_MAPPING_END = 17;
+    private final static int S_FLOW_MAPPING_FIRST_KEY = 18;
+    private final static int S_FLOW_MAPPING_KEY = 19;
+    private final static int S_FLOW_MAPPING_VALUE = 20;
+    private final static int S_FLOW_MAPPING_EMPTY_VALUE = 21;
+
+    /*
+    /**********************************************************************
+    /* Configuration
+    /**********************************************************************
+     */
+
+    /**
+     * Source to read content from; {@code null} for readers that are fed content
+     */
+    protected final Reader _source;
+
+    protected final LoaderOptions _loaderOptions;
+
+    /**
+     * Constraints to verify amount of content buffered by fed readers against;
+     * {@code null} for readers with a source
+     */
+    protected final StreamReadConstraints _streamReadConstraints;
+
+    /*
+    /**********************************************************************
+    /* Input state
+    /**********************************************************************
+     */
+
+    /**
+     * Input content read so far, from (a bit before) the current event on
+     */
+    protected char[] _inputBuffer;
+
+    /**
+     * End of content read (and verified to be supported) so far
+     */
+    protected int _inputEnd;
+
+    /**
+     * Offset (in chars, from the beginning of content) of the first char in
+     * {@link #_inputBuffer}
+     */
+    protected int _inputBase;
+
+    /**
+     * End of content fed so far: same as {@link #_inputEnd} except if the
+     * last char fed is the first half of a surrogate pair (or content is invalid)
+     */
+    protected int _fedEnd;
+
+    /**
+     * Flag set when the end of the source has been reached
+     */
+    protected boolean _sourceDone;
+
+    /**
+     * Pointer to the next character of input to read
+     */
+    protected int _inputPtr;
+
+    /**
+     * Current (0-based) line number
+     */
+    protected int _currLine;
+
+    /**
+     * Offset of the first character of the current line (may be negative for
+     * fed readers, if content before it has been dropped)
+     */
+    protected int _currLineStart;
+
+    /**
+     * Offsets (in chars, from the beginning of content) of surrogate pairs in
+     * content, needed to calculate indexes and columns (which are in code
+     * points) of locations
+     */
+    protected int[] _pairs;
+
+    protected int _pairsCount;
+
+    /**
+     * Number of surrogate pairs no longer included in {@link #_pairs}
+     * since content has been dropped
+     */
+    protected int _pairsDropped;
+
+    /**
+     * Code point of the first invalid character in content, if any; content
+     * is only read up to it
+     */
+    protected int _invalidCodePoint = -1;
+
+    /**
+     * For fed readers, problem to report once content up to the invalid
+     * character has been read
+     */
+    protected ReaderException _invalidContent;
+
+    /**
+     * For fed readers, offset (in chars, from the beginning of content) that
+     * needs to be reached before reading may be retried
+     */
+    protected int _neededEnd = 1;
+
+    /**
+     * SnakeYAML parser used for reading content instead, if comments are
+     * to be processed.
+     */
+    protected ParserImpl _fallback;
+
+    /*
+    /**********************************************************************
+    /* Tokenization state (see SnakeYAML ScannerImpl)
+    /**********************************************************************
+     */
+
+    private Token[] _tokens = new Token[16];
+    private int _tokensHead;
+    private int _tokensCount;
+    private int _tokensTaken;
+    private boolean _scanDone;
+
+    private int _flowLevel;
+    private int _indent = -1;
+    private int[] _indents = new int[16];
+    private int _indentsCount;
+
+    private boolean _allowSimpleKey = true;
+
+    // Possible simple keys, by flow level; token number -1 if none
+    private int[] _keyTokenNumber = _noKeys(8);
+    private boolean[] _keyRequired = new boolean[8];
+    // index (in code points) from the beginning of content
+    private int[] _keyIndex = new int[8];
+    private int[] _keyLine = new int[8];
+    private int[] _keyColumn = new int[8];
+    private int _keyCount;
+
+    // Start of the token being scanned, for error reporting
+    private int _tokenStart, _tokenLine, _tokenColumn;
+
+    // Line break skipped last, as it appears in scalar values
+    private char _lineBreak;
+
+    private final StringBuilder _text = new StringBuilder(64);
+    private final StringBuilder _spaces = new StringBuilder(16);
+
+    /*
+    /**********************************************************************
+    /* Parsing state (see SnakeYAML ParserImpl)
+    /**********************************************************************
+     */
+
+    private int _state = S_STREAM_START;
+    private int[] _states = new int[32];
+    private int _statesCount;
+
+    // Tokens that started collections being parsed, for error reporting
+    private Token[] _marks = new Token[16];
+    private int _marksCount;
+
+    // Tag handles defined with directives, if any
+    private Map<String,String> _tagHandles;
+
+    // Index of the start of the current document, for checking limits
+    private int _documentStart;
+
+    /**
+     * For fed readers, reading state before the current event
+     */
+    private final Checkpoint _checkpoint;
+
+    /*
+    /**********************************************************************
+    /* Current event
+    /**********************************************************************
+     */
+
+    private Event.ID _eventId;
+
+    // Anchor of a node, or name of an alias
+    private String _anchor;
+
+    private String _tag;
+
+    private String _value;
+
+    private ImplicitTuple _scalarImplicit;
+
+    private DumperOptions.ScalarStyle _scalarStyle;
+
+    private boolean _collectionImplicit;
+
+    private DumperOptions.FlowStyle _flowStyle;
+
+    private boolean _documentExplicit;
+
+    private DumperOptions.Version _documentVersion;
+
+    private Map<String,String> _documentTags;
+
+    private int _startIndex, _startLine, _startColumn;
+    private int _endIndex, _endLine, _endColumn;
+
+    // Event constructed for the current event, if requested (or read by fallback)
+    private Event _event;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    public DirectEventReader(Reader source, LoaderOptions loaderOptions)
+    {
+        _source = source;
+        _loaderOptions = (loaderOptions == null) ? new LoaderOptions() : loaderOptions;
+        _streamReadConstraints = null;
+        _checkpoint = null;
+    }
+
+    /**
+     * Constructor for a reader that is fed content using {@link #feedInput},
+     * instead of reading it from a source.
+     *
+     * @param constraints Constraints to verify amount of content that needs
+     *    to be buffered for a single event against
+     */
+    public DirectEventReader(LoaderOptions loaderOptions, StreamReadConstraints constraints)
+    {
+        _source = null;
+        _loaderOptions = (loaderOptions == null) ? new LoaderOptions() : loaderOptions;
+        _streamReadConstraints = (constraints == null) ? StreamReadConstraints.defaults() : constraints;
+        _checkpoint = new Checkpoint();
+        _inputBuffer = new char[4 * READ_WINDOW];
+    }
+
+    /**
+     * Accessor for checking whether reading has switched to using SnakeYAML
+     * {@link ParserImpl} (mostly useful for testing).
+     */
+    public boolean usesFallback() {
+        return _fallback != null;
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API
+    /**********************************************************************
+     */
+
+    /**
+     * Method for reading the next event, if any; same as
+     * {@link ParserImpl#getEvent()}.
+     *
+     * @return Next event, or {@code null} if end of stream has been reached
+     *    (or, for fed readers, if more content is needed: see {@link #needMoreInput()})
+     */
+    public Event getEvent() throws IOException
+    {
+        return (nextEvent() == null) ? null : currentEvent();
+    }
+
+    /**
+     * Method for advancing to the next event, if any: details of the event
+     * can then be accessed using {@link #getValue()} and other accessors,
+     * without constructing the {@link Event} itself.
+     *
+     * @return Type of the next event, or {@code null} if end of stream has been
+     *    reached (or, for fed readers, if more content is needed: see
+     *    {@link #needMoreInput()}); in which case the current event is not changed
+     */
+    public Event.ID nextEvent() throws IOException
+    {
+        if (_source == null) {
+            return _nextFedEvent();
+        }
+        if (_fallback != null) {
+            return _eventFrom(_fallback.getEvent());
+        }
+        if (_inputBuffer == null) {
+            if (_loaderOptions.isProcessComments()) {
+                _fallback = new ParserImpl(new StreamReader(_source), _loaderOptions);
+                return _eventFrom(_fallback.getEvent());
+            }
+            _inputBuffer = new char[4 * READ_WINDOW];
+        } else if (_inputPtr > (_inputBuffer.length >> 1)) {
+            // no longer needed, so drop content before the current position
+            _dropContent(_inputEnd, 0);
+        }
+        return _produce();
+    }
+
+    /**
+     * Accessor for the {@link Event} for the current event (one
+     * {@link #nextEvent()} returned last), constructed when first called.
+     *
+     * @return Current event, if any; {@code null} before the first event
+     */
+    public Event currentEvent()
+    {
+        if (_event == null && _eventId != null) {
+            _event = _constructEvent();
+        }
+        return _event;
+    }
+
+    /**
+     * @return Type of the current event, if any; {@code null} before the first event
+     */
+    public Event.ID currentEventId() {
+        return _eventId;
+    }
+
+    /**
+     * @return Value of the current Scalar event
+     */
+    public String getValue() {
+        return _value;
+    }
+
+    /**
+     * @return Anchor of the current Scalar, MappingStart or SequenceStart
+     *    event, if any; or name of the alias of the current Alias event
+     *    (same as {@link NodeEvent#getAnchor()})
+     */
+    public String getAnchor() {
+        return _anchor;
+    }
+
+    /**
+     * @return Tag of the current Scalar, MappingStart or SequenceStart
+     *    event, if any
+     */
+    public String getTag() {
+        return _tag;
+    }
+
+    /**
+     * @return Implicitness of the tag of the current Scalar event
+     *    (see {@link ScalarEvent#getImplicit()})
+     */
+    public ImplicitTuple getImplicit() {
+        return _scalarImplicit;
+    }
+
+    /**
+     * @return Whether the current Scalar event is a plain (unquoted) scalar
+     */
+    public boolean isPlain() {
+        return _scalarStyle == DumperOptions.ScalarStyle.PLAIN;
+    }
+
+    // // // Location of the current event, same as its Marks would have
+
+    public int getStartIndex() { return _startIndex; }
+    public int getStartLine() { return _startLine; }
+    public int getStartColumn() { return _startColumn; }
+
+    public int getEndIndex() { return _endIndex; }
+    public int getEndLine() { return _endLine; }
+    public int getEndColumn() { return _endColumn; }
+
+    /**
+     * Method for feeding more content to a reader constructed without a source.
+     * Content is copied, so the buffer may be reused by the caller.
+     */
+    public void feedInput(char[] buf, int offset, int len)
+    {
+        if (_source != null) {
+            throw new IllegalStateException("Can not feed content to a reader with a source");
+        }
+        if (_sourceDone) {
+            throw new IllegalStateException("Already closed, can not feed more input");
+        }
+        // Nothing after invalid content is ever read
+        if (_invalidCodePoint >= 0) {
+            return;
+        }
+        _ensureRoom(len);
+        System.arraycopy(buf, offset, _inputBuffer, _fedEnd, len);
+        _fedEnd += len;
+        _inputEnd = _checkContent(_inputEnd, _fedEnd);
+        if (_invalidCodePoint >= 0) {
+            _invalidContent = _readerError("special characters are not allowed");
+        }
+    }
+
+    /**
+     * Method for indicating that all content has been fed to a reader
+     * constructed without a source.
+     */
+    public void endOfInput()
+    {
+        if (_sourceDone) {
+            return;
+        }
+        _sourceDone = true;
+        if (_inputEnd < _fedEnd && _invalidCodePoint < 0) { // trailing high surrogate
+            _invalidCodePoint = _inputBuffer[_inputEnd];
+            _invalidContent = _readerError("The last char is HighSurrogate (no LowSurrogate detected).");
+        }
+    }
+
+    /**
+     * Method for checking whether a reader constructed without a source
+     * needs more content to be fed before {@link #getEvent()} can return the
+     * next event: if so, {@link #getEvent()} would return {@code null}.
+     */
+    public boolean needMoreInput() {
+        return !_sourceDone && (_invalidContent == null)
+                && (_inputBase + _inputEnd < _neededEnd);
+    }
+
+    /*
+    /**********************************************************************
+    /* Input handling
+    /**********************************************************************
+     */
+
+    /**
+     * Method called when the tokenizer needs the character at given index,
+     * at or near the end of content read so far: reads more content from the
+     * source, until character (and {@link #MIN_LOOKAHEAD} more) is available
+     * or end of input is reached. For fed readers, signals that more content
+     * needs to be fed if character is not available yet.
+     *
+     * @return True if character at given index is available; false if
+     *    end of input was reached before it
+     */
+    protected boolean _loadMore(int ptr)
+    {
+        if (_source == null) {
+            if (ptr < _inputEnd) {
+                return true;
+            }
+            if (_invalidContent != null) {
+                throw _invalidContent;
+            }
+            if (_sourceDone) {
+                return false;
+            }
+            throw NeedMoreInput.INSTANCE;
+        }
+        while ((ptr + MIN_LOOKAHEAD) >= _inputEnd) {
+            if (_sourceDone || !_readMore()) {
+                break;
+            }
+        }
+        return (ptr < _inputEnd);
+    }
+
+    /**
+     * @return True if (some) more content was read; false if end of input
+     *    was reached
+     */
+    private boolean _readMore()
+    {
+        final int start = _inputEnd;
+        int end = start;
+        // Fill the whole window, and never stop after the first half of
+        // a surrogate pair (so that pairs can be verified in one go)
+        do {
+            if (end == _inputBuffer.length) {
+                _inputBuffer = Arrays.copyOf(_inputBuffer, end + (end >> 1));
+            }
+            int n;
+            try {
+                n = _source.read(_inputBuffer, end,
+                        Math.min(_inputBuffer.length - end, READ_WINDOW - ((_inputBase + end) % READ_WINDOW)));
+            } catch (IOException e) { // to report the same way as SnakeYAML would
+                throw new YAMLException(e);
+            }
+            if (n < 0) {
+                _sourceDone = true;
+                break;
+            }
+            end += n;
+        } while (end == start || ((_inputBase + end) % READ_WINDOW) != 0
+                || Character.isHighSurrogate(_inputBuffer[end-1]));
+
+        if (end == start) {
+            return false;
+        }
+        // Same as SnakeYAML, report invalid content as soon as its window is read
+        _inputEnd = _checkContent(start, end);
+        if (_inputEnd < end) {
+            _sourceDone = true;
+            if (_invalidCodePoint < 0) { // trailing high surrogate
+                _invalidCodePoint = _inputBuffer[_inputEnd];
+                throw _readerError("The last char is HighSurrogate (no LowSurrogate detected).");
+            }
+            throw _readerError("special characters are not allowed");
+        }
+        return true;
+    }
+
+    /**
+     * Check to see that content only contains characters that SnakeYAML
+     * accepts (see {@link StreamReader#isPrintable(int)}), and to record
+     * locations of surrogate pairs.
+     *
+     * @return End of content that may be read: either {@code end}; or offset
+     *    of the first invalid character (see {@link #_invalidCodePoint}), or
+     *    of the first half of a surrogate pair the other half of which is not
+     *    available yet
+     */
+    private int _checkContent(int start, int end)
+    {
+        final char[] buf = _inputBuffer;
+        for (int i = start; i < end; ++i) {
+            final char c = buf[i];
+            if (c >= 0x20) {
+                if (c <= 0x7E || (c >= 0xA0 && c < 0xD800)) {
+                    continue;
+                }
+                if (c >= 0xE000) {
+                    if (c <= 0xFFFD) {
+                        continue;
+                    }
+                } else if (c == 0x85) {
+                    continue;
+                } else if (Character.isHighSurrogate(c)) {
+                    if (i+1 == end) {
+                        return i;
+                    }
+                    if (Character.isLowSurrogate(buf[i+1])) {
+                        _addPair(_inputBase + i);
+                        ++i;
+                        continue;
+                    }
+                }
+            } else if (c == '\n' || c == '\r' || c == '\t') {
+                continue;
+            }
+            _invalidCodePoint = c;
+            return i;
+        }
+        return end;
+    }
+
+    private void _addPair(int offset)
+    {
+        if (_pairs == null) {
+            _pairs = new int[16];
+        } else if (_pairsCount == _pairs.length) {
+            _pairs = Arrays.copyOf(_pairs, _pairsCount << 1);
+        }
+        _pairs[_pairsCount++] = offset;
+    }
+
+    /**
+     * Method for making sure there is room for given number of chars to be
+     * fed; will first drop content before the current event, if any.
+     */
+    private void _ensureRoom(int len)
+    {
+        if (_fedEnd + len > _inputBuffer.length) {
+            _fedEnd -= _dropContent(_fedEnd, len);
+        }
+    }
+
+    /**
+     * Method for dropping content before the current position (except for
+     * {@link #FEED_CONTEXT} chars, for error messages): only called between
+     * events, so that no offsets within content need to be adjusted other
+     * than ones in fields.
+     *
+     * @param end End of content to keep
+     * @param room Number of chars more that the buffer must have room for
+     *
+     * @return Number of chars dropped
+     */
+    private int _dropContent(int end, int room)
+    {
+        final int drop = Math.max(0, _inputPtr - FEED_CONTEXT);
+        final int keep = end - drop;
+        char[] buf = _inputBuffer;
+        if (keep + room > buf.length) {
+            buf = new char[Math.max(keep + room, buf.length + (buf.length >> 1))];
+        }
+        System.arraycopy(_inputBuffer, drop, buf, 0, keep);
+        _inputBuffer = buf;
+        _inputBase += drop;
+        _inputPtr -= drop;
+        _inputEnd -= drop;
+        _currLineStart -= drop;
+        // Surrogate pairs before the current line only need to be counted
+        final int n = _pairsBefore(_inputBase + Math.min(0, _currLineStart));
+        if (n > 0) {
+            System.arraycopy(_pairs, n, _pairs, 0, _pairsCount - n);
+            _pairsCount -= n;
+            _pairsDropped += n;
+        }
+        return drop;
+    }
+
+    private Event.ID _nextFedEvent() throws IOException
+    {
+        if (needMoreInput()) {
+            return null;
+        }
+        _checkpoint.save();
+        try {
+            return _produce();
+        } catch (NeedMoreInput e) {
+            _checkpoint.restore();
+        }
+        _neededEnd = _inputBase + _inputEnd + 1;
+        // Content from the start of the event on must be retained, so limit its length
+        LookaheadLimitingReader.checkScanned(_index(_inputEnd) - _index(_inputPtr) - READ_WINDOW,
+                _loaderOptions.getCodePointLimit(), _streamReadConstraints);
+        return null;
+    }
+
+    /*
+    /**********************************************************************
+    /* Error reporting
+    /**********************************************************************
+     */
+
+    private ReaderException _readerError(String problem) {
+        return new ReaderException(SOURCE_NAME, _index(_inputEnd), _invalidCodePoint, problem);
+    }
+
+    /**
+     * Helper method for constructing exception for a problem at the current
+     * position, with context (if any) not tied to a location.
+     */
+    private RuntimeException _scannerError(String context, String problem)
+    {
+        return new ScannerException(context, null, problem, _currentMark());
+    }
+
+    /**
+     * Helper method for constructing exception for a problem at the current
+     * position, within the token being scanned.
+     */
+    private RuntimeException _tokenError(String context, String problem)
+    {
+        return _tokenError(context, problem, _currentMark());
+    }
+
+    private RuntimeException _tokenError(String context, String problem, Mark problemMark)
+    {
+        return new ScannerException(context,
+                _errorMark(_index(_tokenStart), _tokenLine, _tokenColumn), problem, problemMark);
+    }
+
+    private RuntimeException _keyError(int level)
+    {
+        return new ScannerException("while scanning a simple key",
+                _errorMark(_keyIndex[level], _keyLine[level], _keyColumn[level]),
+                "could not find expected ':'", _currentMark());
+    }
+
+    private RuntimeException _parserError(String context, Token contextToken, String problem,
+            Token problemToken)
+    {
+        return new ParserException(context, (contextToken == null) ? null : _errorMark(contextToken),
+                problem, _errorMark(problemToken));
+    }
+
+    private Mark _currentMark() {
+        return _errorMark(_index(_inputPtr), _currLine, _column());
+    }
+
+    private Mark _errorMark(Token t) {
+        return _errorMark(t.startIndex, t.startLine, t.startColumn);
+    }
+
+    /**
+     * Helper method for constructing {@link Mark} for error messages: unlike
+     * ones for events, includes a snippet of content around the location,
+     * if still buffered.
+     */
+    private Mark _errorMark(int index, int line, int column)
+    {
+        final int ptr = _offsetOf(index);
+        if (ptr < 0 || ptr > _inputEnd) {
+            return _mark(index, line, column);
+        }
+        int start = ptr;
+        for (int i = 0; i < SNIPPET_CONTEXT && start > 0; ++i) {
+            --start;
+            if (start > 0 && Character.isLowSurrogate(_inputBuffer[start])
+                    && Character.isHighSurrogate(_inputBuffer[start-1])) {
+                --start;
+            }
+        }
+        int end = ptr;
+        for (int i = 0; i < SNIPPET_CONTEXT && end < _inputEnd; ++i) {
+            end += Character.isHighSurrogate(_inputBuffer[end]) ? 2 : 1;
+        }
+        final int[] snippet = new String(_inputBuffer, start, end - start).codePoints().toArray();
+        return new Mark(SOURCE_NAME, index, line, column, snippet,
+                Character.codePointCount(_inputBuffer, start, ptr - start));
+    }
+
+    private static String _found(int c) {
+        return String.valueOf(Character.toChars(c)) + "(" + c + ")";
+    }
+
+    private static String _tokenName(int type)
+    {
+        switch (type) {
+        case T_STREAM_START: return "<stream start>";
+        case T_STREAM_END: return "<stream end>";
+        case T_DOCUMENT_START: return "<document start>";
+        case T_DOCUMENT_END: return "<document end>";
+        case T_BLOCK_SEQUENCE_START: return "<block sequence start>";
+        case T_BLOCK_MAPPING_START: return "<block mapping start>";
+        case T_BLOCK_END: return "<block end>";
+        case T_FLOW_SEQUENCE_START: return "[";
+        case T_FLOW_MAPPING_START: return "{";
+        case T_FLOW_SEQUENCE_END: return "]";
+        case T_FLOW_MAPPING_END: return "}";
+        case T_KEY: return "?";
+        case T_VALUE: return ":";
+        case T_BLOCK_ENTRY: return "-";
+        case T_FLOW_ENTRY: return ",";
+        case T_ALIAS: return "<alias>";
+        case T_ANCHOR: return "<anchor>";
+        case T_TAG: return "<tag>";
+        case T_SCALAR: return "<scalar>";
+        case T_DIRECTIVE: return "<directive>";
+        }
+        return String.valueOf(type);
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing, document level
+    /**********************************************************************
+     */
+
+    private Event.ID _produce()
+    {
+        switch (_state) {
+        case S_STREAM_START:
+            {
+                Token t = _getToken();
+                _state = S_IMPLICIT_DOCUMENT_START;
+                return _event(Event.ID.StreamStart, t);
+            }
+        case S_IMPLICIT_DOCUMENT_START:
+            return _parseImplicitDocumentStart();
+        case S_DOCUMENT_START:
+            return _parseDocumentStart();
+        case S_DOCUMENT_END:
+            return _parseDocumentEnd();
+        case S_DOCUMENT_CONTENT:
+            return _parseDocumentContent();
+        case S_BLOCK_NODE:
+            return _parseNode(true, false);
+        case S_BLOCK_SEQUENCE_FIRST_ENTRY:
+            _pushMark(_getToken());
+            return _parseBlockSequenceEntry();
+        case S_BLOCK_SEQUENCE_ENTRY:
+            return _parseBlockSequenceEntry();
+        case S_INDENTLESS_SEQUENCE_ENTRY:
+            return _parseIndentlessSequenceEntry();
+        case S_BLOCK_MAPPING_FIRST_KEY:
+            _pushMark(_getToken());
+            return _parseBlockMappingKey();
+        case S_BLOCK_MAPPING_KEY:
+            return _parseBlockMappingKey();
+        case S_BLOCK_MAPPING_VALUE:
+            return _parseBlockMappingValue();
+        case S_FLOW_SEQUENCE_FIRST_ENTRY:
+            _pushMark(_getToken());
+            return _parseFlowSequenceEntry(true);
+        case S_FLOW_SEQUENCE_ENTRY:
+            return _parseFlowSequenceEntry(false);
+        case S_FLOW_SEQUENCE_ENTRY_MAPPING_KEY:
+            return _parseFlowSequenceEntryMappingKey();
+        case S_FLOW_SEQUENCE_ENTRY_MAPPING_VALUE:
+            return _parseFlowSequenceEntryMappingValue();
+        case S_FLOW_SEQUENCE_ENTRY_MAPPING_END:
+            {
+                _state = S_FLOW_SEQUENCE_ENTRY;
+                return _event(Event.ID.MappingEnd, _peekToken());
+            }
+        case S_FLOW_MAPPING_FIRST_KEY:
+            _pushMark(_getToken());
+            return _parseFlowMappingKey(true);
+        case S_FLOW_MAPPING_KEY:
+            return _parseFlowMappingKey(false);
+        case S_FLOW_MAPPING_VALUE:
+            return _parseFlowMappingValue();
+        case S_FLOW_MAPPING_EMPTY_VALUE:
+            _state = S_FLOW_MAPPING_KEY;
+            return _emptyScalar(_peekToken(), false);
+        case S_END:
+        default:
+            return null;
+        }
+    }
+
+    private Event.ID _parseImplicitDocumentStart()
+    {
+        Token t = _peekToken();
+        if (t.type != T_DIRECTIVE && t.type != T_DOCUMENT_START && t.type != T_STREAM_END) {
+            _pushState(S_DOCUMENT_END);
+            _state = S_BLOCK_NODE;
+            _documentExplicit = false;
+            _documentVersion = null;
+            _documentTags = null;
+            _event(Event.ID.DocumentStart, t);
+            _endAtStart();
+            return Event.ID.DocumentStart;
+        }
+        return _parseDocumentStart();
+    }
+
+    private Event.ID _parseDocumentStart()
+    {
+        // Skip any extra document end indicators
+        while (_peekToken().type == T_DOCUMENT_END) {
+            _getToken();
+        }
+        Token t = _peekToken();
+        if (t.type != T_STREAM_END) {
+            _documentStart = _index(_inputPtr);
+            final Token first = t;
+            DumperOptions.Version version = null;
+            Map<String,String> tags;
+            if (t.type != T_DIRECTIVE && _tagHandles == null) { // common case, no directives
+                tags = Collections.<String,String>emptyMap();
+            } else {
+                // Named tag handles from earlier documents remain defined
+                Map<String,String> handles = (_tagHandles == null)
+                        ? new HashMap<String,String>() : new HashMap<String,String>(_tagHandles);
+                handles.remove("!");
+                handles.remove("!!");
+                for (; t.type == T_DIRECTIVE; t = _peekToken()) {
+                    _getToken();
+                    if ("YAML".equals(t.value)) {
+                        if (version != null) {
+                            throw _parserError(null, null, "found duplicate YAML directive", t);
+                        }
+                        if (t.major != 1) {
+                            throw _parserError(null, null,
+                                    "found incompatible YAML document (version 1.* is required)", t);
+                        }
+                        version = (t.minor == 0) ? DumperOptions.Version.V1_0 : DumperOptions.Version.V1_1;
+                    } else if ("TAG".equals(t.value)) {
+                        if (handles.containsKey(t.handle)) {
+                            throw _parserError(null, null, "duplicate tag handle " + t.handle, t);
+                        }
+                        handles.put(t.handle, t.prefix);
+                    }
+                }
+                if (handles.isEmpty()) {
+                    tags = Collections.<String,String>emptyMap();
+                    _tagHandles = null;
+                } else {
+                    tags = new HashMap<String,String>(handles);
+                    handles.putIfAbsent("!", "!");
+                    handles.putIfAbsent("!!", DEFAULT_TAG_PREFIX);
+                    _tagHandles = handles;
+                }
+            }
+            if (t.type != T_STREAM_END) {
+                if (t.type != T_DOCUMENT_START) {
+                    throw _parserError(null, null,
+                            "expected '<document start>', but found '" + _tokenName(t.type) + "'", t);
+                }
+                _getToken();
+                _pushState(S_DOCUMENT_END);
+                _state = S_DOCUMENT_CONTENT;
+                _documentExplicit = true;
+                _documentVersion = version;
+                _documentTags = tags;
+                _event(Event.ID.DocumentStart, first);
+                _endAfter(t);
+                return Event.ID.DocumentStart;
+            }
+        }
+        _getToken();
+        _state = S_END;
+        return _event(Event.ID.StreamEnd, t);
+    }
+
+    private Event.ID _parseDocumentEnd()
+    {
+        Token t = _peekToken();
+        final boolean explicit = (t.type == T_DOCUMENT_END);
+        if (explicit) {
+            _getToken();
+        }
+        _state = S_DOCUMENT_START;
+        _event(Event.ID.DocumentEnd, t);
+        _documentExplicit = explicit;
+        if (!explicit) {
+            _endAtStart();
+        }
+        return Event.ID.DocumentEnd;
+    }
+
+    private Event.ID _parseDocumentContent()
+    {
+        Token t = _peekToken();
+        switch (t.type) {
+        case T_DIRECTIVE:
+        case T_DOCUMENT_START:
+        case T_DOCUMENT_END:
+        case T_STREAM_END:
+            _state = _popState();
+            return _emptyScalar(t, false);
+        }
+        return _parseNode(true, false);
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing, nodes
+    /**********************************************************************
+     */
+
+    private Event.ID _parseNode(boolean block, boolean indentlessSequence)
+    {
+        Token t = _peekToken();
+        if (t.type == T_ALIAS) {
+            _getToken();
+            _state = _popState();
+            _event(Event.ID.Alias, t);
+            _anchor = t.value;
+            return Event.ID.Alias;
+        }
+        String anchor = null;
+        String tag = null;
+        // First and last token of node properties, if any
+        Token first = null;
+        Token last = null;
+
+        if (t.type == T_ANCHOR) {
+            first = last = _getToken();
+            anchor = t.value;
+            t = _peekToken();
+            if (t.type == T_TAG) {
+                last = _getToken();
+                tag = _resolveTag(t, first);
+                t = _peekToken();
+            }
+        } else if (t.type == T_TAG) {
+            first = last = _getToken();
+            t = _peekToken();
+            if (t.type == T_ANCHOR) {
+                last = _getToken();
+                anchor = t.value;
+            }
+            tag = _resolveTag(first, first);
+            t = _peekToken();
+        }
+        if (first == null) {
+            first = t;
+        }
+        final boolean implicit = (tag == null) || "!".equals(tag);
+
+        if (indentlessSequence && t.type == T_BLOCK_ENTRY) {
+            _state = S_INDENTLESS_SEQUENCE_ENTRY;
+            return _collectionStart(Event.ID.SequenceStart, anchor, tag, implicit,
+                    DumperOptions.FlowStyle.BLOCK, first, t, true);
+        }
+        switch (t.type) {
+        case T_SCALAR:
+            {
+                _getToken();
+                ImplicitTuple implicitValues;
+                if ((t.plain && tag == null) || "!".equals(tag)) {
+                    implicitValues = IMPLICIT_PLAIN;
+                } else if (tag == null) {
+                    implicitValues = IMPLICIT_NON_PLAIN;
+                } else {
+                    implicitValues = IMPLICIT_NONE;
+                }
+                _state = _popState();
+                _scalar(anchor, tag, implicitValues, t.value, t.style, first);
+                _endAfter(t);
+                return Event.ID.Scalar;
+            }
+        case T_FLOW_SEQUENCE_START:
+            _state = S_FLOW_SEQUENCE_FIRST_ENTRY;
+            return _collectionStart(Event.ID.SequenceStart, anchor, tag, implicit,
+                    DumperOptions.FlowStyle.FLOW, first, t, true);
+        case T_FLOW_MAPPING_START:
+            _state = S_FLOW_MAPPING_FIRST_KEY;
+            return _collectionStart(Event.ID.MappingStart, anchor, tag, implicit,
+                    DumperOptions.FlowStyle.FLOW, first, t, true);
+        case T_BLOCK_SEQUENCE_START:
+            if (block) {
+                _state = S_BLOCK_SEQUENCE_FIRST_ENTRY;
+                return _collectionStart(Event.ID.SequenceStart, anchor, tag, implicit,
+                        DumperOptions.FlowStyle.BLOCK, first, t, false);
+            }
+            break;
+        case T_BLOCK_MAPPING_START:
+            if (block) {
+                _state = S_BLOCK_MAPPING_FIRST_KEY;
+                return _collectionStart(Event.ID.MappingStart, anchor, tag, implicit,
+                        DumperOptions.FlowStyle.BLOCK, first, t, false);
+            }
+            break;
+        }
+        if (last != null) {
+            // Empty scalars are allowed even if a tag or an anchor is specified
+            _state = _popState();
+            _scalar(anchor, tag, implicit ? IMPLICIT_PLAIN : IMPLICIT_NONE, "",
+                    DumperOptions.ScalarStyle.PLAIN, first);
+            _endAfter(last);
+            return Event.ID.Scalar;
+        }
+        throw _parserError("while parsing a " + (block ? "block" : "flow") + " node", t,
+                "expected the node content, but found '" + _tokenName(t.type) + "'", t);
+    }
+
+    /**
+     * @param nodeStart First token of the node (anchor or tag), for error reporting
+     */
+    private String _resolveTag(Token t, Token nodeStart)
+    {
+        final String handle = t.handle;
+        if (handle == null) {
+            return t.value;
+        }
+        String prefix;
+        if (_tagHandles != null) {
+            prefix = _tagHandles.get(handle);
+        } else if ("!".equals(handle)) {
+            prefix = "!";
+        } else if ("!!".equals(handle)) {
+            prefix = DEFAULT_TAG_PREFIX;
+        } else {
+            prefix = null;
+        }
+        if (prefix == null) {
+            throw _parserError("while parsing a node", nodeStart,
+                    "found undefined tag handle " + handle, t);
+        }
+        return prefix + t.value;
+    }
+
+    private Event.ID _parseBlockSequenceEntry()
+    {
+        Token t = _peekToken();
+        if (t.type == T_BLOCK_ENTRY) {
+            _getToken();
+            int next = _peekToken().type;
+            if (next != T_BLOCK_ENTRY && next != T_BLOCK_END) {
+                _pushState(S_BLOCK_SEQUENCE_ENTRY);
+                return _parseNode(true, false);
+            }
+            _state = S_BLOCK_SEQUENCE_ENTRY;
+            return _emptyScalar(t, true);
+        }
+        if (t.type != T_BLOCK_END) {
+            throw _parserError("while parsing a block collection", _popMark(),
+                    "expected <block end>, but found '" + _tokenName(t.type) + "'", t);
+        }
+        _getToken();
+        _state = _popState();
+        _popMark();
+        return _event(Event.ID.SequenceEnd, t);
+    }
+
+    private Event.ID _parseIndentlessSequenceEntry()
+    {
+        Token t = _peekToken();
+        if (t.type == T_BLOCK_ENTRY) {
+            _getToken();
+            switch (_peekToken().type) {
+            case T_BLOCK_ENTRY:
+            case T_KEY:
+            case T_VALUE:
+            case T_BLOCK_END:
+                _state = S_INDENTLESS_SEQUENCE_ENTRY;
+                return _emptyScalar(t, true);
+            }
+            _pushState(S_INDENTLESS_SEQUENCE_ENTRY);
+            return _parseNode(true, false);
+        }
+        _state = _popState();
+        return _event(Event.ID.SequenceEnd, t);
+    }
+
+    private Event.ID _parseBlockMappingKey()
+    {
+        Token t = _peekToken();
+        if (t.type == T_KEY) {
+            _getToken();
+            switch (_peekToken().type) {
+            case T_KEY:
+            case T_VALUE:
+            case T_BLOCK_END:
+                _state = S_BLOCK_MAPPING_VALUE;
+                return _emptyScalar(t, true);
+            }
+            _pushState(S_BLOCK_MAPPING_VALUE);
+            return _parseNode(true, true);
+        }
+        if (t.type != T_BLOCK_END) {
+            throw _parserError("while parsing a block mapping", _popMark(),
+                    "expected <block end>, but found '" + _tokenName(t.type) + "'", t);
+        }
+        _getToken();
+        _state = _popState();
+        _popMark();
+        return _event(Event.ID.MappingEnd, t);
+    }
+
+    private Event.ID _parseBlockMappingValue()
+    {
+        Token t = _peekToken();
+        if (t.type == T_VALUE) {
+            _getToken();
+            switch (_peekToken().type) {
+            case T_KEY:
+            case T_VALUE:
+            case T_BLOCK_END:
+                _state = S_BLOCK_MAPPING_KEY;
+                return _emptyScalar(t, true);
+            }
+            _pushState(S_BLOCK_MAPPING_KEY);
+            return _parseNode(true, true);
+        }
+        if (t.type == T_SCALAR) {
+            _pushState(S_BLOCK_MAPPING_KEY);
+            return _parseNode(true, true);
+        }
+        _state = S_BLOCK_MAPPING_KEY;
+        return _emptyScalar(t, false);
+    }
+
+    private Event.ID _parseFlowSequenceEntry(boolean first)
+    {
+        Token t = _peekToken();
+        if (t.type != T_FLOW_SEQUENCE_END) {
+            if (!first) {
+                if (t.type != T_FLOW_ENTRY) {
+                    throw _parserError("while parsing a flow sequence", _popMark(),
+                            "expected ',' or ']', but got " + _tokenName(t.type), t);
+                }
+                _getToken();
+                t = _peekToken();
+            }
+            if (t.type == T_KEY) {
+                _state = S_FLOW_SEQUENCE_ENTRY_MAPPING_KEY;
+                return _collectionStart(Event.ID.MappingStart, null, null, true,
+                        DumperOptions.FlowStyle.FLOW, t, t, true);
+            }
+            if (t.type != T_FLOW_SEQUENCE_END) {
+                _pushState(S_FLOW_SEQUENCE_ENTRY);
+                return _parseNode(false, false);
+            }
+        }
+        _getToken();
+        // SnakeYAML looks ahead for a comment here, so must scan the next token
+        // (and fail on invalid content) before returning the event, to match
+        _peekToken();
+        _state = _popState();
+        _popMark();
+        return _event(Event.ID.SequenceEnd, t);
+    }
+
+    private Event.ID _parseFlowSequenceEntryMappingKey()
+    {
+        Token t = _getToken();
+        switch (_peekToken().type) {
+        case T_VALUE:
+        case T_FLOW_ENTRY:
+        case T_FLOW_SEQUENCE_END:
+            _state = S_FLOW_SEQUENCE_ENTRY_MAPPING_VALUE;
+            return _emptyScalar(t, true);
+        }
+        _pushState(S_FLOW_SEQUENCE_ENTRY_MAPPING_VALUE);
+        return _parseNode(false, false);
+    }
+
+    private Event.ID _parseFlowSequenceEntryMappingValue()
+    {
+        Token t = _peekToken();
+        _state = S_FLOW_SEQUENCE_ENTRY_MAPPING_END;
+        if (t.type == T_VALUE) {
+            _getToken();
+            int next = _peekToken().type;
+            if (next != T_FLOW_ENTRY && next != T_FLOW_SEQUENCE_END) {
+                _pushState(S_FLOW_SEQUENCE_ENTRY_MAPPING_END);
+                return _parseNode(false, false);
+            }
+            return _emptyScalar(t, true);
+        }
+        return _emptyScalar(t, false);
+    }
+
+    private Event.ID _parseFlowMappingKey(boolean first)
+    {
+        Token t = _peekToken();
+        if (t.type != T_FLOW_MAPPING_END) {
+            if (!first) {
+                if (t.type != T_FLOW_ENTRY) {
+                    throw _parserError("while parsing a flow mapping", _popMark(),
+                            "expected ',' or '}', but got " + _tokenName(t.type), t);
+                }
+                _getToken();
+                t = _peekToken();
+            }
+            if (t.type == T_KEY) {
+                _getToken();
+                switch (_peekToken().type) {
+                case T_VALUE:
+                case T_FLOW_ENTRY:
+                case T_FLOW_MAPPING_END:
+                    _state = S_FLOW_MAPPING_VALUE;
+                    return _emptyScalar(t, true);
+                }
+                _pushState(S_FLOW_MAPPING_VALUE);
+                return _parseNode(false, false);
+            }
+            if (t.type != T_FLOW_MAPPING_END) {
+                _pushState(S_FLOW_MAPPING_EMPTY_VALUE);
+                return _parseNode(false, false);
+            }
+        }
+        _getToken();
+        // SnakeYAML looks ahead for a comment here, so must scan the next token
+        // (and fail on invalid content) before returning the event, to match
+        _peekToken();
+        _state = _popState();
+        _popMark();
+        return _event(Event.ID.MappingEnd, t);
+    }
+
+    private Event.ID _parseFlowMappingValue()
+    {
+        Token t = _peekToken();
+        _state = S_FLOW_MAPPING_KEY;
+        if (t.type == T_VALUE) {
+            _getToken();
+            int next = _peekToken().type;
+            if (next != T_FLOW_ENTRY && next != T_FLOW_MAPPING_END) {
+                _pushState(S_FLOW_MAPPING_KEY);
+                return _parseNode(false, false);
+            }
+            return _emptyScalar(t, true);
+        }
+        return _emptyScalar(t, false);
+    }
+
+    private void _pushState(int state)
+    {
+        if (_statesCount == _states.length) {
+            _states = Arrays.copyOf(_states, _statesCount << 1);
+        }
+        _states[_statesCount++] = state;
+    }
+
+    private int _popState()
+    {
+        if (_statesCount == 0) { // should never occur
+            throw new IllegalStateException("No parser state to return to");
+        }
+        return _states[--_statesCount];
+    }
+
+    private void _pushMark(Token t)
+    {
+        if (_marksCount == _marks.length) {
+            _marks = Arrays.copyOf(_marks, _marksCount << 1);
+        }
+        _marks[_marksCount++] = t;
+    }
+
+    private Token _popMark()
+    {
+        if (_marksCount == 0) {
+            return null;
+        }
+        Token t = _marks[--_marksCount];
+        _marks[_marksCount] = null;
+        return t;
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing, current event
+    /**********************************************************************
+     */
+
+    // Note: events are only set once all tokens needed have been scanned, so
+    // that the current event is not changed if a fed reader runs out of content
+
+    /**
+     * Helper method for setting the current event to one of given type,
+     * spanning given token.
+     */
+    private Event.ID _event(Event.ID id, Token t)
+    {
+        _eventId = id;
+        _event = null;
+        _startIndex = t.startIndex;
+        _startLine = t.startLine;
+        _startColumn = t.startColumn;
+        _endAfter(t);
+        return id;
+    }
+
+    private Event.ID _emptyScalar(Token t, boolean afterToken)
+    {
+        _scalar(null, null, IMPLICIT_PLAIN, "", DumperOptions.ScalarStyle.PLAIN, t);
+        if (afterToken) {
+            _endAfter(t);
+            _startIndex = _endIndex;
+            _startLine = _endLine;
+            _startColumn = _endColumn;
+        } else {
+            _endAtStart();
+        }
+        return Event.ID.Scalar;
+    }
+
+    // Note: end of the event to be set by caller
+    private void _scalar(String anchor, String tag, ImplicitTuple implicit, String value,
+            DumperOptions.ScalarStyle style, Token first)
+    {
+        _event(Event.ID.Scalar, first);
+        _anchor = anchor;
+        _tag = tag;
+        _scalarImplicit = implicit;
+        _value = value;
+        _scalarStyle = style;
+    }
+
+    /**
+     * @param first First token of the node
+     * @param t Token that starts the collection
+     * @param endAfter Whether the event ends after {@code t} (or at its start)
+     */
+    private Event.ID _collectionStart(Event.ID id, String anchor, String tag, boolean implicit,
+            DumperOptions.FlowStyle flowStyle, Token first, Token t, boolean endAfter)
+    {
+        _event(id, first);
+        if (endAfter) {
+            _endAfter(t);
+        } else {
+            _endIndex = t.startIndex;
+            _endLine = t.startLine;
+            _endColumn = t.startColumn;
+        }
+        _anchor = anchor;
+        _tag = tag;
+        _collectionImplicit = implicit;
+        _flowStyle = flowStyle;
+        return id;
+    }
+
+    private void _endAfter(Token t)
+    {
+        if (t.endIndex == t.startIndex) {
+            _endIndex = t.startIndex;
+            _endLine = t.startLine;
+            _endColumn = t.startColumn;
+        } else {
+            _endIndex = t.endIndex;
+            _endLine = t.endLine;
+            _endColumn = t.endColumn;
+        }
+    }
+
+    private void _endAtStart()
+    {
+        _endIndex = _startIndex;
+        _endLine = _startLine;
+        _endColumn = _startColumn;
+    }
+
+    /**
+     * Helper method for constructing the {@link Event} for the current event.
+     */
+    private Event _constructEvent()
+    {
+        final Mark start = _mark(_startIndex, _startLine, _startColumn);
+        final Mark end = (_endIndex == _startIndex && _endLine == _startLine
+                && _endColumn == _startColumn)
+                ? start : _mark(_endIndex, _endLine, _endColumn);
+        switch (_eventId) {
+        case StreamStart:
+            return new StreamStartEvent(start, end);
+        case StreamEnd:
+            return new StreamEndEvent(start, end);
+        case DocumentStart:
+            return new DocumentStartEvent(start, end, _documentExplicit, _documentVersion,
+                    _documentTags);
+        case DocumentEnd:
+            return new DocumentEndEvent(start, end, _documentExplicit);
+        case Scalar:
+            return new ScalarEvent(_anchor, _tag, _scalarImplicit, _value, start, end, _scalarStyle);
+        case SequenceStart:
+            return new SequenceStartEvent(_anchor, _tag, _collectionImplicit, start, end, _flowStyle);
+        case SequenceEnd:
+            return new SequenceEndEvent(start, end);
+        case MappingStart:
+            return new MappingStartEvent(_anchor, _tag, _collectionImplicit, start, end, _flowStyle);
+        case MappingEnd:
+            return new MappingEndEvent(start, end);
+        case Alias:
+            return new AliasEvent(_anchor, start, end);
+        default: // should never occur, comments are only read by fallback
+            throw new IllegalStateException("Unexpected event type "+_eventId);
+        }
+    }
+
+    /**
+     * Helper method for making the event read by {@link #_fallback} the
+     * current event.
+     */
+    private Event.ID _eventFrom(Event evt)
+    {
+        if (evt == null) {
+            return null;
+        }
+        _event = evt;
+        _eventId = evt.getEventId();
+        final Mark start = evt.getStartMark();
+        final Mark end = evt.getEndMark();
+        _startIndex = start.getIndex();
+        _startLine = start.getLine();
+        _startColumn = start.getColumn();
+        _endIndex = end.getIndex();
+        _endLine = end.getLine();
+        _endColumn = end.getColumn();
+        _anchor = (evt instanceof NodeEvent) ? ((NodeEvent) evt).getAnchor() : null;
+        if (evt instanceof ScalarEvent) {
+            final ScalarEvent scalar = (ScalarEvent) evt;
+            _tag = scalar.getTag();
+            _scalarImplicit = scalar.getImplicit();
+            _value = scalar.getValue();
+            _scalarStyle = scalar.getScalarStyle();
+        } else if (evt instanceof CollectionStartEvent) {
+            _tag = ((CollectionStartEvent) evt).getTag();
+        } else {
+            _tag = null;
+        }
+        return _eventId;
+    }
+
+    private static Mark _mark(int index, int line, int column) {
+        return new Mark(SOURCE_NAME, index, line, column, NO_SNIPPET, 0);
+    }
+
+    /*
+    /**********************************************************************
+    /* Token queue handling
+    /**********************************************************************
+     */
+
+    private Token _peekToken()
+    {
+        while (_needMoreTokens()) {
+            _fetchMoreTokens();
+        }
+        return _tokens[_tokensHead];
+    }
+
+    private Token _getToken()
+    {
+        Token t = _peekToken();
+        ++_tokensTaken;
+        ++_tokensHead;
+        if (--_tokensCount == 0) {
+            _tokensHead = 0;
+        }
+        return t;
+    }
+
+    private boolean _needMoreTokens()
+    {
+        if (_scanDone) {
+            return false;
+        }
+        if (_tokensCount == 0) {
+            return true;
+        }
+        // The current token may be a potential simple key, so need to look further
+        _stalePossibleSimpleKeys();
+        return _nextPossibleSimpleKey() == _tokensTaken;
+    }
+
+    private Token _addToken(int type, int startPtr, int startLine, int startColumn)
+    {
+        Token t = new Token(type, _index(startPtr), startLine, startColumn,
+                _index(_inputPtr), _currLine, _column());
+        _insertToken(_tokensCount, t);
+        return t;
+    }
+
+    private Token _addToken(int type) {
+        final int index = _index(_inputPtr);
+        final int col = _column();
+        Token t = new Token(type, index, _currLine, col, index, _currLine, col);
+        _insertToken(_tokensCount, t);
+        return t;
+    }
+
+    private void _insertToken(int offset, Token t)
+    {
+        if (_tokensHead + _tokensCount == _tokens.length) {
+            if (_tokensHead > 0) {
+                System.arraycopy(_tokens, _tokensHead, _tokens, 0, _tokensCount);
+                Arrays.fill(_tokens, _tokensCount, _tokens.length, null);
+                _tokensHead = 0;
+            } else {
+                _tokens = Arrays.copyOf(_tokens, _tokens.length << 1);
+            }
+        }
+        final int ix = _tokensHead + offset;
+        final int toMove = _tokensCount - offset;
+        if (toMove > 0) {
+            System.arraycopy(_tokens, ix, _tokens, ix+1, toMove);
+        }
+        _tokens[ix] = t;
+        ++_tokensCount;
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, main loop
+    /**********************************************************************
+     */
+
+    private void _fetchMoreTokens()
+    {
+        if (_tokensTaken == 0 && _tokensCount == 0) {
+            _addToken(T_STREAM_START);
+            return;
+        }
+        // Same per-document limit as SnakeYAML checks
+        if ((_index(_inputPtr) - _documentStart) > _loaderOptions.getCodePointLimit()) {
+            throw new YAMLException("The incoming YAML document exceeds the limit: "
+                    + _loaderOptions.getCodePointLimit() + " code points.");
+        }
+        _scanToNextToken();
+        _stalePossibleSimpleKeys();
+        _unwindIndent(_column());
+
+        final char c = _peek(0);
+        switch (c) {
+        case '\0':
+            if (!_hasChar(_inputPtr)) {
+                _fetchStreamEnd();
+                return;
+            }
+            break;
+        case '%':
+            if (_column() == 0) {
+                _fetchDirective();
+                return;
+            }
+            break;
+        case '-':
+            if (_checkDocumentIndicator('-')) {
+                _fetchDocumentIndicator(T_DOCUMENT_START);
+                return;
+            }
+            if (_isBlankOrBreak(_peek(1))) {
+                _fetchBlockEntry();
+                return;
+            }
+            break;
+        case '.':
+            if (_checkDocumentIndicator('.')) {
+                _fetchDocumentIndicator(T_DOCUMENT_END);
+                return;
+            }
+            break;
+        case '[':
+            _fetchFlowCollectionStart(T_FLOW_SEQUENCE_START);
+            return;
+        case '{':
+            _fetchFlowCollectionStart(T_FLOW_MAPPING_START);
+            return;
+        case ']':
+            _fetchFlowCollectionEnd(T_FLOW_SEQUENCE_END);
+            return;
+        case '}':
+            _fetchFlowCollectionEnd(T_FLOW_MAPPING_END);
+            return;
+        case ',':
+            _fetchFlowEntry();
+            return;
+        case '?':
+            if (_flowLevel != 0 || _isBlankOrBreak(_peek(1))) {
+                _fetchKey();
+                return;
+            }
+            break;
+        case ':':
+            if (_flowLevel != 0 || _isBlankOrBreak(_peek(1))) {
+                _fetchValue();
+                return;
+            }
+            break;
+        case '*':
+            _savePossibleSimpleKey();
+            _allowSimpleKey = false;
+            _scanAnchor(T_ALIAS);
+            return;
+        case '&':
+            _savePossibleSimpleKey();
+            _allowSimpleKey = false;
+            _scanAnchor(T_ANCHOR);
+            return;
+        case '!':
+            _savePossibleSimpleKey();
+            _allowSimpleKey = false;
+            _scanTag();
+            return;
+        case '|':
+        case '>':
+            if (_flowLevel == 0) {
+                _allowSimpleKey = true;
+                _removePossibleSimpleKey();
+                _scanBlockScalar(c == '>');
+                return;
+            }
+            break;
+        case '\'':
+        case '"':
+            _savePossibleSimpleKey();
+            _allowSimpleKey = false;
+            _scanFlowScalar(c == '"');
+            return;
+        }
+        if (_checkPlain(c)) {
+            _savePossibleSimpleKey();
+            _allowSimpleKey = false;
+            _scanPlain();
+            return;
+        }
+        final String rep = (c == '\t') ? "\\t(TAB)" : String.valueOf(c);
+        throw _scannerError("while scanning for the next token", String.format(
+                "found character '%s' that cannot start any token. (Do not use %s for indentation)",
+                rep, rep));
+    }
+
+    private void _scanToNextToken()
+    {
+        // Byte order mark is only skipped at the beginning of content
+        if (_inputPtr == 0 && _inputBase == 0 && _peek(0) == '\uFEFF') {
+            ++_inputPtr;
+            _currLineStart = _inputPtr;
+        }
+        while (true) {
+            while (_peek(0) == ' ') {
+                ++_inputPtr;
+            }
+            if (_peek(0) == '#') {
+                while (!_isBreakOrEOF(_peek(0))) {
+                    ++_inputPtr;
+                }
+            }
+            if (!_skipLineBreak()) {
+                return;
+            }
+            if (_flowLevel == 0) {
+                _allowSimpleKey = true;
+            }
+        }
+    }
+
+    private boolean _checkDocumentIndicator(char c)
+    {
+        return (_column() == 0)
+                && (_peek(1) == c) && (_peek(2) == c)
+                && _isBlankOrBreak(_peek(3));
+    }
+
+    private boolean _checkPlain(char c)
+    {
+        switch (c) {
+        case '-':
+            return !_isBlankOrBreak(_peek(1));
+        case '?':
+        case ':':
+            return (_flowLevel == 0) && !_isBlankOrBreak(_peek(1));
+        case ',': case '[': case ']': case '{': case '}':
+        case '#': case '&': case '*': case '!': case '|': case '>':
+        case '\'': case '"': case '%': case '@': case '`':
+        case ' ': case '\t': case '\r': case '\n': case '\0':
+        case '\u0085': case '\u2028': case '\u2029':
+            return false;
+        }
+        return true;
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, simple keys, indentation
+    /**********************************************************************
+     */
+
+    private int _nextPossibleSimpleKey()
+    {
+        if (_keyCount > 0) {
+            // possible keys are added in order of token numbers
+            int min = Integer.MAX_VALUE;
+            for (int level = 0; level <= _flowLevel; ++level) {
+                final int nr = _keyTokenNumber[level];
+                if (nr >= 0 && nr < min) {
+                    min = nr;
+                }
+            }
+            return min;
+        }
+        return -1;
+    }
+
+    private void _stalePossibleSimpleKeys()
+    {
+        if (_keyCount > 0) {
+            final int index = _index(_inputPtr);
+            for (int level = 0; level <= _flowLevel; ++level) {
+                if (_keyTokenNumber[level] >= 0) {
+                    if ((_keyLine[level] != _currLine)
+                            || (index - _keyIndex[level] > MAX_SIMPLE_KEY_LENGTH)) {
+                        if (_keyRequired[level]) {
+                            throw _keyError(level);
+                        }
+                        _keyTokenNumber[level] = -1;
+                        --_keyCount;
+                    }
+                }
+            }
+        }
+    }
+
+    private void _savePossibleSimpleKey()
+    {
+        final int col = _column();
+        final boolean required = (_flowLevel == 0) && (_indent == col);
+        if (_allowSimpleKey) {
+            _removePossibleSimpleKey();
+            final int level = _flowLevel;
+            _keyTokenNumber[level] = _tokensTaken + _tokensCount;
+            _keyRequired[level] = required;
+            _keyIndex[level] = _index(_inputPtr);
+            _keyLine[level] = _currLine;
+            _keyColumn[level] = col;
+            ++_keyCount;
+        } else if (required) { // should never occur
+            throw new YAMLException(
+                    "A simple key is required only if it is the first token in the current line");
+        }
+    }
+
+    private void _removePossibleSimpleKey()
+    {
+        final int level = _flowLevel;
+        if (_keyTokenNumber[level] >= 0) {
+            if (_keyRequired[level]) {
+                throw _keyError(level);
+            }
+            _keyTokenNumber[level] = -1;
+            --_keyCount;
+        }
+    }
+
+    private void _unwindIndent(int col)
+    {
+        // In flow context indentation is ignored
+        if (_flowLevel == 0) {
+            while (_indent > col) {
+                _indent = _indents[--_indentsCount];
+                _addToken(T_BLOCK_END);
+            }
+        }
+    }
+
+    private boolean _addIndent(int column)
+    {
+        if (_indent < column) {
+            if (_indentsCount == _indents.length) {
+                _indents = Arrays.copyOf(_indents, _indentsCount << 1);
+            }
+            _indents[_indentsCount++] = _indent;
+            _indent = column;
+            return true;
+        }
+        return false;
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, indicators
+    /**********************************************************************
+     */
+
+    private void _fetchStreamEnd()
+    {
+        _unwindIndent(-1);
+        _removePossibleSimpleKey();
+        _allowSimpleKey = false;
+        if (_keyCount > 0) {
+            Arrays.fill(_keyTokenNumber, -1);
+            _keyCount = 0;
+        }
+        _addToken(T_STREAM_END);
+        _scanDone = true;
+    }
+
+    private void _fetchDocumentIndicator(int type)
+    {
+        _unwindIndent(-1);
+        _removePossibleSimpleKey();
+        _allowSimpleKey = false;
+        final int start = _inputPtr;
+        _inputPtr += 3;
+        _addToken(type, start, _currLine, 0);
+    }
+
+    private void _fetchFlowCollectionStart(int type)
+    {
+        _savePossibleSimpleKey();
+        if (++_flowLevel == _keyTokenNumber.length) {
+            final int newLen = _flowLevel << 1;
+            int[] nrs = _noKeys(newLen);
+            System.arraycopy(_keyTokenNumber, 0, nrs, 0, _flowLevel);
+            _keyTokenNumber = nrs;
+            _keyRequired = Arrays.copyOf(_keyRequired, newLen);
+            _keyIndex = Arrays.copyOf(_keyIndex, newLen);
+            _keyLine = Arrays.copyOf(_keyLine, newLen);
+            _keyColumn = Arrays.copyOf(_keyColumn, newLen);
+        }
+        _allowSimpleKey = true;
+        _fetchSingleCharToken(type);
+    }
+
+    private void _fetchFlowCollectionEnd(int type)
+    {
+        _removePossibleSimpleKey();
+        if (_flowLevel > 0) {
+            --_flowLevel;
+        }
+        // if unbalanced, parser reports unbalanced one (SnakeYAML would also get
+        // negative flow level, but only after the error has been reported)
+        _allowSimpleKey = false;
+        _fetchSingleCharToken(type);
+    }
+
+    private void _fetchFlowEntry()
+    {
+        _allowSimpleKey = true;
+        _removePossibleSimpleKey();
+        _fetchSingleCharToken(T_FLOW_ENTRY);
+    }
+
+    private void _fetchBlockEntry()
+    {
+        if (_flowLevel == 0) {
+            if (!_allowSimpleKey) {
+                throw _scannerError(null, "sequence entries are not allowed here");
+            }
+            if (_addIndent(_column())) {
+                _addToken(T_BLOCK_SEQUENCE_START);
+            }
+        }
+        _allowSimpleKey = true;
+        _removePossibleSimpleKey();
+        _fetchSingleCharToken(T_BLOCK_ENTRY);
+    }
+
+    private void _fetchKey()
+    {
+        if (_flowLevel == 0) {
+            if (!_allowSimpleKey) {
+                throw _scannerError(null, "mapping keys are not allowed here");
+            }
+            if (_addIndent(_column())) {
+                _addToken(T_BLOCK_MAPPING_START);
+            }
+        }
+        _allowSimpleKey = (_flowLevel == 0);
+        _removePossibleSimpleKey();
+        _fetchSingleCharToken(T_KEY);
+    }
+
+    private void _fetchValue()
+    {
+        final int level = _flowLevel;
+        final int keyNr = _keyTokenNumber[level];
+        if (keyNr >= 0) {
+            _keyTokenNumber[level] = -1;
+            --_keyCount;
+            final int offset = keyNr - _tokensTaken;
+            final int index = _keyIndex[level];
+            final int line = _keyLine[level];
+            final int col = _keyColumn[level];
+            _insertToken(offset, new Token(T_KEY, index, line, col, index, line, col));
+            if (level == 0) {
+                if (_addIndent(col)) {
+                    _insertToken(offset, new Token(T_BLOCK_MAPPING_START, index, line, col,
+                            index, line, col));
+                }
+            }
+            _allowSimpleKey = false;
+        } else {
+            if (level == 0) {
+                if (!_allowSimpleKey) {
+                    throw _scannerError(null, "mapping values are not allowed here");
+                }
+                if (_addIndent(_column())) {
+                    _addToken(T_BLOCK_MAPPING_START);
+                }
+            }
+            _allowSimpleKey = (level == 0);
+            _removePossibleSimpleKey();
+        }
+        _fetchSingleCharToken(T_VALUE);
+    }
+
+    private void _fetchSingleCharToken(int type)
+    {
+        final int start = _inputPtr;
+        final int col = _column();
+        ++_inputPtr;
+        _addToken(type, start, _currLine, col);
+    }
+
+    private void _fetchDirective()
+    {
+        _unwindIndent(-1);
+        _removePossibleSimpleKey();
+        _allowSimpleKey = false;
+        _scanDirective();
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, directives
+    /**********************************************************************
+     */
+
+    private void _scanDirective()
+    {
+        _startToken();
+        ++_inputPtr;
+        final String context = "while scanning a directive";
+        int ptr = _inputPtr;
+        while (_isAlpha(_charAt(ptr))) {
+            ++ptr;
+        }
+        if (ptr == _inputPtr) {
+            throw _tokenError(context, "expected alphabetic or numeric character, but found "
+                    + _found(_codePointAt(ptr)));
+        }
+        final String name = new String(_inputBuffer, _inputPtr, ptr - _inputPtr);
+        _inputPtr = ptr;
+        if (!_isSpaceOrBreak(_peek(0))) {
+            throw _tokenError(context, "expected alphabetic or numeric character, but found "
+                    + _found(_codePointAt(_inputPtr)));
+        }
+        final Token t;
+        if ("YAML".equals(name)) {
+            _skipSpaces();
+            final int major = _scanVersionNumber();
+            if (_peek(0) != '.') {
+                throw _tokenError(context, "expected a digit or '.', but found "
+                        + _found(_codePointAt(_inputPtr)));
+            }
+            ++_inputPtr;
+            final int minor = _scanVersionNumber();
+            if (!_isSpaceOrBreak(_peek(0))) {
+                throw _tokenError(context, "expected a digit or ' ', but found "
+                        + _found(_codePointAt(_inputPtr)));
+            }
+            t = _directiveToken();
+            t.major = major;
+            t.minor = minor;
+        } else if ("TAG".equals(name)) {
+            _skipSpaces();
+            final String handle = _scanTagHandle("directive");
+            if (_peek(0) != ' ') {
+                throw _tokenError(context, "expected ' ', but found " + _found(_codePointAt(_inputPtr)));
+            }
+            _skipSpaces();
+            final String prefix = _scanTagUri("directive");
+            if (!_isSpaceOrBreak(_peek(0))) {
+                throw _tokenError(context, "expected ' ', but found " + _found(_codePointAt(_inputPtr)));
+            }
+            t = _directiveToken();
+            t.handle = handle;
+            t.prefix = prefix;
+        } else { // unknown directives are ignored
+            t = _directiveToken();
+            while (!_isBreakOrEOF(_peek(0))) {
+                ++_inputPtr;
+            }
+        }
+        t.value = name;
+        _skipIgnoredLine(context);
+        _insertToken(_tokensCount, t);
+    }
+
+    private Token _directiveToken() {
+        return new Token(T_DIRECTIVE, _index(_tokenStart), _tokenLine, _tokenColumn,
+                _index(_inputPtr), _currLine, _column());
+    }
+
+    private int _scanVersionNumber()
+    {
+        int c = _codePointAt(_inputPtr);
+        if (!Character.isDigit(c)) {
+            throw _tokenError("while scanning a directive", "expected a digit, but found " + _found(c));
+        }
+        int ptr = _inputPtr;
+        int length = 0;
+        do {
+            ptr += Character.charCount(c);
+            ++length;
+        } while (Character.isDigit(c = _codePointAt(ptr)));
+        final String number = new String(_inputBuffer, _inputPtr, ptr - _inputPtr);
+        _inputPtr = ptr;
+        if (length > 3) {
+            throw _tokenError("while scanning a YAML directive",
+                    "found a number which cannot represent a valid version: " + number);
+        }
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) { // for non-BMP digits, same as SnakeYAML
+            throw e;
+        }
+    }
+
+    /**
+     * Method for skipping the rest of a line that may only contain a comment,
+     * after a directive or block scalar header.
+     */
+    private void _skipIgnoredLine(String context)
+    {
+        _skipSpaces();
+        if (_peek(0) == '#') {
+            while (!_isBreakOrEOF(_peek(0))) {
+                ++_inputPtr;
+            }
+        }
+        final int c = _codePointAt(_inputPtr);
+        if (!_skipLineBreak() && _hasChar(_inputPtr)) {
+            throw _tokenError(context, "expected a comment or a line break, but found " + _found(c));
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, anchors and tags
+    /**********************************************************************
+     */
+
+    private void _scanAnchor(int type)
+    {
+        _startToken();
+        final String context = (type == T_ALIAS) ? "while scanning an alias" : "while scanning an anchor";
+        ++_inputPtr;
+        int ptr = _inputPtr;
+        char c;
+        while (!_isBlankOrBreak(c = _charAt(ptr))) {
+            if (c == ':' || c == ',' || c == '[' || c == ']' || c == '{' || c == '}'
+                    || c == '/' || c == '.' || c == '*' || c == '&') {
+                break;
+            }
+            ++ptr;
+        }
+        if (ptr == _inputPtr) {
+            throw _tokenError(context, "unexpected character found " + _found(_codePointAt(ptr)));
+        }
+        String name = new String(_inputBuffer, _inputPtr, ptr - _inputPtr);
+        _inputPtr = ptr;
+        if (!_isBlankOrBreak(c)) {
+            switch (c) {
+            case '?': case ':': case ',': case ']': case '}': case '%': case '@': case '`':
+                break;
+            default:
+                throw _tokenError(context, "unexpected character found " + _found(_codePointAt(ptr)));
+            }
+        }
+        _addToken(type, _tokenStart, _tokenLine, _tokenColumn).value = name;
+    }
+
+    private void _scanTag()
+    {
+        _startToken();
+        final String context = "while scanning a tag";
+        String handle;
+        String suffix;
+        char c = _peek(1);
+
+        if (c == '<') { // verbatim tag
+            _inputPtr += 2;
+            suffix = _scanTagUri("tag");
+            if (_peek(0) != '>') {
+                final int cp = _codePointAt(_inputPtr);
+                throw _tokenError(context, "expected '>', but found '"
+                        + String.valueOf(Character.toChars(cp)) + "' (" + cp + ")");
+            }
+            ++_inputPtr;
+            handle = null;
+        } else if (_isBlankOrBreak(c)) { // non-specific tag
+            ++_inputPtr;
+            handle = null;
+            suffix = "!";
+        } else {
+            // Is it "!foo" or "!handle!foo"?
+            int ptr = _inputPtr + 1;
+            while (!_isSpaceOrBreak(c = _charAt(ptr)) && c != '!') {
+                ++ptr;
+            }
+            if (c == '!') {
+                handle = _scanTagHandle("tag");
+            } else {
+                handle = "!";
+                ++_inputPtr;
+            }
+            suffix = _scanTagUri("tag");
+        }
+        if (!_isSpaceOrBreak(_peek(0))) {
+            final int cp = _codePointAt(_inputPtr);
+            throw _tokenError(context, "expected ' ', but found '"
+                    + String.valueOf(Character.toChars(cp)) + "' (" + cp + ")");
+        }
+        Token t = _addToken(T_TAG, _tokenStart, _tokenLine, _tokenColumn);
+        t.handle = handle;
+        t.value = suffix;
+    }
+
+    /**
+     * @param name Name of the construct being scanned ("tag" or "directive"),
+     *    for error messages
+     */
+    private String _scanTagHandle(String name)
+    {
+        if (_peek(0) != '!') {
+            throw _tokenError("while scanning a " + name, "expected '!', but found "
+                    + _found(_codePointAt(_inputPtr)));
+        }
+        int ptr = _inputPtr + 1;
+        char c = _charAt(ptr);
+        if (c != ' ') {
+            while (_isAlpha(c)) {
+                c = _charAt(++ptr);
+            }
+            if (c != '!') {
+                _inputPtr = ptr;
+                throw _tokenError("while scanning a " + name, "expected '!', but found "
+                        + _found(_codePointAt(ptr)));
+            }
+            ++ptr;
+        }
+        final int len = ptr - _inputPtr;
+        String handle;
+        if (len == 1) {
+            handle = "!";
+        } else if (len == 2 && c == '!') {
+            handle = "!!";
+        } else {
+            handle = new String(_inputBuffer, _inputPtr, len);
+        }
+        _inputPtr = ptr;
+        return handle;
+    }
+
+    private String _scanTagUri(String name)
+    {
+        final int start = _inputPtr;
+        int ptr = start;
+        StringBuilder sb = null;
+        char c;
+        while (_isUriChar(c = _charAt(ptr))) {
+            if (c == '%') { // escaped, rare
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(_inputBuffer, _inputPtr, ptr - _inputPtr);
+                _inputPtr = ptr;
+                sb.append(_scanUriEscapes(name));
+                ptr = _inputPtr;
+            } else {
+                ++ptr;
+            }
+        }
+        if (sb == null) {
+            if (ptr == start) {
+                throw _tokenError("while scanning a " + name, "expected URI, but found "
+                        + _found(_codePointAt(ptr)));
+            }
+            _inputPtr = ptr;
+            return new String(_inputBuffer, start, ptr - start);
+        }
+        sb.append(_inputBuffer, _inputPtr, ptr - _inputPtr);
+        _inputPtr = ptr;
+        return sb.toString();
+    }
+
+    private String _scanUriEscapes(String name)
+    {
+        final String context = "while scanning a " + name;
+        int length = 1;
+        while (_charAt(_advance(_inputPtr, length * 3)) == '%') {
+            ++length;
+        }
+        final Mark beginning = _currentMark();
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (_peek(0) == '%') {
+            ++_inputPtr;
+            final int end = _advance(_inputPtr, 2);
+            try {
+                bytes.put((byte) Integer.parseInt(new String(_inputBuffer, _inputPtr, end - _inputPtr), 16));
+            } catch (NumberFormatException e) {
+                final int c1 = _codePointAt(_inputPtr);
+                final int c2 = _codePointAt(_advance(_inputPtr, 1));
+                throw _tokenError(context, "expected URI escape sequence of 2 hexadecimal numbers, but found "
+                        + _found(c1) + " and " + _found(c2));
+            }
+            _inputPtr = end;
+        }
+        bytes.flip();
+        try {
+            return UriEncoder.decode(bytes);
+        } catch (CharacterCodingException e) {
+            throw _tokenError(context, "expected URI in UTF-8: " + e.getMessage(), beginning);
+        }
+    }
+
+    private static boolean _isUriChar(char c)
+    {
+        if (_isAlpha(c)) {
+            return true;
+        }
+        switch (c) {
+        case ';': case '/': case '?': case ':': case '@': case '&': case '=': case '+':
+        case '$': case ',': case '.': case '!': case '~': case '*': case '\'': case '(':
+        case ')': case '[': case ']': case '%':
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean _isAlpha(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || (c == '-') || (c == '_');
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, block scalars
+    /**********************************************************************
+     */
+
+    private void _scanBlockScalar(boolean folded)
+    {
+        _startToken();
+        final String context = "while scanning a block scalar";
+        ++_inputPtr;
+
+        // Header: chomping and indentation indicators, in either order
+        int chomping = 0; // -1 strip, 0 clip, 1 keep
+        int increment = -1;
+        int c = _codePointAt(_inputPtr);
+        if (c == '-' || c == '+') {
+            chomping = (c == '+') ? 1 : -1;
+            c = _codePointAt(++_inputPtr);
+            if (Character.isDigit(c)) {
+                increment = _blockIndentIndicator(c);
+                _inputPtr += Character.charCount(c);
+            }
+        } else if (Character.isDigit(c)) {
+            increment = _blockIndentIndicator(c);
+            _inputPtr += Character.charCount(c);
+            c = _peek(0);
+            if (c == '-' || c == '+') {
+                chomping = (c == '+') ? 1 : -1;
+                ++_inputPtr;
+            }
+        }
+        if (!_isSpaceOrBreak(_peek(0))) {
+            throw _tokenError(context, "expected chomping or indentation indicators, but found "
+                    + _found(_codePointAt(_inputPtr)));
+        }
+        // Rest of the header line may only contain a comment
+        _skipIgnoredLine(context);
+
+        int minIndent = _indent + 1;
+        if (minIndent < 1) {
+            minIndent = 1;
+        }
+        final StringBuilder sb = _text;
+        sb.setLength(0);
+        final StringBuilder breaks = _spaces;
+        breaks.setLength(0);
+        int indent;
+        if (increment == -1) { // auto-detect indentation
+            int maxIndent = 0;
+            _setEndMark();
+            while (true) {
+                if (_peek(0) == ' ') {
+                    ++_inputPtr;
+                    if (_column() > maxIndent) {
+                        maxIndent = _column();
+                    }
+                } else if (_skipLineBreak()) {
+                    breaks.append(_lineBreak);
+                    _setEndMark();
+                } else {
+                    break;
+                }
+            }
+            indent = Math.max(minIndent, maxIndent);
+        } else {
+            indent = minIndent + increment - 1;
+            _scanBlockScalarBreaks(indent, breaks);
+        }
+
+        char lineBreak = 0; // none
+        while (_column() == indent && _hasChar(_inputPtr)) {
+            sb.append(breaks);
+            final boolean leadingNonSpace = (_peek(0) != ' ') && (_peek(0) != '\t');
+            int ptr = _inputPtr;
+            while (!_isBreakOrEOF(_charAt(ptr))) {
+                ++ptr;
+            }
+            sb.append(_inputBuffer, _inputPtr, ptr - _inputPtr);
+            _inputPtr = ptr;
+            lineBreak = _skipLineBreak() ? _lineBreak : 0;
+            breaks.setLength(0);
+            _scanBlockScalarBreaks(indent, breaks);
+            if (_column() == indent && _hasChar(_inputPtr)) {
+                if (folded && (lineBreak == '\n') && leadingNonSpace
+                        && (_peek(0) != ' ') && (_peek(0) != '\t')) {
+                    if (breaks.length() == 0) {
+                        sb.append(' ');
+                    }
+                } else if (lineBreak != 0) {
+                    sb.append(lineBreak);
+                }
+            } else {
+                break;
+            }
+        }
+        // Chomp the tail
+        if (chomping >= 0 && lineBreak != 0) {
+            sb.append(lineBreak);
+        }
+        if (chomping > 0) {
+            sb.append(breaks);
+        }
+        Token t = new Token(T_SCALAR, _index(_tokenStart), _tokenLine, _tokenColumn,
+                _scalarEndIndex, _scalarEndLine, _scalarEndColumn);
+        t.value = sb.toString();
+        t.style = folded ? DumperOptions.ScalarStyle.FOLDED : DumperOptions.ScalarStyle.LITERAL;
+        _insertToken(_tokensCount, t);
+    }
+
+    private int _blockIndentIndicator(int c)
+    {
+        int increment;
+        try { // may be any Unicode digit, same as with SnakeYAML
+            increment = Integer.parseInt(new String(Character.toChars(c)));
+        } catch (NumberFormatException e) {
+            throw e;
+        }
+        if (increment == 0) {
+            throw _tokenError("while scanning a block scalar",
+                    "expected indentation indicator in the range 1-9, but found 0");
+        }
+        return increment;
+    }
+
+    // End position of block scalar being scanned
+    private int _scalarEndIndex, _scalarEndLine, _scalarEndColumn;
+
+    private void _setEndMark() {
+        _scalarEndIndex = _index(_inputPtr);
+        _scalarEndLine = _currLine;
+        _scalarEndColumn = _column();
+    }
+
+    /**
+     * Method for skipping line breaks (and indentation) within a block
+     * scalar, appending breaks skipped to given buffer.
+     */
+    private void _scanBlockScalarBreaks(int indent, StringBuilder breaks)
+    {
+        _setEndMark();
+        int col = _column();
+        while (col < indent && _peek(0) == ' ') {
+            ++_inputPtr;
+            ++col;
+        }
+        while (_skipLineBreak()) {
+            breaks.append(_lineBreak);
+            _setEndMark();
+            col = _column();
+            while (col < indent && _peek(0) == ' ') {
+                ++_inputPtr;
+                ++col;
+            }
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, quoted scalars
+    /**********************************************************************
+     */
+
+    private void _scanFlowScalar(boolean doubleQuoted)
+    {
+        _startToken();
+        final char quote = _inputBuffer[_inputPtr++];
+        final StringBuilder sb = _text;
+        sb.setLength(0);
+
+        _scanFlowScalarNonSpaces(doubleQuoted, sb);
+        while (_peek(0) != quote) {
+            _scanFlowScalarSpaces(sb);
+            _scanFlowScalarNonSpaces(doubleQuoted, sb);
+        }
+        ++_inputPtr;
+        Token t = _addToken(T_SCALAR, _tokenStart, _tokenLine, _tokenColumn);
+        t.value = sb.toString();
+        t.style = doubleQuoted ? DumperOptions.ScalarStyle.DOUBLE_QUOTED
+                : DumperOptions.ScalarStyle.SINGLE_QUOTED;
+    }
+
+    private void _scanFlowScalarNonSpaces(boolean doubleQuoted, StringBuilder sb)
+    {
+        while (true) {
+            int ptr = _inputPtr;
+            char c;
+            while (true) {
+                c = _charAt(ptr);
+                if (_isBlankOrBreak(c) || c == '\'' || c == '"' || c == '\\') {
+                    break;
+                }
+                ++ptr;
+            }
+            if (ptr > _inputPtr) {
+                sb.append(_inputBuffer, _inputPtr, ptr - _inputPtr);
+                _inputPtr = ptr;
+            }
+            if (!doubleQuoted && c == '\'' && _peek(1) == '\'') {
+                sb.append('\'');
+                _inputPtr += 2;
+            } else if ((doubleQuoted && c == '\'') || (!doubleQuoted && (c == '"' || c == '\\'))) {
+                sb.append(c);
+                ++_inputPtr;
+            } else if (doubleQuoted && c == '\\') {
+                c = _charAt(++_inputPtr);
+                switch (c) {
+                case '0': sb.append('\0'); break;
+                case 'a': sb.append('\u0007'); break;
+                case 'b': sb.append('\b'); break;
+                case 't': sb.append('\t'); break;
+                case 'n': sb.append('\n'); break;
+                case 'v': sb.append('\u000B'); break;
+                case 'f': sb.append('\f'); break;
+                case 'r': sb.append('\r'); break;
+                case 'e': sb.append('\u001B'); break;
+                case ' ': sb.append(' '); break;
+                case '"': sb.append('"'); break;
+                case '\\': sb.append('\\'); break;
+                case 'N': sb.append('\u0085'); break;
+                case '_': sb.append('\u00A0'); break;
+                case 'L': sb.append('\u2028'); break;
+                case 'P': sb.append('\u2029'); break;
+                case 'x':
+                    _appendHexEscape(sb, 2);
+                    continue;
+                case 'u':
+                    _appendHexEscape(sb, 4);
+                    continue;
+                case 'U':
+                    _appendHexEscape(sb, 8);
+                    continue;
+                default:
+                    if (_skipLineBreak()) {
+                        _scanFlowScalarBreaks(sb);
+                        continue;
+                    }
+                    throw _tokenError("while scanning a double-quoted scalar",
+                            "found unknown escape character " + _found(_codePointAt(_inputPtr)));
+                }
+                ++_inputPtr;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void _appendHexEscape(StringBuilder sb, int length)
+    {
+        final String context = "while scanning a double-quoted scalar";
+        final int start = ++_inputPtr;
+        final int end = _advance(start, length);
+        for (int i = start; i < end; ++i) {
+            final char c = _inputBuffer[i];
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+                throw _tokenError(context, "expected escape sequence of " + length
+                        + " hexadecimal numbers, but found: " + new String(_inputBuffer, start, end - start));
+            }
+        }
+        final String hex = new String(_inputBuffer, start, end - start);
+        final int value;
+        try { // may be too short (at the end of content) or too big
+            value = Integer.parseInt(hex, 16);
+        } catch (NumberFormatException e) {
+            throw e;
+        }
+        if (!Character.isValidCodePoint(value)) {
+            throw _tokenError(context, "found unknown escape character " + hex);
+        }
+        sb.appendCodePoint(value);
+        _inputPtr = end;
+    }
+
+    private void _scanFlowScalarSpaces(StringBuilder sb)
+    {
+        final int start = _inputPtr;
+        char c;
+        while ((c = _peek(0)) == ' ' || c == '\t') {
+            ++_inputPtr;
+        }
+        if (!_hasChar(_inputPtr)) {
+            throw _tokenError("while scanning a quoted scalar", "found unexpected end of stream");
+        }
+        if (_skipLineBreak()) {
+            final char lineBreak = _lineBreak;
+            final int len = sb.length();
+            if (lineBreak != '\n') {
+                sb.append(lineBreak);
+            }
+            _scanFlowScalarBreaks(sb);
+            if (lineBreak == '\n' && sb.length() == len) {
+                sb.append(' ');
+            }
+        } else {
+            sb.append(_inputBuffer, start, _inputPtr - start);
+        }
+    }
+
+    private void _scanFlowScalarBreaks(StringBuilder sb)
+    {
+        while (true) {
+            // Document separators are not allowed within quoted scalars (note:
+            // SnakeYAML does not check that they start a line, so neither do we)
+            final char c = _peek(0);
+            if ((c == '-' || c == '.') && (_peek(1) == c) && (_peek(2) == c)
+                    && _isBlankOrBreak(_peek(3))) {
+                throw _tokenError("while scanning a quoted scalar", "found unexpected document separator");
+            }
+            char ch;
+            while ((ch = _peek(0)) == ' ' || ch == '\t') {
+                ++_inputPtr;
+            }
+            if (!_skipLineBreak()) {
+                return;
+            }
+            sb.append(_lineBreak);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Tokenization, plain scalars
+    /**********************************************************************
+     */
+
+    private void _scanPlain()
+    {
+        final int start = _inputPtr;
+        final int startLine = _currLine;
+        final int startCol = _column();
+        int endPtr = start, endLine = startLine, endCol = startCol;
+        final int indent = _indent + 1;
+        final boolean inFlow = (_flowLevel != 0);
+
+        // Common case is a single chunk, for which we can avoid copying
+        int firstStart = -1, firstLen = 0;
+        boolean multi = false;
+        final StringBuilder sb = _text;
+        final StringBuilder spaces = _spaces;
+        spaces.setLength(0);
+
+        while (_peek(0) != '#') {
+            int ptr = _inputPtr;
+            while (true) {
+                final char c = _charAt(ptr);
+                if (_isBlankOrBreak(c)) {
+                    break;
+                }
+                if (c == ':') {
+                    final char next = _charAt(ptr+1);
+                    if (_isBlankOrBreak(next)
+                            || (inFlow && (next == ',' || next == '[' || next == ']'
+                                    || next == '{' || next == '}'))) {
+                        break;
+                    }
+                } else if (inFlow && (c == ',' || c == '?' || c == '[' || c == ']'
+                        || c == '{' || c == '}')) {
+                    break;
+                }
+                ++ptr;
+            }
+            final int len = ptr - _inputPtr;
+            if (len == 0) {
+                break;
+            }
+            _allowSimpleKey = false;
+            if (firstStart < 0) {
+                firstStart = _inputPtr;
+                firstLen = len;
+            } else {
+                if (!multi) {
+                    multi = true;
+                    sb.setLength(0);
+                    sb.append(_inputBuffer, firstStart, firstLen);
+                }
+                sb.append(spaces);
+                sb.append(_inputBuffer, _inputPtr, len);
+            }
+            _inputPtr = ptr;
+            endPtr = ptr;
+            endLine = _currLine;
+            endCol = _column();
+            if (!_scanPlainSpaces(spaces) || _peek(0) == '#'
+                    || (!inFlow && _column() < indent)) {
+                break;
+            }
+        }
+        String value;
+        if (multi) {
+            value = sb.toString();
+        } else if (firstStart < 0) {
+            value = "";
+        } else {
+            value = new String(_inputBuffer, firstStart, firstLen);
+        }
+        Token t = new Token(T_SCALAR, _index(start), startLine, startCol,
+                _index(endPtr), endLine, endCol);
+        t.value = value;
+        t.plain = true;
+        t.style = DumperOptions.ScalarStyle.PLAIN;
+        _insertToken(_tokensCount, t);
+    }
+
+    /**
+     * @return False if there were no spaces (or line breaks), or a document
+     *    separator was encountered
+     */
+    private boolean _scanPlainSpaces(StringBuilder spaces)
+    {
+        spaces.setLength(0);
+        final int start = _inputPtr;
+        char c;
+        while ((c = _peek(0)) == ' ' || c == '\t') {
+            ++_inputPtr;
+        }
+        if (!_skipLineBreak()) {
+            if (_inputPtr == start) {
+                return false;
+            }
+            spaces.append(_inputBuffer, start, _inputPtr - start);
+            return true;
+        }
+        _allowSimpleKey = true;
+        if (_isPlainDocumentSeparator()) {
+            return false;
+        }
+        final char lineBreak = _lineBreak;
+        if (lineBreak != '\n') {
+            spaces.append(lineBreak);
+        }
+        while (true) {
+            if (_peek(0) == ' ') {
+                ++_inputPtr;
+            } else if (_skipLineBreak()) {
+                spaces.append(_lineBreak);
+                if (_isPlainDocumentSeparator()) {
+                    return false;
+                }
+            } else {
+                break;
+            }
+        }
+        if (spaces.length() == 0) {
+            spaces.append(' ');
+        }
+        return true;
+    }
+
+    // NOTE: unlike elsewhere, "---" need not be followed by white space here
+    private boolean _isPlainDocumentSeparator()
+    {
+        final char c = _peek(0);
+        if (c == '-') {
+            return (_peek(1) == '-') && (_peek(2) == '-');
+        }
+        return (c == '.') && (_peek(1) == '.') && (_peek(2) == '.')
+                && _isBlankOrBreak(_peek(3));
+    }
+
+    /*
+    /**********************************************************************
+    /* Low-level input access, locations
+    /**********************************************************************
+     */
+
+    private char _peek(int offset) {
+        return _charAt(_inputPtr + offset);
+    }
+
+    private char _charAt(int ptr) {
+        if ((ptr + MIN_LOOKAHEAD) < _inputEnd || _loadMore(ptr)) {
+            return _inputBuffer[ptr];
+        }
+        return '\0';
+    }
+
+    private boolean _hasChar(int ptr) {
+        return ((ptr + MIN_LOOKAHEAD) < _inputEnd) || _loadMore(ptr);
+    }
+
+    /**
+     * @return Code point at given offset (content only contains complete
+     *    surrogate pairs), or {@code 0} at the end of content
+     */
+    private int _codePointAt(int ptr)
+    {
+        final char c = _charAt(ptr);
+        if (Character.isHighSurrogate(c)) {
+            return Character.toCodePoint(c, _inputBuffer[ptr+1]);
+        }
+        return c;
+    }
+
+    /**
+     * @return Offset after given number of code points from given offset,
+     *    or end of content if there are fewer
+     */
+    private int _advance(int ptr, int count)
+    {
+        for (; count > 0 && _hasChar(ptr); --count) {
+            ptr += Character.isHighSurrogate(_inputBuffer[ptr]) ? 2 : 1;
+        }
+        return ptr;
+    }
+
+    private void _skipSpaces() {
+        while (_peek(0) == ' ') {
+            ++_inputPtr;
+        }
+    }
+
+    // Called at the start of a token that may need its location for error reporting
+    private void _startToken() {
+        _tokenStart = _inputPtr;
+        _tokenLine = _currLine;
+        _tokenColumn = _column();
+    }
+
+    /**
+     * @return Number of surrogate pairs in {@link #_pairs} before given
+     *    offset (in chars, from the beginning of content)
+     */
+    private int _pairsBefore(int offset)
+    {
+        final int count = _pairsCount;
+        if (count == 0 || _pairs[0] >= offset) {
+            return 0;
+        }
+        if (_pairs[count-1] < offset) {
+            return count;
+        }
+        int lo = 0, hi = count-1; // _pairs[lo] < offset <= _pairs[hi]
+        while (hi - lo > 1) {
+            final int mid = (lo + hi) >>> 1;
+            if (_pairs[mid] < offset) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * @return Index (in code points, from the beginning of content, same as
+     *    with SnakeYAML {@link Mark}s) of the character at given offset
+     */
+    private int _index(int ptr)
+    {
+        final int offset = _inputBase + ptr;
+        return offset - _pairsDropped - _pairsBefore(offset);
+    }
+
+    /**
+     * @return Offset of the character at given index (see {@link #_index}),
+     *    if still buffered
+     */
+    private int _offsetOf(int index)
+    {
+        int offset = index + _pairsDropped;
+        for (int i = 0; i < _pairsCount && _pairs[i] < offset; ++i) {
+            ++offset;
+        }
+        return offset - _inputBase;
+    }
+
+    /**
+     * @return Column (in code points) of the character at given offset on
+     *    the current line
+     */
+    private int _column(int ptr)
+    {
+        final int col = ptr - _currLineStart;
+        if (_pairsCount == 0) {
+            return col;
+        }
+        return col - (_pairsBefore(_inputBase + ptr) - _pairsBefore(_inputBase + _currLineStart));
+    }
+
+    private int _column() {
+        return _column(_inputPtr);
+    }
+
+    /**
+     * Method for skipping a line break at the current position, if any;
+     * if one is skipped, {@link #_lineBreak} is set to what it means
+     * within scalar values.
+     */
+    private boolean _skipLineBreak()
+    {
+        if (!_hasChar(_inputPtr)) {
+            return false;
+        }
+        switch (_inputBuffer[_inputPtr]) {
+        case '\r':
+            ++_inputPtr;
+            _lineBreak = '\n';
+            if (!_hasChar(_inputPtr)) {
+                // SnakeYAML does not count CR at the end of content as a line break
+                // for locations (but does for values)
+                return true;
+            }
+            if (_inputBuffer[_inputPtr] == '\n') {
+                ++_inputPtr;
+            }
+            break;
+        case '\n':
+        case '\u0085':
+            ++_inputPtr;
+            _lineBreak = '\n';
+            break;
+        case '\u2028':
+        case '\u2029':
+            _lineBreak = _inputBuffer[_inputPtr++];
+            break;
+        default:
+            return false;
+        }
+        ++_currLine;
+        _currLineStart = _inputPtr;
+        return true;
+    }
+
+    // Note: NUL itself is not allowed in content, so only occurs at EOF
+    private static boolean _isBlankOrBreak(char c) {
+        if (c <= ' ') {
+            return (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\0');
+        }
+        return (c == '\u0085' || c == '\u2028' || c == '\u2029');
+    }
+
+    // Same as above, except for tabs
+    private static boolean _isSpaceOrBreak(char c) {
+        if (c <= ' ') {
+            return (c == ' ' || c == '\n' || c == '\r' || c == '\0');
+        }
+        return (c == '\u0085' || c == '\u2028' || c == '\u2029');
+    }
+
+    private static boolean _isBreakOrEOF(char c) {
+        if (c <= ' ') {
+            return (c == '\n' || c == '\r' || c == '\0');
+        }
+        return (c == '\u0085' || c == '\u2028' || c == '\u2029');
+    }
+
+    private static int[] _noKeys(int size) {
+        int[] result = new int[size];
+        Arrays.fill(result, -1);
+        return result;
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    private final static class Token
+    {
+        final int type;
+        final int startIndex, startLine, startColumn;
+        final int endIndex, endLine, endColumn;
+
+        // Anchor or alias name, tag suffix, scalar value, or directive name
+        String value;
+
+        // Tag handle, if any
+        String handle;
+
+        // Tag prefix of TAG directive
+        String prefix;
+
+        // Version of YAML directive
+        int major, minor;
+
+        boolean plain;
+
+        DumperOptions.ScalarStyle style;
+
+        Token(int type, int startIndex, int startLine, int startColumn,
+                int endIndex, int endLine, int endColumn) {
+            this.type = type;
+            this.startIndex = startIndex;
+            this.startLine = startLine;
+            this.startColumn = startColumn;
+            this.endIndex = endIndex;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+        }
+    }
+
+    /**
+     * Reading state saved before producing an event by a fed reader: if fed
+     * content runs out, state is restored so that the event can be produced
+     * from scratch once more content has been fed (so only content of a
+     * single event is ever scanned more than once). Content itself is not
+     * saved, since it is only appended to (or dropped before the saved
+     * position).
+     */
+    private final class Checkpoint
+    {
+        private int inputPtr, currLine, currLineStart;
+
+        private Token[] tokens = new Token[16];
+        private int tokensCount, tokensTaken;
+        private boolean scanDone;
+
+        private int flowLevel, indent;
+        private int[] indents = new int[16];
+        private int indentsCount;
+        private boolean allowSimpleKey;
+
+        private int[] keyTokenNumber = new int[8];
+        private boolean[] keyRequired = new boolean[8];
+        private int[] keyIndex = new int[8];
+        private int[] keyLine = new int[8];
+        private int[] keyColumn = new int[8];
+        private int keyCount;
+
+        private int state;
+        private int[] states = new int[32];
+        private int statesCount;
+        private Token[] marks = new Token[16];
+        private int marksCount;
+        private Map<String,String> tagHandles;
+        private int documentStart;
+
+        void save()
+        {
+            inputPtr = _inputPtr;
+            currLine = _currLine;
+            currLineStart = _currLineStart;
+
+            tokensCount = _tokensCount;
+            if (tokens.length < _tokensCount) {
+                tokens = new Token[_tokens.length];
+            }
+            System.arraycopy(_tokens, _tokensHead, tokens, 0, _tokensCount);
+            tokensTaken = _tokensTaken;
+            scanDone = _scanDone;
+
+            flowLevel = _flowLevel;
+            indent = _indent;
+            indentsCount = _indentsCount;
+            if (indents.length < _indentsCount) {
+                indents = new int[_indents.length];
+            }
+            System.arraycopy(_indents, 0, indents, 0, _indentsCount);
+            allowSimpleKey = _allowSimpleKey;
+
+            final int levels = _flowLevel + 1;
+            if (keyTokenNumber.length < levels) {
+                final int len = _keyTokenNumber.length;
+                keyTokenNumber = new int[len];
+                keyRequired = new boolean[len];
+                keyIndex = new int[len];
+                keyLine = new int[len];
+                keyColumn = new int[len];
+            }
+            System.arraycopy(_keyTokenNumber, 0, keyTokenNumber, 0, levels);
+            System.arraycopy(_keyRequired, 0, keyRequired, 0, levels);
+            System.arraycopy(_keyIndex, 0, keyIndex, 0, levels);
+            System.arraycopy(_keyLine, 0, keyLine, 0, levels);
+            System.arraycopy(_keyColumn, 0, keyColumn, 0, levels);
+            keyCount = _keyCount;
+
+            state = _state;
+            statesCount = _statesCount;
+            if (states.length < _statesCount) {
+                states = new int[_states.length];
+            }
+            System.arraycopy(_states, 0, states, 0, _statesCount);
+            marksCount = _marksCount;
+            if (marks.length < _marksCount) {
+                marks = new Token[_marks.length];
+            }
+            System.arraycopy(_marks, 0, marks, 0, _marksCount);
+            tagHandles = _tagHandles;
+            documentStart = _documentStart;
+        }
+
+        void restore()
+        {
+            _inputPtr = inputPtr;
+            _currLine = currLine;
+            _currLineStart = currLineStart;
+
+            if (_tokens.length < tokensCount) {
+                _tokens = new Token[tokens.length];
+            }
+            System.arraycopy(tokens, 0, _tokens, 0, tokensCount);
+            Arrays.fill(_tokens, tokensCount, _tokens.length, null);
+            _tokensHead = 0;
+            _tokensCount = tokensCount;
+            _tokensTaken = tokensTaken;
+            _scanDone = scanDone;
+
+            _flowLevel = flowLevel;
+            _indent = indent;
+            _indentsCount = indentsCount;
+            System.arraycopy(indents, 0, _indents, 0, indentsCount);
+            _allowSimpleKey = allowSimpleKey;
+
+            final int levels = flowLevel + 1;
+            System.arraycopy(keyTokenNumber, 0, _keyTokenNumber, 0, levels);
+            Arrays.fill(_keyTokenNumber, levels, _keyTokenNumber.length, -1);
+            System.arraycopy(keyRequired, 0, _keyRequired, 0, levels);
+            System.arraycopy(keyIndex, 0, _keyIndex, 0, levels);
+            System.arraycopy(keyLine, 0, _keyLine, 0, levels);
+            System.arraycopy(keyColumn, 0, _keyColumn, 0, levels);
+            _keyCount = keyCount;
+
+            _state = state;
+            _statesCount = statesCount;
+            System.arraycopy(states, 0, _states, 0, statesCount);
+            System.arraycopy(marks, 0, _marks, 0, marksCount);
+            Arrays.fill(_marks, marksCount, _marks.length, null);
+            _marksCount = marksCount;
+            _tagHandles = tagHandles;
+            _documentStart = documentStart;
+        }
+    }
+
+    /**
+     * Exception used by fed readers to signal that more content needs to be
+     * fed to produce the next event: never exposed to callers.
+     */
+    @SuppressWarnings("serial")
+    private final static class NeedMoreInput extends RuntimeException
+    {
+        final static NeedMoreInput INSTANCE = new NeedMoreInput();
+
+        private NeedMoreInput() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helper class used for splitting a multi-document YAML stream into batches
+ * of complete documents, so that batches may be parsed independently of each
+ * other (for example, in parallel) and yield the same results as parsing the
+ * whole stream with a single parser.
+ *<p>
+ * Splitting is based on a line-by-line pre-scan that only looks for document
+ * markers ({@code ---} and {@code ...}) and directives at the start of lines:
+ * same as with SnakeYAML, such markers always end the preceding document
+ * regardless of content (block scalars, for example, can not contain lines
+ * that are not indented).
+ * Batches are only split before document start markers (or before the
+ * directives preceding them); and tag handles declared using {@code %TAG}
+ * directives in earlier batches are carried over by prepending matching
+ * directives to the following batches, since SnakeYAML retains tag handles
+ * from preceding documents.
+ *<p>
+ * Splitting is conservative: if the pre-scan finds content it can not
+ * interpret unambiguously (a line starting with {@code %} within a document),
+ * the rest of the content is returned as a single batch.
+ *<p>
+ * Note that since batches are parsed separately, locations of content within
+ * batches (other than the first one) do not match locations in the whole
+ * stream.
+ *
+ * @since 2.19
+ */
+public class DocumentSplitter
+{
+    private final static int LINE_OTHER = 0;
+    private final static int LINE_DOCUMENT_START = 1;
+    private final static int LINE_DOCUMENT_END = 2;
+    private final static int LINE_DIRECTIVE = 3;
+    private final static int LINE_BLANK_OR_COMMENT = 4;
+
+    protected final Reader _reader;
+
+    /**
+     * Minimum length (in characters) of batches to return: documents are
+     * combined into batches until this length is reached.
+     */
+    protected final int _minBatchLength;
+
+    /*
+    /**********************************************************************
+    /* Input state
+    /**********************************************************************
+     */
+
+    protected final char[] _inputBuffer;
+
+    protected int _inputPtr;
+
+    protected int _inputEnd;
+
+    protected boolean _inputDone;
+
+    /**
+     * Contents of the current line, including line break (if any)
+     */
+    protected final StringBuilder _line = new StringBuilder(100);
+
+    /*
+    /**********************************************************************
+    /* Splitting state
+    /**********************************************************************
+     */
+
+    /**
+     * Content of the batch being collected
+     */
+    protected StringBuilder _batch = new StringBuilder();
+
+    /**
+     * Directives to prepend to the batch being collected
+     */
+    protected String _batchPrefix = "";
+
+    /**
+     * Tag handles (and matching prefixes) in effect before the document
+     * being scanned; in declaration order.
+     */
+    protected final Map<String,String> _tagHandles = new LinkedHashMap<>();
+
+    /**
+     * Tag handles declared by directives of the document being scanned
+     * (seen before its start marker).
+     */
+    protected final Map<String,String> _pendingTagHandles = new LinkedHashMap<>();
+
+    /**
+     * Whether we are between documents (at the start of stream or after
+     * a document end marker), where directives may be found.
+     */
+    protected boolean _betweenDocuments = true;
+
+    /**
+     * Offset within {@link #_batch} where the area between documents started.
+     */
+    protected int _betweenDocumentsStart;
+
+    /**
+     * Whether the current batch contains any document content yet
+     */
+    protected boolean _batchHasDocuments;
+
+    /**
+     * Flag set if content that could not be interpreted unambiguously was
+     * found: if so, no more splitting is done.
+     */
+    protected boolean _splitDisabled;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    /**
+     * @param r Reader for reading the content to split
+     * @param minBatchLength Minimum length (in characters) of batches
+     *    to return (except for the last one)
+     */
+    public DocumentSplitter(Reader r, int minBatchLength)
+    {
+        _reader = r;
+        _minBatchLength = minBatchLength;
+        _inputBuffer = new char[8000];
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API
+    /**********************************************************************
+     */
+
+    /**
+     * Method for reading the next batch of documents.
+     *
+     * @return Next batch of documents (including directives carried over from
+     *    earlier batches); or {@code null} if there is no more content
+     */
+    public String nextBatch() throws IOException
+    {
+        while (_readLine()) {
+            final int type = _lineType(_line);
+            switch (type) {
+            case LINE_DOCUMENT_START:
+                {
+                    final int cutAt = _betweenDocuments ? _betweenDocumentsStart : _batch.length();
+                    String result = null;
+                    if (_batchHasDocuments && !_splitDisabled && (cutAt > 0)
+                            && (cutAt >= _minBatchLength)) {
+                        result = _batchPrefix + _batch.substring(0, cutAt);
+                        _batch.delete(0, cutAt);
+                        _batchPrefix = _directives(_tagHandles);
+                    }
+                    _tagHandles.putAll(_pendingTagHandles);
+                    _pendingTagHandles.clear();
+                    _batch.append(_line);
+                    _betweenDocuments = false;
+                    _batchHasDocuments = true;
+                    if (result != null) {
+                        return result;
+                    }
+                }
+                continue;
+            case LINE_DOCUMENT_END:
+                _batch.append(_line);
+                _betweenDocuments = true;
+                _betweenDocumentsStart = _batch.length();
+                _batchHasDocuments = true;
+                continue;
+            case LINE_DIRECTIVE:
+                if (_betweenDocuments) {
+                    _handleDirective(_line);
+                } else {
+                    // may be a directive, or part of a (plain) scalar:
+                    // can not tell without full scanning
+                    _splitDisabled = true;
+                }
+                break;
+            case LINE_BLANK_OR_COMMENT:
+                break;
+            default:
+                _betweenDocuments = false;
+                _batchHasDocuments = true;
+            }
+            _batch.append(_line);
+        }
+        if (_batch.length() == 0) {
+            return null;
+        }
+        String result = _batchPrefix + _batch;
+        _batch.setLength(0);
+        _batchPrefix = "";
+        return result;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, line handling
+    /**********************************************************************
+     */
+
+    protected int _lineType(CharSequence line)
+    {
+        final int len = line.length();
+        if (len == 0) {
+            return LINE_BLANK_OR_COMMENT;
+        }
+        char c = line.charAt(0);
+        if (c == '-' || c == '.') {
+            if (len >= 3 && line.charAt(1) == c && line.charAt(2) == c
+                    && (len == 3 || _isBlankOrBreak(line.charAt(3)))) {
+                return (c == '-') ? LINE_DOCUMENT_START : LINE_DOCUMENT_END;
+            }
+            return LINE_OTHER;
+        }
+        if (c == '%') {
+            return LINE_DIRECTIVE;
+        }
+        for (int i = 0; i < len; ++i) {
+            c = line.charAt(i);
+            if (c == '#') {
+                return LINE_BLANK_OR_COMMENT;
+            }
+            if (!_isBlankOrBreak(c)) {
+                return LINE_OTHER;
+            }
+        }
+        return LINE_BLANK_OR_COMMENT;
+    }
+
+    /**
+     * Method called for directive lines found between documents: will
+     * collect tag handle declarations.
+     */
+    protected void _handleDirective(CharSequence line)
+    {
+        // "%TAG <handle> <prefix>"
+        final int len = line.length();
+        if (len < 5 || !"%TAG".contentEquals(line.subSequence(0, 4))
+                || !_isBlank(line.charAt(4))) {
+            return;
+        }
+        int i = _skipBlanks(line, 4);
+        int handleEnd = _skipNonBlanks(line, i);
+        int prefixStart = _skipBlanks(line, handleEnd);
+        int prefixEnd = _skipNonBlanks(line, prefixStart);
+        if (handleEnd > i && prefixEnd > prefixStart) {
+            _pendingTagHandles.put(line.subSequence(i, handleEnd).toString(),
+                    line.subSequence(prefixStart, prefixEnd).toString());
+        }
+    }
+
+    protected String _directives(Map<String,String> tagHandles)
+    {
+        if (tagHandles.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String,String> entry : tagHandles.entrySet()) {
+            sb.append("%TAG ").append(entry.getKey()).append(' ')
+                .append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Method for reading the next line (including line break) into
+     * {@link #_line}.
+     *
+     * @return True if a line was read; false if end of input was reached
+     */
+    protected boolean _readLine() throws IOException
+    {
+        _line.setLength(0);
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                if (!_loadMore()) {
+                    return _line.length() > 0;
+                }
+            }
+            final int start = _inputPtr;
+            while (_inputPtr < _inputEnd) {
+                char c = _inputBuffer[_inputPtr++];
+                if (c == '\r') {
+                    _line.append(_inputBuffer, start, _inputPtr - start);
+                    // need to combine "\r\n"
+                    if (_inputPtr < _inputEnd || _loadMore()) {
+                        if (_inputBuffer[_inputPtr] == '\n') {
+                            _line.append('\n');
+                            ++_inputPtr;
+                        }
+                    }
+                    return true;
+                }
+                if (_isLineBreak(c)) {
+                    _line.append(_inputBuffer, start, _inputPtr - start);
+                    return true;
+                }
+            }
+            _line.append(_inputBuffer, start, _inputPtr - start);
+        }
+    }
+
+    protected boolean _loadMore() throws IOException
+    {
+        if (_inputDone) {
+            return false;
+        }
+        int count = _reader.read(_inputBuffer, 0, _inputBuffer.length);
+        if (count <= 0) {
+            _inputDone = true;
+            _inputPtr = _inputEnd = 0;
+            return false;
+        }
+        _inputPtr = 0;
+        _inputEnd = count;
+        return true;
+    }
+
+    // Same line breaks as recognized by SnakeYAML (except for "\r" which
+    // is handled separately)
+    private static boolean _isLineBreak(char c) {
+        return (c == '\n') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029');
+    }
+
+    private static boolean _isBlank(char c) {
+        return (c == ' ') || (c == '\t');
+    }
+
+    // NOTE: includes NUL, same as SnakeYAML checks for document markers
+    private static boolean _isBlankOrBreak(char c) {
+        return _isBlank(c) || (c == '\r') || (c == '\0') || _isLineBreak(c);
+    }
+
+    private static int _skipBlanks(CharSequence line, int i) {
+        final int len = line.length();
+        while (i < len && _isBlank(line.charAt(i))) {
+            ++i;
+        }
+        return i;
+    }
+
+    private static int _skipNonBlanks(CharSequence line, int i) {
+        final int len = line.length();
+        while (i < len && !_isBlankOrBreak(line.charAt(i))) {
+            ++i;
+        }
+        return i;
+    }
+}
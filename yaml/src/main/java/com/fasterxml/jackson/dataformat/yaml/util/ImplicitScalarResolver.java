@@ -0,0 +1,321 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * Helper class used by {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser}
+ * to resolve type of plain (unquoted, untagged) scalar values, without using
+ * regular expressions.
+ *<p>
+ * Resolution is equivalent to that of the default SnakeYAML
+ * {@link org.yaml.snakeyaml.resolver.Resolver} for types that Jackson exposes
+ * as distinct tokens: {@link Tag#NULL}, {@link Tag#BOOL}, {@link Tag#INT} and
+ * {@link Tag#FLOAT}; all other values (including timestamps and merge keys)
+ * are resolved as {@link Tag#STR}.
+ *<p>
+ * Instances are stateless and may be freely shared.
+ *
+ * @since 2.19
+ */
+public class ImplicitScalarResolver
+{
+    /**
+     * Maximum length of values that may be resolved as numbers: same as
+     * the limit the default SnakeYAML resolver uses.
+     */
+    protected final static int MAX_NUMBER_LENGTH = 1024;
+
+    private final static ImplicitScalarResolver INSTANCE = new ImplicitScalarResolver();
+
+    protected ImplicitScalarResolver() { }
+
+    public static ImplicitScalarResolver instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Method for resolving type of given plain scalar value.
+     *
+     * @return One of {@link Tag#NULL}, {@link Tag#BOOL}, {@link Tag#INT},
+     *   {@link Tag#FLOAT} or {@link Tag#STR}
+     */
+    public Tag resolve(String value)
+    {
+        final int len = value.length();
+        if (len == 0) {
+            return Tag.NULL;
+        }
+        switch (value.charAt(0)) {
+        case '~':
+        case ' ':
+            return (len == 1) ? Tag.NULL : Tag.STR;
+        case 'n':
+        case 'N':
+            if (_isBoolean(value, len)) {
+                return Tag.BOOL;
+            }
+            return (len == 4 && _matchWord(value, "null", "Null", "NULL")) ? Tag.NULL : Tag.STR;
+        case 'y': case 'Y':
+        case 't': case 'T':
+        case 'f': case 'F':
+        case 'o': case 'O':
+            return _isBoolean(value, len) ? Tag.BOOL : Tag.STR;
+        case '-': case '+':
+        case '0': case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            if (len <= MAX_NUMBER_LENGTH) {
+                if (_isInt(value, len)) {
+                    return Tag.INT;
+                }
+                if (_isFloat(value, len)) {
+                    return Tag.FLOAT;
+                }
+            }
+            return Tag.STR;
+        case '.':
+            return ((len <= MAX_NUMBER_LENGTH) && _isFloat(value, len)) ? Tag.FLOAT : Tag.STR;
+        default:
+            return Tag.STR;
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods, booleans
+    /**********************************************************************
+     */
+
+    // Matches "yes|Yes|YES|no|No|NO|true|True|TRUE|false|False|FALSE|on|On|ON|off|Off|OFF"
+    protected boolean _isBoolean(String value, int len)
+    {
+        switch (len) {
+        case 2:
+            return _matchWord(value, "no", "No", "NO")
+                    || _matchWord(value, "on", "On", "ON");
+        case 3:
+            return _matchWord(value, "yes", "Yes", "YES")
+                    || _matchWord(value, "off", "Off", "OFF");
+        case 4:
+            return _matchWord(value, "true", "True", "TRUE");
+        case 5:
+            return _matchWord(value, "false", "False", "FALSE");
+        }
+        return false;
+    }
+
+    private final static boolean _matchWord(String value, String lc, String cap, String uc) {
+        return lc.equals(value) || cap.equals(value) || uc.equals(value);
+    }
+
+    // Same as above, but for the rest of value starting at given offset
+    private final static boolean _matchWord(String value, int offset,
+            String lc, String cap, String uc) {
+        final int len = lc.length();
+        return value.regionMatches(offset, lc, 0, len)
+                || value.regionMatches(offset, cap, 0, len)
+                || value.regionMatches(offset, uc, 0, len);
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods, numbers
+    /**********************************************************************
+     */
+
+    // Matches:
+    //   [-+]?0b_*[0-1][0-1_]*
+    //   [-+]?0_*[0-7][0-7_]*
+    //   [-+]?(?:0|[1-9][0-9_]*)
+    //   [-+]?0x_*[0-9a-fA-F][0-9a-fA-F_]*
+    //   [-+]?[1-9][0-9_]*(?::[0-5]?[0-9])+
+    protected boolean _isInt(String value, int len)
+    {
+        int i = 0;
+        char c = value.charAt(0);
+        if (c == '-' || c == '+') {
+            if (++i == len) {
+                return false;
+            }
+            c = value.charAt(i);
+        }
+        if (c == '0') {
+            if (++i == len) {
+                return true;
+            }
+            c = value.charAt(i);
+            if (c == 'b') {
+                return _isDigits(value, i+1, len, 2);
+            }
+            if (c == 'x') {
+                return _isDigits(value, i+1, len, 16);
+            }
+            return _isDigits(value, i, len, 8);
+        }
+        if (c < '1' || c > '9') {
+            return false;
+        }
+        i = _skipDecimalDigits(value, i+1, len);
+        if (i == len) {
+            return true;
+        }
+        // Base 60 ("1:30")?
+        return _skipSexagesimal(value, i, len) == len;
+    }
+
+    // Matches:
+    //   [-+]?(?:[0-9][0-9_]*)\.[0-9_]*(?:[eE][-+]?[0-9]+)?
+    //   [-+]?(?:[0-9][0-9_]*)(?:[eE][-+]?[0-9]+)
+    //   [-+]?\.[0-9_]+(?:[eE][-+]?[0-9]+)?
+    //   [-+]?[0-9][0-9_]*(?::[0-5]?[0-9])+\.[0-9_]*
+    //   [-+]?\.(?:inf|Inf|INF)
+    //   \.(?:nan|NaN|NAN)
+    protected boolean _isFloat(String value, int len)
+    {
+        int i = 0;
+        char c = value.charAt(0);
+        final boolean signed = (c == '-' || c == '+');
+        if (signed) {
+            if (++i == len) {
+                return false;
+            }
+            c = value.charAt(i);
+        }
+        if (c == '.') {
+            ++i;
+            if (len - i == 3) {
+                if (_matchWord(value, i, "inf", "Inf", "INF")) {
+                    return true;
+                }
+                if (!signed && _matchWord(value, i, "nan", "NaN", "NAN")) {
+                    return true;
+                }
+            }
+            int end = _skipDecimalDigits(value, i, len);
+            return (end > i) && _isOptionalExponent(value, end, len);
+        }
+        if (c < '0' || c > '9') {
+            return false;
+        }
+        i = _skipDecimalDigits(value, i+1, len);
+        if (i == len) {
+            return false;
+        }
+        c = value.charAt(i);
+        if (c == '.') {
+            return _isOptionalExponent(value, _skipDecimalDigits(value, i+1, len), len);
+        }
+        if (c == 'e' || c == 'E') {
+            return _isOptionalExponent(value, i, len);
+        }
+        if (c == ':') {
+            i = _skipSexagesimal(value, i, len);
+            if ((i < 0) || (i == len) || value.charAt(i) != '.') {
+                return false;
+            }
+            return _skipDecimalDigits(value, i+1, len) == len;
+        }
+        return false;
+    }
+
+    // Matches "_*[digit][digit_]*" till the end
+    private final static boolean _isDigits(String value, int i, int len, int radix)
+    {
+        while (i < len && value.charAt(i) == '_') {
+            ++i;
+        }
+        if (i == len || !_isDigit(value.charAt(i), radix)) {
+            return false;
+        }
+        for (++i; i < len; ++i) {
+            char c = value.charAt(i);
+            if (c != '_' && !_isDigit(c, radix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Skips "[0-9_]*", returns index of the first other character
+    private final static int _skipDecimalDigits(String value, int i, int len)
+    {
+        for (; i < len; ++i) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && c != '_') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // Skips "(?::[0-5]?[0-9])+", returns index of the first other character
+    // or -1 if no match
+    private final static int _skipSexagesimal(String value, int i, int len)
+    {
+        if (value.charAt(i) != ':') {
+            return -1;
+        }
+        do {
+            int start = ++i;
+            while (i < len && _isDecimal(value.charAt(i))) {
+                ++i;
+            }
+            switch (i - start) {
+            case 1:
+                break;
+            case 2:
+                if (value.charAt(start) > '5') {
+                    return -1;
+                }
+                break;
+            default:
+                return -1;
+            }
+        } while (i < len && value.charAt(i) == ':');
+        return i;
+    }
+
+    // Matches "(?:[eE][-+]?[0-9]+)?" till the end
+    private final static boolean _isOptionalExponent(String value, int i, int len)
+    {
+        if (i == len) {
+            return true;
+        }
+        char c = value.charAt(i);
+        if (c != 'e' && c != 'E') {
+            return false;
+        }
+        if (++i == len) {
+            return false;
+        }
+        c = value.charAt(i);
+        if (c == '-' || c == '+') {
+            if (++i == len) {
+                return false;
+            }
+        }
+        for (; i < len; ++i) {
+            if (!_isDecimal(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final static boolean _isDecimal(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    // NOTE: only ASCII digits accepted, unlike with Character.digit()
+    private final static boolean _isDigit(char c, int radix) {
+        switch (radix) {
+        case 2:
+            return (c == '0') || (c == '1');
+        case 8:
+            return (c >= '0') && (c <= '7');
+        case 16:
+            return _isDecimal(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        default:
+            return _isDecimal(c);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.Reader;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.parser.ParserException;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.scanner.ScannerException;
+
+/**
+ * Variant of SnakeYAML {@link StreamReader} used by
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser} when
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature#LIGHTWEIGHT_MARKS}
+ * is enabled. {@link Mark}s it creates only contain position (index, line, column)
+ * but no reference to the code point buffer, so that events retained by the
+ * caller do not keep earlier input windows reachable.
+ *<p>
+ * Since such marks can not render snippets of content, {@link #withFullMarks}
+ * is used to rebuild marks of exceptions (where still possible) before they
+ * are reported.
+ *
+ * @since 2.19
+ */
+public class LightweightStreamReader extends StreamReader
+{
+    /**
+     * Name SnakeYAML {@link StreamReader} uses for {@link Reader} sources
+     */
+    protected final static String SOURCE_NAME = "'reader'";
+
+    private final static int[] NO_SNIPPET = new int[0];
+
+    public LightweightStreamReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    public Mark getMark() {
+        return new Mark(SOURCE_NAME, getIndex(), getLine(), getColumn(), NO_SNIPPET, 0);
+    }
+
+    /**
+     * Method for rebuilding given exception with {@link Mark}s that can render
+     * snippets of content, to the degree content is still buffered (usually
+     * the case for the problem mark, which is at current read position).
+     *
+     * @param e Exception thrown by SnakeYAML scanner or parser
+     *
+     * @return Exception with full marks, if it could be rebuilt; {@code e} if not
+     */
+    public MarkedYAMLException withFullMarks(MarkedYAMLException e)
+    {
+        final Mark current = _currentFullMark();
+        final Mark contextMark = _fullMark(current, e.getContextMark());
+        final Mark problemMark = _fullMark(current, e.getProblemMark());
+        if ((contextMark == e.getContextMark()) && (problemMark == e.getProblemMark())) {
+            return e;
+        }
+        MarkedYAMLException result;
+        if (e instanceof ScannerException) {
+            result = new ScannerException(e.getContext(), contextMark, e.getProblem(), problemMark);
+        } else if (e instanceof ParserException) {
+            result = new ParserException(e.getContext(), contextMark, e.getProblem(), problemMark);
+        } else {
+            return e;
+        }
+        result.setStackTrace(e.getStackTrace());
+        return result;
+    }
+
+    /**
+     * Method for constructing {@link Mark} for current position, with reference
+     * to the code point buffer.
+     */
+    protected Mark _currentFullMark() {
+        return super.getMark();
+    }
+
+    private Mark _fullMark(Mark current, Mark m)
+    {
+        if (m == null || m.getBuffer() != NO_SNIPPET) {
+            return m;
+        }
+        final int[] buffer = current.getBuffer();
+        final int ptr = current.getPointer() - (current.getIndex() - m.getIndex());
+        if (ptr < 0 || ptr > buffer.length) { // no longer (or not yet) buffered
+            return m;
+        }
+        return new Mark(m.getName(), m.getIndex(), m.getLine(), m.getColumn(), buffer, ptr);
+    }
+}
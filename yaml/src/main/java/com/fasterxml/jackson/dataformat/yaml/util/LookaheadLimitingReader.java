@@ -0,0 +1,114 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+
+/**
+ * {@link Reader} wrapper used between input and SnakeYAML {@link StreamReader}
+ * to limit amount of content SnakeYAML keeps buffered ahead of its current
+ * position. {@link StreamReader} copies all buffered content every time it
+ * reads more, so scanning a long unbroken run of content (a long plain or
+ * quoted scalar chunk, a long line of a block scalar or comment) has cost
+ * quadratic in its length; and limits like
+ * {@link LoaderOptions#getCodePointLimit()} and
+ * {@link StreamReadConstraints#getMaxStringLength()} are only checked after
+ * the whole run has been scanned.
+ *<p>
+ * This reader fails as soon as amount of content buffered exceeds either limit
+ * (since content being scanned is then known to exceed it), keeping cost
+ * of reading content that exceeds limits proportional to its length.
+ *
+ * @since 2.19
+ */
+public class LookaheadLimitingReader extends Reader
+{
+    /**
+     * Maximum number of characters {@link StreamReader} reads at a time; content
+     * buffered may exceed content being scanned by this much.
+     */
+    protected final static int MAX_READ_AHEAD = 1024;
+
+    protected final Reader _source;
+
+    protected final StreamReadConstraints _constraints;
+
+    protected final int _codePointLimit;
+
+    /**
+     * SnakeYAML reader that reads from this reader, if known: needed for
+     * determining amount of content buffered
+     */
+    protected StreamReader _streamReader;
+
+    /**
+     * Number of code points returned so far
+     */
+    protected long _codePointsRead;
+
+    public LookaheadLimitingReader(Reader source, StreamReadConstraints constraints,
+            LoaderOptions loaderOptions)
+    {
+        _source = source;
+        _constraints = constraints;
+        _codePointLimit = ((loaderOptions == null) ? new LoaderOptions() : loaderOptions)
+                .getCodePointLimit();
+    }
+
+    public void setStreamReader(StreamReader r) {
+        _streamReader = r;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException
+    {
+        if (_streamReader != null) {
+            _checkBuffered(_codePointsRead - _streamReader.getIndex());
+        }
+        final int count = _source.read(cbuf, off, len);
+        if (count > 0) {
+            int cps = count;
+            for (int i = off, end = off + count; i < end; ++i) {
+                if (Character.isLowSurrogate(cbuf[i])) {
+                    --cps;
+                }
+            }
+            _codePointsRead += cps;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _source.close();
+    }
+
+    protected void _checkBuffered(long buffered) throws IOException
+    {
+        // Content scanned belongs to the document being read, so:
+        checkScanned(buffered - MAX_READ_AHEAD, _codePointLimit, _constraints);
+    }
+
+    /**
+     * Helper method for verifying that amount of content known to be
+     * scanned as a single unbroken run does not exceed limits.
+     */
+    static void checkScanned(long scanned, int codePointLimit, StreamReadConstraints constraints)
+        throws IOException
+    {
+        if (scanned > codePointLimit) {
+            // same failure as SnakeYAML itself reports
+            throw new YAMLException("The incoming YAML document exceeds the limit: "
+                    + codePointLimit + " code points.");
+        }
+        // and buffered content is only read ahead when scanning an unbroken run
+        if (scanned > constraints.getMaxStringLength()) {
+            constraints.validateStringLength((int) Math.min(scanned, Integer.MAX_VALUE));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.util.HashMap;
+
+/**
+ * Pre-parsed information about an explicit YAML tag, as needed by
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser} for decoding
+ * explicitly tagged scalars and for exposing tags as native type ids.
+ * Instances are immutable; use {@link Cache} to avoid re-parsing tags
+ * that occur repeatedly.
+ *
+ * @since 2.19
+ */
+public final class ParsedTag
+{
+    public final static String STANDARD_TAG_PREFIX = "tag:yaml.org,2002:";
+
+    /**
+     * Kind of standard tag that does not affect decoding of scalars
+     * (or of a tag that is not a standard tag)
+     */
+    public final static int KIND_OTHER = 0;
+
+    public final static int KIND_BINARY = 1;
+    public final static int KIND_BOOL = 2;
+    public final static int KIND_INT = 3;
+    public final static int KIND_FLOAT = 4;
+    public final static int KIND_NULL = 5;
+
+    /**
+     * Tag as exposed by SnakeYAML
+     */
+    public final String rawTag;
+
+    /**
+     * Tag exposed as native type id: raw tag without leading {@code '!'} characters
+     */
+    public final String typeId;
+
+    /**
+     * Type used for decoding scalars: raw tag without the standard
+     * tag prefix and anything after first comma, if tag has standard prefix;
+     * raw tag otherwise
+     */
+    public final String standardType;
+
+    /**
+     * Whether tag is a standard tag with multiple comma-separated types
+     */
+    public final boolean compound;
+
+    /**
+     * One of {@code KIND_xxx} constants, based on {@link #standardType}
+     */
+    public final int kind;
+
+    private ParsedTag(String rawTag, String typeId, String standardType, boolean compound) {
+        this.rawTag = rawTag;
+        this.typeId = typeId;
+        this.standardType = standardType;
+        this.compound = compound;
+        kind = _kind(standardType);
+    }
+
+    public static ParsedTag parse(String rawTag)
+    {
+        String typeId = rawTag;
+        while (typeId.startsWith("!")) {
+            typeId = typeId.substring(1);
+        }
+        String type = rawTag;
+        boolean compound = false;
+        if (rawTag.startsWith(STANDARD_TAG_PREFIX)) {
+            type = rawTag.substring(STANDARD_TAG_PREFIX.length());
+            int ix = type.indexOf(',');
+            if (ix >= 0) {
+                compound = true;
+                type = type.substring(0, ix);
+            }
+        }
+        return new ParsedTag(rawTag, typeId, type, compound);
+    }
+
+    private static int _kind(String type)
+    {
+        switch (type) {
+        case "binary":
+            return KIND_BINARY;
+        case "bool":
+            return KIND_BOOL;
+        case "int":
+            return KIND_INT;
+        case "float":
+            return KIND_FLOAT;
+        case "null":
+            return KIND_NULL;
+        default:
+            return KIND_OTHER;
+        }
+    }
+
+    /**
+     * Bounded cache of {@link ParsedTag}s, keyed by raw tag; not thread-safe,
+     * so meant to be used by a single parser. If the maximum size is reached,
+     * all entries are dropped, since documents typically use a small set of
+     * distinct tags.
+     */
+    public final static class Cache
+    {
+        public final static int DEFAULT_MAX_ENTRIES = 100;
+
+        private final HashMap<String, ParsedTag> _tags = new HashMap<>();
+
+        private final int _maxEntries;
+
+        public Cache() {
+            this(DEFAULT_MAX_ENTRIES);
+        }
+
+        public Cache(int maxEntries) {
+            _maxEntries = maxEntries;
+        }
+
+        public ParsedTag find(String rawTag)
+        {
+            ParsedTag tag = _tags.get(rawTag);
+            if (tag == null) {
+                tag = parse(rawTag);
+                if (_tags.size() >= _maxEntries) {
+                    _tags.clear();
+                }
+                _tags.put(rawTag, tag);
+            }
+            return tag;
+        }
+
+        public int size() {
+            return _tags.size();
+        }
+    }
+}
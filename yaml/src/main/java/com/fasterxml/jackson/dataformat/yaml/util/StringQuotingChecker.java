@@ -54,6 +54,21 @@ public abstract class StringQuotingChecker
      */
     public abstract boolean needToQuoteValue(String value);
 
+    /**
+     * Method called to check whether given String value, known to have been
+     * read from a plain (unquoted) YAML scalar, needs to be quoted when written.
+     * Since such values can not contain characters that would prevent them
+     * from being written as plain scalars, only checks for values that would
+     * be read as something other than String (like reserved keywords) are needed.
+     *<p>
+     * Default implementation simply calls {@link #needToQuoteValue(String)}.
+     *
+     * @since 2.19
+     */
+    public boolean needToQuotePlainValue(String value) {
+        return needToQuoteValue(value);
+    }
+
     /**
      * Helper method that sub-classes may use to see if given String value is
      * one of:
@@ -244,5 +259,149 @@ public abstract class StringQuotingChecker
             // Only consider reserved keywords but not numbers?
             return isReservedKeyword(value) || valueHasQuotableChar(value);
         }
+
+        /**
+         * Default implementation only calls {@link #isReservedKeyword(String)}
+         * (since characters checked by {@link #valueHasQuotableChar(String)}
+         * can only occur in positions where they are allowed).
+         */
+        @Override // since 2.19
+        public boolean needToQuotePlainValue(String value)
+        {
+            return isReservedKeyword(value);
+        }
+    }
+
+    /**
+     * Alternative {@link StringQuotingChecker} implementation that makes same
+     * decisions as {@link Default}, but uses a precomputed character class table
+     * to check names and values in a single pass: reserved keywords are
+     * only looked up for Strings that start with a character some keyword
+     * starts with. Since the check is cheap, and instances are stateless,
+     * decisions are not cached.
+     *<p>
+     * Note that unlike with {@link Default}, overriding helper methods
+     * (like {@link #isReservedKeyword(String)}) has no effect on decisions made.
+     *
+     * @since 2.19
+     */
+    public static class TableDriven
+        extends Default
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final static TableDriven INSTANCE = new TableDriven();
+
+        // Character classes for ASCII characters
+        private final static int CC_CONTROL = 0x01; // below 0x20: quote names
+        private final static int CC_FLOW = 0x02; // "[]{},": quote values
+        private final static int CC_HASH = 0x04; // quote values if at start or after blank
+        private final static int CC_COLON = 0x08; // quote values if at end or before blank
+        private final static int CC_BLANK = 0x10;
+        private final static int CC_NUMBER_START = 0x20; // quote names starting with
+        private final static int CC_KEYWORD_START = 0x40; // may start reserved keyword
+
+        private final static byte[] CHAR_CLASSES = new byte[128];
+        static {
+            for (int i = 0; i < 0x20; ++i) {
+                CHAR_CLASSES[i] = CC_CONTROL;
+            }
+            CHAR_CLASSES['\t'] |= CC_BLANK;
+            CHAR_CLASSES[' '] = CC_BLANK;
+            for (char c : "[]{},".toCharArray()) {
+                CHAR_CLASSES[c] = CC_FLOW;
+            }
+            CHAR_CLASSES['#'] = CC_HASH;
+            CHAR_CLASSES[':'] = CC_COLON;
+            for (char c : "0123456789-+.".toCharArray()) {
+                CHAR_CLASSES[c] = CC_NUMBER_START;
+            }
+            for (char c : "fnotyFNOTY".toCharArray()) {
+                CHAR_CLASSES[c] = CC_KEYWORD_START;
+            }
+        }
+
+        public TableDriven() { }
+
+        public static TableDriven instance() { return INSTANCE; }
+
+        @Override
+        public boolean needToQuoteName(String name)
+        {
+            final int end = name.length();
+            if (end == 0) {
+                return true;
+            }
+            final char first = name.charAt(0);
+            if (first < 128) {
+                final int cc = CHAR_CLASSES[first];
+                if ((cc & (CC_CONTROL | CC_NUMBER_START)) != 0) {
+                    return true;
+                }
+                if ((cc & CC_KEYWORD_START) != 0) {
+                    if (_isKeyword(name)) {
+                        return true;
+                    }
+                } else if (first == '~') {
+                    return true;
+                }
+            }
+            for (int i = 1; i < end; ++i) {
+                if (name.charAt(i) < 0x0020) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean needToQuoteValue(String value)
+        {
+            final int end = value.length();
+            if (end == 0) {
+                return true;
+            }
+            final char first = value.charAt(0);
+            if (first == '~') {
+                return true;
+            }
+            if ((first < 128) && (CHAR_CLASSES[first] & CC_KEYWORD_START) != 0
+                    && _isKeyword(value)) {
+                return true;
+            }
+            // Previous character was a blank (or start of value)?
+            boolean afterBlank = true;
+            for (int i = 0; i < end; ++i) {
+                final char c = value.charAt(i);
+                if (c >= 128) {
+                    afterBlank = false;
+                    continue;
+                }
+                final int cc = CHAR_CLASSES[c];
+                if ((cc & CC_FLOW) != 0) {
+                    return true;
+                }
+                if ((cc & CC_HASH) != 0) {
+                    if (afterBlank) {
+                        return true;
+                    }
+                } else if ((cc & CC_COLON) != 0) {
+                    if ((i + 1 == end) || _isBlank(value.charAt(i + 1))) {
+                        return true;
+                    }
+                }
+                afterBlank = (cc & CC_BLANK) != 0;
+            }
+            return false;
+        }
+
+        private static boolean _isKeyword(String value) {
+            // longest reserved keyword is 5 characters ("false", "FALSE")
+            return (value.length() <= 5) && RESERVED_KEYWORDS.contains(value);
+        }
+
+        private static boolean _isBlank(char c) {
+            return (c == ' ') || (c == '\t');
+        }
     }
 }
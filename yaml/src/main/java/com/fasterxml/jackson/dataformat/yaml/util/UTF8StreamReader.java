@@ -0,0 +1,252 @@
+package com.fasterxml.jackson.dataformat.yaml.util;
+
+import java.io.IOException;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.reader.ReaderException;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.scanner.Constant;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.dataformat.yaml.UTF8Reader;
+
+/**
+ * Replacement for SnakeYAML {@link StreamReader} used by
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser} for byte-based
+ * (UTF-8) input: instead of reading UTF-16 chars from a {@link java.io.Reader}
+ * and converting them into code points, it has {@link UTF8Reader} decode
+ * bytes directly into its code point buffer.
+ *<p>
+ * In addition, buffer management differs from {@link StreamReader} (which
+ * allocates and fills a new buffer for every read): content is appended to
+ * the current buffer while it has room, and a new buffer (sized relative to the
+ * amount of unread content) is only allocated when it does not. This keeps
+ * the cost of scanning long unbroken runs of content linear.
+ * Since {@link Mark}s created by {@link #getMark()} refer to the buffer,
+ * content already in it is never modified; except if
+ * {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature#LIGHTWEIGHT_MARKS}
+ * is enabled (marks do not refer to the buffer), in which case unread content
+ * is moved to the beginning of the buffer so it can be reused.
+ *<p>
+ * Limits of {@link LoaderOptions#getCodePointLimit()} and
+ * {@link StreamReadConstraints#getMaxStringLength()} are checked the same
+ * way as by {@link LookaheadLimitingReader}.
+ *
+ * @since 2.19
+ */
+public class UTF8StreamReader extends LightweightStreamReader
+{
+    /**
+     * Maximum number of code points read at a time: same as
+     * {@link LookaheadLimitingReader#MAX_READ_AHEAD}, since that is how
+     * much content may be buffered beyond content being scanned.
+     */
+    protected final static int READ_CHUNK = LookaheadLimitingReader.MAX_READ_AHEAD;
+
+    /**
+     * Minimum amount of room for new content in newly allocated buffers.
+     */
+    protected final static int MIN_ROOM = 4 * READ_CHUNK;
+
+    private final static int[] NO_CONTENT = new int[0];
+
+    protected final UTF8Reader _source;
+
+    protected final StreamReadConstraints _constraints;
+
+    protected final int _codePointLimit;
+
+    protected final boolean _lightweightMarks;
+
+    private int[] _buffer = NO_CONTENT;
+
+    /**
+     * Index of the current code point within {@link #_buffer}
+     */
+    private int _pointer;
+
+    /**
+     * End of content within {@link #_buffer}
+     */
+    private int _end;
+
+    private boolean _eof;
+
+    private int _index, _documentIndex, _line, _column;
+
+    public UTF8StreamReader(UTF8Reader source, StreamReadConstraints constraints,
+            LoaderOptions loaderOptions, boolean lightweightMarks)
+    {
+        super(source);
+        _source = source;
+        _constraints = constraints;
+        _codePointLimit = ((loaderOptions == null) ? new LoaderOptions() : loaderOptions)
+                .getCodePointLimit();
+        _lightweightMarks = lightweightMarks;
+    }
+
+    /*
+    /**********************************************************************
+    /* StreamReader overrides
+    /**********************************************************************
+     */
+
+    @Override
+    public Mark getMark() {
+        return _lightweightMarks ? super.getMark() : _currentFullMark();
+    }
+
+    @Override
+    protected Mark _currentFullMark() {
+        return new Mark(SOURCE_NAME, _index, _line, _column, _buffer, _pointer);
+    }
+
+    @Override
+    public void forward() {
+        forward(1);
+    }
+
+    @Override
+    public void forward(int length)
+    {
+        for (int i = 0; i < length && _ensureContent(0); i++) {
+            int c = _buffer[_pointer++];
+            ++_index;
+            ++_documentIndex;
+            if (Constant.LINEBR.has(c)
+                    || (c == '\r' && (_ensureContent(0) && _buffer[_pointer] != '\n'))) {
+                ++_line;
+                _column = 0;
+            } else if (c != 0xFEFF) {
+                ++_column;
+            }
+        }
+    }
+
+    @Override
+    public int peek() {
+        if (_pointer < _end) {
+            return _buffer[_pointer];
+        }
+        return _ensureContent(0) ? _buffer[_pointer] : '\0';
+    }
+
+    @Override
+    public int peek(int index) {
+        if (_pointer + index < _end) {
+            return _buffer[_pointer + index];
+        }
+        return _ensureContent(index) ? _buffer[_pointer + index] : '\0';
+    }
+
+    @Override
+    public String prefix(int length) {
+        if (length == 0) {
+            return "";
+        }
+        if (_ensureContent(length)) {
+            return new String(_buffer, _pointer, length);
+        }
+        return new String(_buffer, _pointer, Math.min(length, _end - _pointer));
+    }
+
+    @Override
+    public String prefixForward(int length) {
+        final String prefix = prefix(length);
+        _pointer += length;
+        _index += length;
+        _documentIndex += length;
+        // prefix never contains new line characters
+        _column += length;
+        return prefix;
+    }
+
+    @Override
+    public int getColumn() {
+        return _column;
+    }
+
+    @Override
+    public int getDocumentIndex() {
+        return _documentIndex;
+    }
+
+    @Override
+    public void resetDocumentIndex() {
+        _documentIndex = 0;
+    }
+
+    @Override
+    public int getIndex() {
+        return _index;
+    }
+
+    @Override
+    public int getLine() {
+        return _line;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    /**
+     * @return Whether code point at given offset from the current position
+     *    is available (reading more content if necessary)
+     */
+    private boolean _ensureContent(int offset)
+    {
+        while (_pointer + offset >= _end) {
+            if (_eof) {
+                return false;
+            }
+            _loadMore();
+        }
+        return true;
+    }
+
+    private void _loadMore()
+    {
+        final int unread = _end - _pointer;
+        try {
+            LookaheadLimitingReader.checkScanned(unread - READ_CHUNK, _codePointLimit, _constraints);
+            if (_buffer.length - _end < READ_CHUNK) {
+                _makeRoom(unread);
+            }
+            final int start = _end;
+            final int count = _source.readCodePoints(_buffer, start,
+                    Math.min(READ_CHUNK, _buffer.length - start));
+            if (count < 0) {
+                _eof = true;
+                return;
+            }
+            _end = start + count;
+            for (int i = start; i < _end; ++i) {
+                final int c = _buffer[i];
+                if (!StreamReader.isPrintable(c)) {
+                    throw new ReaderException(SOURCE_NAME, _index + (i - _pointer), c,
+                            "special characters are not allowed");
+                }
+            }
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    private void _makeRoom(int unread)
+    {
+        if (_lightweightMarks && (_buffer.length - unread) >= MIN_ROOM) {
+            System.arraycopy(_buffer, _pointer, _buffer, 0, unread);
+        } else {
+            final int[] old = _buffer;
+            _buffer = new int[unread + Math.max(unread, MIN_ROOM)];
+            System.arraycopy(old, _pointer, _buffer, 0, unread);
+        }
+        _pointer = 0;
+        _end = unread;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.DumperOptions;
+
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.IOContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tests to verify that DumperOptions built by factory are shared by generators
+public class DumperOptionsSharingTest extends ModuleTestBase
+{
+    @Test
+    public void testOptionsShared() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory();
+        DumperOptions opts;
+        try (YAMLGenerator g1 = f.createGenerator(new StringWriter());
+                YAMLGenerator g2 = f.createGenerator(new StringWriter())) {
+            opts = g1._outputOptions;
+            assertSame(opts, g2._outputOptions);
+            assertEquals(DumperOptions.FlowStyle.BLOCK, opts.getDefaultFlowStyle());
+            assertFalse(opts.isCanonical());
+            g1.writeString("a");
+            g2.writeString("b");
+        }
+
+        // but rebuilt if features change
+        f.enable(YAMLGenerator.Feature.CANONICAL_OUTPUT);
+        try (YAMLGenerator g = f.createGenerator(new StringWriter())) {
+            assertNotSame(opts, g._outputOptions);
+            assertTrue(g._outputOptions.isCanonical());
+            g.writeNull();
+        }
+        f.disable(YAMLGenerator.Feature.CANONICAL_OUTPUT);
+        try (YAMLGenerator g = f.createGenerator(new StringWriter())) {
+            assertFalse(g._outputOptions.isCanonical());
+            g.writeNull();
+        }
+    }
+
+    @Test
+    public void testVersionKeptSeparate() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .yamlVersionToWrite(DumperOptions.Version.V1_1)
+                .build();
+        StringWriter w = new StringWriter();
+        try (YAMLGenerator g = f.createGenerator(w)) {
+            assertNull(g._outputOptions.getVersion());
+            g.writeString("x");
+        }
+        assertEquals("%YAML 1.1\n--- \"x\"\n", w.toString());
+    }
+
+    static class CustomGenerator extends YAMLGenerator
+    {
+        CustomGenerator(IOContext ctxt, int jsonFeatures, int yamlFeatures,
+                ObjectCodec codec, Writer out, DumperOptions builtOptions) throws IOException {
+            super(ctxt, jsonFeatures, yamlFeatures, null, codec, out, null, builtOptions);
+            // may modify options of its own
+            _outputOptions.setIndent(4);
+        }
+    }
+
+    @Test
+    public void testOptionsNotSharedWithSubclasses() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected YAMLGenerator _createGenerator(Writer out, IOContext ctxt) throws IOException {
+                return new CustomGenerator(ctxt, _generatorFeatures, _yamlGeneratorFeatures,
+                        _objectCodec, out, _builtDumperOptions(_yamlGeneratorFeatures));
+            }
+        };
+        try (YAMLGenerator custom = f.createGenerator(new StringWriter());
+                YAMLGenerator g = new YAMLFactory().createGenerator(new StringWriter())) {
+            assertNotSame(f._builtDumperOptions(f.getFormatGeneratorFeatures()), custom._outputOptions);
+            assertEquals(4, custom._outputOptions.getIndent());
+            assertEquals(2, f._builtDumperOptions(f.getFormatGeneratorFeatures()).getIndent());
+            assertEquals(2, g._outputOptions.getIndent());
+            custom.writeNull();
+            g.writeNull();
+        }
+    }
+
+    @Test
+    public void testExplicitOptionsUsed() throws Exception
+    {
+        DumperOptions opts = new DumperOptions();
+        opts.setIndent(4);
+        YAMLFactory f = YAMLFactory.builder()
+                .dumperOptions(opts)
+                .build();
+        try (YAMLGenerator g = f.createGenerator(new StringWriter())) {
+            assertSame(opts, g._outputOptions);
+            g.writeNull();
+        }
+    }
+}
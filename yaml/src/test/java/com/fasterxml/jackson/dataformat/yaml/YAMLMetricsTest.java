@@ -0,0 +1,83 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YAMLMetricsTest extends ModuleTestBase
+{
+    @Test
+    public void testReadMetrics() throws Exception
+    {
+        YAMLMetrics.Counters counters = new YAMLMetrics.Counters();
+        YAMLMapper mapper = new YAMLMapper(YAMLFactory.builder()
+                .metrics(counters)
+                .build());
+        assertSame(counters, mapper.getFactory().getMetrics());
+
+        final String YAML = "---\na: &x 1\nb: *x\n---\nc: 3\n";
+        List<JsonNode> docs = mapper.readerFor(JsonNode.class)
+                .<JsonNode>readValues(YAML)
+                .readAll();
+        assertEquals(2, docs.size());
+
+        assertEquals(2, counters.getDocumentsRead());
+        assertEquals(1, counters.getAliasesRead());
+        assertEquals(0, counters.getAliasExpansions());
+        assertEquals(1, counters.getParsersClosed());
+        assertEquals(YAML.length(), counters.getCharsRead());
+        assertEquals(0, counters.getDocumentsWritten());
+    }
+
+    @Test
+    public void testAliasExpansionMetrics() throws Exception
+    {
+        YAMLMetrics.Counters counters = new YAMLMetrics.Counters();
+        YAMLMapper mapper = new YAMLMapper(new YAMLAnchorReplayingFactory(
+                YAMLFactory.builder().metrics(counters).build(), null));
+        Map<?, ?> result = mapper.readValue("a: &x\n  b: 1\n  c: 2\nd: *x\ne: *x\n", Map.class);
+        assertEquals(result.get("a"), result.get("d"));
+        assertEquals(result.get("a"), result.get("e"));
+
+        // aliases are replaced by content, not exposed
+        assertEquals(0, counters.getAliasesRead());
+        assertEquals(2, counters.getAliasExpansions());
+        // mapping start/end, 2 keys, 2 values
+        assertEquals(12, counters.getEventsReplayed());
+    }
+
+    @Test
+    public void testWriteMetrics() throws Exception
+    {
+        YAMLMetrics.Counters counters = new YAMLMetrics.Counters();
+        YAMLMapper mapper = new YAMLMapper(YAMLFactory.builder()
+                .metrics(counters)
+                .build());
+        StringWriter w = new StringWriter();
+        try (SequenceWriter seq = mapper.writer().writeValues(w)) {
+            seq.write(Collections.singletonMap("x", 1));
+            seq.write(Collections.singletonMap("x", 2));
+        }
+        assertEquals(2, counters.getDocumentsWritten());
+        assertTrue(counters.getOutputFlushes() > 0);
+        assertEquals(0, counters.getDocumentsRead());
+    }
+
+    @Test
+    public void testNoMetricsByDefault() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory();
+        assertNull(f.getMetrics());
+        assertNull(f.rebuild().metrics());
+        YAMLMetrics.Counters counters = new YAMLMetrics.Counters();
+        assertSame(counters, f.rebuild().metrics(counters).build().copy().getMetrics());
+    }
+}
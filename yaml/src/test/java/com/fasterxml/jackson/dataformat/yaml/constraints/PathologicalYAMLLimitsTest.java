@@ -0,0 +1,277 @@
+package com.fasterxml.jackson.dataformat.yaml.constraints;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for verifying that reading pathological content (as may be sent by
+ * malicious clients) either fails due to limits of {@link LoaderOptions}
+ * and {@link StreamReadConstraints}, or succeeds, with time and memory
+ * allocation proportional to the length of content (up to the point of failure).
+ *<p>
+ * Each shape is read with two sizes, one 4 times the other: amount of memory
+ * allocated for the bigger one must not exceed {@link #MAX_GROWTH} times
+ * that of the smaller one (quadratic behavior would result in 16 times),
+ * and reading has to complete within {@link #MAX_MSECS}.
+ */
+public class PathologicalYAMLLimitsTest extends ModuleTestBase
+{
+    private final static int SIZE_FACTOR = 4;
+
+    private final static double MAX_GROWTH = 6.0;
+
+    // very generous to avoid failures on slow build machines; quadratic
+    // processing of inputs used would take much longer
+    private final static long MAX_MSECS = 5000L;
+
+    // allocations not due to content (buffers, lazily initialized JDK classes)
+    private final static long ALLOCATION_SLACK = 256 * 1024;
+
+    interface Shape {
+        String create(int size);
+    }
+
+    // Unbalanced flow sequences: "[[[[..."
+    private final static Shape NESTED_FLOW = size -> {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; ++i) {
+            sb.append('[');
+        }
+        return sb.toString();
+    };
+
+    // Single anchored sequence referenced by a big number of aliases
+    private final static Shape ALIAS_FAN_OUT = size -> {
+        StringBuilder sb = new StringBuilder("a: &a [");
+        for (int i = 0; i < 100; ++i) {
+            sb.append("x, ");
+        }
+        sb.append("y]\nb: [");
+        while (sb.length() < size) {
+            sb.append("*a, ");
+        }
+        return sb.append("*a]\n").toString();
+    };
+
+    // Plain scalar value of given length
+    private final static Shape HUGE_SCALAR = size -> {
+        StringBuilder sb = new StringBuilder(size + 10).append("key: ");
+        while (sb.length() < size) {
+            sb.append("abcdefghij");
+        }
+        return sb.append('\n').toString();
+    };
+
+    // Plain scalar key of given length (explicit, as simple keys are limited to 1024 chars)
+    private final static Shape HUGE_KEY = size -> {
+        StringBuilder sb = new StringBuilder(size + 10).append("? ");
+        while (sb.length() < size) {
+            sb.append("abcdefghij");
+        }
+        return sb.append("\n: value\n").toString();
+    };
+
+    // Big number of minimal documents
+    private final static Shape MANY_DOCUMENTS = size -> {
+        StringBuilder sb = new StringBuilder(size + 20);
+        for (int i = 0; sb.length() < size; ++i) {
+            sb.append("--- {id: ").append(i).append("}\n");
+        }
+        return sb.toString();
+    };
+
+    private final static YAMLFactory DEFAULT_F = new YAMLFactory();
+
+    private final static YAMLFactory REPLAYING_F = new YAMLAnchorReplayingFactory();
+
+    /*
+    /**********************************************************************
+    /* Test methods, StreamReadConstraints
+    /**********************************************************************
+     */
+
+    @Test
+    public void testNestedFlowCollections() throws Exception
+    {
+        for (YAMLFactory f : _factories(StreamReadConstraints.builder()
+                .maxNestingDepth(500).build(), null)) {
+            _verifyLinear(f, NESTED_FLOW, 50_000,
+                    "Document nesting depth (501) exceeds the maximum allowed (500");
+        }
+        // and with default limit too
+        for (YAMLFactory f : new YAMLFactory[] { DEFAULT_F, REPLAYING_F }) {
+            _verifyLinear(f, NESTED_FLOW, 50_000, "Document nesting depth (1001)");
+        }
+    }
+
+    @Test
+    public void testHugeScalar() throws Exception
+    {
+        for (YAMLFactory f : _factories(StreamReadConstraints.builder()
+                .maxStringLength(10_000).build(), null)) {
+            _verifyLinear(f, HUGE_SCALAR, 50_000,
+                    "exceeds the maximum allowed (10000, from `StreamReadConstraints.getMaxStringLength()`)");
+        }
+    }
+
+    @Test
+    public void testHugeKey() throws Exception
+    {
+        for (YAMLFactory f : _factories(StreamReadConstraints.builder()
+                .maxNameLength(1_000).build(), null)) {
+            for (boolean canonicalize : new boolean[] { true, false }) {
+                f.configure(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES, canonicalize);
+                _read(f, HUGE_KEY.create(5_000), "Name length", true);
+            }
+        }
+        // but since keys are not known to be names while scanning, cost of
+        // scanning huge ones is only bounded by maximum String length
+        for (YAMLFactory f : _factories(StreamReadConstraints.builder()
+                .maxNameLength(1_000)
+                .maxStringLength(20_000)
+                .build(), null)) {
+            _verifyLinear(f, HUGE_KEY, 200_000, "String value length");
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Test methods, LoaderOptions
+    /**********************************************************************
+     */
+
+    @Test
+    public void testDocumentSizeLimit() throws Exception
+    {
+        LoaderOptions opts = new LoaderOptions();
+        opts.setCodePointLimit(20_000);
+        for (YAMLFactory f : _factories(null, opts)) {
+            _verifyLinear(f, HUGE_SCALAR, 50_000, "The incoming YAML document exceeds the limit");
+            // limit is per document, so many small documents are fine
+            _verifyLinear(f, MANY_DOCUMENTS, 200_000, null);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Test methods, aliases
+    /**********************************************************************
+     */
+
+    @Test
+    public void testAliasFanOut() throws Exception
+    {
+        // aliases not expanded by default
+        _verifyLinear(DEFAULT_F, ALIAS_FAN_OUT, 200_000, null);
+
+        YAMLAnchorReplayingFactory f = new YAMLAnchorReplayingFactory()
+                .setMaxReplayedEvents(20_000);
+        _verifyLinear(f, ALIAS_FAN_OUT, 200_000,
+                "Number of events replayed for aliases exceeds the maximum allowed");
+        f = new YAMLAnchorReplayingFactory()
+                .setMaxReplayedLength(50_000L);
+        _verifyLinear(f, ALIAS_FAN_OUT, 200_000, "exceeds the maximum allowed");
+    }
+
+    @Test
+    public void testManyDocuments() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { DEFAULT_F, REPLAYING_F }) {
+            _verifyLinear(f, MANY_DOCUMENTS, 200_000, null);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private YAMLFactory[] _factories(StreamReadConstraints src, LoaderOptions opts)
+    {
+        YAMLFactoryBuilder b = YAMLFactory.builder();
+        if (src != null) {
+            b = b.streamReadConstraints(src);
+        }
+        if (opts != null) {
+            b = b.loaderOptions(opts);
+        }
+        YAMLFactory f = b.build();
+        return new YAMLFactory[] { f, new YAMLAnchorReplayingFactory(f, null) };
+    }
+
+    /**
+     * Method that reads content of given shape with two sizes, verifying that
+     * reading fails as expected (or succeeds, if no failure message given) and
+     * that time and memory used is proportional to the length of content.
+     */
+    private void _verifyLinear(YAMLFactory f, Shape shape, int size, String failure)
+        throws Exception
+    {
+        final String small = shape.create(size / SIZE_FACTOR);
+        final String big = shape.create(size);
+        // first a warm-up round, to exclude class loading and such
+        _read(f, small, failure, false);
+        final long smallBytes = _read(f, small, failure, false);
+        final long start = System.nanoTime();
+        final long bigBytes = _read(f, big, failure, true);
+        final long msecs = (System.nanoTime() - start) / 1_000_000L;
+
+        final String desc = f.getClass().getSimpleName()+"/"+shape.create(20)+"...: ";
+        assertTrue(msecs < MAX_MSECS, desc+"took "+msecs+" msecs");
+        if (smallBytes >= 0L) {
+            final double limit = MAX_GROWTH * Math.max(smallBytes, ALLOCATION_SLACK);
+            assertTrue(bigBytes <= limit,
+                    desc+"allocated "+bigBytes+" bytes (vs "+smallBytes+" for 1/"+SIZE_FACTOR+" of content)");
+        }
+    }
+
+    /**
+     * @param mustFail Whether reading must fail, if failure message given
+     *    (if not, may either fail or succeed)
+     *
+     * @return Number of bytes allocated by the current thread, if available; -1 if not
+     */
+    private long _read(YAMLFactory f, String doc, String failure, boolean mustFail)
+        throws Exception
+    {
+        final long startBytes = _allocatedBytes();
+        try (JsonParser p = f.createParser(doc)) {
+            while (p.nextToken() != null) {
+                if (p.currentToken() == JsonToken.VALUE_STRING) {
+                    p.getText();
+                }
+            }
+            if (failure != null && mustFail) {
+                fail("Should not pass");
+            }
+        } catch (StreamConstraintsException | JacksonYAMLParseException e) {
+            if (failure == null) {
+                throw e;
+            }
+            verifyException(e, failure);
+        }
+        return (startBytes < 0L) ? -1L : (_allocatedBytes() - startBytes);
+    }
+
+    private static long _allocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+}
@@ -3,6 +3,7 @@ package com.fasterxml.jackson.dataformat.yaml.deser;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Random;
 
 import org.junit.jupiter.api.Test;
@@ -74,4 +75,67 @@ public class BinaryReadTest extends ModuleTestBase
             assertNull(parser.nextToken());
         }
     }
+
+    @Test
+    public void testReadBinaryValueChunked() throws Exception
+    {
+        final byte[] data = new byte[100000];
+        new Random(41).nextBytes(data);
+        final String doc = MAPPER.writeValueAsString(Collections.singletonMap("data", data));
+
+        try (JsonParser p = MAPPER.createParser(doc)) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(data.length, p.readBinaryValue(out));
+            assertArrayEquals(data, out.toByteArray());
+            // and can still access fully too
+            assertArrayEquals(data, (byte[]) p.getEmbeddedObject());
+            out = new ByteArrayOutputStream();
+            assertEquals(data.length, p.readBinaryValue(out));
+            assertArrayEquals(data, out.toByteArray());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+        }
+
+        // and with Strings as well
+        final String base64 = Base64Variants.MIME_NO_LINEFEEDS.encode(data);
+        try (JsonParser p = MAPPER.createParser("\"" + base64 + "\"")) {
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(data.length, p.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, out));
+            assertArrayEquals(data, out.toByteArray());
+        }
+    }
+
+    @Test
+    public void testInvalidBinaryDecodedLazily() throws Exception
+    {
+        final String DOC = "a: !!binary |\n  AAAA\n  AA*A\nb: 1\n";
+        // not decoded unless accessed
+        try (JsonParser p = MAPPER.createParser(DOC)) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        }
+        try (JsonParser p = MAPPER.createParser(DOC)) {
+            p.nextToken();
+            p.nextToken();
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            p.getBinaryValue();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "Illegal character '*'");
+        }
+        try (JsonParser p = MAPPER.createParser(DOC)) {
+            p.nextToken();
+            p.nextToken();
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            p.readBinaryValue(new ByteArrayOutputStream());
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "Illegal character '*'");
+        }
+    }
 }
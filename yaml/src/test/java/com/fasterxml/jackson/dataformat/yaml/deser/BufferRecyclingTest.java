@@ -0,0 +1,99 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.dataformat.yaml.ModuleTestBase;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests to verify that buffers of {@code UTF8Reader} and {@code UTF8Writer}
+ * are allocated from, and returned to, {@link RecyclerPool} of the factory.
+ */
+public class BufferRecyclingTest extends ModuleTestBase
+{
+    @Test
+    public void testReadBufferRecycled() throws Exception
+    {
+        final RecyclerPool<BufferRecycler> pool = JsonRecyclerPools.newBoundedPool(1);
+        final YAMLFactory f = YAMLFactory.builder().recyclerPool(pool).build();
+        final byte[] doc = "key: value\n".getBytes(StandardCharsets.UTF_8);
+
+        try (JsonParser p = f.createParser(new ByteArrayInputStream(doc))) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        }
+        // buffer used for decoding should now be back in the pool
+        byte[] buf = _pooledBuffer(pool, BufferRecycler.BYTE_READ_IO_BUFFER);
+        assertEquals(new String(doc, StandardCharsets.UTF_8),
+                new String(buf, 0, doc.length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteBufferRecycled() throws Exception
+    {
+        final RecyclerPool<BufferRecycler> pool = JsonRecyclerPools.newBoundedPool(1);
+        final YAMLFactory f = YAMLFactory.builder().recyclerPool(pool).build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (JsonGenerator g = f.createGenerator(bytes, JsonEncoding.UTF8)) {
+            g.writeStartObject();
+            g.writeStringField("key", "value");
+            g.writeEndObject();
+        }
+        final byte[] doc = bytes.toByteArray();
+        assertEquals("---\nkey: \"value\"\n", new String(doc, StandardCharsets.UTF_8));
+        byte[] buf = _pooledBuffer(pool, BufferRecycler.BYTE_WRITE_ENCODING_BUFFER);
+        assertEquals(new String(doc, StandardCharsets.UTF_8),
+                new String(buf, 0, doc.length, StandardCharsets.UTF_8));
+    }
+
+    // Buffer must be recycled even if generator does not close the stream
+    @Test
+    public void testWriteBufferRecycledWithoutAutoClose() throws Exception
+    {
+        final RecyclerPool<BufferRecycler> pool = JsonRecyclerPools.newBoundedPool(1);
+        final YAMLFactory f = YAMLFactory.builder().recyclerPool(pool)
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+        final AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        try (JsonGenerator g = f.createGenerator(bytes, JsonEncoding.UTF8)) {
+            g.writeStartObject();
+            g.writeStringField("key", "value");
+            g.writeEndObject();
+        }
+        assertFalse(closed.get());
+        final byte[] doc = bytes.toByteArray();
+        assertEquals("---\nkey: \"value\"\n", new String(doc, StandardCharsets.UTF_8));
+        byte[] buf = _pooledBuffer(pool, BufferRecycler.BYTE_WRITE_ENCODING_BUFFER);
+        assertEquals(new String(doc, StandardCharsets.UTF_8),
+                new String(buf, 0, doc.length, StandardCharsets.UTF_8));
+    }
+
+    private byte[] _pooledBuffer(RecyclerPool<BufferRecycler> pool, int type)
+    {
+        BufferRecycler br = pool.acquirePooled();
+        try {
+            return br.allocByteBuffer(type);
+        } finally {
+            br.releaseToPool();
+        }
+    }
+}
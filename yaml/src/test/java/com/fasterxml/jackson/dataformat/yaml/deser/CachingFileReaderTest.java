@@ -0,0 +1,132 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingFileReaderTest extends ModuleTestBase
+{
+    static class Config {
+        public String name;
+        public List<Integer> ports;
+    }
+
+    @SuppressWarnings("serial")
+    static class CountingYAMLFactory extends YAMLFactory {
+        int parsers;
+
+        @Override
+        public YAMLParser createParser(byte[] data) throws IOException {
+            ++parsers;
+            return super.createParser(data);
+        }
+    }
+
+    private final CountingYAMLFactory FACTORY = new CountingYAMLFactory();
+
+    private final YAMLMapper MAPPER = new YAMLMapper(FACTORY);
+
+    @Test
+    public void testUnchangedNotParsed() throws Exception
+    {
+        File f = _file("name: a\nports: [1, 2]\n");
+        YAMLCachingFileReader r = MAPPER.cachingFileReader(10);
+        assertTrue(r.hasChanged(f));
+        Config c1 = r.readValue(f, Config.class);
+        assertEquals("a", c1.name);
+        assertEquals(Arrays.asList(1, 2), c1.ports);
+        assertEquals(1, FACTORY.parsers);
+
+        assertFalse(r.hasChanged(f));
+        assertSame(c1, r.readValue(f, Config.class));
+        // rewritten with same content (and time stamp changed): still same
+        _write(f, "name: a\nports: [1, 2]\n");
+        f.setLastModified(System.currentTimeMillis() - 60000L);
+        assertFalse(r.hasChanged(f));
+        assertSame(c1, r.readValue(f, Config.class));
+        assertEquals(1, FACTORY.parsers);
+
+        // but different types are bound separately
+        JsonNode n = r.readTree(f);
+        assertEquals("a", n.path("name").asText());
+        assertSame(n, r.readTree(f));
+        Map<String, Object> map = r.readValue(f, new TypeReference<Map<String, Object>>() { });
+        assertEquals(2, map.size());
+        assertEquals(3, FACTORY.parsers);
+        assertEquals(1, r.size());
+    }
+
+    @Test
+    public void testChangeDetected() throws Exception
+    {
+        File f = _file("name: a\n");
+        YAMLCachingFileReader r = MAPPER.cachingFileReader(10);
+        Config c1 = r.readValue(f, Config.class);
+        f.setLastModified(System.currentTimeMillis() - 60000L);
+        assertFalse(r.hasChanged(f));
+
+        // same size, but modification time changed
+        _write(f, "name: b\n");
+        assertTrue(r.hasChanged(f));
+        assertEquals(1, FACTORY.parsers);
+        assertFalse(r.hasChanged(f));
+        Config c2 = r.readValue(f, Config.class);
+        assertNotSame(c1, c2);
+        assertEquals("b", c2.name);
+        assertEquals(2, FACTORY.parsers);
+
+        r.invalidate(f);
+        assertEquals(0, r.size());
+        assertTrue(r.hasChanged(f));
+    }
+
+    @Test
+    public void testEviction() throws Exception
+    {
+        YAMLCachingFileReader r = MAPPER.cachingFileReader(2);
+        File f1 = _file("name: 1\n");
+        File f2 = _file("name: 2\n");
+        File f3 = _file("name: 3\n");
+        Config c1 = r.readValue(f1, Config.class);
+        r.readValue(f2, Config.class);
+        // access first one to make second one least recently used
+        assertSame(c1, r.readValue(f1, Config.class));
+        r.readValue(f3, Config.class);
+        assertEquals(2, r.size());
+        assertEquals(3, FACTORY.parsers);
+        assertSame(c1, r.readValue(f1, Config.class));
+        assertTrue(r.hasChanged(f2));
+        assertEquals(3, FACTORY.parsers);
+
+        r.clear();
+        assertEquals(0, r.size());
+
+        try {
+            MAPPER.cachingFileReader(0);
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "must be positive");
+        }
+    }
+
+    private File _file(String content) throws IOException
+    {
+        File f = File.createTempFile("test", ".yml");
+        f.deleteOnExit();
+        _write(f, content);
+        return f;
+    }
+
+    private void _write(File f, String content) throws IOException {
+        Files.write(f.toPath(), utf8(content));
+    }
+}
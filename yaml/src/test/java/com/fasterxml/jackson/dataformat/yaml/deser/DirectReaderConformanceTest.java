@@ -0,0 +1,790 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.yaml.*;
+import com.fasterxml.jackson.dataformat.yaml.util.DirectEventReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests to verify that {@link DirectEventReader} (enabled with
+ * {@link YAMLParser.Feature#USE_DIRECT_READER}) produces exactly the same
+ * events, and thereby tokens, as SnakeYAML.
+ */
+public class DirectReaderConformanceTest extends ModuleTestBase
+{
+    // Valid documents
+    private final static String[] SUPPORTED_DOCS = new String[] {
+        "",
+        "   \n\n# just a comment\n",
+        "a: 1\nb: 2\n",
+        "a: 1\r\nb:\r\n  - x\r\n  - y\r\n",
+        "key: value # comment\n# another\nother:   'quoted' \n",
+        "root:\n  child:\n    leaf: true\n  list:\n  - 1\n  - 2.5\n  -\n  - ~\nlast: x",
+        "- a\n- - b\n  - c\n- d: 1\n  e: 2\n-\n  f: 3\n",
+        "seq:\n- a\n- b\nmap:\n  x: 1\n",
+        "? complex\n: value\n? [a, b]\n: {c: d}\n",
+        "[a, b, [c, d], {e: f, g: [h]}, 'i', \"j\", ]\n",
+        "{a: 1, b: , c, \"d\": 2, 'e':3, ? f : g}\n",
+        "[a: 1, b, ? c: d, e]\n",
+        "{ key:\n  value,\n  other: [1,\n   2] }\n",
+        "plain: this is\n  a multi-line\n\n  plain scalar\nnext: value\n",
+        "text: \"double \\\"quoted\\\" \\t\\n \\x41\\u00e9\\U0001F600 \\\\ end\"\n",
+        "text: 'single ''quoted'' with \"double\" and \\\\'\n",
+        "folded: \"first\n  second\n\n  third \\\n  fourth\"\n",
+        "folded: 'first\n  second\n\n\n  third'\n",
+        "lit: |\n  line 1\n   line 2\n\n  line 3\n\nnext: 1\n",
+        "lit: |-\n  stripped\n\n\nkeep: |+\n  kept\n\n\nclip: |\n  clipped\n\n",
+        "fold: >\n  folded\n  text\n\n  para\n    more indented\n  back\nx: 1\n",
+        "ind: |2\n   one\n  two\ny: >-1\n  a\n  b\n",
+        "empty: |\nnext: >\n\nlast: |\n",
+        "- |\n  in seq\n- >+\n  folded\n\n- x",
+        "anchored: &a value\nalias: *a\nmap: &m\n  x: 1\nref: *m\nseq: &s [1, 2]\n",
+        "&k key: &v value\n*k : x\n? *v\n: y\n",
+        "tagged: !!str 123\nlocal: !foo bar\nverbatim: !<tag:example.com,2000:x> y\n"
+            +"nonspec: ! 12\nmap: !!map {a: 1}\nseq: !custom\n- 1\nboth: !!int &n 5\nboth2: &n2 !!int 6\n"
+            +"empty: !!null\nemptyanchor: &e\n",
+        "---\na: 1\n...\n---\nb: 2\n--- c\n--- [d]\n---\n...\n",
+        "--- |\n  literal doc\n--- >\n  folded doc\n",
+        "---\n--- # comment\n...\n...\n",
+        "just a scalar",
+        "'quoted root'",
+        "- 'a': b\n  c: 'd'\n- \"e\": f\n",
+        "a:b: c\nhttp://example.com: url\n-x: y\n:z: w\n?q: r\n",
+        "key: a:b c#d e #comment\n",
+        "key:    \n  value on next line\n",
+        "key:\n\n\n  value: deep\n\n\nother: x\n",
+        "nested:\n- - - deep\n    - deeper\n  - back\n",
+        "unicode: h\u00e9llo w\u00f6rld \u4e2d\u6587\nk\u00e9y: v\n",
+        "tabs: \"a\tb\"\nlit: |\n  \ttab\n",
+        "trailing: value   \n",
+        "a:\n  - b\n  -   c\n  -\n    d\n",
+        "[a, [b, [c, [d, [e]]]]]",
+        "{a: {b: {c: {d: {}}}}}",
+        "long: " + _repeat("x", 5000) + "\n",
+        "%YAML 1.1\n---\na: 1\n",
+        "%TAG !e! tag:example.com,2000:\n---\na: !e!foo 1\n--- !e!bar\n...\n%TAG !f! tag:other:\n--- !e!x [!f!y z]\n",
+        "%TAG ! tag:local:\n%TAG !! tag:global:\n--- [!a x, !!b y]\n...\n--- [!a x, !!b y]\n",
+        "%FOO bar baz\n%YAML 1.2 # comment\n--- x\n",
+        "a: !tag%21 x\nb: !<tag:%C3%A9> y\n",
+        "emoji: \uD83D\uDE00 smile\n\uD83D\uDE00: [\uD83D\uDE00, '\uD83D\uDE00']\n",
+        "\uFEFFa: 1\n",
+        "a: 1\u2028b: 2\n",
+        "a: \u0085 x\n",
+        "a: |\u2029  x\u2029b: 'y\u0085z'\n",
+        "a: b\uFEFF\n",
+        "a: 1\n\uFEFFb: 2\n",
+    };
+
+    // Invalid documents
+    private final static String[] INVALID_DOCS = new String[] {
+        "a: 1\n b: 2\n",
+        "a: b: c\n",
+        "- a\nb: c\n",
+        "[a, b\n",
+        "{a: 1\n",
+        "a: 'unterminated\n",
+        "a: \"bad \\q escape\"\n",
+        "a: *\n",
+        "a: &\n",
+        "a:\tb\n",
+        "key: |0\n  x\n",
+        "]\n",
+        "a: [b]]\n",
+        "x\n- y\n",
+        "!e!x a\n",
+        "- a\n -b\n",
+        "key\nvalue\n",
+        "'multi\nline key': x\n",
+        "a: \"x\n---\ny\"\n",
+        "a: \u0001\n",
+        "{a: 1}`\n",
+        "[a, [b]]`\n",
+        "- [a]\n- {b: c} d\n",
+        "a: {b: c}\n x: y\n",
+        "a: 1\r",
+        "%YAML 1.1\n%YAML 1.1\n--- x\n",
+        "%YAML 2.0\n--- x\n",
+        "%YAML 1.1x\n--- x\n",
+        "%TAG !e! a\n%TAG !e! b\n--- x\n",
+        "%TAG e! a\n--- x\n",
+        "%YAML 1.1\nx\n",
+        "a: !<x y\n",
+        "a: !t%2 x\n",
+        "a: !t%FF x\n",
+        "a: !x!y z\n",
+        "%TAG !e! a:\n--- x\n...\n%TAG !e! b:\n--- y\n",
+        "a: b\n\uFFFE",
+        _repeat("k", 1200) + ": too long for simple key\n",
+        // invalid content beyond first read window: some events returned before error
+        _repeat("key: value\n", 300) + "a: \u0001\n",
+        _repeat("- item\n", 500) + "- [a]]\n",
+    };
+
+    @Test
+    public void testSupportedDocs() throws Exception
+    {
+        for (String doc : SUPPORTED_DOCS) {
+            DirectEventReader r = _assertSameEvents(doc);
+            assertFalse(r.usesFallback(), "Should not need fallback for: "+_quote(doc));
+        }
+    }
+
+    // Comments are only reported by SnakeYAML
+    @Test
+    public void testProcessComments() throws Exception
+    {
+        LoaderOptions opts = new LoaderOptions();
+        opts.setProcessComments(true);
+        String doc = "# start\na: 1 # value\nb: [x, y]\n";
+        DirectEventReader r = new DirectEventReader(new StringReader(doc), opts);
+        List<String> events = _events(r);
+        assertTrue(r.usesFallback());
+        assertEquals(_events(new ParserImpl(new StreamReader(new StringReader(doc)), opts)), events);
+        assertTrue(events.get(1).startsWith("Comment"));
+    }
+
+    @Test
+    public void testInvalidDocs() throws Exception
+    {
+        for (String doc : INVALID_DOCS) {
+            _assertSameEvents(doc);
+        }
+    }
+
+    // Content must be read incrementally, and results not depend on read boundaries.
+    // For errors only message and location are compared, since snippets depend
+    // on the read window of SnakeYAML
+    @Test
+    public void testChunkedInput() throws Exception
+    {
+        List<String> docs = new ArrayList<>();
+        docs.addAll(Arrays.asList(SUPPORTED_DOCS));
+        docs.addAll(Arrays.asList(INVALID_DOCS));
+        for (String doc : docs) {
+            List<String> exp = _withoutSnippet(_events(new ParserImpl(
+                    new StreamReader(new StringReader(doc)), new LoaderOptions())));
+            for (int chunk : new int[] { 1, 2, 7 }) {
+                List<String> act = _withoutSnippet(_events(new DirectEventReader(
+                        new ChunkedReader(doc, chunk), new LoaderOptions())));
+                assertEquals(exp, act, "Events differ with chunks of "+chunk+" for: "+_quote(doc));
+            }
+        }
+    }
+
+    // Fed content must produce the same events, and the same errors, as SnakeYAML
+    // regardless of how content is split; except that snippets of error messages
+    // depend on content retained, so they are not compared
+    @Test
+    public void testFedInput() throws Exception
+    {
+        List<String> docs = new ArrayList<>();
+        docs.addAll(Arrays.asList(SUPPORTED_DOCS));
+        docs.addAll(Arrays.asList(INVALID_DOCS));
+        for (String doc : docs) {
+            for (int chunk : new int[] { 1, 2, 7, Integer.MAX_VALUE }) {
+                _assertSameFedEvents(doc, chunk);
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalRead() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; ++i) {
+            sb.append("key").append(i).append(": value ").append(i).append('\n');
+        }
+        ChunkedReader src = new ChunkedReader(sb.toString(), 100);
+        DirectEventReader r = new DirectEventReader(src, new LoaderOptions());
+        for (Event.ID id : new Event.ID[] { Event.ID.StreamStart, Event.ID.DocumentStart,
+                Event.ID.MappingStart, Event.ID.Scalar, Event.ID.Scalar }) {
+            assertEquals(id, r.getEvent().getEventId());
+        }
+        // only the first read window (of 1024 chars), not the whole ~170k document
+        assertEquals(1024, src.charsRead());
+        assertFalse(r.usesFallback());
+    }
+
+    // Content before the current event must not be retained
+    @Test
+    public void testContentDropped() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; ++i) {
+            sb.append("key").append(i).append(": value ").append(i).append('\n');
+        }
+        final String doc = sb.toString();
+        BufferProbingReader r = new BufferProbingReader(new StringReader(doc));
+        int maxBuffer = 0;
+        Event e;
+        Event last = null;
+        while ((e = r.getEvent()) != null) {
+            maxBuffer = Math.max(maxBuffer, r.bufferLength());
+            last = e;
+        }
+        assertEquals(Event.ID.StreamEnd, last.getEventId());
+        assertEquals(doc.length(), last.getStartMark().getIndex());
+        assertEquals(20000, last.getStartMark().getLine());
+        assertTrue(maxBuffer <= 8 * 1024, "Buffer grew to "+maxBuffer+" chars");
+    }
+
+    // Limit applies to each document, same as with SnakeYAML
+    @Test
+    public void testCodePointLimit() throws Exception
+    {
+        LoaderOptions opts = new LoaderOptions();
+        opts.setCodePointLimit(5000);
+        for (String doc : new String[] {
+                "a: " + _repeat("x", 6000) + "\nb: c\n",
+                _repeat("--- " + _repeat("x", 3000) + "\n", 3),
+        }) {
+            DirectEventReader r = new DirectEventReader(new StringReader(doc), opts);
+            List<String> events = _events(r);
+            assertFalse(r.usesFallback());
+            assertEquals(_events(new ParserImpl(new StreamReader(new StringReader(doc)), opts)), events);
+        }
+    }
+
+    // Randomly generated documents
+    @Test
+    public void testGeneratedDocs() throws Exception
+    {
+        Random rnd = new Random(123);
+        int valid = 0;
+        for (int i = 0; i < 3000; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int docs = 1 + rnd.nextInt(2);
+            for (int d = 0; d < docs; ++d) {
+                if (docs > 1 || rnd.nextInt(4) == 0) {
+                    sb.append("---\n");
+                }
+                _generateBlock(rnd, sb, 0, 0);
+            }
+            String doc = sb.toString();
+            if (rnd.nextInt(10) == 0) {
+                doc = doc.replace("\n", "\r\n");
+            }
+            _assertSameEvents(doc);
+            _assertSameFedEvents(doc, 1 + rnd.nextInt(20));
+            if (!_isInvalid(doc)) {
+                ++valid;
+            }
+        }
+        // sanity check to ensure most generated documents are valid
+        assertTrue(valid > 1500, "Too few valid documents: "+valid);
+    }
+
+    // Randomly mutated documents, mostly invalid
+    @Test
+    public void testMutatedDocs() throws Exception
+    {
+        final String CHARS = " \n\t-?:,[]{}#&*!|>'\"%@`.\\ax1";
+        Random rnd = new Random(456);
+        for (int i = 0; i < 5000; ++i) {
+            StringBuilder sb = new StringBuilder(SUPPORTED_DOCS[rnd.nextInt(SUPPORTED_DOCS.length)]);
+            for (int m = 1 + rnd.nextInt(3); m > 0; --m) {
+                int ix = (sb.length() == 0) ? 0 : rnd.nextInt(sb.length());
+                switch (rnd.nextInt(3)) {
+                case 0:
+                    if (sb.length() > 0) {
+                        sb.deleteCharAt(ix);
+                        break;
+                    }
+                    // fall through
+                case 1:
+                    sb.insert(ix, CHARS.charAt(rnd.nextInt(CHARS.length())));
+                    break;
+                default:
+                    if (sb.length() > 0) {
+                        sb.setCharAt(ix, CHARS.charAt(rnd.nextInt(CHARS.length())));
+                    }
+                }
+            }
+            _assertSameEvents(sb.toString());
+            _assertSameFedEvents(sb.toString(), 1 + rnd.nextInt(20), false);
+        }
+    }
+
+    // Verify that Jackson tokens (and their locations) are the same as well
+    @Test
+    public void testSameTokens() throws Exception
+    {
+        YAMLMapper defaultMapper = new YAMLMapper();
+        YAMLMapper directMapper = YAMLMapper.builder()
+                .enable(YAMLParser.Feature.USE_DIRECT_READER)
+                .build();
+        for (String doc : SUPPORTED_DOCS) {
+            assertEquals(_tokens(defaultMapper, doc), _tokens(directMapper, doc),
+                    "Tokens differ for: "+_quote(doc));
+        }
+        // and databinding works as expected too
+        JsonNode n = directMapper.readTree("a: [1, 2.5, true]\nb:\n  c: &x text\n  d: *x\n");
+        assertEquals(defaultMapper.readTree("a: [1, 2.5, true]\nb:\n  c: &x text\n  d: *x\n"), n);
+        assertEquals(2.5, n.at("/a/1").doubleValue());
+    }
+
+    @Test
+    public void testInvalidContentErrors() throws Exception
+    {
+        YAMLMapper directMapper = YAMLMapper.builder()
+                .enable(YAMLParser.Feature.USE_DIRECT_READER)
+                .build();
+        try {
+            directMapper.readTree("a: 1\n b: 2\n");
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            verifyException(e, "mapping values are not allowed here");
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    // Snippets of error messages depend on content retained, so they are not compared
+    private DirectEventReader _assertSameEvents(String doc) throws Exception
+    {
+        LoaderOptions opts = new LoaderOptions();
+        List<String> exp = _withoutSnippet(_events(new ParserImpl(
+                new StreamReader(new StringReader(doc)), opts)));
+        DirectEventReader r = new DirectEventReader(new StringReader(doc), opts);
+        List<String> act = _withoutSnippet(_events(r));
+        // including events returned before failure, if any
+        assertEquals(exp, act, "Events differ for: "+_quote(doc));
+        return r;
+    }
+
+    private void _assertSameFedEvents(String doc, int chunk) throws Exception {
+        _assertSameFedEvents(doc, chunk, true);
+    }
+
+    /**
+     * @param sameReaderErrors Whether errors for invalid characters must be the same:
+     *    if not, any error found before reaching the character is accepted as well
+     */
+    private void _assertSameFedEvents(String doc, int chunk, boolean sameReaderErrors)
+        throws Exception
+    {
+        List<String> exp = _withoutSnippet(_events(new ParserImpl(
+                new StreamReader(new StringReader(doc)), new LoaderOptions())));
+        List<String> act = _withoutSnippet(_fedEvents(doc, chunk));
+        // Unlike SnakeYAML, fed reader does not check characters ahead of what
+        // is needed, so for invalid characters only the error must be the same
+        final String lastExp = exp.get(exp.size()-1);
+        if (lastExp.startsWith("ERROR: special characters")) {
+            final String lastAct = act.get(act.size()-1);
+            if (!sameReaderErrors && lastAct.startsWith("ERROR:")) {
+                return;
+            }
+            exp = Collections.singletonList(lastExp);
+            act = Collections.singletonList(lastAct);
+        }
+        assertEquals(exp, act, "Events differ with chunks of "+chunk+" for: "+_quote(doc));
+    }
+
+    private List<String> _fedEvents(String doc, int chunk) throws Exception
+    {
+        DirectEventReader r = new DirectEventReader(new LoaderOptions(),
+                StreamReadConstraints.defaults());
+        final char[] content = doc.toCharArray();
+        List<String> result = new ArrayList<>();
+        int offset = 0;
+        try {
+            while (true) {
+                Event e = r.getEvent();
+                if (e == null) {
+                    if (!r.needMoreInput()) {
+                        break;
+                    }
+                    if (offset < content.length) {
+                        int len = Math.min(content.length - offset, chunk);
+                        r.feedInput(content, offset, len);
+                        offset += len;
+                    } else {
+                        r.endOfInput();
+                    }
+                    continue;
+                }
+                result.add(_describe(e));
+            }
+        } catch (RuntimeException e) {
+            result.add("ERROR: "+e.getMessage());
+        }
+        return result;
+    }
+
+    private boolean _isInvalid(String doc) {
+        List<String> events = _events(new ParserImpl(new StreamReader(new StringReader(doc)),
+                new LoaderOptions()));
+        return events.get(events.size()-1).startsWith("ERROR:");
+    }
+
+    // Snippet (and pointer) lines of marks are indented by 4 spaces
+    private static List<String> _withoutSnippet(List<String> events) {
+        int last = events.size() - 1;
+        if (last >= 0 && events.get(last).startsWith("ERROR:")) {
+            StringBuilder sb = new StringBuilder();
+            for (String line : events.get(last).split("\n")) {
+                if (!line.startsWith("    ")) {
+                    sb.append(line).append('\n');
+                }
+            }
+            events.set(last, sb.toString());
+        }
+        return events;
+    }
+
+    private List<String> _events(ParserImpl p) {
+        List<String> result = new ArrayList<>();
+        try {
+            Event e;
+            while ((e = p.getEvent()) != null) {
+                result.add(_describe(e));
+            }
+        } catch (RuntimeException e) {
+            result.add("ERROR: "+e.getMessage());
+        }
+        return result;
+    }
+
+    private List<String> _events(DirectEventReader r) throws Exception {
+        List<String> result = new ArrayList<>();
+        try {
+            Event e;
+            while ((e = r.getEvent()) != null) {
+                result.add(_describe(e));
+            }
+        } catch (RuntimeException e) {
+            result.add("ERROR: "+e.getMessage());
+        }
+        return result;
+    }
+
+    private String _describe(Event e)
+    {
+        StringBuilder sb = new StringBuilder(e.getEventId().toString());
+        sb.append(' ').append(_describe(e.getStartMark()))
+            .append('-').append(_describe(e.getEndMark()));
+        if (e instanceof NodeEvent) {
+            sb.append(" anchor=").append(((NodeEvent) e).getAnchor());
+        }
+        if (e instanceof ScalarEvent) {
+            ScalarEvent s = (ScalarEvent) e;
+            sb.append(" tag=").append(s.getTag())
+                .append(" implicit=").append(s.getImplicit().canOmitTagInPlainScalar())
+                .append('/').append(s.getImplicit().canOmitTagInNonPlainScalar())
+                .append(" style=").append(s.getScalarStyle())
+                .append(" value=").append(_quote(s.getValue()));
+        } else if (e instanceof CollectionStartEvent) {
+            CollectionStartEvent c = (CollectionStartEvent) e;
+            sb.append(" tag=").append(c.getTag())
+                .append(" implicit=").append(c.getImplicit())
+                .append(" flow=").append(c.getFlowStyle());
+        } else if (e instanceof DocumentStartEvent) {
+            DocumentStartEvent d = (DocumentStartEvent) e;
+            sb.append(" explicit=").append(d.getExplicit())
+                .append(" version=").append(d.getVersion());
+        } else if (e instanceof DocumentEndEvent) {
+            sb.append(" explicit=").append(((DocumentEndEvent) e).getExplicit());
+        }
+        return sb.toString();
+    }
+
+    private String _describe(Mark m) {
+        return m.getName()+"@"+m.getIndex()+"/"+m.getLine()+":"+m.getColumn();
+    }
+
+    private List<String> _tokens(YAMLMapper mapper, String doc) throws Exception
+    {
+        List<String> result = new ArrayList<>();
+        try (JsonParser p = mapper.createParser(doc)) {
+            YAMLParser yp = (YAMLParser) p;
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                StringBuilder sb = new StringBuilder(t.toString());
+                sb.append(' ').append(_quote(p.getText()))
+                    .append(" id=").append(p.getObjectId())
+                    .append(" type=").append(p.getTypeId())
+                    .append(" alias=").append(yp.isCurrentAlias())
+                    .append(" at ").append(p.currentTokenLocation().getCharOffset())
+                    .append('/').append(p.currentTokenLocation().getLineNr())
+                    .append(':').append(p.currentTokenLocation().getColumnNr())
+                    .append(" to ").append(p.currentLocation().getCharOffset());
+                if (t.isNumeric()) {
+                    sb.append(' ').append(p.getNumberType()).append(' ').append(p.getNumberValue());
+                }
+                result.add(sb.toString());
+            }
+        } catch (IOException e) {
+            // Jackson does not support all valid YAML (like complex keys)
+            result.add("ERROR: "+e.getMessage());
+        }
+        return result;
+    }
+
+    private void _generateBlock(Random rnd, StringBuilder sb, int indent, int depth)
+    {
+        final int entries = 1 + rnd.nextInt(4);
+        final boolean seq = rnd.nextBoolean();
+        for (int i = 0; i < entries; ++i) {
+            if (i > 0 || sb.length() == 0 || sb.charAt(sb.length()-1) == '\n') {
+                _indent(sb, indent);
+            }
+            if (rnd.nextInt(8) == 0) {
+                sb.append("# comment ").append(i).append('\n');
+                _indent(sb, indent);
+            }
+            if (seq) {
+                sb.append("- ");
+            } else {
+                _generateProps(rnd, sb);
+                _generateScalar(rnd, sb, indent, true);
+                sb.append(':');
+                if (rnd.nextInt(10) == 0) {
+                    sb.append('\n');
+                    continue;
+                }
+                sb.append(' ');
+            }
+            int nestedIndent = seq ? indent + 2 : indent + 1 + rnd.nextInt(3);
+            switch ((depth < 4) ? rnd.nextInt(6) : rnd.nextInt(3)) {
+            case 0:
+            case 1:
+                _generateProps(rnd, sb);
+                _generateScalar(rnd, sb, nestedIndent, false);
+                if (rnd.nextInt(5) == 0) {
+                    sb.append("  # trailing");
+                }
+                sb.append('\n');
+                break;
+            case 2:
+                _generateProps(rnd, sb);
+                _generateFlow(rnd, sb, depth + 1);
+                sb.append('\n');
+                break;
+            case 3:
+                if (!seq && rnd.nextBoolean()) { // indentless sequence
+                    sb.append('\n');
+                    _indent(sb, indent);
+                    sb.append("- ");
+                    _generateScalar(rnd, sb, indent + 2, false);
+                    sb.append('\n');
+                    break;
+                }
+                // fall through
+            default:
+                if (seq && rnd.nextBoolean()) { // compact nested
+                    _generateBlock(rnd, sb, indent + 2, depth + 1);
+                } else {
+                    if (rnd.nextInt(4) == 0) {
+                        sb.append("&anchor").append(depth).append(' ');
+                    }
+                    sb.append('\n');
+                    if (rnd.nextInt(6) == 0) {
+                        sb.append('\n');
+                    }
+                    _generateBlock(rnd, sb, nestedIndent, depth + 1);
+                }
+            }
+        }
+    }
+
+    private void _generateProps(Random rnd, StringBuilder sb)
+    {
+        switch (rnd.nextInt(12)) {
+        case 0:
+            sb.append("&a").append(rnd.nextInt(3)).append(' ');
+            break;
+        case 1:
+            sb.append("!!str ");
+            break;
+        case 2:
+            sb.append("!local ");
+            break;
+        case 3:
+            sb.append("!!int &b ");
+            break;
+        }
+    }
+
+    private void _generateScalar(Random rnd, StringBuilder sb, int indent, boolean key)
+    {
+        final String[] PLAIN = new String[] { "abc", "a b", "123", "-1.5e3", "0x1F", "true",
+                "~", "null", "a:b", "a#b", "x-y", "-z", ".5", "1_000", "http://x.y/z?q=1",
+                "\u00e9t\u00e9", "with 'quote'", "key with  spaces", "12:30:00", "?x" };
+        switch (rnd.nextInt(key ? 4 : 9)) {
+        case 0:
+        case 1:
+            sb.append(PLAIN[rnd.nextInt(PLAIN.length)]);
+            break;
+        case 2:
+            sb.append("'single ''q'' ").append(rnd.nextInt(100)).append('\'');
+            break;
+        case 3:
+            sb.append("\"double \\\"q\\\" \\n\\t\\u00e9 ").append(rnd.nextInt(100)).append('"');
+            break;
+        case 4:
+            sb.append("*a").append(rnd.nextInt(3));
+            break;
+        case 5: // multi-line plain
+            sb.append("first line\n");
+            _indent(sb, indent);
+            sb.append("second line");
+            break;
+        case 6: // multi-line quoted
+            sb.append("\"first\n");
+            _indent(sb, indent);
+            sb.append("\n");
+            _indent(sb, indent);
+            sb.append("second\"");
+            break;
+        default: // block scalar
+            sb.append(rnd.nextBoolean() ? '|' : '>');
+            sb.append(new String[] { "", "-", "+" }[rnd.nextInt(3)]);
+            sb.append('\n');
+            for (int i = 0, lines = 1 + rnd.nextInt(4); i < lines; ++i) {
+                if (rnd.nextInt(4) > 0) {
+                    _indent(sb, indent + 2 + ((rnd.nextInt(5) == 0) ? 1 : 0));
+                    sb.append("line ").append(i);
+                }
+                if (i < lines - 1) {
+                    sb.append('\n');
+                }
+            }
+        }
+    }
+
+    private void _generateFlow(Random rnd, StringBuilder sb, int depth)
+    {
+        final boolean seq = rnd.nextBoolean();
+        sb.append(seq ? '[' : '{');
+        for (int i = 0, count = rnd.nextInt(4); i < count; ++i) {
+            if (i > 0) {
+                sb.append(rnd.nextBoolean() ? ", " : ",");
+            }
+            if (!seq) {
+                _generateFlowScalar(rnd, sb);
+                sb.append(rnd.nextBoolean() ? ": " : ":");
+            }
+            if (depth < 5 && rnd.nextInt(4) == 0) {
+                _generateFlow(rnd, sb, depth + 1);
+            } else {
+                _generateFlowScalar(rnd, sb);
+            }
+        }
+        sb.append(seq ? ']' : '}');
+    }
+
+    private void _generateFlowScalar(Random rnd, StringBuilder sb)
+    {
+        switch (rnd.nextInt(5)) {
+        case 0:
+            sb.append("'s").append(rnd.nextInt(10)).append('\'');
+            break;
+        case 1:
+            sb.append("\"d").append(rnd.nextInt(10)).append('"');
+            break;
+        case 2:
+            sb.append(rnd.nextInt(1000));
+            break;
+        default:
+            sb.append("plain").append(rnd.nextInt(10));
+        }
+    }
+
+    private static void _indent(StringBuilder sb, int indent) {
+        for (int i = 0; i < indent; ++i) {
+            sb.append(' ');
+        }
+    }
+
+    private static String _quote(String str) {
+        if (str == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Reader that exposes the length of its input buffer.
+     */
+    static class BufferProbingReader extends DirectEventReader
+    {
+        BufferProbingReader(Reader src) {
+            super(src, new LoaderOptions());
+        }
+
+        public int bufferLength() {
+            return _inputBuffer.length;
+        }
+    }
+
+    /**
+     * Reader that returns content in chunks of at most given size, like
+     * pipes and sockets may.
+     */
+    static class ChunkedReader extends Reader
+    {
+        private final String _content;
+        private final int _chunkSize;
+        private int _offset;
+
+        ChunkedReader(String content, int chunkSize) {
+            _content = content;
+            _chunkSize = chunkSize;
+        }
+
+        public int charsRead() {
+            return _offset;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (_offset >= _content.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(len, _chunkSize), _content.length() - _offset);
+            _content.getChars(_offset, _offset + count, cbuf, off);
+            _offset += count;
+            return count;
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    private static String _repeat(String str, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            sb.append(str);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldNameCanonicalizationTest extends ModuleTestBase
+{
+    private final static String DOC = "- name: a\n  value: 1\n"
+            + "- name: b\n  value: 2\n"
+            + "- {name: c, value: 3}\n";
+
+    @Test
+    public void testCanonicalizedByDefault() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory();
+        List<String> names = _names(f, DOC);
+        names.addAll(_names(f, DOC));
+        assertEquals(12, names.size());
+        for (int i = 0; i < names.size(); i += 2) {
+            // interned by default, too
+            assertSame("name", names.get(i));
+            assertSame("value", names.get(i+1));
+        }
+    }
+
+    @Test
+    public void testCanonicalizedWithoutInterning() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+                .build();
+        List<String> names = _names(f, DOC);
+        // symbols of first parser merged into shared table, so same across parsers
+        names.addAll(_names(f, "---\nvalue: x\n...\n---\n{name: y}\n"));
+        final String name = names.get(0);
+        final String value = names.get(1);
+        assertEquals("name", name);
+        assertNotSame("name", name);
+        for (int i = 0; i < 6; i += 2) {
+            assertSame(name, names.get(i));
+            assertSame(value, names.get(i+1));
+        }
+        assertSame(value, names.get(6));
+        assertSame(name, names.get(7));
+    }
+
+    @Test
+    public void testNotCanonicalized() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+                .build();
+        List<String> names = _names(f, DOC);
+        assertEquals(Arrays.asList("name", "value", "name", "value", "name", "value"), names);
+        assertNotSame(names.get(0), names.get(2));
+    }
+
+    @Test
+    public void testNextFieldName() throws Exception
+    {
+        final SerializableString NAME = new SerializedString("name");
+        final SerializableString VALUE = new SerializedString("value");
+        try (JsonParser p = new YAMLFactory().createParser(DOC)) {
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertTrue(p.nextFieldName(NAME));
+            assertEquals("name", p.currentName());
+            assertNull(p.nextFieldName());
+            assertToken(JsonToken.VALUE_STRING, p.currentToken());
+            assertFalse(p.nextFieldName(NAME));
+            assertToken(JsonToken.FIELD_NAME, p.currentToken());
+            assertEquals("value", p.currentName());
+            assertNull(p.nextFieldName());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals("name", p.nextFieldName());
+            assertEquals("b", p.nextTextValue());
+            assertTrue(p.nextFieldName(VALUE));
+        }
+    }
+
+    @Test
+    public void testNameLengthLimited() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder().maxNameLength(10).build())
+                .build();
+        try (JsonParser p = f.createParser("short: 1\nmuch_longer_name: 2\n")) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            p.nextToken();
+            fail("Should not pass");
+        } catch (StreamConstraintsException e) {
+            verifyException(e, "Name length");
+        }
+    }
+
+    private List<String> _names(YAMLFactory f, String doc) throws Exception
+    {
+        List<String> names = new ArrayList<>();
+        try (JsonParser p = f.createParser(doc)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t == JsonToken.FIELD_NAME) {
+                    names.add(p.currentName());
+                }
+            }
+        }
+        return names;
+    }
+}
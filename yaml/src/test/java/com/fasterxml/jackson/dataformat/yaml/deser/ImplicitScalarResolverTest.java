@@ -0,0 +1,121 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.ModuleTestBase;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import com.fasterxml.jackson.dataformat.yaml.util.ImplicitScalarResolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests to verify that {@link ImplicitScalarResolver} resolves plain scalars
+ * the same way as default SnakeYAML {@link Resolver}.
+ */
+public class ImplicitScalarResolverTest extends ModuleTestBase
+{
+    private final Resolver SNAKEYAML_RESOLVER = new Resolver();
+
+    private final ImplicitScalarResolver RESOLVER = ImplicitScalarResolver.instance();
+
+    @Test
+    public void testKnownValues()
+    {
+        final String[] VALUES = new String[] {
+                "", " ", "~", "~~", "null", "Null", "NULL", "nULL", "nil",
+                "yes", "Yes", "YES", "yEs", "y", "Y", "n", "no", "No", "NO",
+                "on", "On", "ON", "off", "Off", "OFF", "true", "True", "TRUE", "tRUE",
+                "false", "False", "FALSE", "falsey",
+                "0", "-0", "+0", "-", "+", "00", "07", "08", "0_7", "0_", "0b", "0b1", "0b_1_0", "0b2",
+                "0B1", "0x", "0xFF", "0x_a_f", "0XFF", "0xg", "123", "1_000", "-1_000", "+12",
+                "1:30", "1:3", "1:60", "1:059", "190:20:30", "1:", "1::2", "0:30",
+                "1.0", "1.", "-1.5", "+.5", ".5", ".", "._", "1e5", "1E+5", "1e", "1e+",
+                "1.5e-10", "1.5e_1", "1_0.0_1", ".inf", "-.inf", "+.Inf", ".INF", ".nan", ".NaN",
+                "-.nan", ".NAN", ".Nan", "1:30.5", "1:30.", "1:30:00.25", "1:70.5",
+                "2001-12-14", "2001-12-14t21:59:43.10-05:00", "<<", "=", "abc", "1.2.3",
+                "٣", "0٣", "1٣", "0xＡ",
+        };
+        for (String value : VALUES) {
+            assertEquals(_expected(value), RESOLVER.resolve(value), "Value '"+value+"'");
+        }
+    }
+
+    @Test
+    public void testLongNumbers()
+    {
+        StringBuilder sb = new StringBuilder("1");
+        while (sb.length() < 1024) {
+            sb.append('0');
+        }
+        // SnakeYAML only resolves numbers up to 1024 characters long
+        final String[] VALUES = new String[] {
+                sb.toString(), sb.toString() + "0",
+                sb.substring(2) + ".5", sb.toString() + ".5"
+        };
+        final Tag[] EXP = new Tag[] { Tag.INT, Tag.STR, Tag.FLOAT, Tag.STR };
+        for (int i = 0; i < VALUES.length; ++i) {
+            assertEquals(EXP[i], _expected(VALUES[i]));
+            assertEquals(EXP[i], RESOLVER.resolve(VALUES[i]));
+        }
+    }
+
+    @Test
+    public void testRandomValues()
+    {
+        final String CHARS = "0123456789+-._:eExXbBnNaAfFlLoOsStTuUyY~ ";
+        Random r = new Random(123);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; ++i) {
+            sb.setLength(0);
+            final int len = r.nextInt(9);
+            for (int j = 0; j < len; ++j) {
+                sb.append(CHARS.charAt(r.nextInt(CHARS.length())));
+            }
+            String value = sb.toString();
+            assertEquals(_expected(value), RESOLVER.resolve(value), "Value '"+value+"'");
+        }
+    }
+
+    @Test
+    public void testParsing() throws Exception
+    {
+        final YAMLMapper mapper = newObjectMapper();
+        try (JsonParser p = mapper.createParser(
+                "[ ~, yes, 0x1F, -1_000, 1.5e3, .inf, 1:30, 2001-12-14, y, 'true' ]")) {
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_NULL, p.nextToken());
+            assertToken(JsonToken.VALUE_TRUE, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(31, p.getIntValue());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(-1000, p.getIntValue());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals(1500.0, p.getDoubleValue());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("1:30", p.getText());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("y", p.getText());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("true", p.getText());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+        }
+    }
+
+    private Tag _expected(String value)
+    {
+        Tag tag = SNAKEYAML_RESOLVER.resolve(NodeId.scalar, value, true);
+        if (tag == Tag.NULL || tag == Tag.BOOL || tag == Tag.INT || tag == Tag.FLOAT) {
+            return tag;
+        }
+        return Tag.STR;
+    }
+}
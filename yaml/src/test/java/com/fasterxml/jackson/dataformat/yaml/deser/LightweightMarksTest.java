@@ -0,0 +1,119 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.StringReader;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.parser.ParserImpl;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.dataformat.yaml.*;
+import com.fasterxml.jackson.dataformat.yaml.util.LightweightStreamReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LightweightMarksTest extends ModuleTestBase
+{
+    private final YAMLFactory DEFAULT_F = new YAMLFactory();
+
+    private final YAMLFactory LIGHTWEIGHT_F = YAMLFactory.builder()
+            .enable(YAMLParser.Feature.LIGHTWEIGHT_MARKS)
+            .build();
+
+    private final static String DOC = "---\nname: \"value\"\nlist:\n- 1\n- {a: b}\n"
+            + "text: |\n  literal\n--- \u00e9t\u00e9\n";
+
+    @Test
+    public void testMarksWithoutBuffer() throws Exception
+    {
+        ParserImpl p = new ParserImpl(new LightweightStreamReader(new StringReader(DOC)),
+                new LoaderOptions());
+        int count = 0;
+        while (p.peekEvent() != null) {
+            Event evt = p.getEvent();
+            for (Mark m : new Mark[] { evt.getStartMark(), evt.getEndMark() }) {
+                assertEquals(0, m.getBuffer().length);
+            }
+            ++count;
+        }
+        assertEquals(21, count);
+    }
+
+    @Test
+    public void testSameLocations() throws Exception
+    {
+        assertEquals(_tokens(DEFAULT_F, DOC), _tokens(LIGHTWEIGHT_F, DOC));
+    }
+
+    @Test
+    public void testSameErrorMessages() throws Exception
+    {
+        final String[] DOCS = new String[] {
+            "key: [1, 2\nother: }\n",
+            "a: b\n  c: d\n",
+            "- a\nb: c\n",
+            "x: \"unterminated\n",
+        };
+        for (String doc : DOCS) {
+            String exp = _failure(DEFAULT_F, doc);
+            assertEquals(exp, _failure(LIGHTWEIGHT_F, doc));
+            // and snippets still included
+            assertTrue(exp.contains("^"), "Should contain snippet: "+exp);
+        }
+    }
+
+    @Test
+    public void testNonBlocking() throws Exception
+    {
+        final String doc = "a: [1, 2\nb: }\n";
+        String exp = _nonBlockingFailure(DEFAULT_F, doc);
+        assertEquals(exp, _nonBlockingFailure(LIGHTWEIGHT_F, doc));
+        assertTrue(exp.contains("^"), "Should contain snippet: "+exp);
+    }
+
+    private List<String> _tokens(YAMLFactory f, String doc) throws Exception
+    {
+        List<String> result = new ArrayList<>();
+        try (JsonParser p = f.createParser(doc)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                JsonLocation start = p.currentTokenLocation();
+                JsonLocation end = p.currentLocation();
+                result.add(t+" "+p.getText()+" @"+start.getLineNr()+":"+start.getColumnNr()
+                    +"/"+start.getCharOffset()+"-"+end.getLineNr()+":"+end.getColumnNr()
+                    +"/"+end.getCharOffset());
+            }
+        }
+        return result;
+    }
+
+    private String _failure(YAMLFactory f, String doc) throws Exception
+    {
+        try (JsonParser p = f.createParser(doc)) {
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private String _nonBlockingFailure(YAMLFactory f, String doc) throws Exception
+    {
+        byte[] b = utf8(doc);
+        try (JsonParser p = f.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            feeder.feedInput(b, 0, b.length);
+            feeder.endOfInput();
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+}
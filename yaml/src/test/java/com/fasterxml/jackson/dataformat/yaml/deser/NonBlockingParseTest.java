@@ -0,0 +1,309 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NonBlockingParseTest extends ModuleTestBase
+{
+    private final YAMLFactory YAML_F = new YAMLFactory();
+
+    private final static String[] DOCS = new String[] {
+        "name: value\nlist: [1, 2.5, true, ~]\n",
+        "--- &a !tag\nkey: *a\nother: |\n  literal\n  text\n",
+        "- \u00e9t\u00e9\n- \"\\u00e9 \ud83d\ude00\"\n- \ud83d\ude00: x\n",
+        "# comment\n--- a\n--- b\n...\n# after\n--- [c]\n",
+        "%TAG !e! tag:example.com,2000:\n--- !e!x 1\n--- !e!y 2\n",
+        "a: 1\n...\n%YAML 1.1\n--- b\n...\n--- bare\n",
+    };
+
+    @Test
+    public void testSameTokensAsBlocking() throws Exception
+    {
+        assertTrue(YAML_F.canParseAsync());
+        for (String doc : DOCS) {
+            final List<String> exp = _blockingTokens(doc);
+            for (int chunk : new int[] { 1, 2, 3, 7, 100, 5000 }) {
+                assertEquals(exp, _nonBlockingTokens(doc, chunk),
+                        "Chunk size "+chunk+" for: "+doc);
+            }
+        }
+    }
+
+    @Test
+    public void testLongContent() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        Random rnd = new Random(39);
+        for (int i = 0; i < 300; ++i) {
+            sb.append("---\nid: ").append(i).append("\nitems:\n");
+            int count = rnd.nextInt(20);
+            for (int j = 0; j < count; ++j) {
+                sb.append("  - name: item ").append(j).append(" \u00e9\ud83d\ude00\n")
+                    .append("    value: ").append(rnd.nextInt()).append('\n');
+            }
+        }
+        final String doc = sb.toString();
+        final List<String> exp = _blockingTokens(doc);
+        for (int chunk : new int[] { 17, 999, 4096 }) {
+            assertEquals(exp, _nonBlockingTokens(doc, chunk));
+        }
+    }
+
+    // Tag handles of %TAG directives apply to all following documents, and
+    // must remain available however far those are
+    @Test
+    public void testTagDirectiveWithManyDocuments() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("%TAG !e! tag:example.com,2000:\n");
+        for (int i = 0; i < 2000; ++i) {
+            sb.append("--- !e!doc\nid: !e!id ").append(i).append("\nname: doc ").append(i).append('\n');
+        }
+        final String doc = sb.toString();
+        final List<String> exp = _blockingTokens(doc);
+        for (int chunk : new int[] { 5, 8000 }) {
+            assertEquals(exp, _nonBlockingTokens(doc, chunk));
+        }
+    }
+
+    @Test
+    public void testInvalidContent() throws Exception
+    {
+        for (String doc : new String[] { "a: [1, 2\nb: }\n", "a: 1\n b: 2\n", "a: !x!y z\n",
+                "a: b\n\u0001" }) {
+            final String exp = _blockingError(doc);
+            for (int chunk : new int[] { 1, 3, 100 }) {
+                try {
+                    _nonBlockingTokens(doc, chunk);
+                    fail("Should not pass");
+                } catch (JacksonYAMLParseException e) {
+                    assertEquals(exp, _withoutSnippet(e.getOriginalMessage()), "For: "+doc);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNotAvailable() throws Exception
+    {
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            assertTrue(p.canParseAsync());
+            assertTrue(feeder.needMoreInput());
+            assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+            byte[] b = utf8("key: value\n");
+            feeder.feedInput(b, 0, b.length);
+            assertFalse(feeder.needMoreInput());
+            // tokens available from content fed so far are returned...
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("key", p.currentName());
+            // ... but value might continue on the next line
+            assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+            assertToken(JsonToken.NOT_AVAILABLE, p.currentToken());
+            assertTrue(feeder.needMoreInput());
+            feeder.endOfInput();
+            assertFalse(feeder.needMoreInput());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("value", p.getText());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+
+            try {
+                feeder.feedInput(b, 0, b.length);
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "Already closed");
+            }
+        }
+    }
+
+    @Test
+    public void testSkipChildren() throws Exception
+    {
+        byte[] b = utf8("a: {b: [1, 2], c: 3}\nd: 4\n");
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            feeder.feedInput(b, 0, b.length);
+            feeder.endOfInput();
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.currentToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("d", p.currentName());
+        }
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            feeder.feedInput(b, 0, 12);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.NOT_AVAILABLE, p.currentToken());
+            // skipping continues once more content is available
+            feeder.feedInput(b, 12, 16);
+            assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+            feeder.feedInput(b, 16, b.length);
+            feeder.endOfInput();
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("d", p.currentName());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(4, p.getIntValue());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+        }
+        // and same when resumed by calling skipChildren() again
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            feeder.feedInput(b, 0, 8);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.NOT_AVAILABLE, p.currentToken());
+            feeder.feedInput(b, 8, b.length);
+            feeder.endOfInput();
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.currentToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("d", p.currentName());
+        }
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+            try {
+                p.skipChildren();
+            } catch (JsonParseException e) {
+                fail("Should not fail when not positioned on START_OBJECT/START_ARRAY");
+            }
+            feeder.feedInput(b, 0, b.length);
+            feeder.endOfInput();
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+        }
+    }
+
+    @Test
+    public void testInvalidUTF8() throws Exception
+    {
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            byte[] b = new byte[] { 'a', ':', ' ', (byte) 0xC3, (byte) 0x28 };
+            try {
+                feeder.feedInput(b, 0, b.length);
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "Invalid UTF-8 content");
+            }
+        }
+        // and truncated character at end
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            byte[] b = new byte[] { 'a', ':', ' ', (byte) 0xE2, (byte) 0x82 };
+            feeder.feedInput(b, 0, b.length);
+            feeder.endOfInput();
+            p.nextToken();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "Invalid UTF-8 content");
+        }
+    }
+
+    @Test
+    public void testAnchorReplayingNotSupported() throws Exception
+    {
+        YAMLAnchorReplayingFactory f = new YAMLAnchorReplayingFactory();
+        assertFalse(f.canParseAsync());
+        try {
+            f.createNonBlockingByteArrayParser();
+            fail("Should not pass");
+        } catch (UnsupportedOperationException e) {
+            verifyException(e, "Non-blocking source not");
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private List<String> _blockingTokens(String doc) throws Exception
+    {
+        try (JsonParser p = YAML_F.createParser(doc)) {
+            List<String> result = new ArrayList<>();
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                result.add(_describe(p, t));
+            }
+            return result;
+        }
+    }
+
+    private String _blockingError(String doc) throws Exception
+    {
+        try {
+            _blockingTokens(doc);
+        } catch (JacksonYAMLParseException e) {
+            return _withoutSnippet(e.getOriginalMessage());
+        }
+        fail("Should not pass: "+doc);
+        return null;
+    }
+
+    // Snippets of content included depend on content retained, so skip them
+    // (lines of snippet, and pointer, are indented by 4 spaces)
+    private String _withoutSnippet(String msg) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : msg.split("\n")) {
+            if (!line.startsWith("    ")) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private List<String> _nonBlockingTokens(String doc, int chunk) throws Exception
+    {
+        final byte[] b = utf8(doc);
+        try (JsonParser p = YAML_F.createNonBlockingByteArrayParser()) {
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            List<String> result = new ArrayList<>();
+            int offset = 0;
+            while (true) {
+                JsonToken t = p.nextToken();
+                if (t == JsonToken.NOT_AVAILABLE) {
+                    assertTrue(feeder.needMoreInput());
+                    if (offset < b.length) {
+                        int end = Math.min(b.length, offset + chunk);
+                        feeder.feedInput(b, offset, end);
+                        offset = end;
+                    } else {
+                        feeder.endOfInput();
+                    }
+                    continue;
+                }
+                if (t == null) {
+                    break;
+                }
+                result.add(_describe(p, t));
+            }
+            return result;
+        }
+    }
+
+    private String _describe(JsonParser p, JsonToken t) throws Exception
+    {
+        JsonLocation loc = p.currentTokenLocation();
+        return t+" "+p.getText()+" @"+loc.getLineNr()+":"+loc.getColumnNr()+"/"+loc.getCharOffset()
+            +" "+p.getTypeId()+" "+p.getObjectId();
+    }
+}
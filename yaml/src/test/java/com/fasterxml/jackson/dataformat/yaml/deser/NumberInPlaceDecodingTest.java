@@ -0,0 +1,145 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.ModuleTestBase;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tests for decoding of numbers directly from scalar values, without
+// constructing cleaned-up copies
+public class NumberInPlaceDecodingTest extends ModuleTestBase
+{
+    private final YAMLMapper MAPPER = newObjectMapper();
+
+    @Test
+    public void testDecimalIntTypes() throws Exception
+    {
+        _verifyInt("0", NumberType.INT, BigInteger.ZERO);
+        _verifyInt("-0", NumberType.INT, BigInteger.ZERO);
+        _verifyInt("+12", NumberType.INT, BigInteger.valueOf(12));
+        _verifyInt("2147483647", NumberType.INT, BigInteger.valueOf(Integer.MAX_VALUE));
+        _verifyInt("2_147_483_647", NumberType.INT, BigInteger.valueOf(Integer.MAX_VALUE));
+        _verifyInt("-2147483648", NumberType.INT, BigInteger.valueOf(Integer.MIN_VALUE));
+        _verifyInt("2147483648", NumberType.LONG, BigInteger.valueOf(2147483648L));
+        _verifyInt("-2_147_483_649", NumberType.LONG, BigInteger.valueOf(-2147483649L));
+        _verifyInt("999_999_999_999_999_999", NumberType.LONG, new BigInteger("999999999999999999"));
+        _verifyInt("-9223372036854775808", NumberType.LONG, BigInteger.valueOf(Long.MIN_VALUE));
+        _verifyInt("9_223_372_036_854_775_807", NumberType.LONG, BigInteger.valueOf(Long.MAX_VALUE));
+        _verifyInt("9223372036854775808", NumberType.BIG_INTEGER, new BigInteger("9223372036854775808"));
+        _verifyInt("-1_000_000_000_000_000_000_000", NumberType.BIG_INTEGER,
+                new BigInteger("-1000000000000000000000"));
+    }
+
+    @Test
+    public void testRadixIntTypes() throws Exception
+    {
+        _verifyInt("0b1_0000_0000", NumberType.INT, BigInteger.valueOf(256));
+        _verifyInt("-0b" + _repeat('1', 31), NumberType.INT, BigInteger.valueOf(-Integer.MAX_VALUE));
+        _verifyInt("0b" + _repeat('1', 32), NumberType.LONG, BigInteger.valueOf(0xFFFFFFFFL));
+        _verifyInt("0b" + _repeat('1', 63), NumberType.LONG, BigInteger.valueOf(Long.MAX_VALUE));
+        _verifyInt("0b1" + _repeat('0', 63), NumberType.BIG_INTEGER, BigInteger.ONE.shiftLeft(63));
+        _verifyInt("0_7_7", NumberType.INT, BigInteger.valueOf(63));
+        _verifyInt("-0777_7777_7777", NumberType.LONG, BigInteger.valueOf(-0777_7777_7777L));
+        _verifyInt("0x7ff_ffff", NumberType.INT, BigInteger.valueOf(0x7ffffff));
+        _verifyInt("0xFFFF_FFFF_FFFF_FFF", NumberType.LONG, BigInteger.valueOf(0xFFFFFFFFFFFFFFFL));
+        _verifyInt("0x1_0000_0000_0000_0000", NumberType.BIG_INTEGER, BigInteger.ONE.shiftLeft(64));
+    }
+
+    @Test
+    public void testYaml12Octal() throws Exception
+    {
+        _verifyInt("!!int 0o17", NumberType.INT, BigInteger.valueOf(15));
+        _verifyInt("!!int -0o1_0", NumberType.INT, BigInteger.valueOf(-8));
+        // without (valid) digits still exposed as String
+        for (String doc : new String[] { "!!int 0o", "!!int -0o_", "!!int 0o8" }) {
+            try (JsonParser p = MAPPER.createParser(doc)) {
+                assertToken(JsonToken.VALUE_STRING, p.nextToken());
+                assertEquals(doc.substring(6), p.getText());
+            }
+        }
+    }
+
+    @Test
+    public void testFloatsWithUnderscores() throws Exception
+    {
+        try (JsonParser p = MAPPER.createParser("[1_000.2_5, +1_0.5e10, 3.0]")) {
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals("1_000.2_5", p.getText());
+            assertEquals(1000.25, p.getDoubleValue());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals(new BigDecimal("10.5e10"), p.getDecimalValue());
+            assertEquals(10.5e10, p.getDoubleValue());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals(3.0, p.getDoubleValue());
+        }
+        try (JsonParser p = MAPPER.createParser("- 1_2.5\n- 1_2.5\n")) {
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals("12.5", p.getNumberValueDeferred());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals(12.5f, p.getFloatValue());
+        }
+    }
+
+    @Test
+    public void testRandomDecimalInts() throws Exception
+    {
+        Random rnd = new Random(37);
+        for (int i = 0; i < 5000; ++i) {
+            StringBuilder sb = new StringBuilder();
+            if (rnd.nextBoolean()) {
+                sb.append(rnd.nextBoolean() ? '-' : '+');
+            }
+            sb.append((char) ('1' + rnd.nextInt(9)));
+            int digits = rnd.nextInt(22);
+            for (int j = 0; j < digits; ++j) {
+                if (rnd.nextInt(4) == 0) {
+                    sb.append('_');
+                }
+                sb.append((char) ('0' + rnd.nextInt(10)));
+            }
+            final String str = sb.toString();
+            BigInteger exp = new BigInteger(str.replace("_", ""));
+            try (JsonParser p = MAPPER.createParser(str)) {
+                assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+                assertEquals(exp, p.getBigIntegerValue(), str);
+                assertEquals(_expectedType(exp), p.getNumberType(), str);
+            }
+        }
+    }
+
+    private void _verifyInt(String doc, NumberType expType, BigInteger exp) throws Exception
+    {
+        try (JsonParser p = MAPPER.createParser(doc)) {
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(expType, p.getNumberType(), doc);
+            assertEquals(exp, p.getBigIntegerValue(), doc);
+            assertEquals(exp.longValue(), p.getNumberValue().longValue(), doc);
+        }
+    }
+
+    private NumberType _expectedType(BigInteger value) {
+        if (value.bitLength() <= 31) {
+            return NumberType.INT;
+        }
+        return (value.bitLength() <= 63) ? NumberType.LONG : NumberType.BIG_INTEGER;
+    }
+
+    private static String _repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; ++i) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,416 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharConversionException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.yaml.*;
+import com.fasterxml.jackson.dataformat.yaml.util.DocumentSplitter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelReadTest extends ModuleTestBase
+{
+    static class Item {
+        public int id;
+        public String name;
+    }
+
+    // Documents (without start markers) to combine into test streams
+    private final static String[] DOCS = new String[] {
+        "id: 1\nname: a\n",
+        "[1, 2,\n3]\n",
+        "text: |\n  ---\n  ...\n  %TAG\n\n  more\nnext: x\n",
+        "folded: >\n  line\n\n  ---\n",
+        "plain\n  continued\n",
+        "'quoted\n  --- not a marker'\n",
+        "# only a comment\n",
+        "",
+        "!e!thing {a: 1}\n",
+        "!!str 123\n",
+        "key: !e!other\n  - x\n",
+        "seq:\n- a\n- b\n",
+        "? complex\n: value\n",
+        "anchor: &a 1\nalias: *a\n",
+        "\"double\"\n",
+        "---x: 1\n",
+        "...x: 2\n",
+    };
+
+    private final YAMLMapper MAPPER = newObjectMapper();
+
+    private ExecutorService _executor;
+
+    @BeforeEach
+    public void setUp() {
+        _executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadInOrder() throws Exception
+    {
+        final String YAML = _yaml(1000);
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        List<Item> expected = r.<Item>readValues(YAML).readAll();
+        assertEquals(1000, expected.size());
+
+        // use small batches and pipeline to exercise batching, backpressure
+        try (YAMLParallelMappingIterator<Item> it = new YAMLParallelMappingIterator<>(r,
+                new DocumentSplitter(new StringReader(YAML), 100), null, _executor, 3)) {
+            List<Item> actual = it.readAll();
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i).id, actual.get(i).id);
+                assertEquals(expected.get(i).name, actual.get(i).name);
+            }
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test
+    public void testReadWithDefaults() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        try (YAMLParallelMappingIterator<Item> it = YAMLParallelMappingIterator.readValues(r,
+                new StringReader(_yaml(3000)), _executor)) {
+            List<Integer> ids = it.stream().map(item -> item.id).collect(Collectors.toList());
+            assertEquals(3000, ids.size());
+            for (int i = 0; i < ids.size(); ++i) {
+                assertEquals(i, ids.get(i).intValue());
+            }
+        }
+        try (YAMLParallelMappingIterator<Item> it = YAMLParallelMappingIterator.readValues(r,
+                new ByteArrayInputStream(_yaml(10).getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(10, it.readAll().size());
+        }
+    }
+
+    // Byte stream must be decoded same way as by YAMLFactory
+    @Test
+    public void testReadFromStream() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        final byte[] doc = "---\nid: 1\nname: \"a\\u00e9\"\n---\nid: 2\nname: b\n"
+                .getBytes(StandardCharsets.UTF_8);
+        doc[doc.length - 2] = (byte) 0xFF;
+        // invalid UTF-8 is reported, not replaced
+        try (YAMLParallelMappingIterator<Item> it = YAMLParallelMappingIterator.readValues(r,
+                new ByteArrayInputStream(doc), _executor)) {
+            it.readAll();
+            fail("Should not pass");
+        } catch (CharConversionException e) {
+            verifyException(e, "Invalid UTF-8 start byte 0xff");
+        }
+        // and stream is only closed if AUTO_CLOSE_SOURCE is enabled for factory
+        final boolean[] closed = new boolean[1];
+        final byte[] valid = _yaml(10).getBytes(StandardCharsets.UTF_8);
+        ObjectReader noAutoClose = new YAMLMapper(YAMLFactory.builder()
+                .disable(StreamReadFeature.AUTO_CLOSE_SOURCE).build())
+            .readerFor(Item.class);
+        try (YAMLParallelMappingIterator<Item> it = YAMLParallelMappingIterator.readValues(noAutoClose,
+                new ByteArrayInputStream(valid) {
+                    @Override
+                    public void close() {
+                        closed[0] = true;
+                    }
+                }, _executor)) {
+            assertEquals(10, it.readAll().size());
+        }
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    public void testEmptyInput() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        try (YAMLParallelMappingIterator<Item> it = YAMLParallelMappingIterator.readValues(r,
+                "")) {
+            assertFalse(it.hasNextValue());
+            try {
+                it.nextValue();
+                fail("Should not pass");
+            } catch (NoSuchElementException e) {
+                ; // expected
+            }
+        }
+    }
+
+    @Test
+    public void testBindingFailure() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        final String YAML = "id: 1\n---\nid: 2\n---\nid: xyz\n---\nid: 4\n";
+        try (YAMLParallelMappingIterator<Item> it = new YAMLParallelMappingIterator<>(r,
+                new DocumentSplitter(new StringReader(YAML), 1), null, _executor, 2)) {
+            assertEquals(1, it.nextValue().id);
+            assertEquals(2, it.nextValue().id);
+            try {
+                it.nextValue();
+                fail("Should not pass");
+            } catch (InvalidFormatException e) {
+                verifyException(e, "xyz");
+            }
+        }
+    }
+
+    @Test
+    public void testBindingFailureWithinBatch() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        final String YAML = "id: 1\n---\nid: 2\n---\nid: xyz\n---\nid: 4\n";
+        try (YAMLParallelMappingIterator<Item> it = new YAMLParallelMappingIterator<>(r,
+                new DocumentSplitter(new StringReader(YAML), 1000), null, _executor, 2)) {
+            assertEquals(1, it.nextValue().id);
+            assertEquals(2, it.nextValue().id);
+            InvalidFormatException e = assertThrows(InvalidFormatException.class, () -> it.nextValue());
+            verifyException(e, "xyz");
+            // can continue with the next document, as with MappingIterator
+            assertEquals(4, it.nextValue().id);
+            assertFalse(it.hasNextValue());
+        }
+    }
+
+    @Test
+    public void testParseFailure() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        final String YAML = _yaml(200) + "---\nid: 1: 2\n" + _yaml(10);
+        MappingIterator<Item> plain = r.readValues(YAML);
+        for (int i = 0; i < 200; ++i) {
+            assertEquals(i, plain.nextValue().id);
+        }
+        assertThrows(StreamReadException.class, () -> plain.nextValue());
+
+        for (int minLength : new int[] { 1, 100, 1000, 100000 }) {
+            try (YAMLParallelMappingIterator<Item> it = new YAMLParallelMappingIterator<>(r,
+                    new DocumentSplitter(new StringReader(YAML), minLength), null, _executor, 3)) {
+                for (int i = 0; i < 200; ++i) {
+                    assertEquals(i, it.nextValue().id);
+                }
+                assertTrue(it.hasNextValue());
+                StreamReadException e = assertThrows(StreamReadException.class, () -> it.nextValue());
+                verifyException(e, "mapping values are not allowed here");
+                assertFalse(it.hasNextValue());
+            }
+        }
+    }
+
+    @Test
+    public void testRootSequence() throws Exception
+    {
+        final String YAML = "[1, 2]\n---\n{k: 0}\n---\n{k: 1}\n---\n[3]\n";
+        ObjectReader r = MAPPER.readerFor(JsonNode.class);
+        List<JsonNode> expected = r.<JsonNode>readValues(YAML).readAll();
+        assertEquals(2, expected.size());
+        for (int minLength : new int[] { 1, 10, 1000 }) {
+            try (YAMLParallelMappingIterator<JsonNode> it = new YAMLParallelMappingIterator<>(r,
+                    new DocumentSplitter(new StringReader(YAML), minLength), null, _executor, 2)) {
+                assertEquals(expected, it.readAll());
+            }
+        }
+        // but only for the first document
+        final String YAML2 = "{k: 0}\n---\n[1, 2]\n";
+        try (YAMLParallelMappingIterator<JsonNode> it = new YAMLParallelMappingIterator<>(r,
+                new DocumentSplitter(new StringReader(YAML2), 1), null, _executor, 2)) {
+            assertEquals(r.readValues(YAML2).readAll(), it.readAll());
+        }
+    }
+
+    @Test
+    public void testRejectedExecution() throws Exception
+    {
+        ObjectReader r = MAPPER.readerFor(Item.class);
+        _executor.shutdown();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (YAMLParallelMappingIterator<Item> it = new YAMLParallelMappingIterator<>(r,
+                    new DocumentSplitter(new StringReader(_yaml(20)), 1), null, _executor, 2)) {
+                assertThrows(RejectedExecutionException.class, () -> it.hasNextValue());
+                // must not wait for batches that were never run
+                assertThrows(RejectedExecutionException.class, () -> it.hasNextValue());
+            }
+        });
+    }
+
+    @Test
+    public void testTagDirectivesCarried() throws Exception
+    {
+        final String YAML = "%TAG !e! tag:example.com,2000:\n"
+                + "--- !e!first 1\n"
+                + "--- !e!second 2\n"
+                + "...\n"
+                + "# comment\n"
+                + "%TAG !f! tag:other.com,2000:\n"
+                + "%YAML 1.1\n"
+                + "--- !f!third 3\n"
+                + "--- [!e!fourth 4, !f!fifth 5]\n";
+        List<String> batches = _split(YAML, 1);
+        assertEquals(4, batches.size());
+        assertEquals("%TAG !e! tag:example.com,2000:\n"
+                + "--- !e!first 1\n", batches.get(0));
+        assertEquals("%TAG !e! tag:example.com,2000:\n"
+                + "--- !e!second 2\n"
+                + "...\n", batches.get(1));
+        assertEquals("%TAG !e! tag:example.com,2000:\n"
+                + "# comment\n"
+                + "%TAG !f! tag:other.com,2000:\n"
+                + "%YAML 1.1\n"
+                + "--- !f!third 3\n", batches.get(2));
+        assertEquals("%TAG !e! tag:example.com,2000:\n"
+                + "%TAG !f! tag:other.com,2000:\n"
+                + "--- [!e!fourth 4, !f!fifth 5]\n", batches.get(3));
+        assertEquals(_tokens(YAML), _batchTokens(batches));
+
+        // and same values via iterator
+        ObjectReader r = MAPPER.readerFor(JsonNode.class);
+        try (YAMLParallelMappingIterator<JsonNode> it = new YAMLParallelMappingIterator<>(r,
+                new DocumentSplitter(new StringReader(YAML), 1), null, _executor, 2)) {
+            assertEquals(r.readValues(YAML).readAll(), it.readAll());
+        }
+    }
+
+    @Test
+    public void testNoSplitOnAmbiguousContent() throws Exception
+    {
+        // "%" at the start of a line within document may be a directive,
+        // or content of a multi-line plain scalar: can not split after it
+        final String YAML = "id: 1\n---\nplain\n%TAG ! x\n---\nid: 3\n---\nid: 4\n";
+        List<String> batches = _split(YAML, 1);
+        assertEquals(2, batches.size());
+        assertEquals("id: 1\n", batches.get(0));
+        assertEquals(_tokens(YAML), _batchTokens(batches));
+    }
+
+    @Test
+    public void testLineBreaks() throws Exception
+    {
+        for (String lf : new String[] { "\n", "\r\n", "\r", "\u0085", "\u2028", "\u2029" }) {
+            final String YAML = "a: 1" + lf + "---" + lf + "b: 2" + lf + "--- c" + lf
+                    + "... # end" + lf + "--- d";
+            List<String> batches = _split(YAML, 1);
+            assertEquals(4, batches.size());
+            assertTrue(batches.get(2).endsWith("... # end" + lf));
+            assertEquals(_tokens(YAML), _batchTokens(batches));
+        }
+    }
+
+    @Test
+    public void testSameTokensAsSequential() throws Exception
+    {
+        Random rnd = new Random(34);
+        for (int i = 0; i < 2000; ++i) {
+            StringBuilder sb = new StringBuilder();
+            if (rnd.nextInt(3) == 0) {
+                sb.append("%TAG !e! tag:example.com,2000:\n");
+            }
+            int docs = 1 + rnd.nextInt(8);
+            for (int j = 0; j < docs; ++j) {
+                if (j > 0 || rnd.nextBoolean()) {
+                    sb.append(rnd.nextBoolean() ? "---\n" : "--- ");
+                }
+                sb.append(DOCS[rnd.nextInt(DOCS.length)]);
+                if (rnd.nextInt(4) == 0) {
+                    sb.append("...\n");
+                    if (rnd.nextBoolean()) {
+                        sb.append("# comment\n");
+                    }
+                    if (rnd.nextInt(3) == 0) {
+                        sb.append("%TAG !f").append(j).append("! tag:f").append(j).append(".com,2000:\n");
+                    }
+                }
+            }
+            final String yaml = sb.toString();
+            final List<String> exp = _tokens(yaml);
+            // invalid content may fail at different point, with different message
+            final boolean valid = exp.isEmpty() || !exp.get(exp.size() - 1).startsWith("ERROR");
+            for (int minLength : new int[] { 1, 20, 100 }) {
+                List<String> act = _batchTokens(_split(yaml, minLength));
+                if (valid) {
+                    assertEquals(exp, act, "Different tokens for: " + yaml);
+                } else {
+                    assertTrue(act.get(act.size() - 1).startsWith("ERROR"),
+                            "Should fail for: " + yaml);
+                }
+            }
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private String _yaml(int docs)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < docs; ++i) {
+            sb.append("---\nid: ").append(i).append("\nname: |\n  name ").append(i)
+                .append("\n  ---\n");
+            if (i % 3 == 0) {
+                sb.append("...\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private List<String> _split(String yaml, int minLength) throws Exception
+    {
+        DocumentSplitter splitter = new DocumentSplitter(new StringReader(yaml), minLength);
+        List<String> batches = new ArrayList<>();
+        String batch;
+        while ((batch = splitter.nextBatch()) != null) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private List<String> _batchTokens(List<String> batches) throws Exception
+    {
+        List<String> result = new ArrayList<>();
+        for (String batch : batches) {
+            result.addAll(_tokens(batch));
+            if (!result.isEmpty() && result.get(result.size() - 1).startsWith("ERROR")) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private List<String> _tokens(String yaml) throws Exception
+    {
+        List<String> result = new ArrayList<>();
+        try (JsonParser p = MAPPER.createParser(yaml)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                result.add(t + " " + p.getText() + " " + p.getTypeId());
+            }
+        } catch (Exception e) {
+            result.add("ERROR " + e.getMessage());
+        }
+        return result;
+    }
+}
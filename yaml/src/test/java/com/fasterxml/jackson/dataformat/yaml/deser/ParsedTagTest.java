@@ -0,0 +1,81 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.*;
+import com.fasterxml.jackson.dataformat.yaml.util.ParsedTag;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParsedTagTest extends ModuleTestBase
+{
+    private final YAMLMapper MAPPER = newObjectMapper();
+
+    @Test
+    public void testParse()
+    {
+        ParsedTag tag = ParsedTag.parse("tag:yaml.org,2002:int");
+        assertEquals("int", tag.standardType);
+        assertEquals(ParsedTag.KIND_INT, tag.kind);
+        assertFalse(tag.compound);
+        assertEquals("tag:yaml.org,2002:int", tag.typeId);
+
+        tag = ParsedTag.parse("tag:yaml.org,2002:bool,str");
+        assertEquals("bool", tag.standardType);
+        assertEquals(ParsedTag.KIND_BOOL, tag.kind);
+        assertTrue(tag.compound);
+
+        tag = ParsedTag.parse("!!com.foo.Bar");
+        assertEquals("com.foo.Bar", tag.typeId);
+        assertEquals(ParsedTag.KIND_OTHER, tag.kind);
+        // non-standard tags never match standard types
+        assertEquals(ParsedTag.KIND_OTHER, ParsedTag.parse("!int").kind);
+    }
+
+    @Test
+    public void testCacheBounded()
+    {
+        ParsedTag.Cache cache = new ParsedTag.Cache(3);
+        ParsedTag a = cache.find("!a");
+        assertSame(a, cache.find("!a"));
+        cache.find("!b");
+        cache.find("!c");
+        assertEquals(3, cache.size());
+        cache.find("!d");
+        assertEquals(1, cache.size());
+        assertNotSame(a, cache.find("!a"));
+    }
+
+    @Test
+    public void testRepeatedTags() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3; ++i) {
+            sb.append("- !!int '1").append(i).append("'\n")
+                .append("- !!bool 'true'\n")
+                .append("- !!float,str '0.5'\n")
+                .append("- !!null 'x'\n")
+                .append("- !Point {x: 1}\n");
+        }
+        try (JsonParser p = MAPPER.createParser(sb.toString())) {
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            for (int i = 0; i < 3; ++i) {
+                assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+                assertEquals(10 + i, p.getIntValue());
+                assertEquals("tag:yaml.org,2002:int", p.getTypeId());
+                assertToken(JsonToken.VALUE_TRUE, p.nextToken());
+                assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+                assertEquals(0.5, p.getDoubleValue());
+                assertToken(JsonToken.VALUE_NULL, p.nextToken());
+                assertToken(JsonToken.START_OBJECT, p.nextToken());
+                assertEquals("Point", p.getTypeId());
+                assertToken(JsonToken.FIELD_NAME, p.nextToken());
+                assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+                assertNull(p.getTypeId());
+                assertToken(JsonToken.END_OBJECT, p.nextToken());
+            }
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkipChildrenTest extends ModuleTestBase
+{
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Header {
+        public String name;
+        public int version;
+    }
+
+    private final static String DOC = "name: &n foo\n"
+            + "skipped: &s !custom\n"
+            + "  list: [1, 2.5, true, null, *n]\n"
+            + "  bad: !!int -_\n"
+            + "  nested: &x\n"
+            + "    - {a: [b, {c: d}]}\n"
+            + "    - >\n"
+            + "      folded\n"
+            + "empty: []\n"
+            + "version: 3\n";
+
+    private final YAMLMapper MAPPER = newObjectMapper();
+
+    @Test
+    public void testSkipObject() throws Exception
+    {
+        try (JsonParser p = MAPPER.createParser(DOC)) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("skipped", p.currentName());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertEquals("custom", p.getTypeId());
+            assertEquals("s", p.getObjectId());
+
+            // contents include malformed number that would fail if decoded
+            assertSame(p, p.skipChildren());
+            assertToken(JsonToken.END_OBJECT, p.currentToken());
+            assertNull(p.getObjectId());
+            assertNull(p.getTypeId());
+            // block mapping ends where next key starts
+            assertEquals(9, p.currentLocation().getLineNr());
+            assertTrue(p.getParsingContext().inObject());
+            assertEquals("skipped", p.currentName());
+
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("empty", p.currentName());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_ARRAY, p.currentToken());
+
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("version", p.currentName());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(3, p.getIntValue());
+            // no-op for scalars
+            p.skipChildren();
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.currentToken());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+        }
+    }
+
+    @Test
+    public void testSkipRoot() throws Exception
+    {
+        try (JsonParser p = MAPPER.createParser(DOC + "---\n[1, 2]\n")) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.currentToken());
+            assertTrue(p.getParsingContext().inRoot());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        }
+    }
+
+    @Test
+    public void testSkipWithDatabind() throws Exception
+    {
+        Header h = MAPPER.readValue(DOC, Header.class);
+        assertEquals("foo", h.name);
+        assertEquals(3, h.version);
+
+        // and with alias replaying too
+        ObjectMapper mapper = new ObjectMapper(new YAMLAnchorReplayingFactory());
+        h = mapper.readValue("base: &b {name: bar, x: [1, 2]}\n"
+                + "other: *b\n"
+                + "<<: *b\n"
+                + "version: 4\n", Header.class);
+        assertEquals("bar", h.name);
+        assertEquals(4, h.version);
+    }
+
+    @Test
+    public void testSkipNestingLimited() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder().maxNestingDepth(5).build())
+                .build();
+        try (JsonParser p = f.createParser("a: [[[[[[1]]]]]]\n")) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            p.skipChildren();
+            fail("Should not pass");
+        } catch (StreamConstraintsException e) {
+            verifyException(e, "Document nesting depth");
+        }
+    }
+}
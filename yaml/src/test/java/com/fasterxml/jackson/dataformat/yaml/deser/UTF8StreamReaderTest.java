@@ -0,0 +1,128 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests verifying that byte-based (UTF-8) input, decoded directly into
+ * code points, is read the same way as equivalent char-based input.
+ */
+public class UTF8StreamReaderTest extends ModuleTestBase
+{
+    private final YAMLFactory DEFAULT_F = new YAMLFactory();
+
+    private final YAMLFactory LIGHTWEIGHT_F = YAMLFactory.builder()
+            .enable(YAMLParser.Feature.LIGHTWEIGHT_MARKS)
+            .build();
+
+    @Test
+    public void testSameTokensAndLocations() throws Exception
+    {
+        final String doc = "---\r\nname: \"caf\u00E9\"\r\nsmile: \uD83D\uDE00 x \u20AC\n"
+                + "list:\n- 1\n- {a: b}\ntext: |\n  line \u0100\n  \uD83D\uDE01\n--- last\n";
+        _verifySame(doc);
+    }
+
+    @Test
+    public void testLongContent() throws Exception
+    {
+        // long enough to span many reads, with multi-byte chars at varying offsets
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; ++i) {
+            sb.append("key").append(i).append(": \"v\u00E4l\u20AC").append(i)
+                .append(" \uD83D\uDE00\"\n");
+        }
+        sb.append("long: ");
+        for (int i = 0; i < 5000; ++i) {
+            sb.append((i % 7 == 0) ? "\u00E9" : "ab");
+        }
+        sb.append('\n');
+        _verifySame(sb.toString());
+    }
+
+    @Test
+    public void testSameErrors() throws Exception
+    {
+        final String[] DOCS = new String[] {
+            "key: [1, 2\nother: }\n",
+            "a: \u00E9\u00E9\n  c: d\n",
+            "x: \"a\u0001b\"\n",
+        };
+        for (String doc : DOCS) {
+            for (YAMLFactory f : new YAMLFactory[] { DEFAULT_F, LIGHTWEIGHT_F }) {
+                assertEquals(_failure(f.createParser(doc)),
+                        _failure(f.createParser(utf8(doc))));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidUTF8() throws Exception
+    {
+        byte[] doc = new byte[] { 'a', ':', ' ', (byte) 0xC3, (byte) 0x28, '\n' };
+        verifyException(_failureFor(doc), "Invalid UTF-8 middle byte 0x28");
+        doc = new byte[] { 'a', ':', ' ', (byte) 0xFF, '\n' };
+        verifyException(_failureFor(doc), "Invalid UTF-8 start byte 0xff");
+        doc = new byte[] { 'a', ':', ' ', (byte) 0xE2, (byte) 0x82 };
+        verifyException(_failureFor(doc), "End-of-input after first 2 byte(s)");
+    }
+
+    private void _verifySame(String doc) throws Exception
+    {
+        final byte[] bytes = utf8(doc);
+        for (YAMLFactory f : new YAMLFactory[] { DEFAULT_F, LIGHTWEIGHT_F }) {
+            List<String> exp = _tokens(f.createParser(doc));
+            assertEquals(exp, _tokens(f.createParser(bytes)));
+            assertEquals(exp, _tokens(f.createParser(new ByteArrayInputStream(bytes))));
+        }
+    }
+
+    private List<String> _tokens(JsonParser p) throws Exception
+    {
+        List<String> result = new ArrayList<>();
+        try {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                JsonLocation start = p.currentTokenLocation();
+                JsonLocation end = p.currentLocation();
+                result.add(t+" "+p.getText()+" @"+start.getLineNr()+":"+start.getColumnNr()
+                    +"/"+start.getCharOffset()+"-"+end.getLineNr()+":"+end.getColumnNr()
+                    +"/"+end.getCharOffset());
+            }
+        } finally {
+            p.close();
+        }
+        return result;
+    }
+
+    private String _failure(JsonParser p) throws Exception
+    {
+        try {
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            return e.getOriginalMessage();
+        } finally {
+            p.close();
+        }
+        return null;
+    }
+
+    private JacksonYAMLParseException _failureFor(byte[] doc) throws Exception
+    {
+        try (JsonParser p = DEFAULT_F.createParser(doc)) {
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            return e;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.fasterxml.jackson.dataformat.yaml.deser;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.ModuleTestBase;
+import com.fasterxml.jackson.dataformat.yaml.YAMLAnchorReplayingFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YAMLAnchorReplayingLimitsTest extends ModuleTestBase
+{
+    private final ObjectMapper MAPPER = new ObjectMapper(new YAMLAnchorReplayingFactory());
+
+    @Test
+    public void testNestedAliasesReplayed() throws Exception
+    {
+        final String YAML = "a: &a [x, y]\n"
+                + "b: &b\n"
+                + "  - *a\n"
+                + "  - &c {k: v}\n"
+                + "  - *a\n"
+                + "c: *b\n"
+                + "d: *c\n";
+        JsonNode root = MAPPER.readTree(YAML);
+        assertEquals("[[\"x\",\"y\"],{\"k\":\"v\"},[\"x\",\"y\"]]", root.get("b").toString());
+        assertEquals(root.get("b"), root.get("c"));
+        assertEquals("{\"k\":\"v\"}", root.get("d").toString());
+    }
+
+    @Test
+    public void testMergeWithinAnchor() throws Exception
+    {
+        final String YAML = "base: &base\n"
+                + "  <<: {x: 1}\n"
+                + "  y: 2\n"
+                + "copy: *base\n";
+        // by default, merge key of replayed content is returned as-is
+        JsonNode root = MAPPER.readTree(YAML);
+        assertEquals("{\"x\":1,\"y\":2}", root.get("base").toString());
+        assertEquals("{\"<<\":{\"x\":1},\"y\":2}", root.get("copy").toString());
+
+        // but may be handled as well
+        ObjectMapper mapper = new ObjectMapper(new YAMLAnchorReplayingFactory()
+                .setExpandReplayedMerges(true));
+        root = mapper.readTree(YAML);
+        assertEquals("{\"x\":1,\"y\":2}", root.get("base").toString());
+        assertEquals(root.get("base"), root.get("copy"));
+    }
+
+    // Merge key referring to an alias is handled regardless of setting
+    @Test
+    public void testMergeOfAlias() throws Exception
+    {
+        final String YAML = "base: &base {x: 1}\n"
+                + "ext:\n"
+                + "  <<: *base\n"
+                + "  y: 2\n";
+        JsonNode root = MAPPER.readTree(YAML);
+        assertEquals("{\"x\":1,\"y\":2}", root.get("ext").toString());
+    }
+
+    @Test
+    public void testAliasBombLimited() throws Exception
+    {
+        // "billion laughs": each level doubles the replayed content
+        StringBuilder sb = new StringBuilder("a0: &a0 [lol, lol]\n");
+        for (int i = 1; i < 40; ++i) {
+            sb.append("a").append(i).append(": &a").append(i)
+                .append(" [*a").append(i-1).append(", *a").append(i-1).append("]\n");
+        }
+        try (JsonParser p = MAPPER.createParser(sb.toString())) {
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (StreamConstraintsException e) {
+            verifyException(e, "Number of events replayed for aliases exceeds the maximum allowed");
+        }
+    }
+
+    @Test
+    public void testConfigurableLimits() throws Exception
+    {
+        final String YAML = "a: &a [1, 2, 3]\nb: *a\nc: *a\n";
+        YAMLAnchorReplayingFactory f = new YAMLAnchorReplayingFactory()
+                .setMaxReplayedEvents(10);
+        assertEquals(10, f.getMaxReplayedEvents());
+        // two replays of 5 events each are fine
+        assertEquals(3, new ObjectMapper(f).readTree(YAML).get("c").size());
+
+        f = new YAMLAnchorReplayingFactory().setMaxReplayedEvents(9);
+        // and settings retained by copies
+        f = f.copy();
+        assertEquals(9, f.getMaxReplayedEvents());
+        try {
+            new ObjectMapper(f).readTree(YAML);
+            fail("Should not pass");
+        } catch (StreamConstraintsException e) {
+            verifyException(e, "exceeds the maximum allowed (9)");
+        }
+
+        f = new YAMLAnchorReplayingFactory().setMaxReplayedLength(5);
+        assertEquals(5L, f.getMaxReplayedLength());
+        try {
+            new ObjectMapper(f).readTree("a: &a abc\nb: *a\nc: *a\n");
+            fail("Should not pass");
+        } catch (StreamConstraintsException e) {
+            verifyException(e, "Length of values replayed for aliases exceeds the maximum allowed (5)");
+        }
+    }
+
+    @Test
+    public void testLimitsPerDocument() throws Exception
+    {
+        YAMLAnchorReplayingFactory f = new YAMLAnchorReplayingFactory()
+                .setMaxReplayedEvents(5);
+        final String YAML = "a: &a [1, 2, 3]\nb: *a\n---\na: &a [1, 2, 3]\nb: *a\n";
+        try (JsonParser p = f.createParser(YAML)) {
+            int count = 0;
+            while (p.nextToken() != null) {
+                ++count;
+            }
+            assertEquals(2 * 14, count);
+        }
+    }
+
+    @Test
+    public void testAnchorsNotRetainedAcrossDocuments() throws Exception
+    {
+        final String YAML = "a: &a [1, 2]\n---\nb: *a\n";
+        try (JsonParser p = MAPPER.createParser(YAML)) {
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            while (p.nextToken() != JsonToken.END_OBJECT) { }
+            try {
+                while (p.nextToken() != null) { }
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "invalid alias a");
+            }
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.fasterxml.jackson.dataformat.yaml.ser;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringWriter;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamWriteException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.ModuleTestBase;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,4 +66,70 @@ public class BinaryWriteTest extends ModuleTestBase
                 "  AQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQE=\n", yaml);
 
     }
+
+    @Test
+    public void testWriteBinaryFromStream() throws Exception
+    {
+        final byte[] data = new byte[57 * 100];
+        new Random(41).nextBytes(data);
+        for (boolean direct : new boolean[] { false, true }) {
+            YAMLFactory f = YAMLFactory.builder()
+                    .configure(YAMLGenerator.Feature.USE_DIRECT_WRITER, direct)
+                    .build();
+            for (int len : new int[] { 0, 1, 57, 58, data.length }) {
+                // with unknown length no trailing linefeed, with known length same as byte[]
+                String exp = _writeBinary(f, Arrays.copyOf(data, len));
+                StringWriter w = new StringWriter();
+                try (JsonGenerator gen = f.createGenerator(w)) {
+                    gen.writeStartArray();
+                    assertEquals(len, gen.writeBinary(new ByteArrayInputStream(data, 0, len), len));
+                    assertEquals(len, gen.writeBinary(new ByteArrayInputStream(data, 0, len), -1));
+                    gen.writeEndArray();
+                }
+                final String doc = w.toString();
+                assertTrue(doc.startsWith(exp.substring(0, exp.length() - 1)), doc);
+                try (JsonParser p = f.createParser(doc)) {
+                    assertToken(JsonToken.START_ARRAY, p.nextToken());
+                    for (int i = 0; i < 2; ++i) {
+                        JsonToken t = p.nextToken();
+                        if (len == 0) {
+                            assertToken(JsonToken.VALUE_STRING, t);
+                            assertEquals("", p.getText());
+                        } else {
+                            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, t);
+                            assertArrayEquals(Arrays.copyOf(data, len), p.getBinaryValue());
+                        }
+                    }
+                    assertToken(JsonToken.END_ARRAY, p.nextToken());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWriteBinaryFromStreamTooShort() throws Exception
+    {
+        for (boolean direct : new boolean[] { false, true }) {
+            YAMLFactory f = YAMLFactory.builder()
+                    .configure(YAMLGenerator.Feature.USE_DIRECT_WRITER, direct)
+                    .build();
+            try (JsonGenerator gen = f.createGenerator(new StringWriter())) {
+                gen.writeBinary(new ByteArrayInputStream(new byte[10]), 20);
+                fail("Should not pass");
+            } catch (StreamWriteException e) {
+                verifyException(e, "Too few bytes available: missing 10 bytes (out of 20)");
+            }
+        }
+    }
+
+    private String _writeBinary(YAMLFactory f, byte[] data) throws Exception
+    {
+        StringWriter w = new StringWriter();
+        try (JsonGenerator gen = f.createGenerator(w)) {
+            gen.writeStartArray();
+            gen.writeBinary(data);
+            gen.writeEndArray();
+        }
+        return w.toString();
+    }
 }
@@ -0,0 +1,484 @@
+package com.fasterxml.jackson.dataformat.yaml.ser;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.DumperOptions;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests to verify that output written with
+ * {@link YAMLGenerator.Feature#USE_DIRECT_WRITER} is identical to that
+ * produced via SnakeYAML {@code Emitter}.
+ */
+public class DirectWriterConformanceTest extends ModuleTestBase
+{
+    interface Content {
+        void write(JsonGenerator g) throws Exception;
+    }
+
+    private final static String[] STRINGS = new String[] {
+        "", " ", "a", "abc", "two words", "  leading", "trailing  ", "true", "null",
+        "~", "123", "0123", "1.5", "0x1F", "-", "- a", "? x", ":", "a: b", "a:b", "#c",
+        "a #c", "a#c", "---", "...", "--- x", "'quoted'", "\"dq\"", "it's", "back\\slash",
+        "[a]", "{b}", "&anchor", "*alias", "!tag", "|", ">", "%", "@", "`", ",",
+        "line1\nline2", "line1\nline2\n", "\nleading break", "trailing break\n\n",
+        "a \nb", "a\n b", "\n", "\n\n", " \n", "tab\there", "cr\rhere", "nul\u0000",
+        "bell\u0007", "esc\u001B", "del\u007F", "nbsp\u00A0x", "next\u0085line",
+        "ls\u2028ps\u2029", "bom\uFEFF", "caf\u00E9", "\u4E2D\u6587", "emoji \uD83D\uDE00",
+        "lone \uD800 surrogate", "private \uE000", "\uFFFE",
+        "a fairly long string value that will need to be split across several lines"
+                + " when written with default line width settings of eighty characters",
+        "averyveryveryveryveryveryveryveryveryveryveryveryveryveryveryveryveryverylongword"
+                + " followed by more text and more text and more text and more text",
+        "multi-line text\nwith a line that is long enough to be folded, maybe, if the"
+                + " writer decides that it is worth folding at all\nand a last line",
+        "trailing space in multi-line\ntext ",
+        "\"quotes\" and 'apostrophes' together, in a long string that also needs to be"
+                + " split across lines when written \"double-quoted\" with escapes\t\u0001",
+    };
+
+    private final static YAMLGenerator.Feature[] OPTIONAL_FEATURES = new YAMLGenerator.Feature[] {
+        YAMLGenerator.Feature.WRITE_DOC_START_MARKER,
+        YAMLGenerator.Feature.SPLIT_LINES,
+        YAMLGenerator.Feature.MINIMIZE_QUOTES,
+        YAMLGenerator.Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS,
+        YAMLGenerator.Feature.LITERAL_BLOCK_STYLE,
+        YAMLGenerator.Feature.INDENT_ARRAYS,
+        YAMLGenerator.Feature.INDENT_ARRAYS_WITH_INDICATOR,
+        YAMLGenerator.Feature.USE_PLATFORM_LINE_BREAKS,
+        YAMLGenerator.Feature.ALLOW_LONG_KEYS,
+        YAMLGenerator.Feature.USE_NATIVE_OBJECT_ID,
+        YAMLGenerator.Feature.USE_NATIVE_TYPE_ID,
+    };
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    @Test
+    public void testDirectWriterUsed() throws Exception
+    {
+        YAMLFactory f = YAMLFactory.builder()
+                .enable(YAMLGenerator.Feature.USE_DIRECT_WRITER)
+                .build();
+        try (YAMLGenerator g = (YAMLGenerator) f.createGenerator(new StringWriter())) {
+            assertEquals(0, g.getOutputBuffered());
+            g.writeStartObject();
+            g.writeStringField("key", "value");
+            g.writeEndObject();
+            assertTrue(g.getOutputBuffered() > 0);
+            g.flush();
+            assertEquals(0, g.getOutputBuffered());
+        }
+        // but not with flow style
+        DumperOptions opts = new DumperOptions();
+        opts.setDefaultFlowStyle(DumperOptions.FlowStyle.FLOW);
+        f = YAMLFactory.builder()
+                .enable(YAMLGenerator.Feature.USE_DIRECT_WRITER)
+                .dumperOptions(opts)
+                .build();
+        try (YAMLGenerator g = (YAMLGenerator) f.createGenerator(new StringWriter())) {
+            assertEquals(-1, g.getOutputBuffered());
+            g.writeString("value");
+        }
+    }
+
+    @Test
+    public void testStructures() throws Exception
+    {
+        _verifyAll("empty-doc", g -> { });
+        _verifyAll("empty-object", g -> {
+            g.writeStartObject();
+            g.writeEndObject();
+        });
+        _verifyAll("empty-array", g -> {
+            g.writeStartArray();
+            g.writeEndArray();
+        });
+        _verifyAll("empty-string", g -> g.writeString(""));
+        _verifyAll("null", g -> g.writeNull());
+        _verifyAll("nested", g -> {
+            g.writeStartObject();
+            g.writeFieldName("a");
+            g.writeStartArray();
+            g.writeNumber(1);
+            g.writeStartArray();
+            g.writeEndArray();
+            g.writeStartObject();
+            g.writeEndObject();
+            g.writeStartArray();
+            g.writeString("x");
+            g.writeStartObject();
+            g.writeStringField("b", "c");
+            g.writeFieldName("d");
+            g.writeStartArray();
+            g.writeBoolean(true);
+            g.writeNull();
+            g.writeEndArray();
+            g.writeEndObject();
+            g.writeEndArray();
+            g.writeEndArray();
+            g.writeFieldName("e");
+            g.writeStartObject();
+            g.writeFieldName("f");
+            g.writeStartObject();
+            g.writeNumberField("g", 2.5);
+            g.writeEndObject();
+            g.writeEndObject();
+            g.writeFieldName("");
+            g.writeStartObject();
+            g.writeEndObject();
+            g.writeEndObject();
+        });
+        _verifyAll("multiple-roots", g -> {
+            g.writeString("");
+            g.writeString("x");
+            g.writeStartObject();
+            g.writeEndObject();
+            g.writeStartArray();
+            g.writeString("a\nb\n\n");
+            g.writeEndArray();
+            g.writeString("last\n\n");
+            g.writeNumber(3);
+        });
+        _verifyAll("binary", g -> {
+            g.writeStartObject();
+            g.writeFieldName("data");
+            g.writeBinary(new byte[100]);
+            g.writeFieldName("small");
+            g.writeBinary(new byte[] { 1, 2, 3 });
+            g.writeEndObject();
+            g.writeBinary(new byte[] { 4, 5 });
+        });
+    }
+
+    @Test
+    public void testIds() throws Exception
+    {
+        _verifyAll("ids", g -> {
+            g.writeStartObject();
+            g.writeObjectId("id1");
+            g.writeFieldName("a");
+            g.writeStartObject();
+            g.writeObjectId("id2");
+            g.writeFieldName("b");
+            g.writeTypeId("Type");
+            g.writeStartArray();
+            g.writeString("x");
+            g.writeEndArray();
+            g.writeFieldName("c");
+            g.writeObjectRef("id2");
+            g.writeFieldName("d");
+            g.writeTypeId("tag:yaml.org,2002:map");
+            g.writeStartObject();
+            g.writeEndObject();
+            g.writeFieldName("e");
+            g.writeObjectId("id3");
+            g.writeString("value");
+            g.writeFieldName("f");
+            g.writeTypeId("!local");
+            g.writeObjectId("id4");
+            g.writeStartArray();
+            g.writeEndArray();
+            g.writeEndObject();
+            g.writeEndObject();
+            g.writeObjectRef("id1");
+        });
+        _verifyAll("alias-key", g -> {
+            g.writeStartArray();
+            g.writeObjectRef("x");
+            g.writeEndArray();
+        });
+        // and invalid anchors/tags
+        _verifyAll("bad-anchor", g -> {
+            g.writeObjectId("a b");
+            g.writeString("x");
+        });
+        _verifyAll("bad-anchor2", g -> {
+            g.writeObjectId("a{b");
+            g.writeStartObject();
+            g.writeEndObject();
+        });
+        _verifyAll("empty-anchor", g -> g.writeObjectRef(""));
+        _verifyAll("empty-tag", g -> {
+            g.writeTypeId("");
+            g.writeStartArray();
+            g.writeEndArray();
+        });
+    }
+
+    @Test
+    public void testStrings() throws Exception
+    {
+        for (String str : STRINGS) {
+            final String desc = "string " + _quote(str);
+            _verifyAll(desc, g -> {
+                g.writeStartObject();
+                g.writeStringField("key", str);
+                g.writeStringField(str, "value");
+                g.writeFieldName(str);
+                g.writeStartArray();
+                g.writeString(str);
+                g.writeStartObject();
+                g.writeStringField(str, str);
+                g.writeEndObject();
+                g.writeEndArray();
+                g.writeEndObject();
+            });
+            _verifyAll("root " + desc, g -> {
+                g.writeString(str);
+                g.writeString(str);
+            });
+        }
+    }
+
+    @Test
+    public void testLongKeys() throws Exception
+    {
+        for (int len : new int[] { 120, 127, 128, 129, 1023, 1024, 1025 }) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < len; ++i) {
+                sb.append((char) ('a' + (i % 26)));
+                if (i % 10 == 9) {
+                    sb.append(' ');
+                }
+            }
+            final String key = sb.toString();
+            _verifyAll("key length " + len, g -> {
+                g.writeStartObject();
+                g.writeStringField(key, "value");
+                g.writeFieldName(key);
+                g.writeStartObject();
+                g.writeStringField(key, key);
+                g.writeEndObject();
+                g.writeEndObject();
+            });
+        }
+    }
+
+    @Test
+    public void testBinaryLengths() throws Exception
+    {
+        final Base64Variant[] variants = new Base64Variant[] {
+                Base64Variants.MIME, Base64Variants.PEM, Base64Variants.MIME_NO_LINEFEEDS,
+                Base64Variants.MODIFIED_FOR_URL
+        };
+        for (DumperOptions.LineBreak lb : DumperOptions.LineBreak.values()) {
+            DumperOptions opts = new DumperOptions();
+            opts.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+            opts.setLineBreak(lb);
+            for (Base64Variant variant : variants) {
+                for (int len : new int[] { 0, 1, 2, 3, 47, 48, 56, 57, 58, 114, 115, 1000, 5700 }) {
+                    final byte[] data = new byte[len];
+                    new Random(len).nextBytes(data);
+                    final String desc = "binary, lb=" + lb + ", variant=" + variant + ", len=" + len;
+                    _verify(desc, opts, 0, g -> {
+                        g.writeStartArray();
+                        g.writeBinary(variant, data, 0, len);
+                        g.writeStartObject();
+                        g.writeFieldName("key");
+                        g.writeBinary(variant, data, 0, len);
+                        g.writeEndObject();
+                        g.writeEndArray();
+                        g.writeBinary(variant, data, 0, len);
+                    });
+                    // and with known length, same for streams
+                    _verify(desc + " (stream)", opts, 0, g -> {
+                        g.writeStartArray();
+                        g.writeBinary(variant, new ByteArrayInputStream(data), len);
+                        g.writeEndArray();
+                    });
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCustomOptions() throws Exception
+    {
+        for (int indent : new int[] { 1, 2, 4, 9, 10 }) {
+            for (int width : new int[] { 2, 20, 80, 200 }) {
+                for (DumperOptions.LineBreak lb : DumperOptions.LineBreak.values()) {
+                    DumperOptions opts = new DumperOptions();
+                    opts.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+                    opts.setIndent(indent);
+                    opts.setWidth(width);
+                    opts.setLineBreak(lb);
+                    opts.setAllowUnicode((indent & 1) == 0);
+                    if (indent > 1) {
+                        opts.setIndicatorIndent(indent - 1);
+                        opts.setIndentWithIndicator((width & 1) == 0);
+                    }
+                    opts.setExplicitStart(width == 20);
+                    opts.setVersion((width == 200) ? DumperOptions.Version.V1_1 : null);
+                    Random rnd = new Random(indent * 1000 + width);
+                    for (int i = 0; i < 10; ++i) {
+                        final long seed = rnd.nextLong();
+                        _verify("options indent=" + indent + ", width=" + width + ", lb=" + lb
+                                + ", seed=" + seed,
+                                opts, 0, g -> _writeRandom(g, new Random(seed)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomContent() throws Exception
+    {
+        Random rnd = new Random(123);
+        for (int i = 0; i < 2000; ++i) {
+            final long seed = rnd.nextLong();
+            int features = rnd.nextInt(1 << OPTIONAL_FEATURES.length);
+            _verify("random seed=" + seed + ", features=" + features,
+                    null, features, g -> _writeRandom(g, new Random(seed)));
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private void _verifyAll(String desc, Content content) throws Exception
+    {
+        for (int features = 0; features < (1 << OPTIONAL_FEATURES.length); features += 7) {
+            _verify(desc + " (features " + features + ")", null, features, content);
+        }
+    }
+
+    private void _verify(String desc, DumperOptions opts, int features, Content content)
+        throws Exception
+    {
+        String exp = _write(opts, features, false, content);
+        String act = _write(opts, features, true, content);
+        if (!exp.equals(act)) {
+            fail("Output differs for " + desc + "; expected:\n" + exp + "\nbut got:\n" + act);
+        }
+    }
+
+    private String _write(DumperOptions opts, int features, boolean direct, Content content)
+        throws Exception
+    {
+        YAMLFactoryBuilder b = YAMLFactory.builder()
+                .configure(YAMLGenerator.Feature.USE_DIRECT_WRITER, direct);
+        for (int i = 0; i < OPTIONAL_FEATURES.length; ++i) {
+            b.configure(OPTIONAL_FEATURES[i], (features & (1 << i)) != 0);
+        }
+        if (opts != null) {
+            b.dumperOptions(opts);
+        }
+        YAMLFactory f = b.build();
+        StringWriter sw = new StringWriter();
+        try {
+            try (JsonGenerator g = f.createGenerator(sw)) {
+                content.write(g);
+            }
+        } catch (Exception e) {
+            sw.write("\nERROR: " + e.getClass().getName() + ": " + e.getMessage());
+        }
+        return sw.toString();
+    }
+
+    private void _writeRandom(JsonGenerator g, Random rnd) throws Exception
+    {
+        int roots = 1 + rnd.nextInt(3);
+        for (int i = 0; i < roots; ++i) {
+            _writeRandomValue(g, rnd, 0);
+        }
+    }
+
+    private void _writeRandomValue(JsonGenerator g, Random rnd, int depth) throws Exception
+    {
+        if (rnd.nextInt(4) == 0) {
+            g.writeObjectId("id" + rnd.nextInt(100));
+        }
+        if (rnd.nextInt(6) == 0) {
+            g.writeTypeId((rnd.nextBoolean() ? "!" : "") + "Type" + rnd.nextInt(10));
+        }
+        int choice = (depth > 4) ? 2 + rnd.nextInt(8) : rnd.nextInt(10);
+        switch (choice) {
+        case 0:
+            {
+                g.writeStartArray();
+                int count = rnd.nextInt(4);
+                for (int i = 0; i < count; ++i) {
+                    _writeRandomValue(g, rnd, depth + 1);
+                }
+                g.writeEndArray();
+            }
+            break;
+        case 1:
+            {
+                g.writeStartObject();
+                int count = rnd.nextInt(4);
+                for (int i = 0; i < count; ++i) {
+                    g.writeFieldName(_randomString(rnd) + i);
+                    _writeRandomValue(g, rnd, depth + 1);
+                }
+                g.writeEndObject();
+            }
+            break;
+        case 2:
+            g.writeNumber(rnd.nextInt());
+            break;
+        case 3:
+            g.writeNumber(rnd.nextDouble());
+            break;
+        case 4:
+            g.writeBoolean(rnd.nextBoolean());
+            break;
+        case 5:
+            g.writeNull();
+            break;
+        case 6:
+            g.writeObjectRef("id" + rnd.nextInt(100));
+            break;
+        case 7:
+            {
+                byte[] data = new byte[rnd.nextInt(80)];
+                rnd.nextBytes(data);
+                g.writeBinary(data);
+            }
+            break;
+        default:
+            g.writeString(_randomString(rnd));
+        }
+    }
+
+    private String _randomString(Random rnd)
+    {
+        StringBuilder sb = new StringBuilder();
+        int parts = rnd.nextInt(4);
+        for (int i = 0; i < parts; ++i) {
+            sb.append(STRINGS[rnd.nextInt(STRINGS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String _quote(String str)
+    {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fasterxml.jackson.dataformat.yaml.ser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.*;
+import com.fasterxml.jackson.dataformat.yaml.util.StringQuotingChecker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableDrivenStringQuotingTest extends ModuleTestBase
+{
+    static class Bean {
+        public String name = "true";
+        public String value = "abc";
+        public String comment = "a #b";
+    }
+
+    private final static String[] SAMPLES = new String[] {
+        "", "a", "~", "~x", "y", "yes", "Yes", "YESS", "no", "null", "NULL", "Null!",
+        "true", "false", "FALSE", "falsey", "on", "Off", "n", "N",
+        "0", "12", "-1", "+x", ".5", "abc", "a:b", "a: b", "a:", ":", "::",
+        "#", "a#b", "a #b", "\t#", "x\t:", "[x]", "a,b", "{}", "a\nb", "\tx", "x\u0001",
+        "\u00e9t\u00e9", "\u00e9#", "\u00e9 #", "key:\u00e9", "key:\u3000",
+    };
+
+    private final static String CHARS = "aynNtT0-+.~#: \t,[]{}\n\u0001\u00e9";
+
+    @Test
+    public void testSameDecisionsAsDefault()
+    {
+        final StringQuotingChecker def = StringQuotingChecker.Default.instance();
+        final StringQuotingChecker table = new StringQuotingChecker.TableDriven();
+        for (String str : SAMPLES) {
+            _verifySame(def, table, str);
+        }
+        Random rnd = new Random(36);
+        for (int i = 0; i < 20000; ++i) {
+            int len = rnd.nextInt(7);
+            StringBuilder sb = new StringBuilder(len);
+            for (int j = 0; j < len; ++j) {
+                sb.append(CHARS.charAt(rnd.nextInt(CHARS.length())));
+            }
+            _verifySame(def, table, sb.toString());
+        }
+    }
+
+    @Test
+    public void testWithMapper() throws Exception
+    {
+        YAMLMapper defaultMapper = YAMLMapper.builder()
+                .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+                .build();
+        YAMLMapper tableMapper = YAMLMapper.builder(YAMLFactory.builder()
+                .stringQuotingChecker(StringQuotingChecker.TableDriven.instance())
+                .build())
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .build();
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String str : SAMPLES) {
+            map.put(str, str);
+        }
+        _verifyWrite(defaultMapper, tableMapper, map);
+        _verifyWrite(defaultMapper, tableMapper, new Bean());
+    }
+
+    private void _verifySame(StringQuotingChecker def, StringQuotingChecker table, String str)
+    {
+        assertEquals(def.needToQuoteName(str), table.needToQuoteName(str),
+                "Name: '"+str+"'");
+        assertEquals(def.needToQuoteValue(str), table.needToQuoteValue(str),
+                "Value: '"+str+"'");
+    }
+
+    private void _verifyWrite(ObjectMapper def, ObjectMapper table, Object value) throws Exception
+    {
+        assertEquals(def.writeValueAsString(value), table.writeValueAsString(value));
+    }
+}
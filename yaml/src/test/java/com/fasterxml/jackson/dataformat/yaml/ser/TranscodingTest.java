@@ -0,0 +1,98 @@
+package com.fasterxml.jackson.dataformat.yaml.ser;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscodingTest extends ModuleTestBase
+{
+    private final YAMLMapper MAPPER = new YAMLMapper();
+
+    private final YAMLFactory MINIMIZING_F = YAMLFactory.builder()
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+            .build();
+
+    private final JsonFactory JSON_F = new JsonFactory();
+
+    @Test
+    public void testPlainScalarHint() throws Exception
+    {
+        YAMLParser p = (YAMLParser) MAPPER.createParser("a: plain\nb: 'quoted'\nc: *x\n");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertFalse(p.isCurrentPlainScalar());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertFalse(p.isCurrentPlainScalar());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertTrue(p.isCurrentPlainScalar());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertFalse(p.isCurrentPlainScalar());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertTrue(p.isCurrentAlias());
+        assertFalse(p.isCurrentPlainScalar());
+        p.close();
+    }
+
+    @Test
+    public void testYAMLToYAML() throws Exception
+    {
+        final String doc = "a: a, b\nb: 'a: b'\nc: 'y'\nd: 'plain'\nlist: [x y, '#z']\n";
+        final String exp = "a: a, b\nb: \"a: b\"\nc: \"y\"\nd: plain\nlist:\n- x y\n- \"#z\"\n";
+        assertEquals(exp, _transcode(doc, MINIMIZING_F));
+
+        // and same with explicit copy
+        StringWriter w = new StringWriter();
+        try (JsonParser p = MAPPER.createParser(doc);
+                YAMLGenerator g = MINIMIZING_F.createGenerator(w)) {
+            g.copyFrom(p);
+        }
+        assertEquals(exp, w.toString());
+    }
+
+    @Test
+    public void testYAMLToJSON() throws Exception
+    {
+        final String doc = "---\na: 1\nb: [true, null, 2.5]\n---\n- text\n";
+        assertEquals("{\"a\":1,\"b\":[true,null,2.5]} [\"text\"]", _transcode(doc, JSON_F));
+    }
+
+    @Test
+    public void testJSONToYAML() throws Exception
+    {
+        final String json = "{\"a\":\"a, b\",\"b\":\"y\",\"c\":[1,\"#x\"]} {\"d\":null}";
+        StringWriter w = new StringWriter();
+        try (JsonParser p = JSON_F.createParser(json);
+                YAMLGenerator g = MINIMIZING_F.createGenerator(w)) {
+            g.copyFrom(p);
+        }
+        String yaml = w.toString();
+        assertEquals("a: \"a, b\"\nb: \"y\"\nc:\n- 1\n- \"#x\"\n---\nd: null\n", yaml);
+
+        // and content survives round-trip
+        ObjectMapper jsonMapper = new ObjectMapper();
+        try (JsonParser p = MAPPER.createParser(yaml)) {
+            JsonNode first = MAPPER.readTree(p);
+            assertEquals(jsonMapper.readTree("{\"a\":\"a, b\",\"b\":\"y\",\"c\":[1,\"#x\"]}"), first);
+            assertEquals(jsonMapper.readTree("{\"d\":null}"), MAPPER.readTree(p));
+        }
+    }
+
+    private String _transcode(String doc, JsonFactory f) throws Exception
+    {
+        StringWriter w = new StringWriter();
+        try (JsonGenerator g = f.createGenerator(w)) {
+            MAPPER.transcode(new StringReader(doc), g);
+        }
+        return w.toString();
+    }
+}